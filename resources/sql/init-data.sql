@@ -0,0 +1,3 @@
+-- Sample data is not kept here. Generate a deterministic dataset of any
+-- size with com.banking.datagen.DataGenerator, e.g.
+--   java -cp target/banking-system-1.0.jar com.banking.datagen.DataGenerator --profile small --seed 42
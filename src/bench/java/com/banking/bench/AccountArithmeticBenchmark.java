@@ -0,0 +1,92 @@
+package com.banking.bench;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banking.model.CurrentAccount;
+import com.banking.model.InsufficientFundsException;
+import com.banking.model.Money;
+import com.banking.model.SavingsAccount;
+
+/**
+ * Balance arithmetic on the account model. Each deposit is paired with a
+ * withdrawal of the same amount so the balance stays put across iterations.
+ * Run with -prof gc to see allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountArithmeticBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("125.35");
+    private static final Money AMOUNT_MONEY = Money.of(AMOUNT);
+
+    private SavingsAccount savings;
+    private CurrentAccount current;
+    private BigDecimal bigDecimalBalance;
+
+    @Setup
+    public void setUp() {
+        savings = new SavingsAccount(1, 1, new BigDecimal("25000.00"), new BigDecimal("0.0250"));
+        current = new CurrentAccount(2, 1, new BigDecimal("150.00"), new BigDecimal("500.00"));
+        bigDecimalBalance = new BigDecimal("25000.00");
+    }
+
+    @Benchmark
+    public boolean savingsDepositWithdraw() throws InsufficientFundsException {
+        savings.deposit(AMOUNT_MONEY);
+        return savings.withdraw(AMOUNT_MONEY);
+    }
+
+    @Benchmark
+    public boolean savingsDepositWithdrawBigDecimal() throws InsufficientFundsException {
+        savings.deposit(AMOUNT);
+        return savings.withdraw(AMOUNT);
+    }
+
+    @Benchmark
+    public boolean currentOverdraftWithdrawDeposit() throws InsufficientFundsException {
+        // Goes into the overdraft and back
+        boolean withdrawn = current.withdraw(AMOUNT_MONEY.plus(AMOUNT_MONEY));
+        current.deposit(AMOUNT_MONEY.plus(AMOUNT_MONEY));
+        return withdrawn;
+    }
+
+    @Benchmark
+    public Money savingsInterest() {
+        return savings.calculateInterestMoney();
+    }
+
+    @Benchmark
+    public Money currentAvailableBalance() {
+        return current.getAvailableBalanceMoney();
+    }
+
+    /**
+     * The same deposit, check and interest steps done directly on BigDecimal,
+     * as the model did before it used Money
+     */
+    @Benchmark
+    public BigDecimal bigDecimalBaseline() {
+        BigDecimal balance = bigDecimalBalance.add(AMOUNT);
+        if (balance.compareTo(AMOUNT) >= 0) {
+            balance = balance.subtract(AMOUNT);
+        }
+        return balance.multiply(new BigDecimal("0.0250")).setScale(2, RoundingMode.HALF_EVEN);
+    }
+}
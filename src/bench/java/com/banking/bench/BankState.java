@@ -0,0 +1,102 @@
+package com.banking.bench;
+
+import java.math.BigDecimal;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.AccountDAO;
+import com.banking.dao.AccountDAOImpl;
+import com.banking.dao.TransactionDAO;
+import com.banking.dao.TransactionDAOImpl;
+import com.banking.datagen.DataGenerator;
+import com.banking.datagen.DatasetProfile;
+import com.banking.model.CurrentAccount;
+import com.banking.model.Customer;
+import com.banking.service.CustomerService;
+import com.banking.service.TransactionService;
+import com.banking.util.DatabaseUtil;
+
+/**
+ * Shared benchmark fixture: a TransactionService over either in-memory DAOs
+ * or a local PostgreSQL database, plus a set of funded accounts.
+ *
+ * The postgres backend uses the connection settings of DatabaseConfig, which
+ * can be pointed at a scratch database with -Dfinvault.db.url and friends.
+ * It creates its own customer and accounts on every trial. With a dataset
+ * other than "none" an empty database is first filled with that synthetic
+ * profile, so queries run against realistic table sizes.
+ */
+@State(Scope.Benchmark)
+public class BankState {
+
+    /**
+     * Balance each account starts with, large enough that withdrawals never
+     * run out during a trial
+     */
+    static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+
+    @Param({"memory"})
+    public String backend;
+
+    @Param({"64"})
+    public int accounts;
+
+    @Param({"none"})
+    public String dataset;
+
+    public TransactionService service;
+    public TransactionDAO transactionDAO;
+    public int[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        AccountDAO accountDAO;
+        int customerId;
+
+        switch (backend) {
+            case "memory":
+                InMemoryAccountDAO memoryAccounts = new InMemoryAccountDAO();
+                accountDAO = memoryAccounts;
+                transactionDAO = new InMemoryTransactionDAO(memoryAccounts);
+                customerId = 1;
+                break;
+            case "postgres":
+                if (!DatabaseUtil.initializeDatabase()) {
+                    throw new IllegalStateException("Could not initialize the benchmark database");
+                }
+                if (!"none".equals(dataset)) {
+                    new DataGenerator(DatasetProfile.valueOf(dataset.toUpperCase()), 42).loadIfEmpty();
+                }
+                accountDAO = new AccountDAOImpl();
+                transactionDAO = new TransactionDAOImpl();
+                Customer customer = new CustomerService().registerCustomer("Bench", "Mark",
+                        "bench-" + System.nanoTime() + "@example.com", null, null);
+                customerId = customer.getCustomerId();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+
+        service = new TransactionService(transactionDAO, accountDAO);
+        accountIds = new int[accounts];
+        for (int i = 0; i < accounts; i++) {
+            CurrentAccount account = new CurrentAccount();
+            account.setCustomerId(customerId);
+            account.setBalance(OPENING_BALANCE);
+            accountIds[i] = accountDAO.createCurrentAccount(account).getAccountId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if ("postgres".equals(backend)) {
+            DatabaseConfig.getInstance().shutdown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.banking.bench;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.banking.dao.AccountDAO;
+import com.banking.dao.PageRequest;
+import com.banking.model.Account;
+import com.banking.model.CurrentAccount;
+import com.banking.model.SavingsAccount;
+
+/**
+ * AccountDAO stand-in that keeps accounts in a map, so service benchmarks
+ * can run without PostgreSQL. Only the methods the benchmarks reach are
+ * implemented.
+ */
+public class InMemoryAccountDAO implements AccountDAO {
+
+    private final Map<Integer, Account> accounts = new ConcurrentHashMap<>();
+    private final AtomicInteger nextAccountId = new AtomicInteger(1);
+
+    @Override
+    public Account createAccount(Account account) {
+        account.setAccountId(nextAccountId.getAndIncrement());
+        accounts.put(account.getAccountId(), account);
+        return account;
+    }
+
+    @Override
+    public Account getAccountById(int accountId) {
+        return accounts.get(accountId);
+    }
+
+    @Override
+    public boolean updateAccount(Account account) {
+        return accounts.replace(account.getAccountId(), account) != null;
+    }
+
+    @Override
+    public boolean deleteAccount(int accountId) {
+        return accounts.remove(accountId) != null;
+    }
+
+    @Override
+    public List<Account> getAccountsByCustomerId(int customerId) {
+        List<Account> result = new ArrayList<>();
+        for (Account account : accounts.values()) {
+            if (account.getCustomerId() == customerId) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Account> getAccountsByCustomerIdAndType(int customerId, String accountType) {
+        List<Account> result = new ArrayList<>();
+        for (Account account : getAccountsByCustomerId(customerId)) {
+            if (accountType.equals(account.getAccountType())) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean updateBalance(int accountId, BigDecimal newBalance) {
+        Account account = accounts.get(accountId);
+        if (account == null) {
+            return false;
+        }
+        account.setBalance(newBalance);
+        return true;
+    }
+
+    @Override
+    public SavingsAccount createSavingsAccount(SavingsAccount savingsAccount) {
+        return (SavingsAccount) createAccount(savingsAccount);
+    }
+
+    @Override
+    public CurrentAccount createCurrentAccount(CurrentAccount currentAccount) {
+        return (CurrentAccount) createAccount(currentAccount);
+    }
+
+    @Override
+    public SavingsAccount getSavingsAccountById(int accountId) {
+        Account account = accounts.get(accountId);
+        return account instanceof SavingsAccount ? (SavingsAccount) account : null;
+    }
+
+    @Override
+    public CurrentAccount getCurrentAccountById(int accountId) {
+        Account account = accounts.get(accountId);
+        return account instanceof CurrentAccount ? (CurrentAccount) account : null;
+    }
+
+    @Override
+    public boolean updateAccountStatus(int accountId, String newStatus) {
+        Account account = accounts.get(accountId);
+        if (account == null) {
+            return false;
+        }
+        account.setStatus(newStatus);
+        return true;
+    }
+
+    @Override
+    public void setBalanceStripes(int accountId, int stripes) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public int countAccounts(PageRequest request) {
+        return accounts.size();
+    }
+
+    @Override
+    public BigDecimal getTotalBalance(PageRequest request) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Account> getAccountsPage(PageRequest request, Account after, int limit) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public Account getAccountAtOffset(PageRequest request, int offset) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Account> getAccountsAfterId(int accountId) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public Map<Integer, Account> getAccountsByIds(Collection<Integer> accountIds) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+}
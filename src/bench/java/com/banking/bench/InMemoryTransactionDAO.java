@@ -0,0 +1,221 @@
+package com.banking.bench;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.banking.dao.PageRequest;
+import com.banking.dao.TransactionDAO;
+import com.banking.model.Account;
+import com.banking.model.Money;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionResult;
+
+/**
+ * TransactionDAO stand-in that applies postings to InMemoryAccountDAO
+ * accounts under per-account locks.
+ *
+ * Posted transactions are returned but not kept, so long benchmark runs do
+ * not grow the heap; history comes only from createTransaction. Only the
+ * methods the benchmarks reach are implemented.
+ */
+public class InMemoryTransactionDAO implements TransactionDAO {
+
+    private final InMemoryAccountDAO accountDAO;
+    private final Map<Integer, List<Transaction>> history = new ConcurrentHashMap<>();
+    private final AtomicLong nextTransactionId = new AtomicLong(1);
+
+    /**
+     * Constructor
+     *
+     * @param accountDAO Accounts the postings apply to
+     */
+    public InMemoryTransactionDAO(InMemoryAccountDAO accountDAO) {
+        this.accountDAO = accountDAO;
+    }
+
+    @Override
+    public boolean isValidatedInDatabase() {
+        return false;
+    }
+
+    @Override
+    public Transaction createTransaction(Transaction transaction) {
+        transaction.setTransactionId(nextTransactionId.getAndIncrement());
+        history.computeIfAbsent(transaction.getAccountId(), id -> Collections.synchronizedList(new ArrayList<>()))
+                .add(transaction);
+        return transaction;
+    }
+
+    @Override
+    public Transaction getTransactionById(long transactionId) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Transaction> getTransactionsByAccountId(int accountId) {
+        List<Transaction> transactions = history.get(accountId);
+        if (transactions == null) {
+            return new ArrayList<>();
+        }
+        List<Transaction> result;
+        synchronized (transactions) {
+            result = new ArrayList<>(transactions);
+        }
+        // Newest first, like the ORDER BY transaction_date DESC query
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public List<Transaction> getAccountHistoryPage(int accountId, long beforeTransactionId, int limit) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Transaction> getTransactionsByAccountIdAndDateRange(int accountId, LocalDateTime startDate,
+            LocalDateTime endDate) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Transaction> getTransactionsByAccountIdAndType(int accountId, String transactionType) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Transaction> getTransfersBetweenAccounts(int accountId1, int accountId2) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public Transaction createDepositTransaction(int accountId, BigDecimal amount, String description)
+            throws Exception {
+        return postDeposit(accountId, amount, description).getTransaction();
+    }
+
+    @Override
+    public Transaction createWithdrawalTransaction(int accountId, BigDecimal amount, String description)
+            throws Exception {
+        return postWithdrawal(accountId, amount, description).getTransaction();
+    }
+
+    @Override
+    public Transaction[] createTransferTransaction(int fromAccountId, int toAccountId, BigDecimal amount,
+            String description) throws Exception {
+        return postTransfer(fromAccountId, toAccountId, amount, description)
+                .getTransactions().toArray(new Transaction[0]);
+    }
+
+    @Override
+    public TransactionResult postDeposit(int accountId, BigDecimal amount, String description) throws Exception {
+        Account account = requireAccount(accountId);
+        Money newBalance;
+        synchronized (account) {
+            if (!account.deposit(amount)) {
+                throw new Exception("Cannot deposit to a non-active account");
+            }
+            newBalance = account.getBalanceMoney();
+        }
+        Transaction transaction = new Transaction(accountId, "DEPOSIT", amount, description);
+        transaction.setTransactionId(nextTransactionId.getAndIncrement());
+        return TransactionResult.of(transaction, newBalance.toBigDecimal());
+    }
+
+    @Override
+    public TransactionResult postWithdrawal(int accountId, BigDecimal amount, String description) throws Exception {
+        Account account = requireAccount(accountId);
+        Money newBalance;
+        synchronized (account) {
+            if (!account.withdraw(amount)) {
+                throw new Exception("Cannot withdraw from a non-active account");
+            }
+            newBalance = account.getBalanceMoney();
+        }
+        Transaction transaction = new Transaction(accountId, "WITHDRAWAL", amount, description);
+        transaction.setTransactionId(nextTransactionId.getAndIncrement());
+        return TransactionResult.of(transaction, newBalance.toBigDecimal());
+    }
+
+    @Override
+    public TransactionResult postTransfer(int fromAccountId, int toAccountId, BigDecimal amount,
+            String description) throws Exception {
+        Account fromAccount = requireAccount(fromAccountId);
+        Account toAccount = requireAccount(toAccountId);
+
+        // Lock in ID order, like fv_transfer, so opposite transfers cannot deadlock
+        Account first = fromAccountId < toAccountId ? fromAccount : toAccount;
+        Account second = first == fromAccount ? toAccount : fromAccount;
+        Map<Integer, BigDecimal> newBalances = new LinkedHashMap<>();
+        synchronized (first) {
+            synchronized (second) {
+                if (!"ACTIVE".equals(toAccount.getStatus()) || !fromAccount.withdraw(amount)) {
+                    throw new Exception("Cannot transfer between non-active accounts");
+                }
+                toAccount.deposit(amount);
+                newBalances.put(fromAccountId, fromAccount.getBalance());
+                newBalances.put(toAccountId, toAccount.getBalance());
+            }
+        }
+
+        Transaction[] pair = Transaction.createTransferPair(fromAccountId, toAccountId, amount, description);
+        pair[0].setTransactionId(nextTransactionId.getAndIncrement());
+        pair[1].setTransactionId(nextTransactionId.getAndIncrement());
+        return new TransactionResult(Arrays.asList(pair), newBalances);
+    }
+
+    @Override
+    public boolean deleteTransaction(long transactionId) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public int countTransactions(PageRequest request) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Transaction> getTransactionsPage(PageRequest request, Transaction after, int limit) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public Transaction getTransactionAtOffset(PageRequest request, int offset) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public Map<String, BigDecimal> getTransactionTotalsByType(PageRequest request) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Transaction> getTransactionsAfterId(long transactionId) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public List<Transaction> getRecentTransactions(int limit) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    @Override
+    public Map<String, Integer> getTransactionCountsByTypeSince(LocalDateTime since, long maxTransactionId) {
+        throw new UnsupportedOperationException("Not used by the benchmarks");
+    }
+
+    private Account requireAccount(int accountId) throws Exception {
+        Account account = accountDAO.getAccountById(accountId);
+        if (account == null) {
+            throw new Exception("Account not found: " + accountId);
+        }
+        return account;
+    }
+}
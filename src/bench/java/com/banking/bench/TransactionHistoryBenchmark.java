@@ -0,0 +1,59 @@
+package com.banking.bench;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banking.model.Transaction;
+
+/**
+ * TransactionService.getTransactionsByAccountId for accounts with growing
+ * histories, to show how the full-history read scales.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+
+    /**
+     * Account whose history is seeded with historySize rows
+     */
+    @State(Scope.Benchmark)
+    public static class History {
+
+        @Param({"10", "1000", "10000"})
+        public int historySize;
+
+        public int accountId;
+
+        @Setup(Level.Trial)
+        public void setUp(BankState bank) throws Exception {
+            accountId = bank.accountIds[0];
+            BigDecimal amount = new BigDecimal("42.00");
+            for (int i = 0; i < historySize; i++) {
+                bank.transactionDAO.createTransaction(
+                        new Transaction(accountId, i % 2 == 0 ? "DEPOSIT" : "WITHDRAWAL", amount, "History row " + i));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionsByAccountId(BankState bank, History history) throws Exception {
+        return bank.service.getTransactionsByAccountId(history.accountId);
+    }
+}
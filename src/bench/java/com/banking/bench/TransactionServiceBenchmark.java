@@ -0,0 +1,81 @@
+package com.banking.bench;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banking.model.TransactionResult;
+
+/**
+ * Deposits, withdrawals and transfers through TransactionService, one thread
+ * at a time and with eight threads spread over the fixture's accounts.
+ *
+ * Pick the backend with -p backend=memory,postgres. Fewer accounts
+ * (-p accounts=4) raises contention on the same rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResult deposit(BankState bank) throws Exception {
+        return bank.service.performDeposit(pick(bank), AMOUNT, "Benchmark deposit");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResult withdraw(BankState bank) throws Exception {
+        return bank.service.performWithdrawal(pick(bank), AMOUNT, "Benchmark withdrawal");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResult transfer(BankState bank) throws Exception {
+        return transferBetweenRandomAccounts(bank);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResult concurrentDeposit(BankState bank) throws Exception {
+        return bank.service.performDeposit(pick(bank), AMOUNT, "Benchmark deposit");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResult concurrentWithdraw(BankState bank) throws Exception {
+        return bank.service.performWithdrawal(pick(bank), AMOUNT, "Benchmark withdrawal");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResult concurrentTransfer(BankState bank) throws Exception {
+        return transferBetweenRandomAccounts(bank);
+    }
+
+    private static int pick(BankState bank) {
+        return bank.accountIds[ThreadLocalRandom.current().nextInt(bank.accountIds.length)];
+    }
+
+    private static TransactionResult transferBetweenRandomAccounts(BankState bank) throws Exception {
+        int count = bank.accountIds.length;
+        int from = ThreadLocalRandom.current().nextInt(count);
+        int to = (from + 1 + ThreadLocalRandom.current().nextInt(count - 1)) % count;
+        return bank.service.performTransfer(bank.accountIds[from], bank.accountIds[to], AMOUNT,
+                "Benchmark transfer");
+    }
+}
@@ -0,0 +1,95 @@
+package com.banking.dao;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banking.model.Transaction;
+
+/**
+ * Cost of turning one transactions row into a Transaction. The row comes
+ * from an in-memory ResultSet stub, so the numbers exclude the driver's own
+ * decoding and are meant for comparing runs, not absolute cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionMappingBenchmark {
+
+    private ResultSet transferRow;
+    private ResultSet depositRow;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> transfer = new HashMap<>();
+        transfer.put("transaction_id", 123456789L);
+        transfer.put("account_id", 4211);
+        transfer.put("transaction_type", "TRANSFER_OUT");
+        transfer.put("amount", "1234.56");
+        transfer.put("transaction_date", Timestamp.valueOf(LocalDateTime.of(2024, 3, 14, 15, 9, 26)));
+        transfer.put("description", "Transfer to account #4212: Rent");
+        transfer.put("recipient_account_id", 4212);
+        transferRow = row(transfer);
+
+        Map<String, Object> deposit = new HashMap<>(transfer);
+        deposit.put("transaction_type", "DEPOSIT");
+        deposit.put("description", "Salary");
+        deposit.put("recipient_account_id", null);
+        depositRow = row(deposit);
+    }
+
+    @Benchmark
+    public Transaction mapTransfer() throws Exception {
+        return TransactionDAOImpl.mapTransactionFromResultSet(transferRow);
+    }
+
+    @Benchmark
+    public Transaction mapDeposit() throws Exception {
+        return TransactionDAOImpl.mapTransactionFromResultSet(depositRow);
+    }
+
+    /**
+     * Build a single-row ResultSet that answers the typed getters by column
+     * label and tracks wasNull like a driver would
+     */
+    private static ResultSet row(Map<String, Object> values) {
+        boolean[] lastNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if ("wasNull".equals(method.getName())) {
+                        return lastNull[0];
+                    }
+                    Object value = values.get((String) args[0]);
+                    lastNull[0] = value == null;
+                    switch (method.getName()) {
+                        case "getLong":
+                            return value == null ? 0L : ((Number) value).longValue();
+                        case "getInt":
+                            return value == null ? 0 : ((Number) value).intValue();
+                        case "getString":
+                        case "getTimestamp":
+                            return value;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,93 @@
+package com.banking;
+
+import com.banking.analytics.ColumnarTransactionStore;
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.GroupCommitExecutor;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.purge.Purger;
+import com.banking.util.DatabaseUtil;
+
+/**
+ * Starts and stops the database and the shared background services for
+ * every entry point: the GUI, the API and teller servers and the load
+ * generator. Services are stopped in reverse order of their dependencies,
+ * and the connection pool last.
+ */
+public class ApplicationLifecycle {
+
+    private ApplicationLifecycle() {
+    }
+
+    /**
+     * Initialize the database and start the ledger engine, metrics, columnar
+     * store and purger as configured by their system properties
+     *
+     * @return false if the database could not be initialized
+     */
+    public static boolean start() {
+        if (!DatabaseUtil.initializeDatabase()) {
+            return false;
+        }
+
+        // Optional in-memory ledger engine for high-frequency posting
+        try {
+            LedgerEngine.startIfEnabled();
+        } catch (Exception e) {
+            System.err.println("Failed to start ledger engine, posting directly to the database: "
+                    + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // DAO metrics over JMX, and snapshot files if a directory is configured
+        if (MetricsRegistry.isEnabled()) {
+            MetricsRegistry.getInstance();
+        }
+
+        // Optional columnar copy of the transactions table for analytics
+        ColumnarTransactionStore.shared();
+
+        // Removes the rows of deleted customers and accounts in the background
+        Purger.shared();
+        return true;
+    }
+
+    /**
+     * Stop everything start() started, log the final statistics and close
+     * the connection pool
+     */
+    public static void stop() {
+        LedgerEngine engine = LedgerEngine.current();
+        if (engine != null) {
+            engine.shutdown();
+        }
+        GroupCommitExecutor groupCommit = GroupCommitExecutor.sharedIfStarted();
+        if (groupCommit != null) {
+            try {
+                groupCommit.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            System.out.println("Group commit: " + groupCommit.getStats());
+        }
+        ColumnarTransactionStore analytics = ColumnarTransactionStore.sharedIfStarted();
+        if (analytics != null) {
+            analytics.shutdown();
+        }
+        Purger purger = Purger.sharedIfStarted();
+        if (purger != null) {
+            purger.shutdown();
+        }
+        if (MetricsRegistry.isEnabled()) {
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            metrics.shutdown();
+            for (MethodMetrics method : metrics.getMethods().values()) {
+                System.out.println("DAO " + method);
+            }
+        }
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        System.out.println("Database pool: " + dbConfig.getPoolStats());
+        dbConfig.shutdown();
+    }
+}
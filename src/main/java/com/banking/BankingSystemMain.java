@@ -1,8 +1,9 @@
 package com.banking;
 
+import com.banking.gui.EdtProbe;
 import com.banking.gui.LoginPanel;
 import com.banking.gui.MainFrame;
-import com.banking.util.DatabaseUtil;
+import com.banking.gui.ThreadCheckingRepaintManager;
 
 import javax.swing.*;
 
@@ -11,17 +12,23 @@ public class BankingSystemMain {
     public static void main(String[] args) {
         System.out.println("Banking System Initializing...");
 
-        // Initialize database
-        boolean dbInitialized = DatabaseUtil.initializeDatabase();
-        if (!dbInitialized) {
+        // Initialize database and background services
+        if (!ApplicationLifecycle.start()) {
             System.err.println("Failed to initialize database. Exiting...");
             System.exit(1);
         }
 
         System.out.println("Database initialized successfully.");
 
+        Runtime.getRuntime().addShutdownHook(new Thread(ApplicationLifecycle::stop));
+
+        // Feed EDT responsiveness into the metrics for the performance panel,
+        // and log the EDT's stack when it is blocked
+        EdtProbe.start();
+
         // Start with login panel
         SwingUtilities.invokeLater(() -> {
+            ThreadCheckingRepaintManager.install();
             JFrame loginFrame = new JFrame();
             loginFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
             loginFrame.setSize(1400, 800);
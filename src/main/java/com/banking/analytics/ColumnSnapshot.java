@@ -0,0 +1,71 @@
+package com.banking.analytics;
+
+/**
+ * Immutable view of the first rows of the store's column arrays.
+ *
+ * The loader only writes past the published size, or into fresh arrays when
+ * it grows them, so a snapshot never sees a row change under it.
+ */
+final class ColumnSnapshot {
+
+    static final ColumnSnapshot EMPTY = new ColumnSnapshot(new long[0], new int[0], new short[0], new long[0],
+            new long[0], new int[0], 0, 0, 0, Long.MAX_VALUE, Long.MIN_VALUE, new StringDictionary(),
+            new StringDictionary());
+
+    final long[] transactionIds;
+    final int[] accountIds;
+    final short[] typeCodes;
+    final long[] amounts;
+    final long[] epochSeconds;
+    final int[] descriptionCodes;
+    final int size;
+    final int typeCount;
+    final int maxAccountId;
+    final long minEpochSecond;
+    final long maxEpochSecond;
+    final StringDictionary types;
+    final StringDictionary descriptions;
+
+    ColumnSnapshot(long[] transactionIds, int[] accountIds, short[] typeCodes, long[] amounts, long[] epochSeconds,
+            int[] descriptionCodes, int size, int typeCount, int maxAccountId, long minEpochSecond,
+            long maxEpochSecond, StringDictionary types, StringDictionary descriptions) {
+        this.transactionIds = transactionIds;
+        this.accountIds = accountIds;
+        this.typeCodes = typeCodes;
+        this.amounts = amounts;
+        this.epochSeconds = epochSeconds;
+        this.descriptionCodes = descriptionCodes;
+        this.size = size;
+        this.typeCount = typeCount;
+        this.maxAccountId = maxAccountId;
+        this.minEpochSecond = minEpochSecond;
+        this.maxEpochSecond = maxEpochSecond;
+        this.types = types;
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * Get the number of rows with a transaction ID not above a bound. Rows
+     * are loaded in ID order, so this is a binary search.
+     *
+     * @param maxTransactionId Highest transaction ID to include
+     * @return Row count
+     */
+    int rowsUpTo(long maxTransactionId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactionIds[mid] <= maxTransactionId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    long getLastTransactionId() {
+        return size == 0 ? 0 : transactionIds[size - 1];
+    }
+}
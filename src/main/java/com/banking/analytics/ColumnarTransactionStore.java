@@ -0,0 +1,609 @@
+package com.banking.analytics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.DashboardDAO;
+import com.banking.dao.DashboardDAOImpl;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.model.Money;
+
+/**
+ * Column-oriented in-memory copy of the transactions table for reports and
+ * dashboard aggregations.
+ *
+ * Each column is a primitive array: transaction ID, account ID, a dictionary
+ * code for the type, the amount in cents, the timestamp in epoch seconds and
+ * a dictionary code for the description. A million rows take about 34 MB,
+ * plus the distinct descriptions, instead of several hundred MB of
+ * Transaction objects.
+ *
+ * The first refresh streams the whole table through a server-side cursor.
+ * Later refreshes only read rows past the last transaction ID, and the
+ * polling thread triggers one when the dashboard high-water mark moves.
+ * Queries run against an immutable snapshot, so they never block loading.
+ *
+ * Transaction IDs do not commit in order: concurrent postings commit out of
+ * sequence order, and the ledger engine hands out IDs in blocks per
+ * partition. A late row is still dated when it was posted, so every
+ * reconcile interval the store compares the rows dated within the lookback
+ * window, as row count and ID sum per range of BUCKET_SIZE IDs, and reloads
+ * the ranges that differ. Everything up to getReconciledTransactionId() has
+ * been checked this way.
+ *
+ * Rows the archiver and the purger remove are dropped from their own
+ * records: everything before the published archive horizon, and the rows of
+ * accounts whose purge has finished.
+ */
+public class ColumnarTransactionStore {
+
+    /**
+     * System property that loads the shared store and keeps it current
+     */
+    public static final String ENABLED_PROPERTY = "finvault.analytics.columnar";
+
+    /**
+     * System property for how often to check for new transactions, in
+     * milliseconds
+     */
+    public static final String REFRESH_PROPERTY = "finvault.analytics.refreshMillis";
+
+    /**
+     * System property for how often to compare the store with the table and
+     * reload ranges that changed, in seconds
+     */
+    public static final String RECONCILE_PROPERTY = "finvault.analytics.reconcileSeconds";
+
+    /**
+     * System property for how far back, in seconds of transaction date, a
+     * late commit can land
+     */
+    public static final String LOOKBACK_PROPERTY = "finvault.analytics.reconcileLookbackSeconds";
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long BUCKET_SIZE = 10_000;
+
+    // Timestamps are stored without a zone, EPOCH reads them as UTC wall time
+    private static final String LOAD_SQL = "SELECT transaction_id, account_id, transaction_type, amount, "
+            + "EXTRACT(EPOCH FROM transaction_date)::BIGINT AS epoch_second, description "
+            + "FROM transactions WHERE transaction_id > ? ORDER BY transaction_id";
+    private static final String RANGE_SQL = "SELECT transaction_id, account_id, transaction_type, amount, "
+            + "EXTRACT(EPOCH FROM transaction_date)::BIGINT AS epoch_second, description "
+            + "FROM transactions WHERE transaction_id >= ? AND transaction_id < ? ORDER BY transaction_id";
+    // LOCALTIMESTAMP is fixed for the transaction, so both queries share one cutoff
+    private static final String CUTOFF_SQL =
+            "SELECT EXTRACT(EPOCH FROM LOCALTIMESTAMP - ? * INTERVAL '1 second')::BIGINT";
+    private static final String BUCKETS_SQL = "SELECT transaction_id / " + BUCKET_SIZE + " AS bucket, COUNT(*), "
+            + "SUM(transaction_id) FROM transactions "
+            + "WHERE transaction_date >= LOCALTIMESTAMP - ? * INTERVAL '1 second' GROUP BY 1";
+    private static final String HORIZON_SQL = "SELECT EXTRACT(EPOCH FROM archived_before)::BIGINT "
+            + "FROM transaction_archive_state WHERE state_id = 1";
+    private static final String PURGED_SQL = "SELECT entity_id, finished_at FROM purge_queue "
+            + "WHERE entity_type = 'ACCOUNT' AND finished_at >= ?";
+
+    private static ColumnarTransactionStore shared;
+
+    private final DatabaseConfig dbConfig;
+    private final DashboardDAO dashboardDAO;
+    private final long reconcileNanos;
+    private final long lookbackSeconds;
+    private final StringDictionary types = new StringDictionary();
+    private final StringDictionary descriptions = new StringDictionary();
+    private volatile ColumnSnapshot snapshot = ColumnSnapshot.EMPTY;
+    private volatile boolean loaded;
+    private volatile ScheduledExecutorService poller;
+
+    // Loader state, guarded by this
+    private long[] transactionIds = new long[INITIAL_CAPACITY];
+    private int[] accountIds = new int[INITIAL_CAPACITY];
+    private short[] typeCodes = new short[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private long[] epochSeconds = new long[INITIAL_CAPACITY];
+    private int[] descriptionCodes = new int[INITIAL_CAPACITY];
+    private int size;
+    private int maxAccountId;
+    private long minEpochSecond = Long.MAX_VALUE;
+    private long maxEpochSecond = Long.MIN_VALUE;
+    private long lastReconcile = System.nanoTime();
+    private long bucketsReloaded;
+    private long horizonEpochSecond = Long.MIN_VALUE;
+    private Timestamp purgedSince = new Timestamp(0);
+    private volatile long reconciledTransactionId;
+
+    /**
+     * Constructor, the store is empty until the first refresh
+     *
+     * @param dbConfig Database configuration
+     */
+    public ColumnarTransactionStore(DatabaseConfig dbConfig) {
+        this.dbConfig = dbConfig;
+        this.dashboardDAO = new DashboardDAOImpl();
+        this.reconcileNanos = TimeUnit.SECONDS.toNanos(Long.getLong(RECONCILE_PROPERTY, 10));
+        this.lookbackSeconds = Long.getLong(LOOKBACK_PROPERTY, 300);
+    }
+
+    /**
+     * Get the store shared by the dashboard and reports, loading it in the
+     * background on first use
+     *
+     * @return Shared store, or null if the finvault.analytics.columnar system
+     * property is not true
+     */
+    public static synchronized ColumnarTransactionStore shared() {
+        if (shared == null && Boolean.getBoolean(ENABLED_PROPERTY)) {
+            shared = new ColumnarTransactionStore(DatabaseConfig.getInstance());
+            shared.startPolling(Long.getLong(REFRESH_PROPERTY, 2000));
+            if (MetricsRegistry.isEnabled()) {
+                ColumnarTransactionStore store = shared;
+                MetricsRegistry registry = MetricsRegistry.getInstance();
+                registry.registerGauge("analytics.rows", store::getRowCount);
+                registry.registerGauge("analytics.lastTransactionId", store::getLastTransactionId);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Get the shared store if it has been created
+     *
+     * @return Shared store, or null
+     */
+    public static synchronized ColumnarTransactionStore sharedIfStarted() {
+        return shared;
+    }
+
+    /**
+     * Load transactions recorded since the last refresh. The first call
+     * loads the whole table.
+     *
+     * @return Number of rows added
+     * @throws Exception if the database read fails; rows read before the
+     * failure are kept
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    public synchronized int refresh() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        int before = size;
+
+        try {
+            conn = dbConfig.getConnection();
+            // The driver only streams with a fetch size inside a transaction
+            conn.setAutoCommit(false);
+
+            pstmt = conn.prepareStatement(LOAD_SQL);
+            pstmt.setFetchSize(FETCH_SIZE);
+            pstmt.setLong(1, snapshot.getLastTransactionId());
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                append(rs.getLong(1), rs.getInt(2), rs.getString(3), Money.parse(rs.getString(4)).getMinorUnits(),
+                        rs.getLong(5), rs.getString(6));
+                if ((size - before) % FETCH_SIZE == 0) {
+                    publish();
+                }
+            }
+            conn.commit();
+        } finally {
+            publish();
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (Exception e) {
+                    System.err.println("Error resetting auto-commit");
+                }
+                dbConfig.closeConnection(conn);
+            }
+        }
+
+        loaded = true;
+        return size - before;
+    }
+
+    /**
+     * Compare the rows dated within the lookback window with the table,
+     * reload the ID ranges whose row count or ID sum differ, and drop the
+     * rows archived or purged since the last call
+     *
+     * @return Number of ranges reloaded
+     * @throws Exception if the database read fails; the store is unchanged
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    public synchronized int reconcile() throws Exception {
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            // One snapshot, so the ranges are compared and reloaded as of the same moment
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+            long cutoff;
+            try (PreparedStatement pstmt = conn.prepareStatement(CUTOFF_SQL)) {
+                pstmt.setLong(1, lookbackSeconds);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    cutoff = rs.getLong(1);
+                }
+            }
+
+            // Only the recent rows are compared; the map holds their ranges only
+            Map<Long, long[]> stored = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                if (epochSeconds[i] >= cutoff) {
+                    long[] totals = stored.computeIfAbsent(transactionIds[i] / BUCKET_SIZE, bucket -> new long[2]);
+                    totals[0]++;
+                    totals[1] += transactionIds[i];
+                }
+            }
+
+            TreeMap<Long, Rows> changed = new TreeMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(BUCKETS_SQL)) {
+                pstmt.setLong(1, lookbackSeconds);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        long bucket = rs.getLong(1);
+                        long[] totals = stored.remove(bucket);
+                        if (totals == null || totals[0] != rs.getLong(2) || totals[1] != rs.getLong(3)) {
+                            changed.put(bucket, new Rows());
+                        }
+                    }
+                }
+            }
+            // Recent rows the table no longer has
+            for (Long bucket : stored.keySet()) {
+                changed.put(bucket, new Rows());
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(RANGE_SQL)) {
+                for (Map.Entry<Long, Rows> entry : changed.entrySet()) {
+                    pstmt.setLong(1, entry.getKey() * BUCKET_SIZE);
+                    pstmt.setLong(2, (entry.getKey() + 1) * BUCKET_SIZE);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            entry.getValue().add(rs.getLong(1), rs.getInt(2), encodeType(rs.getString(3)),
+                                    Money.parse(rs.getString(4)).getMinorUnits(), rs.getLong(5),
+                                    descriptions.encode(rs.getString(6)));
+                        }
+                    }
+                }
+            }
+
+            long horizon = horizonEpochSecond;
+            try (PreparedStatement pstmt = conn.prepareStatement(HORIZON_SQL);
+                    ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    long published = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        horizon = Math.max(horizon, published);
+                    }
+                }
+            }
+
+            boolean[] purged = new boolean[maxAccountId + 1];
+            boolean anyPurged = false;
+            Timestamp since = purgedSince;
+            try (PreparedStatement pstmt = conn.prepareStatement(PURGED_SQL)) {
+                pstmt.setTimestamp(1, purgedSince);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int accountId = rs.getInt(1);
+                        if (accountId < purged.length) {
+                            purged[accountId] = true;
+                            anyPurged = true;
+                        }
+                        Timestamp finished = rs.getTimestamp(2);
+                        if (finished.after(since)) {
+                            since = finished;
+                        }
+                    }
+                }
+            }
+            conn.commit();
+
+            if (!changed.isEmpty() || anyPurged || horizon != horizonEpochSecond) {
+                rebuild(changed, horizon, anyPurged ? purged : null);
+                publish();
+                bucketsReloaded += changed.size();
+            }
+            horizonEpochSecond = horizon;
+            // Equal finish times are read again next time, dropping rows twice is harmless
+            purgedSince = since;
+            reconciledTransactionId = snapshot.getLastTransactionId();
+            return changed.size();
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    conn.setAutoCommit(true);
+                } catch (Exception e) {
+                    System.err.println("Error resetting auto-commit");
+                }
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Refresh in the background whenever the dashboard high-water mark shows
+     * new transactions
+     *
+     * @param intervalMillis Time between checks
+     */
+    public synchronized void startPolling(long intervalMillis) {
+        if (poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "columnar-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the polling thread
+     */
+    public void shutdown() {
+        ScheduledExecutorService current = poller;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Start a query over the rows loaded so far
+     *
+     * @return Query matching every row
+     */
+    public TransactionQuery query() {
+        return new TransactionQuery(snapshot);
+    }
+
+    /**
+     * Check whether the initial load has finished
+     *
+     * @return true once the first refresh has completed
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Get the highest transaction ID loaded
+     *
+     * @return Transaction ID, 0 if the store is empty
+     */
+    public long getLastTransactionId() {
+        return snapshot.getLastTransactionId();
+    }
+
+    /**
+     * Get the highest transaction ID up to which the store was last
+     * reconciled with the table. Rows with greater IDs have been appended
+     * since, and rows below it may still be missing, so exact answers must
+     * not go past this ID.
+     *
+     * @return Transaction ID, 0 before the first reconcile
+     */
+    public long getReconciledTransactionId() {
+        return reconciledTransactionId;
+    }
+
+    /**
+     * Get the number of rows loaded
+     *
+     * @return Row count
+     */
+    public int getRowCount() {
+        return snapshot.size;
+    }
+
+    /**
+     * Get the number of ID ranges reconcile() has reloaded so far
+     *
+     * @return Range count
+     */
+    public synchronized long getBucketsReloaded() {
+        return bucketsReloaded;
+    }
+
+    /**
+     * Get the number of distinct descriptions in the dictionary
+     *
+     * @return Dictionary size
+     */
+    public int getDistinctDescriptions() {
+        return snapshot.descriptions.size();
+    }
+
+    private void poll() {
+        try {
+            if (!loaded || dashboardDAO.getHighWaterMark().getMaxTransactionId() > getLastTransactionId()) {
+                refresh();
+            }
+            if (System.nanoTime() - lastReconcile >= reconcileNanos) {
+                reconcile();
+                lastReconcile = System.nanoTime();
+            }
+        } catch (Exception e) {
+            System.err.println("Error refreshing columnar transaction store: " + e.getMessage());
+        }
+    }
+
+    private void append(long transactionId, int accountId, String type, long amount, long epochSecond,
+            String description) {
+        if (size == transactionIds.length) {
+            // Grow into new arrays; published snapshots keep the old ones
+            int capacity = size + (size >> 1);
+            transactionIds = Arrays.copyOf(transactionIds, capacity);
+            accountIds = Arrays.copyOf(accountIds, capacity);
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+        }
+
+        transactionIds[size] = transactionId;
+        accountIds[size] = accountId;
+        typeCodes[size] = encodeType(type);
+        amounts[size] = amount;
+        epochSeconds[size] = epochSecond;
+        descriptionCodes[size] = descriptions.encode(description);
+        size++;
+
+        maxAccountId = Math.max(maxAccountId, accountId);
+        minEpochSecond = Math.min(minEpochSecond, epochSecond);
+        maxEpochSecond = Math.max(maxEpochSecond, epochSecond);
+    }
+
+    private short encodeType(String type) {
+        int typeCode = types.encode(type);
+        if (typeCode > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many transaction types");
+        }
+        return (short) typeCode;
+    }
+
+    /**
+     * Replace the rows of the changed ranges and drop archived and purged
+     * rows, writing into fresh arrays so published snapshots keep seeing the
+     * old rows
+     *
+     * @param changed Reloaded rows by ID range
+     * @param horizon Rows dated before this epoch second are archived
+     * @param purged Purged account IDs, or null if there are none
+     */
+    private void rebuild(TreeMap<Long, Rows> changed, long horizon, boolean[] purged) {
+        int capacity = size;
+        for (Rows rows : changed.values()) {
+            capacity += rows.size;
+        }
+        Rows kept = new Rows(Math.max(capacity, INITIAL_CAPACITY));
+
+        // Both the rows and each range are in ID order, so this is a merge
+        int from = 0;
+        for (Map.Entry<Long, Rows> entry : changed.entrySet()) {
+            long start = entry.getKey() * BUCKET_SIZE;
+            long end = start + BUCKET_SIZE;
+            for (; from < size && transactionIds[from] < start; from++) {
+                keep(kept, accountIds[from], epochSeconds[from], horizon, purged, transactionIds[from],
+                        typeCodes[from], amounts[from], descriptionCodes[from]);
+            }
+            while (from < size && transactionIds[from] < end) {
+                from++;
+            }
+            Rows rows = entry.getValue();
+            for (int i = 0; i < rows.size; i++) {
+                keep(kept, rows.accountIds[i], rows.epochSeconds[i], horizon, purged, rows.transactionIds[i],
+                        rows.typeCodes[i], rows.amounts[i], rows.descriptionCodes[i]);
+            }
+        }
+        for (; from < size; from++) {
+            keep(kept, accountIds[from], epochSeconds[from], horizon, purged, transactionIds[from],
+                    typeCodes[from], amounts[from], descriptionCodes[from]);
+        }
+
+        transactionIds = kept.transactionIds;
+        accountIds = kept.accountIds;
+        typeCodes = kept.typeCodes;
+        amounts = kept.amounts;
+        epochSeconds = kept.epochSeconds;
+        descriptionCodes = kept.descriptionCodes;
+        size = kept.size;
+
+        maxAccountId = 0;
+        minEpochSecond = Long.MAX_VALUE;
+        maxEpochSecond = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            maxAccountId = Math.max(maxAccountId, accountIds[i]);
+            minEpochSecond = Math.min(minEpochSecond, epochSeconds[i]);
+            maxEpochSecond = Math.max(maxEpochSecond, epochSeconds[i]);
+        }
+    }
+
+    private static void keep(Rows kept, int accountId, long epochSecond, long horizon, boolean[] purged,
+            long transactionId, short typeCode, long amount, int descriptionCode) {
+        if (epochSecond < horizon || (purged != null && accountId < purged.length && purged[accountId])) {
+            return;
+        }
+        kept.add(transactionId, accountId, typeCode, amount, epochSecond, descriptionCode);
+    }
+
+    private void publish() {
+        // A rebuild can keep the size but always brings fresh arrays
+        if (size != snapshot.size || transactionIds != snapshot.transactionIds) {
+            snapshot = new ColumnSnapshot(transactionIds, accountIds, typeCodes, amounts, epochSeconds,
+                    descriptionCodes, size, types.size(), maxAccountId, minEpochSecond, maxEpochSecond, types,
+                    descriptions);
+        }
+    }
+
+    /**
+     * Growable columns for a run of rows in ID order
+     */
+    private static final class Rows {
+
+        long[] transactionIds;
+        int[] accountIds;
+        short[] typeCodes;
+        long[] amounts;
+        long[] epochSeconds;
+        int[] descriptionCodes;
+        int size;
+
+        Rows() {
+            this(16);
+        }
+
+        Rows(int capacity) {
+            transactionIds = new long[capacity];
+            accountIds = new int[capacity];
+            typeCodes = new short[capacity];
+            amounts = new long[capacity];
+            epochSeconds = new long[capacity];
+            descriptionCodes = new int[capacity];
+        }
+
+        void add(long transactionId, int accountId, short typeCode, long amount, long epochSecond,
+                int descriptionCode) {
+            if (size == transactionIds.length) {
+                int capacity = size * 2;
+                transactionIds = Arrays.copyOf(transactionIds, capacity);
+                accountIds = Arrays.copyOf(accountIds, capacity);
+                typeCodes = Arrays.copyOf(typeCodes, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+                descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+            }
+            transactionIds[size] = transactionId;
+            accountIds[size] = accountId;
+            typeCodes[size] = typeCode;
+            amounts[size] = amount;
+            epochSeconds[size] = epochSecond;
+            descriptionCodes[size] = descriptionCode;
+            size++;
+        }
+    }
+}
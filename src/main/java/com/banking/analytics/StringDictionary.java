@@ -0,0 +1,76 @@
+package com.banking.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only dictionary that maps repeated strings to dense int codes.
+ *
+ * Only the loading thread encodes. Readers decode codes they found in a
+ * published snapshot; the snapshot is published after the strings it uses,
+ * so those codes are always visible.
+ */
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    /**
+     * Get the code for a string, adding it if it is new
+     *
+     * @param value String, may be null
+     * @return Code, or -1 for null
+     */
+    int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+            values = current;
+        }
+        current[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Get the string for a code
+     *
+     * @param code Code from encode
+     * @return String, or null for -1
+     */
+    String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    /**
+     * Find the code of a string among the first entries, without touching
+     * the loader's map
+     *
+     * @param value String to look for
+     * @param limit Number of entries to search
+     * @return Code, or -1 if not found
+     */
+    int find(String value, int limit) {
+        String[] current = values;
+        for (int i = 0; i < limit; i++) {
+            if (current[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,381 @@
+package com.banking.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.banking.model.Money;
+import com.banking.model.Transaction;
+
+/**
+ * Filter, group-by and sum over a snapshot of the columnar transaction store.
+ *
+ * Filters return a new query. Aggregations split the rows into ranges that
+ * run on the common fork/join pool. Each range is scanned in batches: a
+ * branch-free pass over the filter columns builds a selection vector, then a
+ * second pass adds the selected amounts into per-group counters.
+ */
+public final class TransactionQuery {
+
+    private static final int ANY_TYPE = -1;
+    private static final int NO_TYPE = -2;
+    private static final int MIN_RANGE_ROWS = 1 << 15;
+    private static final int BATCH_ROWS = 1024;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private enum Grouping {
+        NONE, TYPE, ACCOUNT, DAY
+    }
+
+    private final ColumnSnapshot columns;
+    private final int accountId;
+    private final int typeCode;
+    private final long fromSecond;
+    private final long untilSecond;
+    private final int rowCount;
+
+    TransactionQuery(ColumnSnapshot columns) {
+        this(columns, 0, ANY_TYPE, Long.MIN_VALUE, Long.MAX_VALUE, columns.size);
+    }
+
+    private TransactionQuery(ColumnSnapshot columns, int accountId, int typeCode, long fromSecond,
+            long untilSecond, int rowCount) {
+        this.columns = columns;
+        this.accountId = accountId;
+        this.typeCode = typeCode;
+        this.fromSecond = fromSecond;
+        this.untilSecond = untilSecond;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Only match transactions of one account
+     *
+     * @param accountId Account ID
+     * @return Filtered query
+     */
+    public TransactionQuery forAccount(int accountId) {
+        return new TransactionQuery(columns, accountId, typeCode, fromSecond, untilSecond, rowCount);
+    }
+
+    /**
+     * Only match transactions of one type
+     *
+     * @param transactionType Type such as "DEPOSIT"
+     * @return Filtered query
+     */
+    public TransactionQuery ofType(String transactionType) {
+        int code = columns.types.find(transactionType, columns.typeCount);
+        return new TransactionQuery(columns, accountId, code < 0 ? NO_TYPE : code, fromSecond, untilSecond,
+                rowCount);
+    }
+
+    /**
+     * Only match transactions at or after a point in time
+     *
+     * @param from Start, inclusive
+     * @return Filtered query
+     */
+    public TransactionQuery since(LocalDateTime from) {
+        return new TransactionQuery(columns, accountId, typeCode,
+                Math.max(fromSecond, from.toEpochSecond(ZoneOffset.UTC)), untilSecond, rowCount);
+    }
+
+    /**
+     * Only match transactions before a point in time
+     *
+     * @param until End, exclusive
+     * @return Filtered query
+     */
+    public TransactionQuery before(LocalDateTime until) {
+        return new TransactionQuery(columns, accountId, typeCode, fromSecond,
+                Math.min(untilSecond, until.toEpochSecond(ZoneOffset.UTC)), rowCount);
+    }
+
+    /**
+     * Ignore transactions with a greater ID, to line up with a high-water mark
+     *
+     * @param maxTransactionId Highest transaction ID to include
+     * @return Filtered query
+     */
+    public TransactionQuery upToTransactionId(long maxTransactionId) {
+        return new TransactionQuery(columns, accountId, typeCode, fromSecond, untilSecond,
+                Math.min(rowCount, columns.rowsUpTo(maxTransactionId)));
+    }
+
+    /**
+     * Count matching transactions
+     *
+     * @return Count
+     */
+    public long count() {
+        long[][] totals = aggregate(Grouping.NONE, 1, 0);
+        return totals == null ? 0 : totals[0][0];
+    }
+
+    /**
+     * Sum the amounts of matching transactions
+     *
+     * @return Sum
+     */
+    public Money sum() {
+        long[][] totals = aggregate(Grouping.NONE, 1, 0);
+        return totals == null ? Money.ZERO : Money.ofMinor(totals[1][0]);
+    }
+
+    /**
+     * Count and sum matching transactions per type
+     *
+     * @return Map of transaction type to totals, sorted by type
+     */
+    public Map<String, Aggregate> groupByType() {
+        Map<String, Aggregate> result = new TreeMap<>();
+        long[][] totals = aggregate(Grouping.TYPE, columns.typeCount, 0);
+        if (totals != null) {
+            for (int code = 0; code < columns.typeCount; code++) {
+                if (totals[0][code] > 0) {
+                    result.put(columns.types.decode(code), new Aggregate(totals[0][code], totals[1][code]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count and sum matching transactions per account
+     *
+     * @return Map of account ID to totals, sorted by account ID
+     */
+    public Map<Integer, Aggregate> groupByAccount() {
+        Map<Integer, Aggregate> result = new TreeMap<>();
+        long[][] totals = aggregate(Grouping.ACCOUNT, columns.maxAccountId + 1, 0);
+        if (totals != null) {
+            for (int account = 0; account <= columns.maxAccountId; account++) {
+                if (totals[0][account] > 0) {
+                    result.put(account, new Aggregate(totals[0][account], totals[1][account]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count and sum matching transactions per calendar day
+     *
+     * @return Map of date to totals, sorted by date
+     */
+    public Map<LocalDate, Aggregate> groupByDay() {
+        Map<LocalDate, Aggregate> result = new TreeMap<>();
+        long first = Math.floorDiv(Math.max(fromSecond, columns.minEpochSecond), SECONDS_PER_DAY);
+        long last = Math.floorDiv(Math.min(untilSecond - 1, columns.maxEpochSecond), SECONDS_PER_DAY);
+        if (last < first) {
+            return result;
+        }
+
+        long[][] totals = aggregate(Grouping.DAY, Math.toIntExact(last - first + 1), first);
+        if (totals != null) {
+            for (int day = 0; day < totals[0].length; day++) {
+                if (totals[0][day] > 0) {
+                    result.put(LocalDate.ofEpochDay(first + day), new Aggregate(totals[0][day], totals[1][day]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the most recent matching transactions. The recipient account is not
+     * kept in the store, so it is not set.
+     *
+     * @param limit Maximum number of transactions
+     * @return Transactions, newest first
+     */
+    public List<Transaction> latest(int limit) {
+        if (typeCode == NO_TYPE) {
+            return Collections.emptyList();
+        }
+        List<Transaction> result = new ArrayList<>(Math.min(limit, 256));
+        for (int row = rowCount - 1; row >= 0 && result.size() < limit; row--) {
+            if (matches(row)) {
+                result.add(new Transaction(columns.transactionIds[row], columns.accountIds[row],
+                        columns.types.decode(columns.typeCodes[row]),
+                        Money.ofMinor(columns.amounts[row]).toBigDecimal(),
+                        LocalDateTime.ofEpochSecond(columns.epochSeconds[row], 0, ZoneOffset.UTC),
+                        columns.descriptions.decode(columns.descriptionCodes[row]), null));
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(int row) {
+        return (accountId == 0 || columns.accountIds[row] == accountId)
+                && (typeCode == ANY_TYPE || columns.typeCodes[row] == typeCode)
+                && columns.epochSeconds[row] >= fromSecond
+                && columns.epochSeconds[row] < untilSecond;
+    }
+
+    /**
+     * Run a grouped count and sum over all rows
+     *
+     * @return Counts and sums indexed by group, or null if nothing can match
+     */
+    private long[][] aggregate(Grouping grouping, int groups, long firstDay) {
+        if (typeCode == NO_TYPE || rowCount == 0 || fromSecond >= untilSecond) {
+            return null;
+        }
+
+        // Wide groupings allocate counters per range, so use fewer, larger ranges
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        int rangeRows = groups > 4096
+                ? Math.max(MIN_RANGE_ROWS, rowCount / parallelism + 1)
+                : MIN_RANGE_ROWS;
+        return ForkJoinPool.commonPool().invoke(new Scan(grouping, groups, firstDay, rangeRows, 0, rowCount));
+    }
+
+    /**
+     * Fork/join task that scans a row range, splitting it while it is large
+     */
+    private final class Scan extends RecursiveTask<long[][]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Grouping grouping;
+        private final int groups;
+        private final long firstDay;
+        private final int rangeRows;
+        private final int from;
+        private final int to;
+
+        Scan(Grouping grouping, int groups, long firstDay, int rangeRows, int from, int to) {
+            this.grouping = grouping;
+            this.groups = groups;
+            this.firstDay = firstDay;
+            this.rangeRows = rangeRows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (to - from <= rangeRows) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = new Scan(grouping, groups, firstDay, rangeRows, from, middle);
+            Scan right = new Scan(grouping, groups, firstDay, rangeRows, middle, to);
+            left.fork();
+            long[][] totals = right.compute();
+            long[][] other = left.join();
+            for (int group = 0; group < groups; group++) {
+                totals[0][group] += other[0][group];
+                totals[1][group] = Math.addExact(totals[1][group], other[1][group]);
+            }
+            return totals;
+        }
+
+        private long[][] scan() {
+            long[] counts = new long[groups];
+            long[] sums = new long[groups];
+            int[] selection = new int[BATCH_ROWS];
+            int[] accountIds = columns.accountIds;
+            short[] typeCodes = columns.typeCodes;
+            long[] amounts = columns.amounts;
+            long[] epochSeconds = columns.epochSeconds;
+
+            for (int start = from; start < to; start += BATCH_ROWS) {
+                int selected = select(start, Math.min(start + BATCH_ROWS, to), selection);
+                switch (grouping) {
+                    case NONE:
+                        counts[0] += selected;
+                        for (int i = 0; i < selected; i++) {
+                            sums[0] = Math.addExact(sums[0], amounts[selection[i]]);
+                        }
+                        break;
+                    case TYPE:
+                        for (int i = 0; i < selected; i++) {
+                            int row = selection[i];
+                            counts[typeCodes[row]]++;
+                            sums[typeCodes[row]] = Math.addExact(sums[typeCodes[row]], amounts[row]);
+                        }
+                        break;
+                    case ACCOUNT:
+                        for (int i = 0; i < selected; i++) {
+                            int row = selection[i];
+                            counts[accountIds[row]]++;
+                            sums[accountIds[row]] = Math.addExact(sums[accountIds[row]], amounts[row]);
+                        }
+                        break;
+                    default:
+                        for (int i = 0; i < selected; i++) {
+                            int row = selection[i];
+                            int day = (int) (Math.floorDiv(epochSeconds[row], SECONDS_PER_DAY) - firstDay);
+                            counts[day]++;
+                            sums[day] = Math.addExact(sums[day], amounts[row]);
+                        }
+                        break;
+                }
+            }
+            return new long[][]{counts, sums};
+        }
+
+        /**
+         * Write the matching row numbers of a batch into the selection vector
+         * without branching on the data
+         *
+         * @return Number of matching rows
+         */
+        private int select(int start, int end, int[] selection) {
+            int[] accountIds = columns.accountIds;
+            short[] typeCodes = columns.typeCodes;
+            long[] epochSeconds = columns.epochSeconds;
+            boolean anyAccount = accountId == 0;
+            boolean anyType = typeCode == ANY_TYPE;
+            int selected = 0;
+
+            for (int row = start; row < end; row++) {
+                selection[selected] = row;
+                boolean match = (anyAccount | accountIds[row] == accountId)
+                        & (anyType | typeCodes[row] == typeCode)
+                        & epochSeconds[row] >= fromSecond
+                        & epochSeconds[row] < untilSecond;
+                selected += match ? 1 : 0;
+            }
+            return selected;
+        }
+    }
+
+    /**
+     * Count and sum of one group
+     */
+    public static class Aggregate {
+
+        private final long count;
+        private final Money sum;
+
+        Aggregate(long count, long sum) {
+            this.count = count;
+            this.sum = Money.ofMinor(sum);
+        }
+
+        // Getters
+        public long getCount() {
+            return count;
+        }
+
+        public Money getSum() {
+            return sum;
+        }
+
+        @Override
+        public String toString() {
+            return count + " transactions, " + sum;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.banking.api;
+
+/**
+ * Exception that becomes an HTTP error response with a given status
+ */
+public class ApiException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    /**
+     * Constructor
+     *
+     * @param status HTTP status code
+     * @param message Message returned to the client
+     */
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Get the HTTP status code
+     *
+     * @return Status code
+     */
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,175 @@
+package com.banking.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * One API call: path parameters, query parameters and the JSON body
+ */
+final class ApiRequest {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpExchange exchange;
+    private final String[] pathParams;
+    private Map<String, String> query;
+    private Map<String, String> body;
+
+    ApiRequest(HttpExchange exchange, String[] pathParams) {
+        this.exchange = exchange;
+        this.pathParams = pathParams;
+    }
+
+    /**
+     * Get a numeric path parameter, e.g. the ID in /api/accounts/{id}
+     *
+     * @param index Position among the path parameters
+     * @return Parameter value
+     * @throws ApiException 404 if the parameter is not a number
+     */
+    int pathInt(int index) throws ApiException {
+        try {
+            return Integer.parseInt(pathParams[index]);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Not found: " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    /**
+     * Get a query parameter
+     *
+     * @param name Parameter name
+     * @return Value, or null if absent or empty
+     */
+    String query(String name) {
+        if (query == null) {
+            query = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+        String value = query.get(name);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Get a numeric query parameter
+     *
+     * @param name Parameter name
+     * @param defaultValue Value if absent
+     * @param max Largest accepted value
+     * @return Value
+     * @throws ApiException 400 if the value is not a number between 0 and max
+     */
+    long queryLong(String name, long defaultValue, long max) throws ApiException {
+        String value = query(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed >= 0 && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new ApiException(400, "Query parameter " + name + " must be a number between 0 and " + max);
+    }
+
+    /**
+     * Get a string member of the JSON body
+     *
+     * @param name Member name
+     * @param required Whether a missing member is an error
+     * @return Value, or null if absent and not required
+     * @throws ApiException 400 if the body is invalid or a required member is missing
+     */
+    String bodyString(String name, boolean required) throws ApiException {
+        String value = body().get(name);
+        if (value == null && required) {
+            throw new ApiException(400, "Missing field: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Get a numeric member of the JSON body
+     *
+     * @param name Member name
+     * @param required Whether a missing member is an error
+     * @return Value, or null if absent and not required
+     * @throws ApiException 400 if the body is invalid, the value is not a number
+     * or a required member is missing
+     */
+    BigDecimal bodyDecimal(String name, boolean required) throws ApiException {
+        String value = bodyString(name, required);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Field " + name + " must be a number");
+        }
+    }
+
+    /**
+     * Get an integer member of the JSON body
+     *
+     * @param name Member name
+     * @return Value
+     * @throws ApiException 400 if the body is invalid or the member is missing or not an integer
+     */
+    int bodyInt(String name) throws ApiException {
+        try {
+            return bodyDecimal(name, true).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new ApiException(400, "Field " + name + " must be an integer");
+        }
+    }
+
+    private Map<String, String> body() throws ApiException {
+        if (body == null) {
+            body = Json.parseObject(readBody());
+        }
+        return body;
+    }
+
+    private String readBody() throws ApiException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (out.size() + read > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body larger than " + MAX_BODY_BYTES + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ApiException(400, "Could not read request body: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> params = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
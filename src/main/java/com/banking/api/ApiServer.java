@@ -0,0 +1,353 @@
+package com.banking.api;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.banking.ApplicationLifecycle;
+import com.banking.dao.PageRequest;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.model.Account;
+import com.banking.model.Customer;
+import com.banking.model.Transaction;
+import com.banking.service.AccountService;
+import com.banking.service.CustomerService;
+import com.banking.service.TransactionService;
+import com.banking.util.ThreadUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Headless JSON API over the banking services, built on the JDK's HTTP
+ * server so other systems can open accounts and post transactions.
+ *
+ * Each request runs on its own virtual thread when the JVM has them (Java
+ * 21+), otherwise on a fixed pool of finvault.api.threads platform threads,
+ * so thousands of clients can wait on the database without thousands of
+ * platform threads. Every endpoint has its own concurrency limit and
+ * request metric, see Endpoint. stop() stops accepting connections, answers
+ * new requests with 503 and waits for the running ones to finish.
+ *
+ * Endpoints, below /api/:
+ * GET customers?search=&amp;after=&amp;limit=, POST customers, GET customers/{id},
+ * GET customers/{id}/accounts, POST accounts, GET accounts/{id},
+ * GET accounts/{id}/transactions?before=&amp;limit=, POST accounts/{id}/deposit,
+ * POST accounts/{id}/withdraw, POST transfers, GET metrics and GET health.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.api.ApiServer --port 8080
+ */
+public class ApiServer {
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final CustomerService customerService;
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final long queueMillis = Long.getLong("finvault.api.queueMillis", 2000);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile boolean draining;
+
+    /**
+     * Constructor with the default services
+     */
+    public ApiServer() {
+        this(new CustomerService(), new AccountService(), new TransactionService());
+    }
+
+    /**
+     * Constructor with explicit services
+     *
+     * @param customerService Customer service
+     * @param accountService Account service
+     * @param transactionService Transaction service
+     */
+    public ApiServer(CustomerService customerService, AccountService accountService,
+            TransactionService transactionService) {
+        this.customerService = customerService;
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+
+        endpoints.add(new Endpoint("customers.list", "GET", "customers", 200, 32, this::listCustomers));
+        endpoints.add(new Endpoint("customers.create", "POST", "customers", 201, 32, this::createCustomer));
+        endpoints.add(new Endpoint("customers.get", "GET", "customers/*", 200, 64, this::getCustomer));
+        endpoints.add(new Endpoint("customers.accounts", "GET", "customers/*/accounts", 200, 64,
+                this::getCustomerAccounts));
+        endpoints.add(new Endpoint("accounts.create", "POST", "accounts", 201, 32, this::createAccount));
+        endpoints.add(new Endpoint("accounts.get", "GET", "accounts/*", 200, 64, this::getAccount));
+        endpoints.add(new Endpoint("accounts.history", "GET", "accounts/*/transactions", 200, 32,
+                this::getHistory));
+        endpoints.add(new Endpoint("accounts.deposit", "POST", "accounts/*/deposit", 200, 128, this::deposit));
+        endpoints.add(new Endpoint("accounts.withdraw", "POST", "accounts/*/withdraw", 200, 128, this::withdraw));
+        endpoints.add(new Endpoint("transfers.create", "POST", "transfers", 200, 128, this::transfer));
+        endpoints.add(new Endpoint("metrics", "GET", "metrics", 200, 4, request -> metricsJson()));
+        endpoints.add(new Endpoint("health", "GET", "health", 200, 16, request -> "{\"status\":\"UP\"}"));
+
+        if (MetricsRegistry.isEnabled()) {
+            MetricsRegistry.getInstance().registerGauge("api.inFlight", inFlight::get);
+            MetricsRegistry.getInstance().registerGauge("api.rejected", rejected::sum);
+        }
+    }
+
+    /**
+     * Start listening
+     *
+     * @param host Address to bind, e.g. 0.0.0.0
+     * @param port Port
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void start(String host, int port) throws IOException {
+        // The JDK server closes keep-alive connections beyond this many idle
+        // ones, which would make most of a large client population reconnect
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "4096");
+        }
+
+        executor = ThreadUtil.newPerTaskExecutor("api", Integer.getInteger("finvault.api.threads", 256));
+        server = HttpServer.create(new InetSocketAddress(host, port), Integer.getInteger("finvault.api.backlog", 1024));
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stop gracefully: refuse new requests and wait for running ones
+     *
+     * @param graceSeconds Longest time to wait for running requests
+     */
+    public synchronized void stop(int graceSeconds) {
+        if (server == null) {
+            return;
+        }
+        draining = true;
+        // Closes the listener, then waits until all exchanges are finished or the delay has passed
+        server.stop(graceSeconds);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(graceSeconds, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    /**
+     * Get the port the server listens on
+     *
+     * @return Port, or -1 if not started
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        inFlight.incrementAndGet();
+        try {
+            if (draining) {
+                exchange.getResponseHeaders().set("Connection", "close");
+                Endpoint.send(exchange, 503, Json.error(503, "Server is shutting down"));
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath().substring("/api/".length());
+            if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            String[] segments = path.split("/");
+            List<String> allowed = new ArrayList<>(2);
+            for (Endpoint endpoint : endpoints) {
+                String[] params = endpoint.match(segments);
+                if (params == null) {
+                    continue;
+                }
+                if (endpoint.getMethod().equals(exchange.getRequestMethod())) {
+                    endpoint.serve(exchange, params, queueMillis, rejected);
+                    return;
+                }
+                allowed.add(endpoint.getMethod());
+            }
+
+            if (allowed.isEmpty()) {
+                Endpoint.send(exchange, 404, Json.error(404, "Not found: " + exchange.getRequestURI().getPath()));
+            } else {
+                exchange.getResponseHeaders().set("Allow", String.join(", ", allowed));
+                Endpoint.send(exchange, 405, Json.error(405, "Method not allowed"));
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private String listCustomers(ApiRequest request) throws Exception {
+        PageRequest page = new PageRequest(null, request.query("search"), "id", true);
+        int limit = (int) request.queryLong("limit", DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        long afterId = request.queryLong("after", 0, Integer.MAX_VALUE);
+        Customer after = null;
+        if (afterId > 0) {
+            after = new Customer();
+            after.setCustomerId((int) afterId);
+        }
+        List<Customer> customers = customerService.getCustomersPage(page, after, limit);
+        String next = customers.size() == limit && limit > 0
+                ? String.valueOf(customers.get(customers.size() - 1).getCustomerId()) : null;
+        return Json.customers(customers, next);
+    }
+
+    private String createCustomer(ApiRequest request) throws Exception {
+        return Json.customer(customerService.registerCustomer(request.bodyString("firstName", true),
+                request.bodyString("lastName", true), request.bodyString("email", true),
+                request.bodyString("phone", false), request.bodyString("address", false)));
+    }
+
+    private String getCustomer(ApiRequest request) throws Exception {
+        int customerId = request.pathInt(0);
+        Customer customer = customerService.getCustomerById(customerId);
+        if (customer == null) {
+            throw new ApiException(404, "Customer not found: " + customerId);
+        }
+        return Json.customer(customer);
+    }
+
+    private String getCustomerAccounts(ApiRequest request) throws Exception {
+        int customerId = request.pathInt(0);
+        if (customerService.getCustomerById(customerId) == null) {
+            throw new ApiException(404, "Customer not found: " + customerId);
+        }
+        return Json.accounts(accountService.getAccountsByCustomerId(customerId));
+    }
+
+    private String createAccount(ApiRequest request) throws Exception {
+        int customerId = request.bodyInt("customerId");
+        String type = request.bodyString("accountType", true).toUpperCase(Locale.ROOT);
+        BigDecimal initialDeposit = request.bodyDecimal("initialDeposit", true);
+        Account account;
+        switch (type) {
+            case "SAVINGS":
+                account = accountService.createSavingsAccount(customerId, initialDeposit,
+                        request.bodyDecimal("interestRate", true));
+                break;
+            case "CURRENT":
+                BigDecimal overdraftLimit = request.bodyDecimal("overdraftLimit", false);
+                account = accountService.createCurrentAccount(customerId, initialDeposit,
+                        overdraftLimit != null ? overdraftLimit : BigDecimal.ZERO);
+                break;
+            default:
+                throw new ApiException(400, "accountType must be SAVINGS or CURRENT");
+        }
+        return Json.account(account);
+    }
+
+    private String getAccount(ApiRequest request) throws Exception {
+        int accountId = request.pathInt(0);
+        Account account = accountService.getAccountById(accountId);
+        if (account == null) {
+            throw new ApiException(404, "Account not found: " + accountId);
+        }
+        // The ledger engine holds the latest balance while it runs
+        LedgerEngine engine = LedgerEngine.current();
+        BigDecimal engineBalance = engine != null ? engine.getBalance(accountId) : null;
+        if (engineBalance != null) {
+            account.setBalance(engineBalance);
+        }
+        return Json.account(account);
+    }
+
+    private String getHistory(ApiRequest request) throws Exception {
+        int accountId = request.pathInt(0);
+        int limit = (int) request.queryLong("limit", DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        long before = request.queryLong("before", 0, Long.MAX_VALUE);
+        if (limit == 0) {
+            throw new ApiException(400, "Query parameter limit must be positive");
+        }
+        if (before == 0 && accountService.getAccountById(accountId) == null) {
+            throw new ApiException(404, "Account not found: " + accountId);
+        }
+        List<Transaction> transactions = transactionService.getAccountHistoryPage(accountId, before, limit);
+        String next = transactions.size() == limit
+                ? String.valueOf(transactions.get(transactions.size() - 1).getTransactionId()) : null;
+        return Json.transactions(transactions, next);
+    }
+
+    private String deposit(ApiRequest request) throws Exception {
+        return Json.result(transactionService.performDeposit(request.pathInt(0),
+                request.bodyDecimal("amount", true), request.bodyString("description", false)));
+    }
+
+    private String withdraw(ApiRequest request) throws Exception {
+        return Json.result(transactionService.performWithdrawal(request.pathInt(0),
+                request.bodyDecimal("amount", true), request.bodyString("description", false)));
+    }
+
+    private String transfer(ApiRequest request) throws Exception {
+        return Json.result(transactionService.performTransfer(request.bodyInt("fromAccountId"),
+                request.bodyInt("toAccountId"), request.bodyDecimal("amount", true),
+                request.bodyString("description", false)));
+    }
+
+    private String metricsJson() throws ApiException {
+        if (!MetricsRegistry.isEnabled()) {
+            throw new ApiException(404, "Metrics are disabled");
+        }
+        return MetricsRegistry.getInstance().toJson();
+    }
+
+    /**
+     * Run the API server until the process is stopped
+     *
+     * @param args --host (default 0.0.0.0) and --port (default 8080)
+     */
+    public static void main(String[] args) {
+        String host = "0.0.0.0";
+        int port = 8080;
+        for (int i = 0; i < args.length; i++) {
+            if ("--host".equals(args[i]) && i + 1 < args.length) {
+                host = args[++i];
+            } else if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: ApiServer [--host <address>] [--port <port>]");
+                System.exit(2);
+            }
+        }
+
+        if (!ApplicationLifecycle.start()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        ApiServer api = new ApiServer();
+        try {
+            api.start(host, port);
+        } catch (IOException e) {
+            System.err.println("Could not listen on " + host + ":" + port + ": " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("FinVault API listening on http://" + host + ":" + api.getPort() + "/api/");
+
+        int graceSeconds = Integer.getInteger("finvault.api.shutdownSeconds", 10);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Stopping API server...");
+            api.stop(graceSeconds);
+            ApplicationLifecycle.stop();
+        }));
+    }
+}
@@ -0,0 +1,200 @@
+package com.banking.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.banking.config.ConnectionPool;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.model.InsufficientFundsException;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * One API operation: a method and path pattern, the action behind it and a
+ * limit on how many requests may run it at once.
+ *
+ * Requests over the limit wait up to the queue timeout for a slot and are
+ * then answered with 503 and Retry-After, so a flood on one endpoint cannot
+ * take every database connection from the others. Each request is recorded
+ * as the API.&lt;name&gt; metric.
+ */
+final class Endpoint {
+
+    /**
+     * Action behind an endpoint
+     */
+    interface Action {
+
+        /**
+         * Handle a request
+         *
+         * @param request Request
+         * @return JSON response body
+         * @throws Exception if the request fails, mapped to an HTTP status
+         */
+        String handle(ApiRequest request) throws Exception;
+    }
+
+    private final String name;
+    private final String method;
+    private final String[] pattern;
+    private final int paramCount;
+    private final int successStatus;
+    private final Action action;
+    private final Semaphore permits;
+    private final MethodMetrics metrics;
+
+    /**
+     * Constructor
+     *
+     * @param name Endpoint name for metrics and the finvault.api.maxConcurrent.&lt;name&gt; property
+     * @param method HTTP method
+     * @param path Path below /api/, with * for a path parameter, e.g. accounts/{@literal *}/deposit
+     * @param successStatus Status of a successful response
+     * @param defaultLimit Concurrent requests unless configured otherwise
+     * @param action Action
+     */
+    Endpoint(String name, String method, String path, int successStatus, int defaultLimit, Action action) {
+        this.name = name;
+        this.method = method;
+        this.pattern = path.split("/");
+        int count = 0;
+        for (String part : pattern) {
+            if ("*".equals(part)) {
+                count++;
+            }
+        }
+        this.paramCount = count;
+        this.successStatus = successStatus;
+        this.action = action;
+        this.permits = new Semaphore(Integer.getInteger("finvault.api.maxConcurrent." + name, defaultLimit), true);
+        this.metrics = MetricsRegistry.isEnabled() ? MetricsRegistry.getInstance().method("API." + name) : null;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    /**
+     * Match a request path against this endpoint's pattern
+     *
+     * @param segments Path segments below /api/
+     * @return Path parameters, or null if the path does not match
+     */
+    String[] match(String[] segments) {
+        if (segments.length != pattern.length) {
+            return null;
+        }
+        String[] params = new String[paramCount];
+        int index = 0;
+        for (int i = 0; i < pattern.length; i++) {
+            if ("*".equals(pattern[i])) {
+                params[index++] = segments[i];
+            } else if (!pattern[i].equals(segments[i])) {
+                return null;
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Run the action within the concurrency limit and write the response
+     *
+     * @param exchange HTTP exchange
+     * @param params Path parameters
+     * @param queueMillis How long to wait for a free slot
+     * @param rejected Counter of requests turned away
+     * @throws IOException if the response cannot be written
+     */
+    void serve(HttpExchange exchange, String[] params, long queueMillis, LongAdder rejected) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(queueMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, Json.error(503, "Too many concurrent " + name + " requests"));
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, Json.error(503, "Server is shutting down"));
+            return;
+        }
+
+        long waitBefore = ConnectionPool.getCurrentThreadWaitNanos();
+        int status;
+        String body;
+        try {
+            body = action.handle(new ApiRequest(exchange, params));
+            status = successStatus;
+        } catch (Exception e) {
+            status = statusFor(e);
+            if (status == 503) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+            if (status >= 500) {
+                System.err.println("API " + name + " failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+            body = Json.error(status, status == 500 ? "Internal error" : e.getMessage());
+        } finally {
+            permits.release();
+        }
+
+        try {
+            send(exchange, status, body);
+        } finally {
+            if (metrics != null) {
+                metrics.record(System.nanoTime() - start, ConnectionPool.getCurrentThreadWaitNanos() - waitBefore,
+                        0, status >= 500);
+            }
+        }
+    }
+
+    static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Map an exception from the services to an HTTP status
+     *
+     * @param e Exception
+     * @return Status code
+     */
+    private static int statusFor(Exception e) {
+        if (e instanceof ApiException) {
+            return ((ApiException) e).getStatus();
+        }
+        if (e instanceof IllegalArgumentException) {
+            // The services report unknown IDs as "... not found: <id>"
+            String message = e.getMessage();
+            return message != null && message.contains("not found") ? 404 : 400;
+        }
+        if (e instanceof InsufficientFundsException || e instanceof IllegalStateException) {
+            return 409;
+        }
+        if (e instanceof SQLException) {
+            String state = ((SQLException) e).getSQLState();
+            // Deadlocks and serialization failures rolled back and are worth
+            // retrying, after a lost connection (08) the outcome is unknown
+            if (state != null && state.startsWith("40")) {
+                return 503;
+            }
+        }
+        return 500;
+    }
+}
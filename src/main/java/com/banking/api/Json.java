@@ -0,0 +1,371 @@
+package com.banking.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.banking.model.Account;
+import com.banking.model.CurrentAccount;
+import com.banking.model.Customer;
+import com.banking.model.SavingsAccount;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionResult;
+
+/**
+ * Minimal JSON support for the API: rendering of the model classes and
+ * parsing of flat request objects whose values are strings, numbers,
+ * booleans or null. Amounts are written as JSON numbers with their exact
+ * decimal digits.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Parse a flat JSON object
+     *
+     * @param text Request body
+     * @return Member names mapped to their values as text, null for JSON null
+     * @throws ApiException 400 if the body is not a flat JSON object
+     */
+    static Map<String, String> parseObject(String text) throws ApiException {
+        Parser parser = new Parser(text);
+        Map<String, String> members = parser.object();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("Unexpected content after object");
+        }
+        return members;
+    }
+
+    static String customer(Customer customer) {
+        StringBuilder json = new StringBuilder(256);
+        appendCustomer(json, customer);
+        return json.toString();
+    }
+
+    static String account(Account account) {
+        StringBuilder json = new StringBuilder(256);
+        appendAccount(json, account);
+        return json.toString();
+    }
+
+    static String customers(Collection<Customer> customers, String next) {
+        StringBuilder json = new StringBuilder(128 + customers.size() * 192);
+        json.append("{\"items\":[");
+        boolean first = true;
+        for (Customer customer : customers) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendCustomer(json, customer);
+        }
+        json.append("],\"next\":");
+        appendString(json, next);
+        return json.append('}').toString();
+    }
+
+    static String accounts(Collection<Account> accounts) {
+        StringBuilder json = new StringBuilder(32 + accounts.size() * 192);
+        json.append("{\"items\":[");
+        boolean first = true;
+        for (Account account : accounts) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendAccount(json, account);
+        }
+        return json.append("]}").toString();
+    }
+
+    static String transactions(Collection<Transaction> transactions, String next) {
+        StringBuilder json = new StringBuilder(128 + transactions.size() * 192);
+        json.append("{\"items\":[");
+        boolean first = true;
+        for (Transaction transaction : transactions) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendTransaction(json, transaction);
+        }
+        json.append("],\"next\":");
+        appendString(json, next);
+        return json.append('}').toString();
+    }
+
+    static String result(TransactionResult result) {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"transactions\":[");
+        boolean first = true;
+        for (Transaction transaction : result.getTransactions()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendTransaction(json, transaction);
+        }
+        json.append("],\"balances\":{");
+        first = true;
+        for (Map.Entry<Integer, BigDecimal> balance : result.getNewBalances().entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(balance.getKey()).append("\":");
+            appendNumber(json, balance.getValue());
+        }
+        return json.append("}}").toString();
+    }
+
+    static String error(int status, String message) {
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"status\":").append(status).append(",\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    private static void appendCustomer(StringBuilder json, Customer customer) {
+        json.append("{\"customerId\":").append(customer.getCustomerId());
+        json.append(",\"firstName\":");
+        appendString(json, customer.getFirstName());
+        json.append(",\"lastName\":");
+        appendString(json, customer.getLastName());
+        json.append(",\"email\":");
+        appendString(json, customer.getEmail());
+        json.append(",\"phone\":");
+        appendString(json, customer.getPhone());
+        json.append(",\"address\":");
+        appendString(json, customer.getAddress());
+        json.append(",\"dateRegistered\":");
+        appendDate(json, customer.getDateRegistered());
+        json.append(",\"status\":");
+        appendString(json, customer.getStatus());
+        json.append('}');
+    }
+
+    private static void appendAccount(StringBuilder json, Account account) {
+        json.append("{\"accountId\":").append(account.getAccountId());
+        json.append(",\"customerId\":").append(account.getCustomerId());
+        json.append(",\"accountType\":");
+        appendString(json, account.getAccountType());
+        json.append(",\"balance\":");
+        appendNumber(json, account.getBalance());
+        if (account instanceof SavingsAccount) {
+            json.append(",\"interestRate\":");
+            appendNumber(json, ((SavingsAccount) account).getInterestRate());
+        } else if (account instanceof CurrentAccount) {
+            json.append(",\"overdraftLimit\":");
+            appendNumber(json, ((CurrentAccount) account).getOverdraftLimit());
+        }
+        json.append(",\"dateOpened\":");
+        appendDate(json, account.getDateOpened());
+        json.append(",\"status\":");
+        appendString(json, account.getStatus());
+        json.append('}');
+    }
+
+    private static void appendTransaction(StringBuilder json, Transaction transaction) {
+        json.append("{\"transactionId\":").append(transaction.getTransactionId());
+        json.append(",\"accountId\":").append(transaction.getAccountId());
+        json.append(",\"transactionType\":");
+        appendString(json, transaction.getTransactionType());
+        json.append(",\"amount\":");
+        appendNumber(json, transaction.getAmount());
+        json.append(",\"transactionDate\":");
+        appendDate(json, transaction.getTransactionDate());
+        json.append(",\"description\":");
+        appendString(json, transaction.getDescription());
+        json.append(",\"recipientAccountId\":").append(transaction.getRecipientAccountId());
+        json.append('}');
+    }
+
+    private static void appendNumber(StringBuilder json, BigDecimal value) {
+        json.append(value == null ? "null" : value.toPlainString());
+    }
+
+    private static void appendDate(StringBuilder json, LocalDateTime value) {
+        appendString(json, value == null ? null : value.toString());
+    }
+
+    static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    private static final class Parser {
+
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> object() throws ApiException {
+            skipWhitespace();
+            expect('{');
+            Map<String, String> members = new LinkedHashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return members;
+            }
+            while (true) {
+                skipWhitespace();
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                members.put(name, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return members;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private String value() throws ApiException {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw error("Nested objects and arrays are not supported");
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if ("null".equals(literal)) {
+                return null;
+            }
+            if ("true".equals(literal) || "false".equals(literal)) {
+                return literal;
+            }
+            try {
+                new BigDecimal(literal);
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("Invalid value");
+            }
+            return literal;
+        }
+
+        private String string() throws ApiException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() throws ApiException {
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() throws ApiException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) throws ApiException {
+            if (next() != expected) {
+                pos--;
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        ApiException error(String message) {
+            return new ApiException(400, "Invalid JSON at position " + pos + ": " + message);
+        }
+    }
+}
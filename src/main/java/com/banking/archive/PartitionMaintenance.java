@@ -0,0 +1,156 @@
+package com.banking.archive;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.PartitionPruningCheck;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.util.DatabaseUtil;
+import com.banking.util.TransactionPartitions;
+
+/**
+ * Maintenance task for the month partitions of the transactions table, to be
+ * run daily or at least monthly.
+ *
+ * It creates the partitions for the coming months, gives rows that landed in
+ * the default partition a month partition of their own, and with
+ * --keep-months archives and detaches the months that fell out of the
+ * retention period. --migrate converts an unpartitioned table first, and
+ * --verify checks that TransactionDAO reads are pruned.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.archive.PartitionMaintenance --keep-months 24 --verify
+ */
+public class PartitionMaintenance {
+
+    private static final String DEFAULT_RANGE_SQL =
+            "SELECT MIN(transaction_date), MAX(transaction_date) FROM " + TransactionPartitions.DEFAULT_PARTITION;
+
+    /**
+     * Run the maintenance
+     *
+     * @param args --migrate, --verify, --keep-months N, --block-size N for the archiver
+     */
+    public static void main(String[] args) {
+        boolean migrate = false;
+        boolean verify = false;
+        Integer keepMonths = null;
+        int blockSize = 1000;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--migrate":
+                        migrate = true;
+                        break;
+                    case "--verify":
+                        verify = true;
+                        break;
+                    case "--keep-months":
+                        keepMonths = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--block-size":
+                        blockSize = Integer.parseInt(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: PartitionMaintenance [--migrate] [--keep-months N] [--block-size N] [--verify]");
+            System.exit(2);
+        }
+
+        if (!DatabaseUtil.initializeDatabase()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        int status = 1;
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            if (!TransactionPartitions.isPartitioned(conn)) {
+                if (!migrate) {
+                    throw new IllegalStateException("The transactions table is not partitioned, run with --migrate");
+                }
+                long start = System.nanoTime();
+                long moved = TransactionPartitions.migrate(conn);
+                System.out.printf("Migrated %d transactions to the partitioned table in %.1f s%n", moved,
+                        (System.nanoTime() - start) / 1e9);
+            }
+
+            YearMonth now = YearMonth.now();
+            int created = TransactionPartitions.ensurePartitions(conn, now,
+                    now.plusMonths(TransactionPartitions.getAheadMonths()));
+            created += splitDefaultPartition(conn);
+            Set<YearMonth> months = TransactionPartitions.listPartitions(conn);
+            System.out.printf("Created %d partitions, %d month partitions attached%n", created, months.size());
+            dbConfig.closeConnection(conn);
+            conn = null;
+
+            if (keepMonths != null) {
+                LocalDate before = now.atDay(1).minusMonths(keepMonths);
+                new TransactionArchiver(before.atStartOfDay(), blockSize).run();
+            }
+
+            status = 0;
+            if (verify) {
+                List<PartitionPruningCheck.Result> results = PartitionPruningCheck.run();
+                for (PartitionPruningCheck.Result result : results) {
+                    System.out.println(result);
+                    if (!result.isPruned()) {
+                        status = 3;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Partition maintenance failed: " + e.getMessage());
+            e.printStackTrace();
+            status = 1;
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+            if (MetricsRegistry.isEnabled()) {
+                MetricsRegistry.getInstance().shutdown();
+            }
+            dbConfig.shutdown();
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Create month partitions for the rows waiting in the default partition,
+     * which moves them out of it
+     */
+    private static int splitDefaultPartition(Connection conn) throws Exception {
+        Timestamp oldest;
+        Timestamp newest;
+        try (PreparedStatement stmt = conn.prepareStatement(DEFAULT_RANGE_SQL);
+                ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next() || rs.getTimestamp(1) == null) {
+                return 0;
+            }
+            oldest = rs.getTimestamp(1);
+            newest = rs.getTimestamp(2);
+        }
+        return TransactionPartitions.ensurePartitions(conn, YearMonth.from(oldest.toLocalDateTime()),
+                YearMonth.from(newest.toLocalDateTime()));
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
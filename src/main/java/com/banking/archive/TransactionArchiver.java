@@ -0,0 +1,415 @@
+package com.banking.archive;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.TransactionArchive;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.util.DatabaseUtil;
+import com.banking.util.DateUtil;
+import com.banking.util.TransactionPartitions;
+
+/**
+ * Batch job that moves transactions older than a horizon from the live
+ * transactions table to transactions_archive.
+ *
+ * Accounts are archived in blocks of consecutive IDs. For each block one
+ * transaction first adds the signed sum and count of the rows being archived
+ * to account_carry_forward, then moves the rows with a single DELETE ...
+ * RETURNING into the archive, both from the same snapshot. Balances stay
+ * reconcilable at every point, and an interrupted run is resumed by running
+ * it again.
+ *
+ * When transactions is partitioned by month, months that lie entirely before
+ * the horizon are copied to the archive and then detached and dropped as a
+ * whole, which leaves no dead rows behind in the live table.
+ *
+ * The horizon is published in transaction_archive_state before any row
+ * moves, and the job waits until every process has seen it, so reads of an
+ * older range already include the archive when the rows arrive there.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.archive.TransactionArchiver --keep-months 24
+ */
+public class TransactionArchiver {
+
+    private static final int DEFAULT_BLOCK_SIZE = 1000;
+    private static final int DEFAULT_KEEP_MONTHS = 24;
+
+    private static final String SIGNED_AMOUNT =
+            "CASE WHEN transaction_type IN ('DEPOSIT', 'TRANSFER_IN') THEN amount ELSE -amount END";
+
+    private static final String ACCOUNT_RANGE_SQL = "SELECT MIN(account_id), MAX(account_id) FROM accounts";
+    private static final String PUBLISH_HORIZON_SQL =
+            "UPDATE transaction_archive_state SET archived_before = GREATEST(archived_before, ?) " +
+            "WHERE state_id = 1 AND (archived_before IS NULL OR archived_before < ?)";
+    private static final String CARRY_FORWARD_SQL =
+            "INSERT INTO account_carry_forward " +
+            "(account_id, archived_before, balance, transaction_count, last_transaction_id) " +
+            "SELECT account_id, ?, SUM(" + SIGNED_AMOUNT + "), COUNT(*), MAX(transaction_id) FROM %s " +
+            "GROUP BY account_id " +
+            "ON CONFLICT (account_id) DO UPDATE SET " +
+            "archived_before = GREATEST(account_carry_forward.archived_before, EXCLUDED.archived_before), " +
+            "balance = account_carry_forward.balance + EXCLUDED.balance, " +
+            "transaction_count = account_carry_forward.transaction_count + EXCLUDED.transaction_count, " +
+            "last_transaction_id = GREATEST(account_carry_forward.last_transaction_id, EXCLUDED.last_transaction_id)";
+    private static final String BLOCK_ROWS =
+            "transactions WHERE account_id BETWEEN ? AND ? AND transaction_date < ?";
+    private static final String COPY_PARTITION_SQL =
+            "INSERT INTO transactions_archive (" + TransactionArchive.COLUMNS + ") " +
+            "SELECT " + TransactionArchive.COLUMNS + " FROM %s";
+    private static final String MOVE_SQL =
+            "WITH moved AS (DELETE FROM transactions " +
+            "WHERE account_id BETWEEN ? AND ? AND transaction_date < ? " +
+            "RETURNING " + TransactionArchive.COLUMNS + ") " +
+            "INSERT INTO transactions_archive (" + TransactionArchive.COLUMNS + ") " +
+            "SELECT " + TransactionArchive.COLUMNS + " FROM moved";
+
+    private final LocalDateTime archiveBefore;
+    private final int blockSize;
+    private final DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+    private final MethodMetrics blockMetrics = MetricsRegistry.getInstance().method("Archive.block");
+
+    private long accountsCarried;
+    private long rowsMoved;
+    private int partitionsDetached;
+
+    /**
+     * Constructor
+     *
+     * @param archiveBefore Transactions dated before this time are archived
+     * @param blockSize Account IDs per database transaction
+     */
+    public TransactionArchiver(LocalDateTime archiveBefore, int blockSize) {
+        if (archiveBefore == null || blockSize <= 0) {
+            throw new IllegalArgumentException("Archive horizon and a positive block size are required");
+        }
+        if (!archiveBefore.isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Archive horizon must be in the past");
+        }
+        this.archiveBefore = archiveBefore;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Archive all transactions older than the horizon
+     *
+     * @return Number of transactions moved to the archive
+     * @throws Exception if a database operation fails
+     */
+    public long run() throws Exception {
+        long start = System.nanoTime();
+        publishHorizon();
+
+        for (YearMonth month : partitionsBeforeHorizon()) {
+            archivePartition(month);
+        }
+
+        // What is left: partial months, the default partition, or an unpartitioned table
+        int[] range = accountRange();
+        int blocks = 0;
+        if (range != null) {
+            for (long first = range[0]; first <= range[1]; first += blockSize) {
+                archiveBlock((int) first, (int) Math.min(first + blockSize - 1, range[1]));
+                blocks++;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Archived transactions before %s: %d rows from %d accounts, "
+                + "%d partitions detached, %d blocks%n", DateUtil.formatDateTime(archiveBefore), rowsMoved,
+                accountsCarried, partitionsDetached, blocks);
+        System.out.printf("Elapsed %.1f s: %.1f rows/s%n", seconds, rowsMoved / seconds);
+        return rowsMoved;
+    }
+
+    /**
+     * Move the horizon forward and wait until cached horizons have expired
+     *
+     * @throws Exception if the state cannot be updated
+     */
+    private void publishHorizon() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        int updated;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(PUBLISH_HORIZON_SQL);
+            pstmt.setTimestamp(1, Timestamp.valueOf(archiveBefore));
+            pstmt.setTimestamp(2, Timestamp.valueOf(archiveBefore));
+            updated = pstmt.executeUpdate();
+        } finally {
+            if (pstmt != null) pstmt.close();
+            if (conn != null) dbConfig.closeConnection(conn);
+        }
+
+        TransactionArchive archive = TransactionArchive.getInstance();
+        archive.refresh();
+        if (updated > 0) {
+            // Readers in other processes still use the old horizon until their cache expires
+            long waitMillis = archive.getRefreshMillis() + 1000;
+            System.out.printf("Published archive horizon %s, waiting %d s for readers to pick it up%n",
+                    DateUtil.formatDateTime(archiveBefore), waitMillis / 1000);
+            Thread.sleep(waitMillis);
+        }
+    }
+
+    /**
+     * Carry forward and move one block's old transactions in one database transaction
+     *
+     * @param firstAccountId First account ID (inclusive)
+     * @param lastAccountId Last account ID (inclusive)
+     * @throws Exception if the block cannot be archived; it is rolled back
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private void archiveBlock(int firstAccountId, int lastAccountId) throws Exception {
+        long start = System.nanoTime();
+        Timestamp horizon = Timestamp.valueOf(archiveBefore);
+        int moved = 0;
+        boolean failed = true;
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            // The carry-forward and the DELETE must see exactly the same rows
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+            pstmt = conn.prepareStatement(String.format(CARRY_FORWARD_SQL, BLOCK_ROWS));
+            pstmt.setTimestamp(1, horizon);
+            pstmt.setInt(2, firstAccountId);
+            pstmt.setInt(3, lastAccountId);
+            pstmt.setTimestamp(4, horizon);
+            int carried = pstmt.executeUpdate();
+            pstmt.close();
+
+            pstmt = conn.prepareStatement(MOVE_SQL);
+            pstmt.setInt(1, firstAccountId);
+            pstmt.setInt(2, lastAccountId);
+            pstmt.setTimestamp(3, horizon);
+            moved = pstmt.executeUpdate();
+
+            conn.commit();
+            accountsCarried += carried;
+            rowsMoved += moved;
+            failed = false;
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (Exception rollbackEx) {
+                    System.err.println("Error during transaction rollback");
+                }
+            }
+            throw e;
+        } finally {
+            blockMetrics.record(System.nanoTime() - start, 0, moved, failed);
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                try {
+                    conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    conn.setAutoCommit(true);
+                } catch (Exception e) {
+                    System.err.println("Error resetting auto-commit");
+                }
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Get the month partitions that lie entirely before the horizon
+     *
+     * @return Months, oldest first; empty if transactions is not partitioned
+     * @throws Exception if the catalog cannot be read
+     */
+    private List<YearMonth> partitionsBeforeHorizon() throws Exception {
+        Connection conn = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            List<YearMonth> months = new ArrayList<>();
+            if (TransactionPartitions.isPartitioned(conn)) {
+                for (YearMonth month : TransactionPartitions.listPartitions(conn)) {
+                    if (!month.plusMonths(1).atDay(1).atStartOfDay().isAfter(archiveBefore)) {
+                        months.add(month);
+                    }
+                }
+            }
+            return months;
+        } finally {
+            if (conn != null) dbConfig.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Archive a whole month partition: carry forward and copy its rows, then
+     * detach and drop it instead of deleting the rows one by one
+     *
+     * @param month Month of the partition
+     * @throws Exception if the partition cannot be archived; it is rolled back
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private void archivePartition(YearMonth month) throws Exception {
+        long start = System.nanoTime();
+        String partition = TransactionPartitions.partitionName(month);
+        int moved = 0;
+        boolean failed = true;
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+
+            // Late inserts into this month must wait until the partition is gone
+            pstmt = conn.prepareStatement("LOCK TABLE " + partition + " IN SHARE MODE");
+            pstmt.execute();
+            pstmt.close();
+
+            pstmt = conn.prepareStatement(String.format(CARRY_FORWARD_SQL, partition));
+            pstmt.setTimestamp(1, Timestamp.valueOf(archiveBefore));
+            int carried = pstmt.executeUpdate();
+            pstmt.close();
+
+            pstmt = conn.prepareStatement(String.format(COPY_PARTITION_SQL, partition));
+            moved = pstmt.executeUpdate();
+            pstmt.close();
+
+            pstmt = conn.prepareStatement("ALTER TABLE transactions DETACH PARTITION " + partition);
+            pstmt.execute();
+            pstmt.close();
+
+            pstmt = conn.prepareStatement("DROP TABLE " + partition);
+            pstmt.execute();
+
+            conn.commit();
+            accountsCarried += carried;
+            rowsMoved += moved;
+            partitionsDetached++;
+            failed = false;
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (Exception rollbackEx) {
+                    System.err.println("Error during transaction rollback");
+                }
+            }
+            throw e;
+        } finally {
+            blockMetrics.record(System.nanoTime() - start, 0, moved, failed);
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (Exception e) {
+                    System.err.println("Error resetting auto-commit");
+                }
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    private int[] accountRange() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(ACCOUNT_RANGE_SQL);
+            rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            int min = rs.getInt(1);
+            return rs.wasNull() ? null : new int[] {min, rs.getInt(2)};
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) dbConfig.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Archive old transactions
+     *
+     * @param args --before yyyy-MM-dd, or --keep-months N (default 24) to keep
+     * that many whole months live; --block-size
+     */
+    public static void main(String[] args) {
+        LocalDate before = null;
+        int keepMonths = DEFAULT_KEEP_MONTHS;
+        int blockSize = DEFAULT_BLOCK_SIZE;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                String value = args[++i];
+                switch (name) {
+                    case "--before":
+                        before = LocalDate.parse(value);
+                        break;
+                    case "--keep-months":
+                        keepMonths = Integer.parseInt(value);
+                        break;
+                    case "--block-size":
+                        blockSize = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + name);
+                }
+            }
+            if (before == null) {
+                if (keepMonths < 0) {
+                    throw new IllegalArgumentException("--keep-months must not be negative");
+                }
+                before = LocalDate.now().withDayOfMonth(1).minusMonths(keepMonths);
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: TransactionArchiver [--before yyyy-MM-dd | --keep-months N] [--block-size N]");
+            System.exit(2);
+        }
+
+        if (!DatabaseUtil.initializeDatabase()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        int status = 1;
+        try {
+            new TransactionArchiver(before.atStartOfDay(), blockSize).run();
+            status = 0;
+        } catch (Exception e) {
+            System.err.println("Archiving failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (MetricsRegistry.isEnabled()) {
+                MetricsRegistry.getInstance().shutdown();
+            }
+            DatabaseConfig.getInstance().shutdown();
+        }
+        System.exit(status);
+    }
+}
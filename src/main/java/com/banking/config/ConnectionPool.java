@@ -0,0 +1,405 @@
+package com.banking.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size pool of PostgreSQL connections.
+ *
+ * Physical connections stay open between DAO calls, so the statements pgjdbc
+ * caches per connection (preparedStatementCacheQueries) survive from one call
+ * to the next and frequently used SQL is parsed and planned once on the server
+ * instead of on every call. Callers get a wrapper whose close() returns the
+ * physical connection to the pool.
+ *
+ * The pool keeps a copy of each connection's statement cache keys so it can
+ * report how often a prepareStatement() call hit an already-prepared query.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Properties properties;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private volatile boolean shutdown;
+
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong physicalOpens = new AtomicLong();
+
+    // Wait time of the current thread across all pools, read by the DAO metrics
+    private static final ThreadLocal<long[]> THREAD_WAIT_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+    // Last SQL prepared by the current thread, read by the DAO query JFR events
+    private static final ThreadLocal<String> THREAD_LAST_SQL = new ThreadLocal<>();
+
+    /**
+     * Constructor
+     *
+     * @param url JDBC URL
+     * @param user Database user
+     * @param password Database password
+     * @param maxSize Maximum number of open connections
+     * @param acquireTimeoutMillis How long getConnection() waits for a free connection
+     * @param prepareThreshold Executions before pgjdbc switches a statement to a
+     * named server-side prepared statement
+     * @param statementCacheSize Statements cached per connection
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize,
+            long acquireTimeoutMillis, int prepareThreshold, int statementCacheSize) {
+        this.url = url;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        properties = new Properties();
+        properties.setProperty("user", user);
+        properties.setProperty("password", password);
+        properties.setProperty("prepareThreshold", String.valueOf(prepareThreshold));
+        properties.setProperty("preparedStatementCacheQueries", String.valueOf(statementCacheSize));
+    }
+
+    /**
+     * Borrow a connection, opening a new one if none is idle
+     *
+     * @return Connection whose close() returns it to the pool
+     * @throws SQLException if no connection is free within the timeout or opening fails
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool is shut down");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + acquireTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.addAndGet(waited);
+        THREAD_WAIT_NANOS.get()[0] += waited;
+        acquisitions.incrementAndGet();
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, properties));
+                physicalOpens.incrementAndGet();
+            }
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close all idle connections and refuse new requests. Connections that are
+     * currently borrowed are closed when they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        synchronized (idle) {
+            for (PooledConnection pooled : idle) {
+                pooled.closePhysical();
+            }
+            idle.clear();
+        }
+    }
+
+    /**
+     * Get a snapshot of the pool and statement cache counters
+     *
+     * @return Stats
+     */
+    public Stats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        return new Stats(statementHits.get(), statementMisses.get(), acquisitions.get(),
+                waitNanos.get(), physicalOpens.get(), maxSize - permits.availablePermits(), idleCount);
+    }
+
+    /**
+     * Get the total time the calling thread has waited for connections, so
+     * callers can measure the wait of one operation by taking a difference
+     *
+     * @return Cumulative wait in nanoseconds
+     */
+    public static long getCurrentThreadWaitNanos() {
+        return THREAD_WAIT_NANOS.get()[0];
+    }
+
+    /**
+     * Get the last SQL the calling thread prepared on a pooled connection
+     *
+     * @return SQL text, or null if nothing was prepared since the last clear
+     */
+    public static String getCurrentThreadLastSql() {
+        return THREAD_LAST_SQL.get();
+    }
+
+    /**
+     * Forget the calling thread's last prepared SQL
+     */
+    public static void clearCurrentThreadLastSql() {
+        THREAD_LAST_SQL.remove();
+    }
+
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null || pooled.isUsable()) {
+                return pooled;
+            }
+            pooled.closePhysical();
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            if (shutdown || !pooled.reset()) {
+                pooled.closePhysical();
+            } else {
+                synchronized (idle) {
+                    // Most recently used first, its statements are the warmest
+                    idle.addFirst(pooled);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * A physical connection and the SQL strings its statement cache holds
+     */
+    private class PooledConnection {
+
+        private final Connection physical;
+
+        // Mirrors pgjdbc's per-connection LRU so hits can be counted
+        private final Set<String> preparedSql = Collections.newSetFromMap(
+                new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > statementCacheSize;
+            }
+        });
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new Lease());
+        }
+
+        boolean isUsable() {
+            try {
+                return !physical.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Undo per-borrow state before the connection is reused
+         *
+         * @return true if the connection can go back to the pool
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                System.err.println("Discarding pooled connection: " + e.getMessage());
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing pooled connection");
+            }
+        }
+
+        void recordPrepare(String sql) {
+            boolean hit;
+            synchronized (preparedSql) {
+                hit = !preparedSql.add(sql);
+            }
+            if (hit) {
+                statementHits.incrementAndGet();
+            } else {
+                statementMisses.incrementAndGet();
+            }
+        }
+
+        /**
+         * Handler for one borrow of the connection
+         */
+        private class Lease implements InvocationHandler {
+
+            private boolean closed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                switch (name) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            release(PooledConnection.this);
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed || physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled" + physical;
+                    default:
+                        break;
+                }
+
+                if (closed) {
+                    throw new SQLException("Connection has been returned to the pool");
+                }
+                if (("prepareStatement".equals(name) || "prepareCall".equals(name))
+                        && args != null && args[0] instanceof String) {
+                    recordPrepare((String) args[0]);
+                    THREAD_LAST_SQL.set((String) args[0]);
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+
+    /**
+     * Point-in-time pool and statement cache counters
+     */
+    public static class Stats {
+
+        private final long statementHits;
+        private final long statementMisses;
+        private final long acquisitions;
+        private final long waitNanos;
+        private final long physicalOpens;
+        private final int active;
+        private final int idle;
+
+        Stats(long statementHits, long statementMisses, long acquisitions, long waitNanos,
+                long physicalOpens, int active, int idle) {
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+            this.acquisitions = acquisitions;
+            this.waitNanos = waitNanos;
+            this.physicalOpens = physicalOpens;
+            this.active = active;
+            this.idle = idle;
+        }
+
+        /**
+         * Get the fraction of prepareStatement() calls served from a connection's cache
+         *
+         * @return Hit rate between 0 and 1, or 0 if nothing was prepared yet
+         */
+        public double getStatementHitRate() {
+            long total = statementHits + statementMisses;
+            return total == 0 ? 0.0 : (double) statementHits / total;
+        }
+
+        /**
+         * Get the average time callers waited for a connection
+         *
+         * @return Average wait in milliseconds
+         */
+        public double getAverageWaitMillis() {
+            return acquisitions == 0 ? 0.0 : waitNanos / 1_000_000.0 / acquisitions;
+        }
+
+        // Getters
+        public long getStatementHits() {
+            return statementHits;
+        }
+
+        public long getStatementMisses() {
+            return statementMisses;
+        }
+
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+
+        public long getPhysicalOpens() {
+            return physicalOpens;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("statements: %d hits / %d misses (%.1f%% hit rate), "
+                    + "connections: %d active, %d idle, %d opened, %d borrows, %.2f ms avg wait",
+                    statementHits, statementMisses, getStatementHitRate() * 100,
+                    active, idle, physicalOpens, acquisitions, getAverageWaitMillis());
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.banking.config;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
+import org.postgresql.PGStatement;
+
 /**
  * Database configuration and connection management
  */
@@ -14,8 +16,44 @@ public class DatabaseConfig {
     private static final String DB_USER = "postgres";
     private static final String DB_PASSWORD = "Abdullah@1234"; 
 
+    /**
+     * System property that overrides the JDBC URL, e.g. to point benchmarks at
+     * a scratch database
+     */
+    public static final String URL_PROPERTY = "finvault.db.url";
+
+    /**
+     * System property that overrides the database user
+     */
+    public static final String USER_PROPERTY = "finvault.db.user";
+
+    /**
+     * System property that overrides the database password
+     */
+    public static final String PASSWORD_PROPERTY = "finvault.db.password";
+
+    /**
+     * System property for the maximum number of pooled connections
+     */
+    public static final String POOL_SIZE_PROPERTY = "finvault.db.poolSize";
+
+    /**
+     * System property for the number of executions before pgjdbc switches a
+     * statement to a named server-side prepared statement
+     */
+    public static final String PREPARE_THRESHOLD_PROPERTY = "finvault.db.prepareThreshold";
+
+    /**
+     * System property for the number of statements cached per connection
+     */
+    public static final String STATEMENT_CACHE_PROPERTY = "finvault.db.statementCacheSize";
+
+    private static final long ACQUIRE_TIMEOUT_MILLIS = 30_000;
+
     private static DatabaseConfig instance;
 
+    private final ConnectionPool pool;
+
     private DatabaseConfig() {
         // Private constructor to enforce singleton pattern
         try {
@@ -24,6 +62,11 @@ public class DatabaseConfig {
         } catch (ClassNotFoundException e) {
             System.err.println("PostgreSQL JDBC Driver not found!");
         }
+        pool = new ConnectionPool(System.getProperty(URL_PROPERTY, DB_URL),
+                System.getProperty(USER_PROPERTY, DB_USER), System.getProperty(PASSWORD_PROPERTY, DB_PASSWORD),
+                Integer.getInteger(POOL_SIZE_PROPERTY, 10), ACQUIRE_TIMEOUT_MILLIS,
+                Integer.getInteger(PREPARE_THRESHOLD_PROPERTY, 5),
+                Integer.getInteger(STATEMENT_CACHE_PROPERTY, 256));
     }
 
     /**
@@ -39,17 +82,46 @@ public class DatabaseConfig {
     }
 
     /**
-     * Get a connection to the database
+     * Get a connection to the database from the pool
      *
-     * @return Connection object
+     * @return Connection object, closing it returns it to the pool
      * @throws SQLException if connection fails
      */
     public Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return pool.getConnection();
+    }
+
+    /**
+     * Get connection pool and statement cache counters
+     *
+     * @return Stats snapshot
+     */
+    public ConnectionPool.Stats getPoolStats() {
+        return pool.getStats();
+    }
+
+    /**
+     * Close all pooled connections
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Make a hot statement use a named server-side prepared statement from its
+     * first execution instead of after the connection's prepare threshold
+     *
+     * @param statement Statement created from a pooled connection
+     * @throws SQLException if the statement cannot be unwrapped
+     */
+    public static void prepareOnServer(PreparedStatement statement) throws SQLException {
+        if (statement.isWrapperFor(PGStatement.class)) {
+            statement.unwrap(PGStatement.class).setPrepareThreshold(1);
+        }
     }
 
     /**
-     * Close a database connection safely
+     * Return a database connection to the pool safely
      *
      * @param connection Connection to close
      */
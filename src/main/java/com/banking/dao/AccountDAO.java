@@ -1,7 +1,9 @@
 package com.banking.dao;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.banking.model.Account;
 import com.banking.model.CurrentAccount;
@@ -40,10 +42,12 @@ public interface AccountDAO {
     boolean updateAccount(Account account) throws Exception;
 
     /**
-     * Delete an account by ID
+     * Delete an account by ID. The account is marked DELETED at once and
+     * disappears from lookups; its transactions are removed later by the
+     * purger.
      *
      * @param accountId Account identifier
-     * @return true if deleted successfully, false otherwise
+     * @return true if deleted successfully, false if not found or already deleted
      * @throws Exception if database operation fails
      */
     boolean deleteAccount(int accountId) throws Exception;
@@ -122,4 +126,72 @@ public interface AccountDAO {
      * @throws Exception if database operation fails
      */
     boolean updateAccountStatus(int accountId, String newStatus) throws Exception;
+
+    /**
+     * Spread credits to an account over a number of sub-balance rows, so
+     * concurrent deposits and incoming transfers do not queue on the account
+     * row. Reads still return the whole balance. 0 turns striping off.
+     *
+     * @param accountId Account identifier
+     * @param stripes Number of stripes, 0 for none
+     * @throws Exception if the account does not exist or the database operation fails
+     */
+    void setBalanceStripes(int accountId, int stripes) throws Exception;
+
+    /**
+     * Count all accounts matching a page request
+     *
+     * @param request Filter (SAVINGS, CURRENT, ACTIVE, CLOSED or FROZEN) and search term
+     * @return Number of matching accounts
+     * @throws Exception if database operation fails
+     */
+    int countAccounts(PageRequest request) throws Exception;
+
+    /**
+     * Sum the balances of all accounts matching a page request
+     *
+     * @param request Filter and search term (sort order is ignored)
+     * @return Total balance
+     * @throws Exception if database operation fails
+     */
+    BigDecimal getTotalBalance(PageRequest request) throws Exception;
+
+    /**
+     * Get one page of accounts using keyset pagination
+     *
+     * @param request Filter, search term and sort order (id, type, balance, status or opened)
+     * @param after Last account of the previous page, or null for the first page
+     * @param limit Maximum number of accounts to return
+     * @return Accounts following the cursor in the requested order
+     * @throws Exception if database operation fails
+     */
+    List<Account> getAccountsPage(PageRequest request, Account after, int limit) throws Exception;
+
+    /**
+     * Get the account at a given position of a page request
+     *
+     * @param request Filter, search term and sort order
+     * @param offset Zero-based position in the ordered result
+     * @return Account at that position, or null if out of range
+     * @throws Exception if database operation fails
+     */
+    Account getAccountAtOffset(PageRequest request, int offset) throws Exception;
+
+    /**
+     * Get accounts created after a given account ID
+     *
+     * @param accountId Highest account ID already seen (0 for all accounts)
+     * @return Accounts with a greater ID, in ID order
+     * @throws Exception if database operation fails
+     */
+    List<Account> getAccountsAfterId(int accountId) throws Exception;
+
+    /**
+     * Get several accounts by ID in a single query
+     *
+     * @param accountIds Account identifiers
+     * @return Map of account ID to account, missing and deleted IDs are omitted
+     * @throws Exception if database operation fails
+     */
+    Map<Integer, Account> getAccountsByIds(Collection<Integer> accountIds) throws Exception;
 }
@@ -8,11 +8,15 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.banking.config.DatabaseConfig;
 import com.banking.model.Account;
 import com.banking.model.CurrentAccount;
+import com.banking.model.Money;
 import com.banking.model.SavingsAccount;
 
 /**
@@ -20,6 +24,45 @@ import com.banking.model.SavingsAccount;
  */
 public class AccountDAOImpl implements AccountDAO {
 
+    // The opening balance is recorded as an initial deposit in the same
+    // statement, so an account's transactions always add up to its balance
+    private static final String INSERT_ACCOUNT_SQL =
+            "WITH new_account AS (" +
+            "INSERT INTO accounts (customer_id, account_type, balance, interest_rate, date_opened, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?) RETURNING account_id, balance, date_opened), " +
+            "opening AS (" +
+            "INSERT INTO transactions (account_id, transaction_type, amount, transaction_date, description) " +
+            "SELECT account_id, 'DEPOSIT', balance, date_opened, 'Initial deposit' FROM new_account " +
+            "WHERE balance > 0) " +
+            "SELECT account_id FROM new_account";
+
+    // Deleting only flips the status and queues the account for the purger,
+    // which removes its transactions in small batches later
+    private static final String SOFT_DELETE_ACCOUNT_SQL =
+            "WITH deleted AS (" +
+            "UPDATE accounts SET status = 'DELETED' WHERE account_id = ? AND status <> 'DELETED' " +
+            "RETURNING account_id) " +
+            "INSERT INTO purge_queue (entity_type, entity_id) SELECT 'ACCOUNT', account_id FROM deleted " +
+            "ON CONFLICT (entity_type, entity_id) DO NOTHING";
+
+    // Striped accounts keep part of their balance in account_balance_stripes,
+    // every read adds it back
+    private static final String ACCOUNT_COLUMNS = "a.*, fv_balance(a) AS current_balance";
+
+    // Setting an absolute balance leaves the stripes alone and stores the
+    // rest in the base row, so stripe credits committed meanwhile survive
+    private static final String BASE_BALANCE_SQL =
+            "? - COALESCE((SELECT SUM(s.balance) FROM account_balance_stripes s WHERE s.account_id = ?), 0)";
+
+    private static final String ADJUST_BALANCE_SQL = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
+
+    // Striped accounts are left to fv_deposit and fv_transfer, which credit
+    // a stripe under a shared lock instead of locking the whole row
+    private static final String CREDIT_UNSTRIPED_SQL = "UPDATE accounts AS a SET balance = balance + ? "
+            + "WHERE account_id = ? AND status = 'ACTIVE' AND balance_stripes = 0 RETURNING fv_balance(a)";
+
+    private static final String SET_BALANCE_STRIPES_SQL = "SELECT fv_set_balance_stripes(?, ?)";
+
     private final DatabaseConfig dbConfig;
 
     /**
@@ -63,7 +106,7 @@ public class AccountDAOImpl implements AccountDAO {
 
         account.setAccountId(rs.getInt("account_id"));
         account.setCustomerId(rs.getInt("customer_id"));
-        account.setBalance(rs.getBigDecimal("balance"));
+        account.setBalance(Money.parse(rs.getString("current_balance")));
 
         Timestamp dateOpened = rs.getTimestamp("date_opened");
         if (dateOpened != null) {
@@ -96,17 +139,14 @@ public class AccountDAOImpl implements AccountDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "INSERT INTO accounts (customer_id, account_type, balance, interest_rate, date_opened, status) "
-                    +
-                    "VALUES (?, 'SAVINGS', ?, ?, ?, ?) RETURNING account_id";
-
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(INSERT_ACCOUNT_SQL);
             pstmt.setInt(1, account.getCustomerId());
-            pstmt.setBigDecimal(2, account.getBalance());
-            pstmt.setBigDecimal(3, account.getInterestRate());
-            pstmt.setTimestamp(4,
+            pstmt.setString(2, "SAVINGS");
+            pstmt.setBigDecimal(3, account.getBalanceMoney().toBigDecimal());
+            pstmt.setBigDecimal(4, account.getInterestRate());
+            pstmt.setTimestamp(5,
                     Timestamp.valueOf(account.getDateOpened() != null ? account.getDateOpened() : LocalDateTime.now()));
-            pstmt.setString(5, account.getStatus() != null ? account.getStatus() : "ACTIVE");
+            pstmt.setString(6, account.getStatus() != null ? account.getStatus() : "ACTIVE");
 
             rs = pstmt.executeQuery();
 
@@ -142,17 +182,14 @@ public class AccountDAOImpl implements AccountDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "INSERT INTO accounts (customer_id, account_type, balance, interest_rate, date_opened, status) "
-                    +
-                    "VALUES (?, 'CURRENT', ?, ?, ?, ?) RETURNING account_id";
-
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(INSERT_ACCOUNT_SQL);
             pstmt.setInt(1, account.getCustomerId());
-            pstmt.setBigDecimal(2, account.getBalance());
-            pstmt.setBigDecimal(3, account.getOverdraftLimit()); // Using interest_rate column for overdraft limit
-            pstmt.setTimestamp(4,
+            pstmt.setString(2, "CURRENT");
+            pstmt.setBigDecimal(3, account.getBalanceMoney().toBigDecimal());
+            pstmt.setBigDecimal(4, account.getOverdraftLimit()); // Using interest_rate column for overdraft limit
+            pstmt.setTimestamp(5,
                     Timestamp.valueOf(account.getDateOpened() != null ? account.getDateOpened() : LocalDateTime.now()));
-            pstmt.setString(5, account.getStatus() != null ? account.getStatus() : "ACTIVE");
+            pstmt.setString(6, account.getStatus() != null ? account.getStatus() : "ACTIVE");
 
             rs = pstmt.executeQuery();
 
@@ -182,36 +219,36 @@ public class AccountDAOImpl implements AccountDAO {
     @SuppressWarnings("UseSpecificCatch")
     public Account getAccountById(int accountId) throws Exception {
         Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
 
         try {
             conn = dbConfig.getConnection();
+            return getAccountById(conn, accountId, false);
+        } finally {
+            if (conn != null)
+                dbConfig.closeConnection(conn);
+        }
+    }
 
-            String sql = "SELECT * FROM accounts WHERE account_id = ?";
-            pstmt = conn.prepareStatement(sql);
+    /**
+     * Get an account on a connection the caller manages, so a posting reads,
+     * updates and records on one connection
+     *
+     * @param conn Open connection
+     * @param accountId Account identifier
+     * @param forUpdate true to lock the row until the caller's transaction ends
+     * @return Account object if found, null otherwise
+     * @throws Exception if database operation fails
+     */
+    Account getAccountById(Connection conn, int accountId, boolean forUpdate) throws Exception {
+        String sql = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a WHERE a.account_id = ? AND a.status <> 'DELETED'"
+                + (forUpdate ? " FOR UPDATE OF a" : "");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            DatabaseConfig.prepareOnServer(pstmt);
             pstmt.setInt(1, accountId);
 
-            rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return mapAccountFromResultSet(rs);
-            } else {
-                return null; // Account not found
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapAccountFromResultSet(rs) : null;
             }
-        } finally {
-            if (rs != null)
-                try {
-                    rs.close();
-                } catch (Exception e) {
-                    /* ignore */ }
-            if (pstmt != null)
-                try {
-                    pstmt.close();
-                } catch (Exception e) {
-                    /* ignore */ }
-            if (conn != null)
-                dbConfig.closeConnection(conn);
         }
     }
 
@@ -242,7 +279,7 @@ public class AccountDAOImpl implements AccountDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "UPDATE accounts SET balance = ?, status = ? WHERE account_id = ?";
+            String sql = "UPDATE accounts SET balance = " + BASE_BALANCE_SQL + ", status = ? WHERE account_id = ?";
 
             // For updates specific to account types
             BigDecimal interestOrOverdraft = BigDecimal.ZERO;
@@ -250,18 +287,20 @@ public class AccountDAOImpl implements AccountDAO {
                 interestOrOverdraft = ((SavingsAccount) account).getInterestRate();
             } else if (account instanceof CurrentAccount) {
                 interestOrOverdraft = ((CurrentAccount) account).getOverdraftLimit();
-                sql = "UPDATE accounts SET balance = ?, status = ?, interest_rate = ? WHERE account_id = ?";
+                sql = "UPDATE accounts SET balance = " + BASE_BALANCE_SQL
+                        + ", status = ?, interest_rate = ? WHERE account_id = ?";
             }
 
             pstmt = conn.prepareStatement(sql);
-            pstmt.setBigDecimal(1, account.getBalance());
-            pstmt.setString(2, account.getStatus());
+            pstmt.setBigDecimal(1, account.getBalanceMoney().toBigDecimal());
+            pstmt.setInt(2, account.getAccountId());
+            pstmt.setString(3, account.getStatus());
 
             if (account instanceof CurrentAccount) {
-                pstmt.setBigDecimal(3, interestOrOverdraft);
-                pstmt.setInt(4, account.getAccountId());
+                pstmt.setBigDecimal(4, interestOrOverdraft);
+                pstmt.setInt(5, account.getAccountId());
             } else {
-                pstmt.setInt(3, account.getAccountId());
+                pstmt.setInt(4, account.getAccountId());
             }
 
             int affectedRows = pstmt.executeUpdate();
@@ -286,10 +325,11 @@ public class AccountDAOImpl implements AccountDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
+            String sql = "UPDATE accounts SET balance = " + BASE_BALANCE_SQL + " WHERE account_id = ?";
             pstmt = conn.prepareStatement(sql);
             pstmt.setBigDecimal(1, newBalance);
             pstmt.setInt(2, accountId);
+            pstmt.setInt(3, accountId);
 
             int affectedRows = pstmt.executeUpdate();
             return affectedRows > 0;
@@ -304,6 +344,68 @@ public class AccountDAOImpl implements AccountDAO {
         }
     }
 
+    /**
+     * Add an amount to an account's balance on a connection the caller
+     * manages. A delta never overwrites concurrent stripe credits.
+     *
+     * @param conn Open connection
+     * @param accountId Account identifier
+     * @param amount Amount to add, negative to subtract
+     * @return true if updated successfully, false otherwise
+     * @throws SQLException if database operation fails
+     */
+    boolean adjustBalance(Connection conn, int accountId, BigDecimal amount) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(ADJUST_BALANCE_SQL)) {
+            pstmt.setBigDecimal(1, amount);
+            pstmt.setInt(2, accountId);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Add an amount to an active account that does not keep its balance in
+     * stripes, on a connection the caller manages
+     *
+     * @param conn Open connection
+     * @param accountId Account identifier
+     * @param amount Amount to add
+     * @return New balance, or null if the account is missing, not active or striped
+     * @throws SQLException if database operation fails
+     */
+    BigDecimal creditUnstriped(Connection conn, int accountId, BigDecimal amount) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CREDIT_UNSTRIPED_SQL)) {
+            DatabaseConfig.prepareOnServer(pstmt);
+            pstmt.setBigDecimal(1, amount);
+            pstmt.setInt(2, accountId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getBigDecimal(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Lock an account that does not keep its balance in stripes, on a
+     * connection the caller manages
+     *
+     * @param conn Open connection
+     * @param accountId Account identifier
+     * @return Account object, or null if the account is missing or striped
+     * @throws Exception if database operation fails
+     */
+    Account lockUnstripedAccount(Connection conn, int accountId) throws Exception {
+        String sql = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a WHERE a.account_id = ? AND a.status <> 'DELETED'"
+                + " AND a.balance_stripes = 0 FOR UPDATE OF a";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            DatabaseConfig.prepareOnServer(pstmt);
+            pstmt.setInt(1, accountId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapAccountFromResultSet(rs) : null;
+            }
+        }
+    }
+
     @Override
     @SuppressWarnings("UseSpecificCatch")
     public boolean updateAccountStatus(int accountId, String newStatus) throws Exception {
@@ -333,54 +435,47 @@ public class AccountDAOImpl implements AccountDAO {
 
     @Override
     @SuppressWarnings("UseSpecificCatch")
-    public boolean deleteAccount(int accountId) throws Exception {
+    public void setBalanceStripes(int accountId, int stripes) throws Exception {
         Connection conn = null;
         PreparedStatement pstmt = null;
 
         try {
             conn = dbConfig.getConnection();
 
-            // Begin transaction
-            conn.setAutoCommit(false);
-
-            // First delete all associated transactions
-            String deleteTransactionsSql = "DELETE FROM transactions WHERE account_id = ? OR recipient_account_id = ?";
-            pstmt = conn.prepareStatement(deleteTransactionsSql);
+            // Folds the current stripes into the balance before changing their number
+            pstmt = conn.prepareStatement(SET_BALANCE_STRIPES_SQL);
             pstmt.setInt(1, accountId);
-            pstmt.setInt(2, accountId);
-            pstmt.executeUpdate();
-            pstmt.close();
+            pstmt.setInt(2, stripes);
+            pstmt.execute();
+        } catch (SQLException e) {
+            throw TransactionDAOImpl.translateLedgerError(e);
+        } finally {
+            if (pstmt != null)
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (conn != null)
+                dbConfig.closeConnection(conn);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public boolean deleteAccount(int accountId) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
 
-            // Then delete the account
-            String deleteAccountSql = "DELETE FROM accounts WHERE account_id = ?";
-            pstmt = conn.prepareStatement(deleteAccountSql);
+        try {
+            conn = dbConfig.getConnection();
+
+            // One statement, so the status flip and the purge request commit together
+            pstmt = conn.prepareStatement(SOFT_DELETE_ACCOUNT_SQL);
             pstmt.setInt(1, accountId);
             int affectedRows = pstmt.executeUpdate();
 
-            // Commit transaction
-            conn.commit();
-
             return affectedRows > 0;
-        } catch (Exception e) {
-            // Rollback transaction on error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (Exception rollbackEx) {
-                    System.err.println("Error during transaction rollback");
-                }
-            }
-            throw e;
         } finally {
-            // Reset auto-commit
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                } catch (Exception e) {
-                    System.err.println("Error resetting auto-commit");
-                }
-            }
-
             if (pstmt != null)
                 try {
                     pstmt.close();
@@ -401,7 +496,8 @@ public class AccountDAOImpl implements AccountDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM accounts WHERE customer_id = ? ORDER BY account_id";
+            String sql = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a WHERE a.customer_id = ? "
+                    + "AND a.status <> 'DELETED' ORDER BY a.account_id";
             pstmt = conn.prepareStatement(sql);
             pstmt.setInt(1, customerId);
 
@@ -439,7 +535,8 @@ public class AccountDAOImpl implements AccountDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM accounts WHERE customer_id = ? AND account_type = ? ORDER BY account_id";
+            String sql = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a WHERE a.customer_id = ? AND a.account_type = ? "
+                    + "AND a.status <> 'DELETED' ORDER BY a.account_id";
             pstmt = conn.prepareStatement(sql);
             pstmt.setInt(1, customerId);
             pstmt.setString(2, accountType);
@@ -467,4 +564,316 @@ public class AccountDAOImpl implements AccountDAO {
                 dbConfig.closeConnection(conn);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Translate a sort key into a whitelisted SQL column
+     *
+     * @param sortKey Sort key from a page request
+     * @return SQL column name
+     */
+    private String accountSortColumn(String sortKey) {
+        if (sortKey == null) {
+            return "a.account_id";
+        }
+        switch (sortKey) {
+            case "id":
+                return "a.account_id";
+            case "type":
+                return "a.account_type";
+            case "balance":
+                return "fv_balance(a)";
+            case "status":
+                return KeysetQuery.nullableText("a.status");
+            case "opened":
+                return KeysetQuery.nullableTimestamp("a.date_opened");
+            default:
+                throw new IllegalArgumentException("Unknown account sort key: " + sortKey);
+        }
+    }
+
+    /**
+     * Extract the value of the sort column from an account
+     *
+     * @param account Account used as keyset cursor
+     * @param sortKey Sort key from a page request
+     * @return Value to compare against the sort column
+     */
+    private Object accountSortValue(Account account, String sortKey) {
+        if (sortKey == null) {
+            return account.getAccountId();
+        }
+        switch (sortKey) {
+            case "type":
+                return account.getAccountType();
+            case "balance":
+                return account.getBalanceMoney().toBigDecimal();
+            case "status":
+                return KeysetQuery.orEmpty(account.getStatus());
+            case "opened":
+                return KeysetQuery.orEpoch(account.getDateOpened());
+            default:
+                return account.getAccountId();
+        }
+    }
+
+    /**
+     * Build the WHERE clause shared by all paged account queries. Queries
+     * select from "accounts a JOIN customers c" so the search term can match
+     * the owning customer.
+     *
+     * @param request Page request
+     * @return KeysetQuery with filter and search conditions applied
+     */
+    private KeysetQuery buildAccountQuery(PageRequest request) {
+        KeysetQuery query = new KeysetQuery(accountSortColumn(request.getSortKey()),
+                "a.account_id", request.isAscending());
+        query.and("a.status <> 'DELETED'");
+
+        String filter = request.getFilter();
+        if ("SAVINGS".equals(filter) || "CURRENT".equals(filter)) {
+            query.and("a.account_type = ?", filter);
+        } else if (filter != null) {
+            query.and("a.status = ?", filter);
+        }
+
+        String pattern = request.getSearchPattern();
+        if (pattern != null) {
+            query.and("CAST(a.account_id AS TEXT) LIKE ? "
+                    + "OR LOWER(c.first_name || ' ' || c.last_name) LIKE ? "
+                    + "OR LOWER(c.email) LIKE ?", pattern, pattern, pattern);
+        }
+
+        return query;
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public int countAccounts(PageRequest request) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildAccountQuery(request);
+            String sql = "SELECT COUNT(*) FROM accounts a JOIN customers c ON c.customer_id = a.customer_id"
+                    + query.where();
+            pstmt = conn.prepareStatement(sql);
+            query.bind(pstmt);
+
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            if (rs != null)
+                try {
+                    rs.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (pstmt != null)
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (conn != null)
+                dbConfig.closeConnection(conn);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public BigDecimal getTotalBalance(PageRequest request) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildAccountQuery(request);
+            String sql = "SELECT COALESCE(SUM(fv_balance(a)), 0) FROM accounts a "
+                    + "JOIN customers c ON c.customer_id = a.customer_id" + query.where();
+            pstmt = conn.prepareStatement(sql);
+            query.bind(pstmt);
+
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO;
+        } finally {
+            if (rs != null)
+                try {
+                    rs.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (pstmt != null)
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (conn != null)
+                dbConfig.closeConnection(conn);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public List<Account> getAccountsPage(PageRequest request, Account after, int limit) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildAccountQuery(request);
+            if (after != null) {
+                query.after(accountSortValue(after, request.getSortKey()), after.getAccountId());
+            }
+
+            String sql = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a JOIN customers c ON c.customer_id = a.customer_id"
+                    + query.where() + query.orderBy() + " LIMIT ?";
+            pstmt = conn.prepareStatement(sql);
+            int index = query.bind(pstmt);
+            pstmt.setInt(index, limit);
+
+            rs = pstmt.executeQuery();
+
+            List<Account> accounts = new ArrayList<>(limit);
+            while (rs.next()) {
+                accounts.add(mapAccountFromResultSet(rs));
+            }
+
+            return accounts;
+        } finally {
+            if (rs != null)
+                try {
+                    rs.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (pstmt != null)
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (conn != null)
+                dbConfig.closeConnection(conn);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public Account getAccountAtOffset(PageRequest request, int offset) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildAccountQuery(request);
+            String sql = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a JOIN customers c ON c.customer_id = a.customer_id"
+                    + query.where() + query.orderBy() + " OFFSET ? LIMIT 1";
+            pstmt = conn.prepareStatement(sql);
+            int index = query.bind(pstmt);
+            pstmt.setInt(index, offset);
+
+            rs = pstmt.executeQuery();
+            return rs.next() ? mapAccountFromResultSet(rs) : null;
+        } finally {
+            if (rs != null)
+                try {
+                    rs.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (pstmt != null)
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (conn != null)
+                dbConfig.closeConnection(conn);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public List<Account> getAccountsAfterId(int accountId) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            String sql = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a WHERE a.account_id > ? AND a.status <> 'DELETED' "
+                    + "ORDER BY a.account_id";
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, accountId);
+
+            rs = pstmt.executeQuery();
+
+            List<Account> accounts = new ArrayList<>();
+            while (rs.next()) {
+                accounts.add(mapAccountFromResultSet(rs));
+            }
+
+            return accounts;
+        } finally {
+            if (rs != null)
+                try {
+                    rs.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (pstmt != null)
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (conn != null)
+                dbConfig.closeConnection(conn);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public Map<Integer, Account> getAccountsByIds(Collection<Integer> accountIds) throws Exception {
+        Map<Integer, Account> accounts = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return accounts;
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            String sql = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a WHERE a.account_id = ANY(?) "
+                    + "AND a.status <> 'DELETED'";
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setArray(1, conn.createArrayOf("integer", accountIds.toArray()));
+
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Account account = mapAccountFromResultSet(rs);
+                accounts.put(account.getAccountId(), account);
+            }
+
+            return accounts;
+        } finally {
+            if (rs != null)
+                try {
+                    rs.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (pstmt != null)
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    /* ignore */ }
+            if (conn != null)
+                dbConfig.closeConnection(conn);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.banking.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.banking.model.Customer;
 
@@ -46,10 +48,11 @@ public interface CustomerDAO {
     boolean updateCustomer(Customer customer) throws Exception;
 
     /**
-     * Delete a customer by ID
+     * Delete a customer by ID. The customer and its accounts are marked
+     * DELETED at once; the rows are removed later by the purger.
      *
      * @param customerId Customer identifier
-     * @return true if deleted successfully, false otherwise
+     * @return true if deleted successfully, false if not found or already deleted
      * @throws Exception if database operation fails
      */
     boolean deleteCustomer(int customerId) throws Exception;
@@ -70,4 +73,52 @@ public interface CustomerDAO {
      * @throws Exception if database operation fails
      */
     List<Customer> searchCustomersByName(String name) throws Exception;
+
+    /**
+     * Get several customers by ID in a single query
+     *
+     * @param customerIds Customer identifiers
+     * @return Map of customer ID to customer, missing IDs are omitted
+     * @throws Exception if database operation fails
+     */
+    Map<Integer, Customer> getCustomersByIds(Collection<Integer> customerIds) throws Exception;
+
+    /**
+     * Count all customers matching a page request
+     *
+     * @param request Filter (ACTIVE, INACTIVE or BLOCKED) and search term
+     * @return Number of matching customers
+     * @throws Exception if database operation fails
+     */
+    int countCustomers(PageRequest request) throws Exception;
+
+    /**
+     * Get one page of customers using keyset pagination
+     *
+     * @param request Filter, search term and sort order (id, firstName, lastName, email, status or registered)
+     * @param after Last customer of the previous page, or null for the first page
+     * @param limit Maximum number of customers to return
+     * @return Customers following the cursor in the requested order
+     * @throws Exception if database operation fails
+     */
+    List<Customer> getCustomersPage(PageRequest request, Customer after, int limit) throws Exception;
+
+    /**
+     * Get the customer at a given position of a page request
+     *
+     * @param request Filter, search term and sort order
+     * @param offset Zero-based position in the ordered result
+     * @return Customer at that position, or null if out of range
+     * @throws Exception if database operation fails
+     */
+    Customer getCustomerAtOffset(PageRequest request, int offset) throws Exception;
+
+    /**
+     * Get customers registered after a given customer ID
+     *
+     * @param customerId Highest customer ID already seen (0 for all customers)
+     * @return Customers with a greater ID, in ID order
+     * @throws Exception if database operation fails
+     */
+    List<Customer> getCustomersAfterId(int customerId) throws Exception;
 }
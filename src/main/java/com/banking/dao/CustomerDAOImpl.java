@@ -7,7 +7,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.banking.config.DatabaseConfig;
 import com.banking.model.Customer;
@@ -17,6 +20,20 @@ import com.banking.model.Customer;
  */
 public class CustomerDAOImpl implements CustomerDAO {
 
+    // Deleting only flips the status of the customer and its accounts and
+    // queues them for the purger, which removes the rows later
+    private static final String SOFT_DELETE_CUSTOMER_SQL =
+            "WITH customer AS (" +
+            "UPDATE customers SET status = 'DELETED' WHERE customer_id = ? AND status <> 'DELETED' " +
+            "RETURNING customer_id), " +
+            "customer_accounts AS (" +
+            "UPDATE accounts SET status = 'DELETED' " +
+            "WHERE customer_id IN (SELECT customer_id FROM customer) AND status <> 'DELETED' " +
+            "RETURNING account_id) " +
+            "INSERT INTO purge_queue (entity_type, entity_id) " +
+            "SELECT 'ACCOUNT', account_id FROM customer_accounts UNION ALL SELECT 'CUSTOMER', customer_id FROM customer " +
+            "ON CONFLICT (entity_type, entity_id) DO NOTHING";
+
     private final DatabaseConfig dbConfig;
 
     /**
@@ -106,7 +123,7 @@ public class CustomerDAOImpl implements CustomerDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM customers WHERE customer_id = ?";
+            String sql = "SELECT * FROM customers WHERE customer_id = ? AND status <> 'DELETED'";
             pstmt = conn.prepareStatement(sql);
             pstmt.setInt(1, customerId);
 
@@ -209,50 +226,13 @@ public class CustomerDAOImpl implements CustomerDAO {
         try {
             conn = dbConfig.getConnection();
 
-            // Begin transaction
-            conn.setAutoCommit(false);
-
-            // First delete all associated accounts (cascade will handle transactions)
-            String deleteAccountsSql = "DELETE FROM accounts WHERE customer_id = ?";
-            pstmt = conn.prepareStatement(deleteAccountsSql);
-            pstmt.setInt(1, customerId);
-            pstmt.executeUpdate();
-            pstmt.close();
-
-            // Then delete the customer
-            String deleteCustomerSql = "DELETE FROM customers WHERE customer_id = ?";
-            pstmt = conn.prepareStatement(deleteCustomerSql);
+            // One statement, so the customer, its accounts and the purge requests commit together
+            pstmt = conn.prepareStatement(SOFT_DELETE_CUSTOMER_SQL);
             pstmt.setInt(1, customerId);
             int affectedRows = pstmt.executeUpdate();
 
-            // Commit transaction
-            conn.commit();
-
             return affectedRows > 0;
-        } catch (SQLException e) {
-            // Rollback transaction on error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (Exception rollbackEx) {
-                    // Log rollback error
-                    System.err.println("Error during transaction rollback");
-                    rollbackEx.printStackTrace();
-                }
-            }
-            throw e;
         } finally {
-            // Reset auto-commit
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                } catch (Exception e) {
-                    // Log auto-commit reset error
-                    System.err.println("Error resetting auto-commit");
-                    e.printStackTrace();
-                }
-            }
-
             if (pstmt != null) try {
                 pstmt.close();
             } catch (Exception e) {
@@ -273,7 +253,7 @@ public class CustomerDAOImpl implements CustomerDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM customers ORDER BY customer_id";
+            String sql = "SELECT * FROM customers WHERE status <> 'DELETED' ORDER BY customer_id";
             stmt = conn.createStatement();
             rs = stmt.executeQuery(sql);
 
@@ -308,7 +288,8 @@ public class CustomerDAOImpl implements CustomerDAO {
         try {
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM customers WHERE LOWER(first_name) LIKE LOWER(?) OR LOWER(last_name) LIKE LOWER(?)";
+            String sql = "SELECT * FROM customers WHERE (LOWER(first_name) LIKE LOWER(?) OR LOWER(last_name) LIKE LOWER(?)) "
+                    + "AND status <> 'DELETED'";
             pstmt = conn.prepareStatement(sql);
 
             String searchPattern = "%" + name + "%";
@@ -337,4 +318,270 @@ public class CustomerDAOImpl implements CustomerDAO {
             }
         }
     }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public Map<Integer, Customer> getCustomersByIds(Collection<Integer> customerIds) throws Exception {
+        Map<Integer, Customer> customers = new HashMap<>();
+        if (customerIds.isEmpty()) {
+            return customers;
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            String sql = "SELECT * FROM customers WHERE customer_id = ANY(?)";
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setArray(1, conn.createArrayOf("integer", customerIds.toArray()));
+
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Customer customer = mapCustomerFromResultSet(rs);
+                customers.put(customer.getCustomerId(), customer);
+            }
+
+            return customers;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Translate a sort key into a whitelisted SQL column
+     *
+     * @param sortKey Sort key from a page request
+     * @return SQL column name
+     */
+    private String customerSortColumn(String sortKey) {
+        if (sortKey == null) {
+            return "customer_id";
+        }
+        switch (sortKey) {
+            case "id":
+                return "customer_id";
+            case "firstName":
+                return "first_name";
+            case "lastName":
+                return "last_name";
+            case "email":
+                return "email";
+            case "status":
+                return KeysetQuery.nullableText("status");
+            case "registered":
+                return KeysetQuery.nullableTimestamp("date_registered");
+            default:
+                throw new IllegalArgumentException("Unknown customer sort key: " + sortKey);
+        }
+    }
+
+    /**
+     * Extract the value of the sort column from a customer
+     *
+     * @param customer Customer used as keyset cursor
+     * @param sortKey Sort key from a page request
+     * @return Value to compare against the sort column
+     */
+    private Object customerSortValue(Customer customer, String sortKey) {
+        if (sortKey == null) {
+            return customer.getCustomerId();
+        }
+        switch (sortKey) {
+            case "firstName":
+                return customer.getFirstName();
+            case "lastName":
+                return customer.getLastName();
+            case "email":
+                return customer.getEmail();
+            case "status":
+                return KeysetQuery.orEmpty(customer.getStatus());
+            case "registered":
+                return KeysetQuery.orEpoch(customer.getDateRegistered());
+            default:
+                return customer.getCustomerId();
+        }
+    }
+
+    /**
+     * Build the WHERE clause shared by all paged customer queries
+     *
+     * @param request Page request
+     * @return KeysetQuery with filter and search conditions applied
+     */
+    private KeysetQuery buildCustomerQuery(PageRequest request) {
+        KeysetQuery query = new KeysetQuery(customerSortColumn(request.getSortKey()),
+                "customer_id", request.isAscending());
+        query.and("status <> 'DELETED'");
+
+        if (request.getFilter() != null) {
+            query.and("status = ?", request.getFilter());
+        }
+
+        String pattern = request.getSearchPattern();
+        if (pattern != null) {
+            query.and("LOWER(first_name) LIKE ? OR LOWER(last_name) LIKE ? "
+                    + "OR LOWER(email) LIKE ? OR phone LIKE ?", pattern, pattern, pattern, pattern);
+        }
+
+        return query;
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public int countCustomers(PageRequest request) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildCustomerQuery(request);
+            String sql = "SELECT COUNT(*) FROM customers" + query.where();
+            pstmt = conn.prepareStatement(sql);
+            query.bind(pstmt);
+
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public List<Customer> getCustomersPage(PageRequest request, Customer after, int limit) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildCustomerQuery(request);
+            if (after != null) {
+                query.after(customerSortValue(after, request.getSortKey()), after.getCustomerId());
+            }
+
+            String sql = "SELECT * FROM customers" + query.where() + query.orderBy() + " LIMIT ?";
+            pstmt = conn.prepareStatement(sql);
+            int index = query.bind(pstmt);
+            pstmt.setInt(index, limit);
+
+            rs = pstmt.executeQuery();
+
+            List<Customer> customers = new ArrayList<>(limit);
+            while (rs.next()) {
+                customers.add(mapCustomerFromResultSet(rs));
+            }
+
+            return customers;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public Customer getCustomerAtOffset(PageRequest request, int offset) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildCustomerQuery(request);
+            String sql = "SELECT * FROM customers" + query.where() + query.orderBy() + " OFFSET ? LIMIT 1";
+            pstmt = conn.prepareStatement(sql);
+            int index = query.bind(pstmt);
+            pstmt.setInt(index, offset);
+
+            rs = pstmt.executeQuery();
+            return rs.next() ? mapCustomerFromResultSet(rs) : null;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public List<Customer> getCustomersAfterId(int customerId) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            String sql = "SELECT * FROM customers WHERE customer_id > ? AND status <> 'DELETED' ORDER BY customer_id";
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, customerId);
+
+            rs = pstmt.executeQuery();
+
+            List<Customer> customers = new ArrayList<>();
+            while (rs.next()) {
+                customers.add(mapCustomerFromResultSet(rs));
+            }
+
+            return customers;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
 }
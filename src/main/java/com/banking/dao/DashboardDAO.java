@@ -0,0 +1,17 @@
+package com.banking.dao;
+
+import com.banking.model.HighWaterMark;
+
+/**
+ * Data Access Object interface for dashboard queries
+ */
+public interface DashboardDAO {
+
+    /**
+     * Read the highest customer, account and transaction IDs in one round trip
+     *
+     * @return Current high-water mark
+     * @throws Exception if database operation fails
+     */
+    HighWaterMark getHighWaterMark() throws Exception;
+}
@@ -0,0 +1,60 @@
+package com.banking.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.model.HighWaterMark;
+
+/**
+ * Implementation of the DashboardDAO interface for PostgreSQL
+ */
+public class DashboardDAOImpl implements DashboardDAO {
+
+    // Each MAX() on a primary key is a single probe of the end of its index
+    private static final String HIGH_WATER_MARK_SQL = "SELECT "
+            + "(SELECT COALESCE(MAX(transaction_id), 0) FROM transactions) AS max_transaction_id, "
+            + "(SELECT COALESCE(MAX(customer_id), 0) FROM customers) AS max_customer_id, "
+            + "(SELECT COALESCE(MAX(account_id), 0) FROM accounts) AS max_account_id";
+
+    private final DatabaseConfig dbConfig;
+
+    /**
+     * Constructor
+     */
+    public DashboardDAOImpl() {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public HighWaterMark getHighWaterMark() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            pstmt = conn.prepareStatement(HIGH_WATER_MARK_SQL);
+            rs = pstmt.executeQuery();
+
+            rs.next();
+            return new HighWaterMark(rs.getLong("max_transaction_id"),
+                    rs.getInt("max_customer_id"), rs.getInt("max_account_id"));
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+}
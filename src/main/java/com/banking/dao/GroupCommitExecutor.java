@@ -0,0 +1,412 @@
+package com.banking.dao;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.model.TransactionResult;
+
+/**
+ * Collects concurrent deposits, withdrawals and transfers and commits them
+ * together, so a burst of requests costs one WAL flush instead of one each.
+ *
+ * A single thread waits for the first request, keeps collecting for the
+ * linger time or until the batch is full, then runs each request through the
+ * ledger functions inside one database transaction. Every request gets its
+ * own savepoint, so a request that fails (insufficient funds, inactive
+ * account, ...) is rolled back alone and the rest of the batch still commits.
+ */
+public class GroupCommitExecutor {
+
+    /**
+     * System property that routes TransactionService posting through a
+     * shared executor
+     */
+    public static final String ENABLED_PROPERTY = "finvault.groupCommit";
+
+    /**
+     * System property for the maximum number of requests per batch
+     */
+    public static final String MAX_BATCH_PROPERTY = "finvault.groupCommit.maxBatch";
+
+    /**
+     * System property for how long to wait for more requests, in microseconds
+     */
+    public static final String LINGER_PROPERTY = "finvault.groupCommit.lingerMicros";
+
+    private static GroupCommitExecutor shared;
+
+    private final DatabaseConfig dbConfig;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private final AtomicLong commitNanos = new AtomicLong();
+
+    /**
+     * Pending request and the future of the caller waiting for it
+     */
+    private static final class Request {
+
+        private static final int DEPOSIT = 1;
+        private static final int WITHDRAWAL = 2;
+        private static final int TRANSFER = 3;
+
+        private final int type;
+        private final int accountId;
+        private final int toAccountId;
+        private final BigDecimal amount;
+        private final String description;
+        private final CompletableFuture<TransactionResult> future = new CompletableFuture<>();
+        private TransactionResult result;
+
+        Request(int type, int accountId, int toAccountId, BigDecimal amount, String description) {
+            this.type = type;
+            this.accountId = accountId;
+            this.toAccountId = toAccountId;
+            this.amount = amount;
+            this.description = description;
+        }
+    }
+
+    /**
+     * Constructor, starts the batching thread
+     *
+     * @param dbConfig Database configuration
+     * @param maxBatchSize Maximum number of requests committed together
+     * @param lingerMicros How long to wait for more requests after the first
+     */
+    public GroupCommitExecutor(DatabaseConfig dbConfig, int maxBatchSize, long lingerMicros) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.dbConfig = dbConfig;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        this.thread = new Thread(this::run, "group-commit");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Get the executor shared by TransactionService instances
+     *
+     * @return Shared executor, or null if the finvault.groupCommit system
+     * property is not true
+     */
+    public static synchronized GroupCommitExecutor shared() {
+        if (shared == null && Boolean.getBoolean(ENABLED_PROPERTY)) {
+            shared = new GroupCommitExecutor(DatabaseConfig.getInstance(),
+                    Integer.getInteger(MAX_BATCH_PROPERTY, 64),
+                    Long.getLong(LINGER_PROPERTY, 200));
+            if (MetricsRegistry.isEnabled()) {
+                GroupCommitExecutor executor = shared;
+                MetricsRegistry registry = MetricsRegistry.getInstance();
+                registry.registerGauge("groupCommit.queued", () -> executor.getStats().getQueued());
+                registry.registerGauge("groupCommit.averageBatchSize",
+                        () -> executor.getStats().getAverageBatchSize());
+                registry.registerGauge("groupCommit.averageBatchMillis",
+                        () -> executor.getStats().getAverageBatchMillis());
+                registry.registerGauge("groupCommit.failedRequests", () -> executor.getStats().getFailedRequests());
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Get the shared executor if it has been created
+     *
+     * @return Shared executor, or null
+     */
+    public static synchronized GroupCommitExecutor sharedIfStarted() {
+        return shared;
+    }
+
+    /**
+     * Queue a deposit
+     *
+     * @param accountId Account identifier
+     * @param amount Amount to deposit
+     * @param description Transaction description
+     * @return Completes when the batch holding the deposit commits
+     */
+    public CompletableFuture<TransactionResult> deposit(int accountId, BigDecimal amount, String description) {
+        return submit(new Request(Request.DEPOSIT, accountId, 0, amount, description));
+    }
+
+    /**
+     * Queue a withdrawal
+     *
+     * @param accountId Account identifier
+     * @param amount Amount to withdraw
+     * @param description Transaction description
+     * @return Completes when the batch holding the withdrawal commits
+     */
+    public CompletableFuture<TransactionResult> withdraw(int accountId, BigDecimal amount, String description) {
+        return submit(new Request(Request.WITHDRAWAL, accountId, 0, amount, description));
+    }
+
+    /**
+     * Queue a transfer
+     *
+     * @param fromAccountId Source account identifier
+     * @param toAccountId Destination account identifier
+     * @param amount Amount to transfer
+     * @param description Transaction description
+     * @return Completes when the batch holding the transfer commits
+     */
+    public CompletableFuture<TransactionResult> transfer(int fromAccountId, int toAccountId, BigDecimal amount,
+            String description) {
+        return submit(new Request(Request.TRANSFER, fromAccountId, toAccountId, amount, description));
+    }
+
+    /**
+     * Commit what is queued and stop the batching thread
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        thread.interrupt();
+        thread.join();
+    }
+
+    /**
+     * Get a snapshot of the batching counters
+     *
+     * @return Stats
+     */
+    public Stats getStats() {
+        return new Stats(maxBatchSize, TimeUnit.NANOSECONDS.toMicros(lingerNanos), batches.get(), requests.get(),
+                failedRequests.get(), failedBatches.get(), largestBatch.get(), commitNanos.get(), queue.size());
+    }
+
+    private CompletableFuture<TransactionResult> submit(Request request) {
+        if (stopped) {
+            throw new IllegalStateException("Group commit executor is shut down");
+        }
+        queue.add(request);
+        return request.future;
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                if (stopped) {
+                    // Commit what is left without lingering, then exit
+                    queue.drainTo(batch, maxBatchSize);
+                    if (batch.isEmpty()) {
+                        return;
+                    }
+                } else {
+                    collect(batch);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down; commit what was collected, then drain the rest
+            }
+            if (!batch.isEmpty()) {
+                execute(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<Request> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    @SuppressWarnings("UseSpecificCatch")
+    private void execute(List<Request> batch) {
+        long start = System.nanoTime();
+        Connection conn = null;
+        List<Request> applied = new ArrayList<>(batch.size());
+
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+
+            for (Request request : batch) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    request.result = apply(conn, request);
+                    conn.releaseSavepoint(savepoint);
+                    applied.add(request);
+                } catch (SQLException e) {
+                    // Undo only this request; the transaction stays usable
+                    conn.rollback(savepoint);
+                    failedRequests.incrementAndGet();
+                    request.future.completeExceptionally(TransactionDAOImpl.translateLedgerError(e));
+                }
+            }
+
+            conn.commit();
+            for (Request request : applied) {
+                request.future.complete(request.result);
+            }
+        } catch (Exception e) {
+            // Connection or commit failure: nothing in the batch was committed
+            failedBatches.incrementAndGet();
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (Exception rollbackEx) {
+                    System.err.println("Error during transaction rollback");
+                }
+            }
+            for (Request request : batch) {
+                if (!request.future.isDone()) {
+                    failedRequests.incrementAndGet();
+                    request.future.completeExceptionally(e);
+                }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (Exception e) {
+                    System.err.println("Error resetting auto-commit");
+                }
+                dbConfig.closeConnection(conn);
+            }
+            batches.incrementAndGet();
+            requests.addAndGet(batch.size());
+            largestBatch.accumulateAndGet(batch.size(), Math::max);
+            commitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private static TransactionResult apply(Connection conn, Request request) throws SQLException {
+        switch (request.type) {
+            case Request.DEPOSIT:
+                return TransactionDAOImpl.executeSingleAccountFunction(conn, TransactionDAOImpl.CALL_DEPOSIT_SQL,
+                        "DEPOSIT", request.accountId, request.amount, request.description);
+            case Request.WITHDRAWAL:
+                return TransactionDAOImpl.executeSingleAccountFunction(conn, TransactionDAOImpl.CALL_WITHDRAW_SQL,
+                        "WITHDRAWAL", request.accountId, request.amount, request.description);
+            case Request.TRANSFER:
+                return TransactionDAOImpl.executeTransferFunction(conn, request.accountId, request.toAccountId,
+                        request.amount, request.description);
+            default:
+                throw new IllegalStateException("Unknown request type: " + request.type);
+        }
+    }
+
+    /**
+     * Point-in-time batching counters
+     */
+    public static class Stats {
+
+        private final int maxBatchSize;
+        private final long lingerMicros;
+        private final long batches;
+        private final long requests;
+        private final long failedRequests;
+        private final long failedBatches;
+        private final long largestBatch;
+        private final long commitNanos;
+        private final int queued;
+
+        Stats(int maxBatchSize, long lingerMicros, long batches, long requests, long failedRequests,
+                long failedBatches, long largestBatch, long commitNanos, int queued) {
+            this.maxBatchSize = maxBatchSize;
+            this.lingerMicros = lingerMicros;
+            this.batches = batches;
+            this.requests = requests;
+            this.failedRequests = failedRequests;
+            this.failedBatches = failedBatches;
+            this.largestBatch = largestBatch;
+            this.commitNanos = commitNanos;
+            this.queued = queued;
+        }
+
+        /**
+         * Get the average number of requests per committed batch
+         *
+         * @return Average batch size, 0 if no batch ran yet
+         */
+        public double getAverageBatchSize() {
+            return batches == 0 ? 0.0 : (double) requests / batches;
+        }
+
+        /**
+         * Get the average time to run and commit a batch
+         *
+         * @return Average in milliseconds
+         */
+        public double getAverageBatchMillis() {
+            return batches == 0 ? 0.0 : commitNanos / 1_000_000.0 / batches;
+        }
+
+        // Getters
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public long getLingerMicros() {
+            return lingerMicros;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getFailedRequests() {
+            return failedRequests;
+        }
+
+        public long getFailedBatches() {
+            return failedBatches;
+        }
+
+        public long getLargestBatch() {
+            return largestBatch;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests in %d batches (avg %.1f, max %d of %d, linger %d us), "
+                    + "%d failed requests, %d failed batches, %.2f ms avg batch, %d queued",
+                    requests, batches, getAverageBatchSize(), largestBatch, maxBatchSize, lingerMicros,
+                    failedRequests, failedBatches, getAverageBatchMillis(), queued);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.banking.dao;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.banking.model.TransactionResult;
+
+/**
+ * TransactionDAO that posts deposits, withdrawals and transfers through a
+ * GroupCommitExecutor, so concurrent callers share database commits. Reads
+ * go straight to the database as in TransactionDAOImpl.
+ */
+public class GroupCommitTransactionDAO extends TransactionDAOImpl {
+
+    private final GroupCommitExecutor executor;
+
+    /**
+     * Constructor
+     *
+     * @param executor Executor that batches the posting calls
+     */
+    public GroupCommitTransactionDAO(GroupCommitExecutor executor) {
+        super(true);
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean isValidatedInDatabase() {
+        return true;
+    }
+
+    @Override
+    public TransactionResult postDeposit(int accountId, BigDecimal amount, String description) throws Exception {
+        return await(executor.deposit(accountId, amount, description));
+    }
+
+    @Override
+    public TransactionResult postWithdrawal(int accountId, BigDecimal amount, String description) throws Exception {
+        return await(executor.withdraw(accountId, amount, description));
+    }
+
+    @Override
+    public TransactionResult postTransfer(int fromAccountId, int toAccountId, BigDecimal amount,
+            String description) throws Exception {
+        return await(executor.transfer(fromAccountId, toAccountId, amount, description));
+    }
+
+    /**
+     * Wait for a queued request and rethrow its failure unwrapped, as
+     * TransactionDAOImpl would have thrown it
+     */
+    private static TransactionResult await(CompletableFuture<TransactionResult> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.banking.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper for building keyset-paginated SQL.
+ *
+ * Rows are ordered by a sort column with the primary key as tie-breaker, and
+ * the next page starts strictly after the (sort value, id) pair of the last
+ * row already seen, so each page is a single index range scan no matter how
+ * deep into the result the caller is.
+ *
+ * A row comparison with a NULL is never true, so rows with a NULL sort value
+ * would silently drop out of every page after the first. Nullable sort
+ * columns must be wrapped with nullableText() or nullableTimestamp(), and
+ * the cursor value built with the matching orEmpty() or orEpoch().
+ */
+class KeysetQuery {
+
+    // Stands in for a NULL timestamp, in SQL and in cursor values alike
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final String sortColumn;
+    private final String idColumn;
+    private final boolean ascending;
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> params = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param sortColumn SQL column (already validated) to sort by
+     * @param idColumn SQL primary key column used as tie-breaker
+     * @param ascending true to sort ascending, false for descending
+     */
+    KeysetQuery(String sortColumn, String idColumn, boolean ascending) {
+        this.sortColumn = sortColumn;
+        this.idColumn = idColumn;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Wrap a nullable text column so NULLs sort first ascending and last descending
+     *
+     * @param column SQL column
+     * @return Sort expression that is never NULL
+     */
+    static String nullableText(String column) {
+        return "COALESCE(" + column + ", '')";
+    }
+
+    /**
+     * Wrap a nullable timestamp column so NULLs sort first ascending and last descending
+     *
+     * @param column SQL column
+     * @return Sort expression that is never NULL
+     */
+    static String nullableTimestamp(String column) {
+        return "COALESCE(" + column + ", TIMESTAMP '1970-01-01 00:00:00')";
+    }
+
+    /**
+     * Cursor value for a column wrapped with nullableText()
+     *
+     * @param value Value of the last row seen, may be null
+     * @return Value to compare against the sort expression
+     */
+    static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Cursor value for a column wrapped with nullableTimestamp()
+     *
+     * @param value Value of the last row seen, may be null
+     * @return Value to compare against the sort expression
+     */
+    static Timestamp orEpoch(LocalDateTime value) {
+        return Timestamp.valueOf(value != null ? value : EPOCH);
+    }
+
+    /**
+     * Add a condition to the WHERE clause
+     *
+     * @param condition SQL condition with ? placeholders
+     * @param values Values for the placeholders, in order
+     */
+    void and(String condition, Object... values) {
+        conditions.add("(" + condition + ")");
+        for (Object value : values) {
+            params.add(value);
+        }
+    }
+
+    /**
+     * Restrict the query to rows after the given keyset cursor
+     *
+     * @param sortValue Sort column value of the last row seen
+     * @param idValue Primary key of the last row seen
+     */
+    void after(Object sortValue, Object idValue) {
+        String op = ascending ? ">" : "<";
+        if (sortColumn.equals(idColumn)) {
+            and(idColumn + " " + op + " ?", idValue);
+        } else {
+            and("(" + sortColumn + ", " + idColumn + ") " + op + " (?, ?)", sortValue, idValue);
+        }
+    }
+
+    /**
+     * Get the WHERE clause
+     *
+     * @return " WHERE ..." or an empty string if there are no conditions
+     */
+    String where() {
+        if (conditions.isEmpty()) {
+            return "";
+        }
+        return " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Get the ORDER BY clause
+     *
+     * @return " ORDER BY ..." matching the keyset predicate
+     */
+    String orderBy() {
+        String direction = ascending ? " ASC" : " DESC";
+        if (sortColumn.equals(idColumn)) {
+            return " ORDER BY " + idColumn + direction;
+        }
+        return " ORDER BY " + sortColumn + direction + ", " + idColumn + direction;
+    }
+
+    /**
+     * Bind the collected parameters to a statement
+     *
+     * @param pstmt Statement to bind
+     * @return Index of the next free parameter
+     * @throws SQLException if binding fails
+     */
+    int bind(PreparedStatement pstmt) throws SQLException {
+        int index = 1;
+        for (Object param : params) {
+            pstmt.setObject(index++, param);
+        }
+        return index;
+    }
+}
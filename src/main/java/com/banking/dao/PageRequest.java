@@ -0,0 +1,91 @@
+package com.banking.dao;
+
+/**
+ * Filter and sort options for a keyset-paginated query.
+ *
+ * The meaning of the filter and sort keys is defined by each DAO, which
+ * validates them against its own whitelist before building SQL.
+ */
+public class PageRequest {
+
+    private final String filter;
+    private final String searchTerm;
+    private final String sortKey;
+    private final boolean ascending;
+
+    /**
+     * Constructor
+     *
+     * @param filter DAO-specific filter key, or null for no filter
+     * @param searchTerm Free-text search term, or null for no search
+     * @param sortKey DAO-specific sort key
+     * @param ascending true to sort ascending, false for descending
+     */
+    public PageRequest(String filter, String searchTerm, String sortKey, boolean ascending) {
+        this.filter = filter;
+        this.searchTerm = searchTerm;
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Create an unfiltered request
+     *
+     * @param sortKey DAO-specific sort key
+     * @param ascending true to sort ascending, false for descending
+     * @return PageRequest without filter or search term
+     */
+    public static PageRequest unfiltered(String sortKey, boolean ascending) {
+        return new PageRequest(null, null, sortKey, ascending);
+    }
+
+    /**
+     * Copy this request with a different sort order
+     *
+     * @param sortKey DAO-specific sort key
+     * @param ascending true to sort ascending, false for descending
+     * @return New PageRequest with the same filter and search term
+     */
+    public PageRequest withSort(String sortKey, boolean ascending) {
+        return new PageRequest(filter, searchTerm, sortKey, ascending);
+    }
+
+    /**
+     * Get the search term as a lower-case LIKE pattern
+     *
+     * @return Pattern such as "%term%", or null if there is no search term
+     */
+    public String getSearchPattern() {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return null;
+        }
+        return "%" + searchTerm.trim().toLowerCase() + "%";
+    }
+
+    // Getters
+    public String getFilter() {
+        return filter;
+    }
+
+    public String getSearchTerm() {
+        return searchTerm;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest{"
+                + "filter='" + filter + '\''
+                + ", searchTerm='" + searchTerm + '\''
+                + ", sortKey='" + sortKey + '\''
+                + ", ascending=" + ascending
+                + '}';
+    }
+}
@@ -0,0 +1,159 @@
+package com.banking.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.util.TransactionPartitions;
+
+/**
+ * Checks with EXPLAIN which partitions of the transactions table each
+ * TransactionDAO read touches.
+ *
+ * Reads bounded by transaction_date must be pruned to the months they ask
+ * for. Reads by ID or account have no date predicate and use the
+ * (account_id, transaction_id) index of every partition; they are listed so
+ * their cost is visible as the number of partitions grows.
+ */
+public final class PartitionPruningCheck {
+
+    private static final Pattern PARTITION_SCAN = Pattern.compile(
+            "\\bon (transactions_(?:y\\d{4}m\\d{2}|default))\\b");
+
+    /**
+     * Result of explaining one query
+     */
+    public static final class Result {
+
+        private final String query;
+        private final int scanned;
+        private final int expected;
+
+        Result(String query, int scanned, int expected) {
+            this.query = query;
+            this.scanned = scanned;
+            this.expected = expected;
+        }
+
+        /**
+         * Get the DAO query name
+         *
+         * @return Query name
+         */
+        public String getQuery() {
+            return query;
+        }
+
+        /**
+         * Get the number of partitions in the plan
+         *
+         * @return Partitions scanned
+         */
+        public int getScanned() {
+            return scanned;
+        }
+
+        /**
+         * Check whether the plan was pruned as far as the query allows
+         *
+         * @return true if the query has no date predicate or touches only the expected partitions
+         */
+        public boolean isPruned() {
+            return expected < 0 || scanned <= expected;
+        }
+
+        @Override
+        public String toString() {
+            if (expected < 0) {
+                return String.format("%-40s %3d partitions (no date predicate)", query, scanned);
+            }
+            return String.format("%-40s %3d partitions, expected %d: %s", query, scanned, expected,
+                    isPruned() ? "pruned" : "NOT PRUNED");
+        }
+    }
+
+    private PartitionPruningCheck() {
+    }
+
+    /**
+     * Explain every TransactionDAO read against the live table
+     *
+     * @return One result per query
+     * @throws Exception if transactions is not partitioned or a query cannot be explained
+     */
+    public static List<Result> run() throws Exception {
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        Connection conn = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            if (!TransactionPartitions.isPartitioned(conn)) {
+                throw new IllegalStateException("The transactions table is not partitioned");
+            }
+
+            // A range inside last month, and the start of this month
+            YearMonth lastMonth = YearMonth.now().minusMonths(1);
+            Timestamp from = Timestamp.valueOf(lastMonth.atDay(1).atStartOfDay());
+            Timestamp to = Timestamp.valueOf(lastMonth.atEndOfMonth().atTime(23, 59, 59));
+            Timestamp since = Timestamp.valueOf(YearMonth.now().atDay(1).atStartOfDay());
+            String live = "transactions";
+
+            List<Result> results = new ArrayList<>();
+            results.add(explain(conn, "getTransactionById", TransactionDAOImpl.BY_ID_SQL, -1, 1L));
+            results.add(explain(conn, "getTransactionsByAccountId",
+                    String.format(TransactionDAOImpl.BY_ACCOUNT_SQL, live), -1, 1, 1));
+            results.add(explain(conn, "getAccountHistoryPage", TransactionDAOImpl.HISTORY_PAGE_SQL, -1,
+                    1, Long.MAX_VALUE, 50));
+            results.add(explain(conn, "getTransactionsByAccountIdAndDateRange",
+                    String.format(TransactionDAOImpl.BY_ACCOUNT_AND_DATE_RANGE_SQL, live), 1, 1, 1, from, to));
+            results.add(explain(conn, "getTransactionsByAccountIdAndType",
+                    String.format(TransactionDAOImpl.BY_ACCOUNT_AND_TYPE_SQL, live), -1, 1, "DEPOSIT"));
+            results.add(explain(conn, "getTransfersBetweenAccounts",
+                    String.format(TransactionDAOImpl.TRANSFERS_BETWEEN_SQL, live), -1, 1, 2, 2, 1));
+            results.add(explain(conn, "getTransactionsAfterId", TransactionDAOImpl.AFTER_ID_SQL, -1, 0L));
+            results.add(explain(conn, "getRecentTransactions", TransactionDAOImpl.RECENT_SQL, -1, 50));
+            // This month, the months ahead, and the default partition for dates past the last one
+            int ahead = 1;
+            for (YearMonth month : TransactionPartitions.listPartitions(conn)) {
+                if (!month.isBefore(YearMonth.now())) {
+                    ahead++;
+                }
+            }
+            results.add(explain(conn, "getTransactionCountsByTypeSince",
+                    String.format(TransactionDAOImpl.COUNTS_SINCE_SQL, live), ahead, since, Long.MAX_VALUE));
+            return results;
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    private static Result explain(Connection conn, String name, String sql, int expected, Object... params)
+            throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            Set<String> partitions = new HashSet<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Matcher matcher = PARTITION_SCAN.matcher(rs.getString(1));
+                    while (matcher.find()) {
+                        partitions.add(matcher.group(1));
+                    }
+                }
+            }
+            return new Result(name, partitions.size(), expected);
+        }
+    }
+}
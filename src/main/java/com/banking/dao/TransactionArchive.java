@@ -0,0 +1,133 @@
+package com.banking.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import com.banking.config.DatabaseConfig;
+
+/**
+ * Decides whether a transaction read has to look at transactions_archive as
+ * well as the live table.
+ *
+ * Everything older than the archive horizon may have been moved to the
+ * archive, everything newer is still in transactions. The horizon is read
+ * from transaction_archive_state and cached for a few seconds; the archiver
+ * publishes a new horizon and waits out that interval before it moves any
+ * rows, so no process reads with a horizon that is too new.
+ */
+public final class TransactionArchive {
+
+    /**
+     * System property for how long the horizon is cached, in seconds
+     */
+    public static final String REFRESH_SECONDS_PROPERTY = "finvault.archive.refreshSeconds";
+
+    /**
+     * Columns shared by transactions and transactions_archive
+     */
+    public static final String COLUMNS =
+            "transaction_id, account_id, transaction_type, amount, transaction_date, description, recipient_account_id";
+
+    // Aliased like the live table so the caller's WHERE and ORDER BY apply unchanged
+    private static final String LIVE_AND_ARCHIVED =
+            "(SELECT " + COLUMNS + " FROM transactions UNION ALL SELECT " + COLUMNS
+            + " FROM transactions_archive) AS transactions";
+
+    private static final String HORIZON_SQL =
+            "SELECT archived_before FROM transaction_archive_state WHERE state_id = 1";
+
+    private static final TransactionArchive INSTANCE = new TransactionArchive();
+
+    private final long refreshMillis = Integer.getInteger(REFRESH_SECONDS_PROPERTY, 10) * 1000L;
+    private volatile LocalDateTime archivedBefore;
+    private volatile long loadedAt;
+    private volatile boolean loaded;
+
+    private TransactionArchive() {
+    }
+
+    /**
+     * Get the shared instance
+     *
+     * @return Archive horizon cache
+     */
+    public static TransactionArchive getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get how long a horizon read stays cached
+     *
+     * @return Cache interval in milliseconds
+     */
+    public long getRefreshMillis() {
+        return refreshMillis;
+    }
+
+    /**
+     * Get the archive horizon
+     *
+     * @return Transactions before this time may be archived, or null if nothing has been archived
+     * @throws Exception if the state cannot be read
+     */
+    public LocalDateTime getArchivedBefore() throws Exception {
+        if (!loaded || System.currentTimeMillis() - loadedAt > refreshMillis) {
+            load();
+        }
+        return archivedBefore;
+    }
+
+    /**
+     * Drop the cached horizon so the next read loads it again
+     */
+    public void refresh() {
+        loaded = false;
+    }
+
+    /**
+     * Check whether a read starting at a given time may need archived rows
+     *
+     * @param from Earliest transaction date the read covers, or null for all of history
+     * @return true if transactions_archive must be included
+     * @throws Exception if the state cannot be read
+     */
+    public boolean covers(LocalDateTime from) throws Exception {
+        LocalDateTime horizon = getArchivedBefore();
+        return horizon != null && (from == null || from.isBefore(horizon));
+    }
+
+    /**
+     * Get the table expression to read transactions from
+     *
+     * @param from Earliest transaction date the read covers, or null for all of history
+     * @return "transactions", or a union with the archive aliased as transactions
+     * @throws Exception if the state cannot be read
+     */
+    public String source(LocalDateTime from) throws Exception {
+        return covers(from) ? LIVE_AND_ARCHIVED : "transactions";
+    }
+
+    private synchronized void load() throws Exception {
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(HORIZON_SQL);
+            rs = pstmt.executeQuery();
+            Timestamp horizon = rs.next() ? rs.getTimestamp(1) : null;
+            archivedBefore = horizon == null ? null : horizon.toLocalDateTime();
+            loadedAt = System.currentTimeMillis();
+            loaded = true;
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) dbConfig.closeConnection(conn);
+        }
+    }
+}
@@ -3,14 +3,25 @@ package com.banking.dao;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import com.banking.model.Transaction;
+import com.banking.model.TransactionResult;
 
 /**
  * Data Access Object interface for Transaction entities
  */
 public interface TransactionDAO {
 
+    /**
+     * Check whether postDeposit, postWithdrawal and postTransfer validate the
+     * accounts themselves inside the database, so callers can skip their own
+     * pre-checks
+     *
+     * @return true if account existence, status and funds are checked server-side
+     */
+    boolean isValidatedInDatabase();
+
     /**
      * Create a new transaction in the database
      *
@@ -60,6 +71,19 @@ public interface TransactionDAO {
      */
     List<Transaction> getTransactionsByAccountIdAndType(int accountId, String transactionType) throws Exception;
 
+    /**
+     * Get one page of an account's history using keyset pagination. Both legs
+     * of a transfer are rows of their own accounts, so the page holds the
+     * account's own rows only.
+     *
+     * @param accountId Account ID
+     * @param beforeTransactionId Last transaction ID of the previous page, or 0 for the newest page
+     * @param limit Maximum number of transactions to return
+     * @return Transactions, newest first
+     * @throws Exception if database operation fails
+     */
+    List<Transaction> getAccountHistoryPage(int accountId, long beforeTransactionId, int limit) throws Exception;
+
     /**
      * Get all transfer transactions between two accounts
      *
@@ -105,6 +129,41 @@ public interface TransactionDAO {
     Transaction[] createTransferTransaction(int fromAccountId, int toAccountId,
             BigDecimal amount, String description) throws Exception;
 
+    /**
+     * Deposit to an account and report the changed rows
+     *
+     * @param accountId Account identifier
+     * @param amount Amount to deposit
+     * @param description Transaction description
+     * @return Created transaction and the new account balance
+     * @throws Exception if database operation fails
+     */
+    TransactionResult postDeposit(int accountId, BigDecimal amount, String description) throws Exception;
+
+    /**
+     * Withdraw from an account and report the changed rows
+     *
+     * @param accountId Account identifier
+     * @param amount Amount to withdraw
+     * @param description Transaction description
+     * @return Created transaction and the new account balance
+     * @throws Exception if database operation fails
+     */
+    TransactionResult postWithdrawal(int accountId, BigDecimal amount, String description) throws Exception;
+
+    /**
+     * Transfer between accounts and report the changed rows
+     *
+     * @param fromAccountId Source account identifier
+     * @param toAccountId Destination account identifier
+     * @param amount Amount to transfer
+     * @param description Transaction description
+     * @return Outgoing and incoming transactions and both new balances
+     * @throws Exception if database operation fails
+     */
+    TransactionResult postTransfer(int fromAccountId, int toAccountId,
+            BigDecimal amount, String description) throws Exception;
+
     /**
      * Delete a transaction by ID
      *
@@ -113,4 +172,72 @@ public interface TransactionDAO {
      * @throws Exception if database operation fails
      */
     boolean deleteTransaction(long transactionId) throws Exception;
+
+    /**
+     * Count all transactions matching a page request
+     *
+     * @param request Filter (DEPOSIT, WITHDRAWAL or TRANSFER) and search term
+     * @return Number of matching transactions
+     * @throws Exception if database operation fails
+     */
+    int countTransactions(PageRequest request) throws Exception;
+
+    /**
+     * Get one page of transactions using keyset pagination
+     *
+     * @param request Filter, search term and sort order (id, date, amount or account)
+     * @param after Last transaction of the previous page, or null for the first page
+     * @param limit Maximum number of transactions to return
+     * @return Transactions following the cursor in the requested order
+     * @throws Exception if database operation fails
+     */
+    List<Transaction> getTransactionsPage(PageRequest request, Transaction after, int limit) throws Exception;
+
+    /**
+     * Get the transaction at a given position of a page request, used to seed
+     * a keyset cursor when the caller jumps past pages it has not loaded
+     *
+     * @param request Filter, search term and sort order
+     * @param offset Zero-based position in the ordered result
+     * @return Transaction at that position, or null if out of range
+     * @throws Exception if database operation fails
+     */
+    Transaction getTransactionAtOffset(PageRequest request, int offset) throws Exception;
+
+    /**
+     * Sum the amounts of all transactions matching a page request, grouped by type
+     *
+     * @param request Filter and search term (sort order is ignored)
+     * @return Map of transaction type to total amount
+     * @throws Exception if database operation fails
+     */
+    Map<String, BigDecimal> getTransactionTotalsByType(PageRequest request) throws Exception;
+
+    /**
+     * Get transactions recorded after a given transaction ID
+     *
+     * @param transactionId Highest transaction ID already seen
+     * @return Transactions with a greater ID, in ID order
+     * @throws Exception if database operation fails
+     */
+    List<Transaction> getTransactionsAfterId(long transactionId) throws Exception;
+
+    /**
+     * Get the most recently recorded transactions across all accounts
+     *
+     * @param limit Maximum number of transactions to return
+     * @return Transactions, newest first
+     * @throws Exception if database operation fails
+     */
+    List<Transaction> getRecentTransactions(int limit) throws Exception;
+
+    /**
+     * Count transactions by type since a point in time
+     *
+     * @param since Start of the period (inclusive)
+     * @param maxTransactionId Ignore transactions with a greater ID
+     * @return Map of transaction type to number of transactions
+     * @throws Exception if database operation fails
+     */
+    Map<String, Integer> getTransactionCountsByTypeSince(LocalDateTime since, long maxTransactionId) throws Exception;
 }
@@ -1,33 +1,100 @@
 package com.banking.dao;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import org.postgresql.util.PSQLException;
 
 import com.banking.config.DatabaseConfig;
 import com.banking.model.Account;
 import com.banking.model.InsufficientFundsException;
+import com.banking.model.Money;
 import com.banking.model.Transaction;
+import com.banking.model.TransactionResult;
 
 /**
  * Implementation of the TransactionDAO interface for PostgreSQL
  */
 public class TransactionDAOImpl implements TransactionDAO {
 
+    /**
+     * System property that switches the default constructor to the
+     * server-side ledger functions
+     */
+    public static final String STORED_PROCEDURES_PROPERTY = "finvault.ledger.storedProcedures";
+
+    static final String CALL_DEPOSIT_SQL = "{call fv_deposit(?, ?, ?, ?, ?, ?)}";
+    static final String CALL_WITHDRAW_SQL = "{call fv_withdraw(?, ?, ?, ?, ?, ?)}";
+    static final String CALL_TRANSFER_SQL = "{call fv_transfer(?, ?, ?, ?, ?, ?, ?, ?, ?)}";
+
+    // Reads, %s is the table expression from TransactionArchive.source
+    static final String BY_ID_SQL = "SELECT * FROM transactions WHERE transaction_id = ?";
+    static final String BY_ID_WITH_ARCHIVE_SQL = "SELECT " + TransactionArchive.COLUMNS
+            + " FROM transactions WHERE transaction_id = ? UNION ALL SELECT " + TransactionArchive.COLUMNS
+            + " FROM transactions_archive WHERE transaction_id = ?";
+    static final String BY_ACCOUNT_SQL = "SELECT * FROM %s WHERE account_id = ? OR recipient_account_id = ? "
+            + "ORDER BY transaction_date DESC";
+    static final String HISTORY_PAGE_SQL = "SELECT * FROM transactions WHERE account_id = ? AND transaction_id < ? "
+            + "ORDER BY transaction_id DESC LIMIT ?";
+    static final String ARCHIVED_HISTORY_PAGE_SQL = "SELECT * FROM transactions_archive WHERE account_id = ? "
+            + "AND transaction_id < ? ORDER BY transaction_id DESC LIMIT ?";
+    static final String BY_ACCOUNT_AND_DATE_RANGE_SQL = "SELECT * FROM %s "
+            + "WHERE (account_id = ? OR recipient_account_id = ?) AND transaction_date BETWEEN ? AND ? "
+            + "ORDER BY transaction_date DESC";
+    static final String BY_ACCOUNT_AND_TYPE_SQL = "SELECT * FROM %s WHERE account_id = ? AND transaction_type = ? "
+            + "ORDER BY transaction_date DESC";
+    static final String TRANSFERS_BETWEEN_SQL = "SELECT * FROM %s WHERE "
+            + "((account_id = ? AND recipient_account_id = ?) OR "
+            + "(account_id = ? AND recipient_account_id = ?)) "
+            + "AND (transaction_type = 'TRANSFER_OUT' OR transaction_type = 'TRANSFER_IN') "
+            + "ORDER BY transaction_date DESC";
+    static final String AFTER_ID_SQL = "SELECT * FROM transactions WHERE transaction_id > ? ORDER BY transaction_id";
+    static final String RECENT_SQL = "SELECT * FROM transactions ORDER BY transaction_id DESC LIMIT ?";
+    static final String COUNTS_SINCE_SQL = "SELECT transaction_type, COUNT(*) AS cnt FROM %s "
+            + "WHERE transaction_date >= ? AND transaction_id <= ? GROUP BY transaction_type";
+
     private final DatabaseConfig dbConfig;
-    private final AccountDAO accountDAO;
+    private final TransactionArchive archive = TransactionArchive.getInstance();
+    private final AccountDAOImpl accountDAO;
+    private final boolean useStoredProcedures;
 
     /**
-     * Constructor
+     * Constructor, uses stored procedures if the finvault.ledger.storedProcedures
+     * system property is true
      */
     public TransactionDAOImpl() {
+        this(Boolean.getBoolean(STORED_PROCEDURES_PROPERTY));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param useStoredProcedures true to post deposits, withdrawals and transfers
+     * through the fv_* database functions in a single round trip
+     */
+    public TransactionDAOImpl(boolean useStoredProcedures) {
         this.dbConfig = DatabaseConfig.getInstance();
         this.accountDAO = new AccountDAOImpl();
+        this.useStoredProcedures = useStoredProcedures;
+    }
+
+    @Override
+    public boolean isValidatedInDatabase() {
+        return useStoredProcedures;
     }
 
     /**
@@ -37,12 +104,12 @@ public class TransactionDAOImpl implements TransactionDAO {
      * @return Transaction object
      * @throws Exception if mapping fails
      */
-    private Transaction mapTransactionFromResultSet(ResultSet rs) throws Exception {
+    static Transaction mapTransactionFromResultSet(ResultSet rs) throws Exception {
         Transaction transaction = new Transaction();
         transaction.setTransactionId(rs.getLong("transaction_id"));
         transaction.setAccountId(rs.getInt("account_id"));
         transaction.setTransactionType(rs.getString("transaction_type"));
-        transaction.setAmount(rs.getBigDecimal("amount"));
+        transaction.setAmount(Money.parse(rs.getString("amount")));
 
         Timestamp transactionDate = rs.getTimestamp("transaction_date");
         if (transactionDate != null) {
@@ -64,20 +131,35 @@ public class TransactionDAOImpl implements TransactionDAO {
     @SuppressWarnings("UseSpecificCatch")
     public Transaction createTransaction(Transaction transaction) throws Exception {
         Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
 
         try {
             conn = dbConfig.getConnection();
+            return createTransaction(conn, transaction);
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
 
-            String sql = "INSERT INTO transactions (account_id, transaction_type, amount, "
-                    + "transaction_date, description, recipient_account_id) "
-                    + "VALUES (?, ?, ?, ?, ?, ?) RETURNING transaction_id";
+    /**
+     * Insert a transaction on a connection the caller manages
+     *
+     * @param conn Open connection
+     * @param transaction Transaction to insert
+     * @return The transaction with its generated ID
+     * @throws Exception if no ID is returned or the insert fails
+     */
+    private Transaction createTransaction(Connection conn, Transaction transaction) throws Exception {
+        String sql = "INSERT INTO transactions (account_id, transaction_type, amount, "
+                + "transaction_date, description, recipient_account_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?) RETURNING transaction_id";
 
-            pstmt = conn.prepareStatement(sql);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            DatabaseConfig.prepareOnServer(pstmt);
             pstmt.setInt(1, transaction.getAccountId());
             pstmt.setString(2, transaction.getTransactionType());
-            pstmt.setBigDecimal(3, transaction.getAmount());
+            pstmt.setBigDecimal(3, transaction.getAmountMoney().toBigDecimal());
 
             LocalDateTime transactionDate = transaction.getTransactionDate();
             if (transactionDate == null) {
@@ -93,13 +175,40 @@ public class TransactionDAOImpl implements TransactionDAO {
                 pstmt.setNull(6, java.sql.Types.INTEGER);
             }
 
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    transaction.setTransactionId(rs.getLong("transaction_id"));
+                    return transaction;
+                } else {
+                    throw new Exception("Failed to create transaction - no ID returned");
+                }
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public Transaction getTransactionById(long transactionId) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            boolean archived = archive.covers(null);
+            conn = dbConfig.getConnection();
+
+            pstmt = conn.prepareStatement(archived ? BY_ID_WITH_ARCHIVE_SQL : BY_ID_SQL);
+            pstmt.setLong(1, transactionId);
+            if (archived) {
+                pstmt.setLong(2, transactionId);
+            }
+
             rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                transaction.setTransactionId(rs.getLong("transaction_id"));
-                return transaction;
+                return mapTransactionFromResultSet(rs);
             } else {
-                throw new Exception("Failed to create transaction - no ID returned");
+                return null; // Transaction not found
             }
         } finally {
             if (rs != null) try {
@@ -118,25 +227,27 @@ public class TransactionDAOImpl implements TransactionDAO {
 
     @Override
     @SuppressWarnings("UseSpecificCatch")
-    public Transaction getTransactionById(long transactionId) throws Exception {
+    public List<Transaction> getTransactionsByAccountId(int accountId) throws Exception {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
 
         try {
+            String source = archive.source(null);
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM transactions WHERE transaction_id = ?";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setLong(1, transactionId);
+            pstmt = conn.prepareStatement(String.format(BY_ACCOUNT_SQL, source));
+            pstmt.setInt(1, accountId);
+            pstmt.setInt(2, accountId);
 
             rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return mapTransactionFromResultSet(rs);
-            } else {
-                return null; // Transaction not found
+            List<Transaction> transactions = new ArrayList<>();
+            while (rs.next()) {
+                transactions.add(mapTransactionFromResultSet(rs));
             }
+
+            return transactions;
         } finally {
             if (rs != null) try {
                 rs.close();
@@ -154,27 +265,45 @@ public class TransactionDAOImpl implements TransactionDAO {
 
     @Override
     @SuppressWarnings("UseSpecificCatch")
-    public List<Transaction> getTransactionsByAccountId(int accountId) throws Exception {
+    public List<Transaction> getAccountHistoryPage(int accountId, long beforeTransactionId, int limit)
+            throws Exception {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
 
         try {
+            boolean archived = archive.covers(null);
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM transactions WHERE account_id = ? OR recipient_account_id = ? "
-                    + "ORDER BY transaction_date DESC";
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(HISTORY_PAGE_SQL);
             pstmt.setInt(1, accountId);
-            pstmt.setInt(2, accountId);
+            pstmt.setLong(2, beforeTransactionId > 0 ? beforeTransactionId : Long.MAX_VALUE);
+            pstmt.setInt(3, limit);
 
             rs = pstmt.executeQuery();
 
-            List<Transaction> transactions = new ArrayList<>();
+            List<Transaction> transactions = new ArrayList<>(limit);
             while (rs.next()) {
                 transactions.add(mapTransactionFromResultSet(rs));
             }
 
+            // Archived rows are older than every live row, so a short page continues in the archive
+            if (archived && transactions.size() < limit) {
+                rs.close();
+                pstmt.close();
+                long before = transactions.isEmpty()
+                        ? (beforeTransactionId > 0 ? beforeTransactionId : Long.MAX_VALUE)
+                        : transactions.get(transactions.size() - 1).getTransactionId();
+                pstmt = conn.prepareStatement(ARCHIVED_HISTORY_PAGE_SQL);
+                pstmt.setInt(1, accountId);
+                pstmt.setLong(2, before);
+                pstmt.setInt(3, limit - transactions.size());
+                rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    transactions.add(mapTransactionFromResultSet(rs));
+                }
+            }
+
             return transactions;
         } finally {
             if (rs != null) try {
@@ -201,11 +330,10 @@ public class TransactionDAOImpl implements TransactionDAO {
         ResultSet rs = null;
 
         try {
+            String source = archive.source(startDate);
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM transactions WHERE (account_id = ? OR recipient_account_id = ?) "
-                    + "AND transaction_date BETWEEN ? AND ? ORDER BY transaction_date DESC";
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(String.format(BY_ACCOUNT_AND_DATE_RANGE_SQL, source));
             pstmt.setInt(1, accountId);
             pstmt.setInt(2, accountId);
             pstmt.setTimestamp(3, Timestamp.valueOf(startDate));
@@ -241,11 +369,10 @@ public class TransactionDAOImpl implements TransactionDAO {
         ResultSet rs = null;
 
         try {
+            String source = archive.source(null);
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM transactions WHERE account_id = ? AND transaction_type = ? "
-                    + "ORDER BY transaction_date DESC";
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(String.format(BY_ACCOUNT_AND_TYPE_SQL, source));
             pstmt.setInt(1, accountId);
             pstmt.setString(2, transactionType);
 
@@ -280,15 +407,10 @@ public class TransactionDAOImpl implements TransactionDAO {
         ResultSet rs = null;
 
         try {
+            String source = archive.source(null);
             conn = dbConfig.getConnection();
 
-            String sql = "SELECT * FROM transactions WHERE "
-                    + "((account_id = ? AND recipient_account_id = ?) OR "
-                    + "(account_id = ? AND recipient_account_id = ?)) "
-                    + "AND (transaction_type = 'TRANSFER_OUT' OR transaction_type = 'TRANSFER_IN') "
-                    + "ORDER BY transaction_date DESC";
-
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(String.format(TRANSFERS_BETWEEN_SQL, source));
             pstmt.setInt(1, accountId1);
             pstmt.setInt(2, accountId2);
             pstmt.setInt(3, accountId2);
@@ -318,45 +440,41 @@ public class TransactionDAOImpl implements TransactionDAO {
     }
 
     @Override
-    @SuppressWarnings("UseSpecificCatch")
     public Transaction createDepositTransaction(int accountId, BigDecimal amount, String description) throws Exception {
+        return postDeposit(accountId, amount, description).getTransaction();
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public TransactionResult postDeposit(int accountId, BigDecimal amount, String description) throws Exception {
+        if (useStoredProcedures) {
+            return callSingleAccountFunction(CALL_DEPOSIT_SQL, "DEPOSIT", accountId, amount, description);
+        }
+
+        // Validate amount
+        Money value = Money.of(amount, RoundingMode.HALF_UP);
+        if (!value.isPositive()) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+
         Connection conn = null;
 
         try {
             conn = dbConfig.getConnection();
             conn.setAutoCommit(false);
 
-            // Get the account
-            Account account = accountDAO.getAccountById(accountId);
-            if (account == null) {
-                throw new Exception("Account not found: " + accountId);
-            }
+            // One statement checks the account and adds the amount; it skips
+            // missing, non-active and striped accounts instead of locking them
+            BigDecimal newBalance = accountDAO.creditUnstriped(conn, accountId, value.toBigDecimal());
+            if (newBalance != null) {
+                Transaction transaction = new Transaction(accountId, "DEPOSIT", value, description);
+                Transaction createdTransaction = createTransaction(conn, transaction);
 
-            // Check if account is active
-            if (!"ACTIVE".equals(account.getStatus())) {
-                throw new Exception("Cannot deposit to a non-active account");
-            }
+                // Commit transaction
+                conn.commit();
 
-            // Validate amount
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Deposit amount must be positive");
+                return TransactionResult.of(createdTransaction, newBalance);
             }
-
-            // Create transaction object
-            Transaction transaction = new Transaction(accountId, "DEPOSIT", amount, description);
-
-            // Update account balance
-            BigDecimal newBalance = account.getBalance().add(amount);
-            account.setBalance(newBalance);
-
-            // Update in database
-            accountDAO.updateBalance(accountId, newBalance);
-            Transaction createdTransaction = createTransaction(transaction);
-
-            // Commit transaction
-            conn.commit();
-
-            return createdTransaction;
         } catch (Exception e) {
             // Rollback transaction on error
             if (conn != null) {
@@ -379,18 +497,31 @@ public class TransactionDAOImpl implements TransactionDAO {
                 dbConfig.closeConnection(conn);
             }
         }
+
+        // fv_deposit credits a striped account's stripe under a shared lock,
+        // and reports a missing or non-active account
+        return callSingleAccountFunction(CALL_DEPOSIT_SQL, "DEPOSIT", accountId, amount, description);
     }
 
     @Override
     public Transaction createWithdrawalTransaction(int accountId, BigDecimal amount, String description) throws Exception {
+        return postWithdrawal(accountId, amount, description).getTransaction();
+    }
+
+    @Override
+    public TransactionResult postWithdrawal(int accountId, BigDecimal amount, String description) throws Exception {
+        if (useStoredProcedures) {
+            return callSingleAccountFunction(CALL_WITHDRAW_SQL, "WITHDRAWAL", accountId, amount, description);
+        }
+
         Connection conn = null;
 
         try {
             conn = dbConfig.getConnection();
             conn.setAutoCommit(false);
 
-            // Get the account
-            Account account = accountDAO.getAccountById(accountId);
+            // Get the account, locked until commit; everything runs on this connection
+            Account account = accountDAO.getAccountById(conn, accountId, true);
             if (account == null) {
                 throw new Exception("Account not found: " + accountId);
             }
@@ -401,18 +532,18 @@ public class TransactionDAOImpl implements TransactionDAO {
             }
 
             // Validate amount
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            Money value = Money.of(amount, RoundingMode.HALF_UP);
+            if (!value.isPositive()) {
                 throw new IllegalArgumentException("Withdrawal amount must be positive");
             }
 
             // Check if sufficient funds
-            if (account.getBalance().compareTo(amount) < 0) {
+            if (account.getBalanceMoney().isLessThan(value)) {
                 // For current accounts, check overdraft limit
                 if (account instanceof com.banking.model.CurrentAccount) {
                     com.banking.model.CurrentAccount currentAccount = (com.banking.model.CurrentAccount) account;
-                    BigDecimal availableBalance = account.getBalance().add(currentAccount.getOverdraftLimit());
 
-                    if (availableBalance.compareTo(amount) < 0) {
+                    if (currentAccount.getAvailableBalanceMoney().isLessThan(value)) {
                         throw new InsufficientFundsException("Insufficient funds for withdrawal");
                     }
                 } else {
@@ -421,20 +552,20 @@ public class TransactionDAOImpl implements TransactionDAO {
             }
 
             // Create transaction object
-            Transaction transaction = new Transaction(accountId, "WITHDRAWAL", amount, description);
+            Transaction transaction = new Transaction(accountId, "WITHDRAWAL", value, description);
 
             // Update account balance
-            BigDecimal newBalance = account.getBalance().subtract(amount);
+            Money newBalance = account.getBalanceMoney().minus(value);
             account.setBalance(newBalance);
 
             // Update in database
-            accountDAO.updateBalance(accountId, newBalance);
-            Transaction createdTransaction = createTransaction(transaction);
+            accountDAO.adjustBalance(conn, accountId, value.negate().toBigDecimal());
+            Transaction createdTransaction = createTransaction(conn, transaction);
 
             // Commit transaction
             conn.commit();
 
-            return createdTransaction;
+            return TransactionResult.of(createdTransaction, newBalance.toBigDecimal());
         } catch (Exception e) {
             // Rollback transaction on error
             if (conn != null) {
@@ -463,22 +594,64 @@ public class TransactionDAOImpl implements TransactionDAO {
     @Override
     public Transaction[] createTransferTransaction(int fromAccountId, int toAccountId,
             BigDecimal amount, String description) throws Exception {
+        return postTransfer(fromAccountId, toAccountId, amount, description)
+                .getTransactions().toArray(new Transaction[0]);
+    }
+
+    @Override
+    public TransactionResult postTransfer(int fromAccountId, int toAccountId,
+            BigDecimal amount, String description) throws Exception {
+        if (useStoredProcedures) {
+            return callTransferFunction(fromAccountId, toAccountId, amount, description);
+        }
+
+        TransactionResult result = transferToUnstriped(fromAccountId, toAccountId, amount, description);
+        if (result != null) {
+            return result;
+        }
+
+        // fv_transfer credits a striped destination's stripe under a shared
+        // lock, and reports a missing destination
+        return callTransferFunction(fromAccountId, toAccountId, amount, description);
+    }
+
+    /**
+     * Post a transfer by locking both account rows, unless the destination
+     * keeps its balance in stripes
+     *
+     * @param fromAccountId Source account ID
+     * @param toAccountId Destination account ID
+     * @param amount Transfer amount
+     * @param description Transaction description
+     * @return Created transactions and new balances, or null if the
+     *         destination is missing or striped and nothing was posted
+     * @throws Exception if the transfer fails
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private TransactionResult transferToUnstriped(int fromAccountId, int toAccountId,
+            BigDecimal amount, String description) throws Exception {
         Connection conn = null;
 
         try {
             conn = dbConfig.getConnection();
             conn.setAutoCommit(false);
 
-            // Get the source account
-            Account fromAccount = accountDAO.getAccountById(fromAccountId);
+            // Lock both accounts in ID order, so opposite transfers cannot deadlock
+            Account fromAccount;
+            Account toAccount;
+            if (fromAccountId < toAccountId) {
+                fromAccount = accountDAO.getAccountById(conn, fromAccountId, true);
+                toAccount = accountDAO.lockUnstripedAccount(conn, toAccountId);
+            } else {
+                toAccount = accountDAO.lockUnstripedAccount(conn, toAccountId);
+                fromAccount = accountDAO.getAccountById(conn, fromAccountId, true);
+            }
             if (fromAccount == null) {
                 throw new Exception("Source account not found: " + fromAccountId);
             }
-
-            // Get the destination account
-            Account toAccount = accountDAO.getAccountById(toAccountId);
             if (toAccount == null) {
-                throw new Exception("Destination account not found: " + toAccountId);
+                conn.rollback();
+                return null;
             }
 
             // Check if accounts are active
@@ -487,18 +660,18 @@ public class TransactionDAOImpl implements TransactionDAO {
             }
 
             // Validate amount
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            Money value = Money.of(amount, RoundingMode.HALF_UP);
+            if (!value.isPositive()) {
                 throw new IllegalArgumentException("Transfer amount must be positive");
             }
 
             // Check if sufficient funds in source account
-            if (fromAccount.getBalance().compareTo(amount) < 0) {
+            if (fromAccount.getBalanceMoney().isLessThan(value)) {
                 // For current accounts, check overdraft limit
                 if (fromAccount instanceof com.banking.model.CurrentAccount) {
                     com.banking.model.CurrentAccount currentAccount = (com.banking.model.CurrentAccount) fromAccount;
-                    BigDecimal availableBalance = fromAccount.getBalance().add(currentAccount.getOverdraftLimit());
 
-                    if (availableBalance.compareTo(amount) < 0) {
+                    if (currentAccount.getAvailableBalanceMoney().isLessThan(value)) {
                         throw new InsufficientFundsException("Insufficient funds for transfer");
                     }
                 } else {
@@ -507,27 +680,30 @@ public class TransactionDAOImpl implements TransactionDAO {
             }
 
             // Create transaction objects
-            Transaction[] transactions = Transaction.createTransferPair(fromAccountId, toAccountId, amount, description);
+            Transaction[] transactions = Transaction.createTransferPair(fromAccountId, toAccountId, value, description);
 
             // Update account balances
-            BigDecimal newFromBalance = fromAccount.getBalance().subtract(amount);
-            BigDecimal newToBalance = toAccount.getBalance().add(amount);
+            Money newFromBalance = fromAccount.getBalanceMoney().minus(value);
+            Money newToBalance = toAccount.getBalanceMoney().plus(value);
 
             fromAccount.setBalance(newFromBalance);
             toAccount.setBalance(newToBalance);
 
             // Update in database
-            accountDAO.updateBalance(fromAccountId, newFromBalance);
-            accountDAO.updateBalance(toAccountId, newToBalance);
+            accountDAO.adjustBalance(conn, fromAccountId, value.negate().toBigDecimal());
+            accountDAO.adjustBalance(conn, toAccountId, value.toBigDecimal());
 
             // Create transactions in database
-            transactions[0] = createTransaction(transactions[0]); // Outgoing
-            transactions[1] = createTransaction(transactions[1]); // Incoming
+            transactions[0] = createTransaction(conn, transactions[0]); // Outgoing
+            transactions[1] = createTransaction(conn, transactions[1]); // Incoming
 
             // Commit transaction
             conn.commit();
 
-            return transactions;
+            Map<Integer, BigDecimal> newBalances = new LinkedHashMap<>();
+            newBalances.put(fromAccountId, newFromBalance.toBigDecimal());
+            newBalances.put(toAccountId, newToBalance.toBigDecimal());
+            return new TransactionResult(Arrays.asList(transactions), newBalances);
         } catch (Exception e) {
             // Rollback transaction on error
             if (conn != null) {
@@ -553,6 +729,160 @@ public class TransactionDAOImpl implements TransactionDAO {
         }
     }
 
+    /**
+     * Call fv_deposit or fv_withdraw
+     *
+     * @param sql Call escape for the function
+     * @param type Transaction type recorded by the function
+     * @param accountId Account identifier
+     * @param amount Amount
+     * @param description Transaction description
+     * @return Created transaction and new balance
+     * @throws Exception if the call fails
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private TransactionResult callSingleAccountFunction(String sql, String type, int accountId,
+            BigDecimal amount, String description) throws Exception {
+        Connection conn = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            return executeSingleAccountFunction(conn, sql, type, accountId, amount, description);
+        } catch (SQLException e) {
+            throw translateLedgerError(e);
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Call fv_deposit or fv_withdraw on a connection the caller manages
+     *
+     * @param conn Open connection
+     * @param sql Call escape for the function
+     * @param type Transaction type recorded by the function
+     * @param accountId Account identifier
+     * @param amount Amount
+     * @param description Transaction description
+     * @return Created transaction and new balance
+     * @throws SQLException if the call fails, see translateLedgerError
+     */
+    static TransactionResult executeSingleAccountFunction(Connection conn, String sql, String type,
+            int accountId, BigDecimal amount, String description) throws SQLException {
+        try (CallableStatement cstmt = conn.prepareCall(sql)) {
+            cstmt.setInt(1, accountId);
+            cstmt.setBigDecimal(2, amount);
+            cstmt.setString(3, description);
+            cstmt.registerOutParameter(4, Types.BIGINT);
+            cstmt.registerOutParameter(5, Types.NUMERIC);
+            cstmt.registerOutParameter(6, Types.TIMESTAMP);
+
+            cstmt.execute();
+
+            Transaction transaction = new Transaction(cstmt.getLong(4), accountId, type, amount,
+                    cstmt.getTimestamp(6).toLocalDateTime(), description, null);
+            return TransactionResult.of(transaction, cstmt.getBigDecimal(5));
+        }
+    }
+
+    /**
+     * Call fv_transfer
+     *
+     * @param fromAccountId Source account identifier
+     * @param toAccountId Destination account identifier
+     * @param amount Amount to transfer
+     * @param description Transaction description
+     * @return Outgoing and incoming transactions and both new balances
+     * @throws Exception if the call fails
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private TransactionResult callTransferFunction(int fromAccountId, int toAccountId,
+            BigDecimal amount, String description) throws Exception {
+        Connection conn = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            return executeTransferFunction(conn, fromAccountId, toAccountId, amount, description);
+        } catch (SQLException e) {
+            throw translateLedgerError(e);
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Call fv_transfer on a connection the caller manages
+     *
+     * @param conn Open connection
+     * @param fromAccountId Source account identifier
+     * @param toAccountId Destination account identifier
+     * @param amount Amount to transfer
+     * @param description Transaction description
+     * @return Outgoing and incoming transactions and both new balances
+     * @throws SQLException if the call fails, see translateLedgerError
+     */
+    static TransactionResult executeTransferFunction(Connection conn, int fromAccountId, int toAccountId,
+            BigDecimal amount, String description) throws SQLException {
+        try (CallableStatement cstmt = conn.prepareCall(CALL_TRANSFER_SQL)) {
+            cstmt.setInt(1, fromAccountId);
+            cstmt.setInt(2, toAccountId);
+            cstmt.setBigDecimal(3, amount);
+            cstmt.setString(4, description);
+            cstmt.registerOutParameter(5, Types.BIGINT);
+            cstmt.registerOutParameter(6, Types.BIGINT);
+            cstmt.registerOutParameter(7, Types.NUMERIC);
+            cstmt.registerOutParameter(8, Types.NUMERIC);
+            cstmt.registerOutParameter(9, Types.TIMESTAMP);
+
+            cstmt.execute();
+
+            // Same descriptions as Transaction.createTransferPair, built by the function
+            Transaction[] transactions = Transaction.createTransferPair(fromAccountId, toAccountId, amount, description);
+            LocalDateTime transactionDate = cstmt.getTimestamp(9).toLocalDateTime();
+            transactions[0].setTransactionId(cstmt.getLong(5));
+            transactions[0].setTransactionDate(transactionDate);
+            transactions[1].setTransactionId(cstmt.getLong(6));
+            transactions[1].setTransactionDate(transactionDate);
+
+            Map<Integer, BigDecimal> newBalances = new LinkedHashMap<>();
+            newBalances.put(fromAccountId, cstmt.getBigDecimal(7));
+            newBalances.put(toAccountId, cstmt.getBigDecimal(8));
+            return new TransactionResult(Arrays.asList(transactions), newBalances);
+        }
+    }
+
+    /**
+     * Map the SQLSTATEs raised by the ledger functions to the exceptions the
+     * Java implementation throws for the same condition
+     *
+     * @param e Exception from the function call
+     * @return Exception to throw
+     */
+    static Exception translateLedgerError(SQLException e) {
+        String message = e instanceof PSQLException && ((PSQLException) e).getServerErrorMessage() != null
+                ? ((PSQLException) e).getServerErrorMessage().getMessage()
+                : e.getMessage();
+        String state = e.getSQLState();
+        if (state == null) {
+            return e;
+        }
+        switch (state) {
+            case "FV001":
+                return new InsufficientFundsException(message, e);
+            case "FV002":
+            case "22023":
+                return new IllegalArgumentException(message, e);
+            case "FV003":
+                return new IllegalStateException(message, e);
+            default:
+                return e;
+        }
+    }
+
     @Override
     public boolean deleteTransaction(long transactionId) throws Exception {
         Connection conn = null;
@@ -577,4 +907,331 @@ public class TransactionDAOImpl implements TransactionDAO {
             }
         }
     }
+
+    /**
+     * Translate a sort key into a whitelisted SQL column
+     *
+     * @param sortKey Sort key from a page request
+     * @return SQL column name
+     */
+    private String transactionSortColumn(String sortKey) {
+        if (sortKey == null) {
+            return "transaction_id";
+        }
+        switch (sortKey) {
+            case "id":
+                return "transaction_id";
+            case "date":
+                return "transaction_date";
+            case "amount":
+                return "amount";
+            case "account":
+                return "account_id";
+            default:
+                throw new IllegalArgumentException("Unknown transaction sort key: " + sortKey);
+        }
+    }
+
+    /**
+     * Extract the value of the sort column from a transaction
+     *
+     * @param transaction Transaction used as keyset cursor
+     * @param sortKey Sort key from a page request
+     * @return Value to compare against the sort column
+     */
+    private Object transactionSortValue(Transaction transaction, String sortKey) {
+        String column = transactionSortColumn(sortKey);
+        switch (column) {
+            case "transaction_date":
+                return Timestamp.valueOf(transaction.getTransactionDate());
+            case "amount":
+                return transaction.getAmountMoney().toBigDecimal();
+            case "account_id":
+                return transaction.getAccountId();
+            default:
+                return transaction.getTransactionId();
+        }
+    }
+
+    /**
+     * Build the WHERE clause shared by all paged transaction queries
+     *
+     * @param request Page request
+     * @return KeysetQuery with filter and search conditions applied
+     */
+    private KeysetQuery buildTransactionQuery(PageRequest request) {
+        KeysetQuery query = new KeysetQuery(transactionSortColumn(request.getSortKey()),
+                "transaction_id", request.isAscending());
+
+        String filter = request.getFilter();
+        if ("TRANSFER".equals(filter)) {
+            query.and("transaction_type IN ('TRANSFER_IN', 'TRANSFER_OUT')");
+        } else if (filter != null) {
+            query.and("transaction_type = ?", filter);
+        }
+
+        String pattern = request.getSearchPattern();
+        if (pattern != null) {
+            query.and("CAST(transaction_id AS TEXT) LIKE ? OR LOWER(description) LIKE ?", pattern, pattern);
+        }
+
+        return query;
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public int countTransactions(PageRequest request) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildTransactionQuery(request);
+            String sql = "SELECT COUNT(*) FROM transactions" + query.where();
+            pstmt = conn.prepareStatement(sql);
+            query.bind(pstmt);
+
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public List<Transaction> getTransactionsPage(PageRequest request, Transaction after, int limit) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildTransactionQuery(request);
+            if (after != null) {
+                query.after(transactionSortValue(after, request.getSortKey()), after.getTransactionId());
+            }
+
+            String sql = "SELECT * FROM transactions" + query.where() + query.orderBy() + " LIMIT ?";
+            pstmt = conn.prepareStatement(sql);
+            int index = query.bind(pstmt);
+            pstmt.setInt(index, limit);
+
+            rs = pstmt.executeQuery();
+
+            List<Transaction> transactions = new ArrayList<>(limit);
+            while (rs.next()) {
+                transactions.add(mapTransactionFromResultSet(rs));
+            }
+
+            return transactions;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public Transaction getTransactionAtOffset(PageRequest request, int offset) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildTransactionQuery(request);
+            String sql = "SELECT * FROM transactions" + query.where() + query.orderBy() + " OFFSET ? LIMIT 1";
+            pstmt = conn.prepareStatement(sql);
+            int index = query.bind(pstmt);
+            pstmt.setInt(index, offset);
+
+            rs = pstmt.executeQuery();
+            return rs.next() ? mapTransactionFromResultSet(rs) : null;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public Map<String, BigDecimal> getTransactionTotalsByType(PageRequest request) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            KeysetQuery query = buildTransactionQuery(request);
+            String sql = "SELECT transaction_type, SUM(amount) FROM transactions" + query.where()
+                    + " GROUP BY transaction_type";
+            pstmt = conn.prepareStatement(sql);
+            query.bind(pstmt);
+
+            rs = pstmt.executeQuery();
+
+            Map<String, BigDecimal> totals = new HashMap<>();
+            while (rs.next()) {
+                totals.put(rs.getString(1), rs.getBigDecimal(2));
+            }
+
+            return totals;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public List<Transaction> getTransactionsAfterId(long transactionId) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            pstmt = conn.prepareStatement(AFTER_ID_SQL);
+            pstmt.setLong(1, transactionId);
+
+            rs = pstmt.executeQuery();
+
+            List<Transaction> transactions = new ArrayList<>();
+            while (rs.next()) {
+                transactions.add(mapTransactionFromResultSet(rs));
+            }
+
+            return transactions;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public List<Transaction> getRecentTransactions(int limit) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+
+            pstmt = conn.prepareStatement(RECENT_SQL);
+            pstmt.setInt(1, limit);
+
+            rs = pstmt.executeQuery();
+
+            List<Transaction> transactions = new ArrayList<>(limit);
+            while (rs.next()) {
+                transactions.add(mapTransactionFromResultSet(rs));
+            }
+
+            return transactions;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("UseSpecificCatch")
+    public Map<String, Integer> getTransactionCountsByTypeSince(LocalDateTime since, long maxTransactionId) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            String source = archive.source(since);
+            conn = dbConfig.getConnection();
+
+            pstmt = conn.prepareStatement(String.format(COUNTS_SINCE_SQL, source));
+            pstmt.setTimestamp(1, Timestamp.valueOf(since));
+            pstmt.setLong(2, maxTransactionId);
+
+            rs = pstmt.executeQuery();
+
+            Map<String, Integer> counts = new HashMap<>();
+            while (rs.next()) {
+                counts.put(rs.getString("transaction_type"), rs.getInt("cnt"));
+            }
+
+            return counts;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
 }
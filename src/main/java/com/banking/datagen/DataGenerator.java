@@ -0,0 +1,568 @@
+package com.banking.datagen;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.util.DatabaseUtil;
+import com.banking.util.TransactionPartitions;
+
+/**
+ * Loads a deterministic synthetic dataset: customers, accounts and a
+ * multi-year transaction history, so performance problems show up before
+ * production.
+ *
+ * The same profile, seed and end date always give the same rows, whatever
+ * the number of threads. Data is written with COPY, in parallel by
+ * partitions of customers, in three steps: plan every account history in
+ * memory to get final balances and row counts, load customers and accounts,
+ * then load transactions with their final IDs. Histories are generated
+ * twice instead of being kept in memory.
+ *
+ * Loading needs empty tables; the sequences are moved past the generated
+ * IDs afterwards so the application can keep inserting.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.datagen.DataGenerator --profile medium --seed 42
+ */
+public class DataGenerator {
+
+    private static final int CUSTOMERS_PER_PARTITION = 10_000;
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private static final String COUNT_CUSTOMERS_SQL = "SELECT EXISTS (SELECT 1 FROM customers)";
+    private static final String TRUNCATE_SQL = "TRUNCATE transactions, transactions_archive, purge_queue, accounts, customers RESTART IDENTITY CASCADE";
+    private static final String COPY_CUSTOMERS_SQL =
+            "COPY customers (customer_id, first_name, last_name, email, phone, address, date_registered, status) " +
+            "FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_ACCOUNTS_SQL =
+            "COPY accounts (account_id, customer_id, account_type, balance, interest_rate, date_opened, status) " +
+            "FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_TRANSACTIONS_SQL =
+            "COPY transactions (transaction_id, account_id, transaction_type, amount, transaction_date, " +
+            "description, recipient_account_id) FROM STDIN WITH (FORMAT csv)";
+    private static final String SET_SEQUENCE_SQL = "SELECT setval(pg_get_serial_sequence(?, ?), ?)";
+
+    private final DatasetProfile profile;
+    private final long seed;
+    private final DatabaseConfig dbConfig;
+    private LocalDate endDate = LocalDate.now();
+    private int threads = Math.min(Runtime.getRuntime().availableProcessors(),
+            Integer.getInteger(DatabaseConfig.POOL_SIZE_PROPERTY, 10));
+
+    /**
+     * Constructor
+     *
+     * @param profile Dataset size
+     * @param seed Random seed
+     */
+    public DataGenerator(DatasetProfile profile, long seed) {
+        this.profile = profile;
+        this.seed = seed;
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    /**
+     * Set the last day of the history, today by default. Fix it to get
+     * identical data on different days.
+     *
+     * @param endDate End date
+     */
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    /**
+     * Set how many partitions load at once, each on its own connection
+     *
+     * @param threads Parallelism, at most the connection pool size
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Generate the dataset unless the database already has customers
+     *
+     * @return true if data was loaded
+     * @throws Exception if loading fails
+     */
+    public boolean loadIfEmpty() throws Exception {
+        if (!isEmpty()) {
+            return false;
+        }
+        load();
+        return true;
+    }
+
+    /**
+     * Generate and load the dataset into empty tables
+     *
+     * @throws Exception if the tables are not empty or loading fails
+     */
+    public void load() throws Exception {
+        if (!isEmpty()) {
+            throw new IllegalStateException("Customers table is not empty, reset the database first");
+        }
+
+        long started = System.nanoTime();
+        DatasetModel model = new DatasetModel(profile, seed, endDate);
+        int partitions = (model.getCustomerCount() + CUSTOMERS_PER_PARTITION - 1) / CUSTOMERS_PER_PARTITION;
+        long[] ownBalances = new long[model.getAccountCount() + 1];
+        AtomicLongArray incoming = new AtomicLongArray(model.getAccountCount() + 1);
+        long[] partitionRows = new long[partitions];
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "data-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                int partition = p;
+                tasks.add(() -> {
+                    partitionRows[partition] = plan(model, partition, ownBalances, incoming);
+                    return null;
+                });
+            }
+            runAll(executor, tasks);
+
+            long[] firstTransactionIds = new long[partitions];
+            long transactions = 0;
+            for (int p = 0; p < partitions; p++) {
+                firstTransactionIds[p] = transactions + 1;
+                transactions += partitionRows[p];
+            }
+            System.out.printf("Planned %d customers, %d accounts and %d transactions in %.1f s%n",
+                    model.getCustomerCount(), model.getAccountCount(), transactions, seconds(started));
+
+            // Accounts must all exist before transfers can reference them
+            tasks.clear();
+            for (int p = 0; p < partitions; p++) {
+                int partition = p;
+                tasks.add(() -> {
+                    loadCustomersAndAccounts(model, partition, ownBalances, incoming);
+                    return null;
+                });
+            }
+            runAll(executor, tasks);
+            System.out.printf("Loaded customers and accounts after %.1f s%n", seconds(started));
+
+            // COPY straight into the month partitions rather than through the default one
+            createMonthPartitions(YearMonth.from(endDate.minusYears(profile.getYears())), YearMonth.from(endDate));
+
+            tasks.clear();
+            for (int p = 0; p < partitions; p++) {
+                int partition = p;
+                tasks.add(() -> {
+                    loadTransactions(model, partition, firstTransactionIds[partition]);
+                    return null;
+                });
+            }
+            runAll(executor, tasks);
+            System.out.printf("Loaded transactions after %.1f s (%.0f rows/s)%n", seconds(started),
+                    transactions / seconds(started));
+
+            finish(model.getCustomerCount(), model.getAccountCount(), transactions);
+            System.out.printf("Done in %.1f s%n", seconds(started));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Remove all customers, accounts and transactions and reset the sequences
+     *
+     * @throws Exception if the tables cannot be truncated
+     */
+    public void reset() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(TRUNCATE_SQL);
+            pstmt.execute();
+        } finally {
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    private void createMonthPartitions(YearMonth first, YearMonth last) throws Exception {
+        Connection conn = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            if (TransactionPartitions.isPartitioned(conn)) {
+                int created = TransactionPartitions.ensurePartitions(conn, first, last);
+                if (created > 0) {
+                    System.out.printf("Created %d transaction partitions%n", created);
+                }
+            }
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    private boolean isEmpty() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(COUNT_CUSTOMERS_SQL);
+            rs = pstmt.executeQuery();
+            return !rs.next() || !rs.getBoolean(1);
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Walk the histories of a partition's accounts, recording own balances
+     * and incoming transfers
+     *
+     * @return Number of transaction rows the partition will write
+     */
+    private static long plan(DatasetModel model, int partition, long[] ownBalances, AtomicLongArray incoming)
+            throws IOException {
+        long[] rows = new long[1];
+        DatasetModel.TransactionVisitor counter = (time, type, amount, counterparty, description) -> {
+            if (type == DatasetModel.TRANSFER) {
+                incoming.addAndGet(counterparty, amount);
+                rows[0] += 2;
+            } else {
+                rows[0]++;
+            }
+        };
+
+        int lastCustomer = lastCustomer(model, partition);
+        for (int customerId = firstCustomer(partition); customerId <= lastCustomer; customerId++) {
+            for (int accountId = model.getFirstAccountId(customerId);
+                    accountId < model.getFirstAccountId(customerId + 1); accountId++) {
+                ownBalances[accountId] = model.walkHistory(accountId, customerId, counter);
+            }
+        }
+        return rows[0];
+    }
+
+    private void loadCustomersAndAccounts(DatasetModel model, int partition, long[] ownBalances,
+            AtomicLongArray incoming) throws Exception {
+        int firstCustomer = firstCustomer(partition);
+        int lastCustomer = lastCustomer(model, partition);
+
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+
+            try (Writer out = openCopy(conn, COPY_CUSTOMERS_SQL)) {
+                StringBuilder buffer = new StringBuilder(BUFFER_CHARS + 1024);
+                for (int customerId = firstCustomer; customerId <= lastCustomer; customerId++) {
+                    model.appendCustomer(buffer, customerId);
+                    drain(out, buffer, false);
+                }
+                drain(out, buffer, true);
+            }
+
+            try (Writer out = openCopy(conn, COPY_ACCOUNTS_SQL)) {
+                StringBuilder buffer = new StringBuilder(BUFFER_CHARS + 1024);
+                for (int customerId = firstCustomer; customerId <= lastCustomer; customerId++) {
+                    for (int accountId = model.getFirstAccountId(customerId);
+                            accountId < model.getFirstAccountId(customerId + 1); accountId++) {
+                        model.appendAccount(buffer, accountId, customerId,
+                                ownBalances[accountId] + incoming.get(accountId));
+                        drain(out, buffer, false);
+                    }
+                }
+                drain(out, buffer, true);
+            }
+
+            conn.commit();
+        } catch (Exception e) {
+            rollback(conn);
+            throw e;
+        } finally {
+            release(conn);
+        }
+    }
+
+    private void loadTransactions(DatasetModel model, int partition, long firstTransactionId) throws Exception {
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+
+            try (Writer out = openCopy(conn, COPY_TRANSACTIONS_SQL)) {
+                StringBuilder buffer = new StringBuilder(BUFFER_CHARS + 1024);
+                long[] nextId = {firstTransactionId};
+                int[] current = new int[1];
+
+                DatasetModel.TransactionVisitor writer = (time, type, amount, counterparty, description) -> {
+                    int accountId = current[0];
+                    switch (type) {
+                        case DatasetModel.DEPOSIT:
+                            appendTransaction(buffer, nextId[0]++, accountId, "DEPOSIT", amount, time,
+                                    description, 0);
+                            break;
+                        case DatasetModel.WITHDRAWAL:
+                            appendTransaction(buffer, nextId[0]++, accountId, "WITHDRAWAL", amount, time,
+                                    description, 0);
+                            break;
+                        default:
+                            // Same descriptions fv_transfer writes
+                            appendTransaction(buffer, nextId[0]++, accountId, "TRANSFER_OUT", amount, time,
+                                    "Transfer to account #" + counterparty + ": " + description, counterparty);
+                            appendTransaction(buffer, nextId[0]++, counterparty, "TRANSFER_IN", amount, time,
+                                    "Transfer from account #" + accountId + ": " + description, accountId);
+                            break;
+                    }
+                    drain(out, buffer, false);
+                };
+
+                int lastCustomer = lastCustomer(model, partition);
+                for (int customerId = firstCustomer(partition); customerId <= lastCustomer; customerId++) {
+                    for (int accountId = model.getFirstAccountId(customerId);
+                            accountId < model.getFirstAccountId(customerId + 1); accountId++) {
+                        current[0] = accountId;
+                        model.walkHistory(accountId, customerId, writer);
+                    }
+                }
+                drain(out, buffer, true);
+            }
+
+            conn.commit();
+        } catch (Exception e) {
+            rollback(conn);
+            throw e;
+        } finally {
+            release(conn);
+        }
+    }
+
+    private static void appendTransaction(StringBuilder line, long transactionId, int accountId, String type,
+            long amountCents, long epochSecond, String description, int recipientAccountId) {
+        line.append(transactionId).append(',')
+                .append(accountId).append(',')
+                .append(type).append(',');
+        DatasetModel.appendCents(line, amountCents);
+        line.append(',');
+        DatasetModel.appendTimestamp(line, epochSecond);
+        line.append(',').append(description).append(',');
+        if (recipientAccountId != 0) {
+            line.append(recipientAccountId);
+        }
+        line.append('\n');
+    }
+
+    /**
+     * Move the sequences past the generated IDs and refresh planner statistics
+     */
+    private void finish(int customers, int accounts, long transactions) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(SET_SEQUENCE_SQL);
+            String[][] sequences = {{"customers", "customer_id"}, {"accounts", "account_id"},
+                    {"transactions", "transaction_id"}};
+            long[] lastIds = {customers, accounts, transactions};
+            for (int i = 0; i < sequences.length; i++) {
+                if (lastIds[i] > 0) {
+                    pstmt.setString(1, sequences[i][0]);
+                    pstmt.setString(2, sequences[i][1]);
+                    pstmt.setLong(3, lastIds[i]);
+                    pstmt.executeQuery().close();
+                }
+            }
+
+            for (String table : new String[]{"customers", "accounts", "transactions"}) {
+                try (PreparedStatement analyze = conn.prepareStatement("ANALYZE " + table)) {
+                    analyze.execute();
+                }
+            }
+        } finally {
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    private static Writer openCopy(Connection conn, String sql) throws SQLException {
+        PGConnection pgConnection = conn.unwrap(PGConnection.class);
+        return new OutputStreamWriter(new PGCopyOutputStream(pgConnection, sql, BUFFER_CHARS),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the buffer out once it is full, or always when flushing
+     */
+    private static void drain(Writer out, StringBuilder buffer, boolean flush) throws IOException {
+        if (flush || buffer.length() >= BUFFER_CHARS) {
+            out.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+    private static void runAll(ExecutorService executor, List<Callable<Void>> tasks) throws Exception {
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (Exception e) {
+                System.err.println("Error rolling back data load: " + e.getMessage());
+            }
+        }
+    }
+
+    private void release(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+            } catch (Exception e) {
+                System.err.println("Error resetting auto-commit");
+            }
+            dbConfig.closeConnection(conn);
+        }
+    }
+
+    private static int firstCustomer(int partition) {
+        return partition * CUSTOMERS_PER_PARTITION + 1;
+    }
+
+    private static int lastCustomer(DatasetModel model, int partition) {
+        return Math.min(model.getCustomerCount(), (partition + 1) * CUSTOMERS_PER_PARTITION);
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    public static void main(String[] args) {
+        DatasetProfile profile = DatasetProfile.SMALL;
+        long seed = 42;
+        boolean reset = false;
+        LocalDate endDate = null;
+        Integer threads = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--profile":
+                        profile = DatasetProfile.valueOf(args[++i].toUpperCase());
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--end-date":
+                        endDate = LocalDate.parse(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--reset":
+                        reset = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.out.println("Usage: DataGenerator [--profile small|medium|large] [--seed N]");
+            System.out.println("                     [--end-date YYYY-MM-DD] [--threads N] [--reset]");
+            System.out.println("  --reset deletes all customers, accounts and transactions first");
+            System.exit(2);
+        }
+
+        if (!DatabaseUtil.initializeDatabase()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        int status = 0;
+        try {
+            DataGenerator generator = new DataGenerator(profile, seed);
+            if (endDate != null) {
+                generator.setEndDate(endDate);
+            }
+            if (threads != null) {
+                generator.setThreads(threads);
+            }
+            if (reset) {
+                generator.reset();
+            }
+            System.out.printf("Generating %s dataset with seed %d%n", profile, seed);
+            generator.load();
+        } catch (Exception e) {
+            System.err.println("Data generation failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            DatabaseConfig.getInstance().shutdown();
+        }
+        System.exit(status);
+    }
+}
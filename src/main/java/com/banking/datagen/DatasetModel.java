@@ -0,0 +1,304 @@
+package com.banking.datagen;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic description of a synthetic dataset.
+ *
+ * Every customer, account and account history is drawn from its own random
+ * stream derived from the seed and the entity's ID, so any part can be
+ * regenerated on its own, in any order and on any thread, with the same
+ * result. Customer and account IDs are dense and start at 1.
+ *
+ * Distributions: one to three accounts per customer, account activity is
+ * log-normal around the profile mean, events arrive as a Poisson process and
+ * amounts are log-normal per type. Withdrawals and outgoing transfers that
+ * the account cannot cover are not made, so no history overdraws.
+ */
+final class DatasetModel {
+
+    static final int DEPOSIT = 0;
+    static final int WITHDRAWAL = 1;
+    static final int TRANSFER = 2;
+
+    /**
+     * Receives the transactions of one account in date order
+     */
+    interface TransactionVisitor {
+
+        /**
+         * @param epochSecond Transaction time, UTC
+         * @param type DEPOSIT, WITHDRAWAL or TRANSFER (outgoing)
+         * @param amountCents Amount in cents
+         * @param counterpartyAccountId Receiving account for transfers, else 0
+         * @param description Description
+         * @throws IOException if the transaction cannot be written
+         */
+        void visit(long epochSecond, int type, long amountCents, int counterpartyAccountId, String description)
+                throws IOException;
+    }
+
+    private static final long CUSTOMER_STREAM = 0x243F6A8885A308D3L;
+    private static final long ACCOUNT_STREAM = 0x13198A2E03707344L;
+    private static final long HISTORY_STREAM = 0xA4093822299F31D0L;
+
+    private static final long DAY_SECONDS = 86_400;
+    private static final long MIN_AMOUNT_CENTS = 100;
+    private static final long MAX_AMOUNT_CENTS = 5_000_000;
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer",
+            "Michael", "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+            "Thomas", "Sarah", "Ahmed", "Fatima", "Wei", "Mei", "Raj", "Priya", "Carlos", "Maria", "Ivan", "Olga",
+            "Kenji", "Yuki", "Omar", "Aisha"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Taylor",
+            "Thomas", "Moore", "Jackson", "Khan", "Ali", "Chen", "Wang", "Patel", "Singh", "Silva", "Ivanov",
+            "Tanaka", "Sato", "Nguyen", "Kim", "Muller", "Rossi"};
+    private static final String[] STREETS = {"Oak Street", "Maple Avenue", "Cedar Lane", "Pine Road",
+            "Elm Street", "Lake View Drive", "Hill Road", "Park Avenue", "Main Street", "Church Lane"};
+    private static final String[] CITIES = {"Springfield", "Riverside", "Fairview", "Georgetown", "Franklin",
+            "Clinton", "Madison", "Salem", "Bristol", "Oxford"};
+
+    private static final String OPENING_DESCRIPTION = "Initial deposit";
+    private static final String[] DEPOSIT_DESCRIPTIONS = {"Salary", "Cash deposit", "Cheque deposit",
+            "Refund", "Interest payout", "Freelance payment"};
+    private static final String[] WITHDRAWAL_DESCRIPTIONS = {"ATM withdrawal", "Card payment", "Groceries",
+            "Utility bill", "Fuel", "Online purchase", "Restaurant"};
+    private static final String[] TRANSFER_DESCRIPTIONS = {"Rent", "Loan repayment", "Gift", "Savings",
+            "Shared expenses", "Invoice payment"};
+
+    private final long seed;
+    private final double transactionsPerAccountMonth;
+    private final int customerCount;
+    private final long startSecond;
+    private final long endSecond;
+
+    // firstAccountIds[customerId] is the customer's first account, the
+    // entry after the last customer is one past the last account
+    private final int[] firstAccountIds;
+
+    /**
+     * Constructor, lays out the account IDs of all customers
+     *
+     * @param profile Dataset size
+     * @param seed Random seed
+     * @param endDate Day the history runs up to
+     */
+    DatasetModel(DatasetProfile profile, long seed, LocalDate endDate) {
+        this.seed = seed;
+        this.transactionsPerAccountMonth = profile.getTransactionsPerAccountMonth();
+        this.customerCount = profile.getCustomers();
+        this.endSecond = endDate.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.startSecond = endDate.minusYears(profile.getYears()).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+        firstAccountIds = new int[customerCount + 2];
+        firstAccountIds[1] = 1;
+        for (int customerId = 1; customerId <= customerCount; customerId++) {
+            SplittableRandom random = customerRandom(customerId);
+            random.nextLong();
+            firstAccountIds[customerId + 1] = firstAccountIds[customerId] + drawAccountCount(random);
+        }
+    }
+
+    int getCustomerCount() {
+        return customerCount;
+    }
+
+    int getAccountCount() {
+        return firstAccountIds[customerCount + 1] - 1;
+    }
+
+    int getFirstAccountId(int customerId) {
+        return firstAccountIds[customerId];
+    }
+
+    /**
+     * Append a customers row as CSV
+     *
+     * @param line Buffer to append to
+     * @param customerId Customer ID
+     */
+    void appendCustomer(StringBuilder line, int customerId) {
+        SplittableRandom random = customerRandom(customerId);
+        long registered = startSecond + random.nextLong(registrationSpan());
+        drawAccountCount(random);
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+
+        line.append(customerId).append(',')
+                .append(firstName).append(',')
+                .append(lastName).append(',')
+                .append(firstName.toLowerCase()).append('.').append(lastName.toLowerCase())
+                .append('.').append(customerId).append("@example.com,")
+                .append("+1-555-").append(1_000_000 + random.nextInt(9_000_000)).append(',')
+                .append('"').append(1 + random.nextInt(9_999)).append(' ')
+                .append(STREETS[random.nextInt(STREETS.length)]).append(", ")
+                .append(CITIES[random.nextInt(CITIES.length)]).append("\",");
+        appendTimestamp(line, registered);
+        line.append(",ACTIVE\n");
+    }
+
+    /**
+     * Append an accounts row as CSV
+     *
+     * @param line Buffer to append to
+     * @param accountId Account ID
+     * @param customerId Owning customer
+     * @param balanceCents Final balance including incoming transfers
+     */
+    void appendAccount(StringBuilder line, int accountId, int customerId, long balanceCents) {
+        SplittableRandom random = accountRandom(accountId);
+        long opened = drawOpened(random, customerId);
+        boolean savings = random.nextDouble() < 0.45;
+        // Savings rate from 1.00% to 4.50%; current accounts get no overdraft
+        int rateBasisPoints = 100 + random.nextInt(351);
+        if (!savings) {
+            rateBasisPoints = 0;
+        }
+
+        line.append(accountId).append(',')
+                .append(customerId).append(',')
+                .append(savings ? "SAVINGS" : "CURRENT").append(',');
+        appendCents(line, balanceCents);
+        line.append(",0.").append((char) ('0' + rateBasisPoints / 1000))
+                .append((char) ('0' + rateBasisPoints / 100 % 10))
+                .append((char) ('0' + rateBasisPoints / 10 % 10))
+                .append((char) ('0' + rateBasisPoints % 10)).append(',');
+        appendTimestamp(line, opened);
+        line.append(",ACTIVE\n");
+    }
+
+    /**
+     * Generate the history of one account, starting with its opening deposit
+     *
+     * @param accountId Account ID
+     * @param customerId Owning customer
+     * @param visitor Receives the transactions
+     * @return Balance from the account's own transactions, without incoming transfers
+     * @throws IOException if the visitor fails
+     */
+    long walkHistory(int accountId, int customerId, TransactionVisitor visitor) throws IOException {
+        SplittableRandom account = accountRandom(accountId);
+        long opened = drawOpened(account, customerId);
+        account.nextDouble();
+        account.nextInt(351);
+        double activity = Math.exp(0.8 * account.nextGaussian() - 0.32);
+
+        SplittableRandom random = new SplittableRandom(mix(seed ^ mix(HISTORY_STREAM + accountId)));
+        long balance = drawAmount(random, 100_000, 1.0);
+        visitor.visit(opened, DEPOSIT, balance, 0, OPENING_DESCRIPTION);
+
+        double eventsPerSecond = transactionsPerAccountMonth * activity / (30.0 * DAY_SECONDS);
+        int accountCount = getAccountCount();
+        long time = opened;
+        while (true) {
+            time += 1 + (long) (-Math.log(1.0 - random.nextDouble()) / eventsPerSecond);
+            if (time >= endSecond) {
+                return balance;
+            }
+
+            double kind = random.nextDouble();
+            if (kind < 0.35) {
+                long amount = drawAmount(random, 20_000, 1.0);
+                balance += amount;
+                visitor.visit(time, DEPOSIT, amount, 0,
+                        DEPOSIT_DESCRIPTIONS[random.nextInt(DEPOSIT_DESCRIPTIONS.length)]);
+            } else if (kind < 0.75) {
+                long amount = drawAmount(random, 6_000, 0.9);
+                String description = WITHDRAWAL_DESCRIPTIONS[random.nextInt(WITHDRAWAL_DESCRIPTIONS.length)];
+                if (amount <= balance) {
+                    balance -= amount;
+                    visitor.visit(time, WITHDRAWAL, amount, 0, description);
+                }
+            } else {
+                long amount = drawAmount(random, 15_000, 1.1);
+                int counterparty = 1 + random.nextInt(accountCount);
+                String description = TRANSFER_DESCRIPTIONS[random.nextInt(TRANSFER_DESCRIPTIONS.length)];
+                if (amount <= balance && counterparty != accountId) {
+                    balance -= amount;
+                    visitor.visit(time, TRANSFER, amount, counterparty, description);
+                }
+            }
+        }
+    }
+
+    private long registrationSpan() {
+        // Leave the last part of the window for accounts to be opened
+        return Math.max(1, (endSecond - startSecond) * 7 / 10);
+    }
+
+    private long drawOpened(SplittableRandom accountRandom, int customerId) {
+        SplittableRandom customer = customerRandom(customerId);
+        long registered = startSecond + customer.nextLong(registrationSpan());
+        return registered + accountRandom.nextLong(Math.max(1, endSecond - 7 * DAY_SECONDS - registered));
+    }
+
+    private static int drawAccountCount(SplittableRandom random) {
+        double u = random.nextDouble();
+        return u < 0.6 ? 1 : u < 0.9 ? 2 : 3;
+    }
+
+    /**
+     * Log-normal amount
+     *
+     * @return Amount in cents around the median, within the allowed range
+     */
+    private static long drawAmount(SplittableRandom random, long medianCents, double sigma) {
+        long cents = Math.round(medianCents * Math.exp(sigma * random.nextGaussian()));
+        return Math.max(MIN_AMOUNT_CENTS, Math.min(MAX_AMOUNT_CENTS, cents));
+    }
+
+    private SplittableRandom customerRandom(int customerId) {
+        return new SplittableRandom(mix(seed ^ mix(CUSTOMER_STREAM + customerId)));
+    }
+
+    private SplittableRandom accountRandom(int accountId) {
+        return new SplittableRandom(mix(seed ^ mix(ACCOUNT_STREAM + accountId)));
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads nearby IDs over unrelated seeds
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Append cents as a decimal amount, e.g. 12345 as 123.45
+     */
+    static void appendCents(StringBuilder line, long cents) {
+        if (cents < 0) {
+            line.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        line.append(cents / 100).append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    /**
+     * Append a UTC epoch second as an ISO timestamp
+     */
+    static void appendTimestamp(StringBuilder line, long epochSecond) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        line.append(time.getYear()).append('-');
+        appendTwoDigits(line, time.getMonthValue());
+        line.append('-');
+        appendTwoDigits(line, time.getDayOfMonth());
+        line.append(' ');
+        appendTwoDigits(line, time.getHour());
+        line.append(':');
+        appendTwoDigits(line, time.getMinute());
+        line.append(':');
+        appendTwoDigits(line, time.getSecond());
+    }
+
+    private static void appendTwoDigits(StringBuilder line, int value) {
+        line.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
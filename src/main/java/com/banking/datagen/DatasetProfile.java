@@ -0,0 +1,54 @@
+package com.banking.datagen;
+
+/**
+ * Sizes of synthetic datasets, shared by the data generator, the benchmarks
+ * and load testing so everyone talks about the same data
+ */
+public enum DatasetProfile {
+
+    /** About 1,500 accounts and 50 thousand transactions, loads in seconds */
+    SMALL(1_000, 2, 4.0),
+
+    /** About 150 thousand accounts and 7 million transactions */
+    MEDIUM(100_000, 3, 3.0),
+
+    /** About 1.5 million accounts and 150 million transactions, tens of GB */
+    LARGE(1_000_000, 5, 4.0);
+
+    private final int customers;
+    private final int years;
+    private final double transactionsPerAccountMonth;
+
+    DatasetProfile(int customers, int years, double transactionsPerAccountMonth) {
+        this.customers = customers;
+        this.years = years;
+        this.transactionsPerAccountMonth = transactionsPerAccountMonth;
+    }
+
+    /**
+     * Get the number of customers
+     *
+     * @return Customer count
+     */
+    public int getCustomers() {
+        return customers;
+    }
+
+    /**
+     * Get the length of the transaction history
+     *
+     * @return History length in years
+     */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * Get the mean activity of an account
+     *
+     * @return Average transactions an account makes per month
+     */
+    public double getTransactionsPerAccountMonth() {
+        return transactionsPerAccountMonth;
+    }
+}
@@ -0,0 +1,97 @@
+package com.banking.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered UTF-8 writer onto a FileChannel.
+ *
+ * Text is encoded straight into one direct buffer, which is written to the
+ * channel whenever it fills up, so memory use does not depend on how much
+ * is written.
+ */
+final class ChannelWriter {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private long bytesWritten;
+
+    ChannelWriter(FileChannel channel, int bufferBytes) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    /**
+     * Append text
+     *
+     * @param text Text to encode
+     * @throws IOException if the write fails
+     */
+    void write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+    }
+
+    /**
+     * Append bytes that are already encoded
+     *
+     * @param bytes Bytes
+     * @throws IOException if the write fails
+     */
+    void write(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Write out everything buffered
+     *
+     * @throws IOException if the write fails
+     */
+    void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Get the number of bytes written so far, including buffered ones
+     *
+     * @return Bytes
+     */
+    long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,65 @@
+package com.banking.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which transactions an export includes. Every part is optional, so an
+ * account with a date range is a statement and no filter at all is the
+ * whole table.
+ */
+public class ExportFilter {
+
+    private final Integer accountId;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String transactionType;
+
+    /**
+     * Constructor
+     *
+     * @param accountId Account ID, or null for all accounts
+     * @param from Earliest transaction date (inclusive), or null
+     * @param to Latest transaction date (inclusive), or null
+     * @param transactionType DEPOSIT, WITHDRAWAL or TRANSFER (both legs), or null for all types
+     * @throws IllegalArgumentException if the type is unknown or the range is reversed
+     */
+    public ExportFilter(Integer accountId, LocalDateTime from, LocalDateTime to, String transactionType) {
+        if (transactionType != null && !"DEPOSIT".equals(transactionType)
+                && !"WITHDRAWAL".equals(transactionType) && !"TRANSFER".equals(transactionType)) {
+            throw new IllegalArgumentException("Unknown transaction type: " + transactionType);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Export range starts after it ends");
+        }
+        this.accountId = accountId;
+        this.from = from;
+        this.to = to;
+        this.transactionType = transactionType;
+    }
+
+    /**
+     * Create a filter that includes every transaction
+     *
+     * @return Empty filter
+     */
+    public static ExportFilter all() {
+        return new ExportFilter(null, null, null, null);
+    }
+
+    // Getters
+    public Integer getAccountId() {
+        return accountId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public String getTransactionType() {
+        return transactionType;
+    }
+}
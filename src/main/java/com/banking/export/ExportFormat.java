@@ -0,0 +1,34 @@
+package com.banking.export;
+
+/**
+ * File formats the transaction exporter can write
+ */
+public enum ExportFormat {
+
+    /** Comma-separated values with a header row, quoted as PostgreSQL COPY does */
+    CSV("csv", "CSV"),
+    /** One JSON object per line, with the field names of the HTTP API */
+    JSONL("jsonl", "JSON Lines");
+
+    private final String extension;
+    private final String displayName;
+
+    ExportFormat(String extension, String displayName) {
+        this.extension = extension;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Get the usual file extension
+     *
+     * @return Extension without the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
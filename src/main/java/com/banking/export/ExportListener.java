@@ -0,0 +1,16 @@
+package com.banking.export;
+
+/**
+ * Receives progress while an export runs. Called on the exporting thread.
+ */
+@FunctionalInterface
+public interface ExportListener {
+
+    /**
+     * Report progress
+     *
+     * @param rows Rows written so far
+     * @param bytes Bytes written so far
+     */
+    void progress(long rows, long bytes);
+}
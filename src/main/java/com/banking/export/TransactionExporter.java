@@ -0,0 +1,365 @@
+package com.banking.export;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.TransactionArchive;
+import com.banking.metrics.MetricsRegistry;
+
+/**
+ * Streams transactions to a CSV or JSON Lines file.
+ *
+ * Rows are never collected in memory: CSV is read with PostgreSQL's COPY TO
+ * STDOUT, which sends ready-formatted rows, and JSON Lines (or CSV when COPY
+ * is unavailable or turned off with -Dfinvault.export.copy=false) through a
+ * server-side cursor. Either way each row is encoded into one reusable
+ * buffer and written through a FileChannel, so a statement and a full table
+ * dump use the same memory.
+ *
+ * The file is written under a ".part" name and only renamed to the target
+ * when complete. Use a new exporter for each export, so cancel() can be
+ * called from another thread before or while it runs.
+ */
+public class TransactionExporter {
+
+    /**
+     * System property to turn off COPY for CSV exports
+     */
+    public static final String COPY_PROPERTY = "finvault.export.copy";
+
+    private static final int FETCH_SIZE = 5_000;
+    private static final int BUFFER_BYTES = 256 * 1024;
+    private static final int PROGRESS_ROWS = 10_000;
+
+    private static final String COLUMNS = "transaction_id, account_id, transaction_type, amount, "
+            + "transaction_date, description, recipient_account_id";
+    // Same header COPY writes
+    private static final String CSV_HEADER = COLUMNS.replace(" ", "") + "\n";
+    private static final DateTimeFormatter LITERAL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private final DatabaseConfig dbConfig;
+    private volatile boolean cancelled;
+    private volatile PreparedStatement running;
+
+    public TransactionExporter() {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+
+    /**
+     * Export transactions to a file, replacing it if it exists
+     *
+     * @param filter Transactions to include
+     * @param format File format
+     * @param target File to write
+     * @param listener Progress listener, or null
+     * @return Number of transactions written
+     * @throws CancellationException if cancel() was called
+     * @throws Exception if the database read or the file write fails
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    public long export(ExportFilter filter, ExportFormat format, Path target, ExportListener listener)
+            throws Exception {
+        long start = System.nanoTime();
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        long rows = 0;
+        boolean complete = false;
+
+        Connection conn = null;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ChannelWriter out = new ChannelWriter(channel, BUFFER_BYTES);
+            String source = TransactionArchive.getInstance().source(filter.getFrom());
+            conn = dbConfig.getConnection();
+
+            if (format == ExportFormat.CSV && Boolean.parseBoolean(System.getProperty(COPY_PROPERTY, "true"))
+                    && conn.isWrapperFor(PGConnection.class)) {
+                rows = exportWithCopy(conn, source, filter, out, listener);
+            } else {
+                rows = exportWithCursor(conn, source, filter, format, out, listener);
+            }
+            out.flush();
+            if (listener != null) {
+                listener.progress(rows, out.getBytesWritten());
+            }
+            complete = true;
+        } catch (Exception e) {
+            if (cancelled) {
+                throw new CancellationException("Export cancelled");
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+            if (!complete) {
+                Files.deleteIfExists(part);
+            }
+            MetricsRegistry.getInstance().method("Export.transactions")
+                    .record(System.nanoTime() - start, 0, (int) Math.min(rows, Integer.MAX_VALUE), !complete);
+        }
+
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        return rows;
+    }
+
+    /**
+     * Stop the running export. It fails with a CancellationException and
+     * leaves no file behind.
+     */
+    public void cancel() {
+        cancelled = true;
+        PreparedStatement statement = running;
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (Exception e) {
+                System.err.println("Error cancelling export query: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Check whether cancel() was called
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private long exportWithCopy(Connection conn, String source, ExportFilter filter, ChannelWriter out,
+            ExportListener listener) throws Exception {
+        // COPY takes no bind parameters, the filter values are inlined as typed literals
+        String sql = "COPY (" + buildQuery(source, filter, null) + ") TO STDOUT WITH (FORMAT csv, HEADER)";
+        CopyOut copy = conn.unwrap(PGConnection.class).getCopyAPI().copyOut(sql);
+        long rows = -1;
+        try {
+            byte[] row;
+            // Each message holds one row, the first is the header
+            while ((row = copy.readFromCopy()) != null) {
+                checkCancelled();
+                out.write(row);
+                if (++rows % PROGRESS_ROWS == 0 && rows > 0 && listener != null) {
+                    listener.progress(rows, out.getBytesWritten());
+                }
+            }
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+        return Math.max(rows, 0);
+    }
+
+    @SuppressWarnings("UseSpecificCatch")
+    private long exportWithCursor(Connection conn, String source, ExportFilter filter, ExportFormat format,
+            ChannelWriter out, ExportListener listener) throws Exception {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        long rows = 0;
+        StringBuilder line = new StringBuilder(256);
+
+        try {
+            // The driver only streams with a fetch size inside a transaction
+            conn.setAutoCommit(false);
+
+            List<Object> params = new ArrayList<>();
+            pstmt = conn.prepareStatement(buildQuery(source, filter, params));
+            pstmt.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            running = pstmt;
+            checkCancelled();
+            rs = pstmt.executeQuery();
+
+            if (format == ExportFormat.CSV) {
+                out.write(CSV_HEADER);
+            }
+            while (rs.next()) {
+                line.setLength(0);
+                if (format == ExportFormat.CSV) {
+                    appendCsvRow(line, rs);
+                } else {
+                    appendJsonRow(line, rs);
+                }
+                out.write(line);
+                if (++rows % PROGRESS_ROWS == 0) {
+                    checkCancelled();
+                    if (listener != null) {
+                        listener.progress(rows, out.getBytesWritten());
+                    }
+                }
+            }
+            conn.commit();
+        } finally {
+            running = null;
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            try {
+                conn.setAutoCommit(true);
+            } catch (Exception e) {
+                System.err.println("Error resetting auto-commit");
+            }
+        }
+        return rows;
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Export cancelled");
+        }
+    }
+
+    /**
+     * Build the export query
+     *
+     * @param source Table expression to read, see TransactionArchive.source
+     * @param filter Transactions to include
+     * @param params List to collect bind parameters in, or null to inline the values as literals
+     * @return SELECT statement in transaction ID order
+     */
+    static String buildQuery(String source, ExportFilter filter, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getAccountId() != null) {
+            conditions.add("account_id = " + value(filter.getAccountId(), params));
+        }
+        if (filter.getFrom() != null) {
+            conditions.add("transaction_date >= " + value(filter.getFrom(), params));
+        }
+        if (filter.getTo() != null) {
+            conditions.add("transaction_date <= " + value(filter.getTo(), params));
+        }
+        String type = filter.getTransactionType();
+        if ("TRANSFER".equals(type)) {
+            conditions.add("transaction_type IN ('TRANSFER_IN', 'TRANSFER_OUT')");
+        } else if (type != null) {
+            // Already checked against the known types by ExportFilter
+            conditions.add("transaction_type = " + value(type, params));
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM ").append(source);
+        for (int i = 0; i < conditions.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(conditions.get(i));
+        }
+        return sql.append(" ORDER BY transaction_id").toString();
+    }
+
+    private static String value(Object value, List<Object> params) {
+        if (params != null) {
+            params.add(value instanceof LocalDateTime ? Timestamp.valueOf((LocalDateTime) value) : value);
+            return "?";
+        }
+        if (value instanceof LocalDateTime) {
+            return "TIMESTAMP '" + LITERAL_FORMAT.format((LocalDateTime) value) + "'";
+        }
+        if (value instanceof String) {
+            return "'" + ((String) value).replace("'", "''") + "'";
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Append a row formatted like COPY ... WITH (FORMAT csv): NULL is an
+     * empty field, and values are quoted only when they need to be
+     */
+    private static void appendCsvRow(StringBuilder line, ResultSet rs) throws Exception {
+        for (int column = 1; column <= 7; column++) {
+            if (column > 1) {
+                line.append(',');
+            }
+            String value = rs.getString(column);
+            if (value == null) {
+                continue;
+            }
+            if (value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        line.append('\n');
+    }
+
+    /**
+     * Append a row as a JSON object with the field names of the HTTP API
+     */
+    private static void appendJsonRow(StringBuilder line, ResultSet rs) throws Exception {
+        line.append("{\"transactionId\":").append(rs.getLong(1));
+        line.append(",\"accountId\":").append(rs.getInt(2));
+        line.append(",\"transactionType\":");
+        appendJsonString(line, rs.getString(3));
+        line.append(",\"amount\":").append(rs.getString(4));
+        line.append(",\"transactionDate\":");
+        Timestamp date = rs.getTimestamp(5);
+        appendJsonString(line, date == null ? null : date.toLocalDateTime().toString());
+        line.append(",\"description\":");
+        appendJsonString(line, rs.getString(6));
+        int recipient = rs.getInt(7);
+        line.append(",\"recipientAccountId\":");
+        if (rs.wasNull()) {
+            line.append("null");
+        } else {
+            line.append(recipient);
+        }
+        line.append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,125 @@
+package com.banking.gui;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.SwingUtilities;
+
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+
+/**
+ * Measures how responsive the Event Dispatch Thread is and reports when it
+ * is blocked.
+ *
+ * A background thread posts a tiny task to the EDT at a fixed interval and
+ * records how long it waited before running as the EDT.dispatchDelay metric.
+ * While the EDT is blocked the probes pile up and each records its own wait,
+ * so a stall shows up with its full length.
+ *
+ * The same thread acts as a watchdog. When no probe has run for longer than
+ * finvault.edt.stallMillis (500 by default) it prints the EDT's stack to
+ * System.err, again every further stallMillis up to a few samples, and once
+ * the EDT is back it logs the total length and records it as EDT.stall.
+ */
+public final class EdtProbe {
+
+    private static final long INTERVAL_MILLIS = 100;
+    private static final int MAX_SAMPLES_PER_STALL = 5;
+
+    private static final LongAdder STALLS = new LongAdder();
+
+    private static ScheduledExecutorService scheduler;
+
+    // Written by the probes on the EDT, read by the watchdog
+    private static volatile long lastAnsweredNanos;
+    private static volatile Thread edtThread;
+
+    // Stacks printed for the current stall, 0 while the EDT is responsive
+    private static final AtomicInteger SAMPLES_THIS_STALL = new AtomicInteger();
+
+    static {
+        MetricsRegistry.getInstance().registerGauge("swing.edtStalls", STALLS::sum);
+    }
+
+    private EdtProbe() {
+    }
+
+    /**
+     * Start probing, does nothing if already started
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        MethodMetrics delay = MetricsRegistry.getInstance().method("EDT.dispatchDelay");
+        MethodMetrics stall = MetricsRegistry.getInstance().method("EDT.stall");
+        long stallNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("finvault.edt.stallMillis", 500));
+
+        lastAnsweredNanos = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "edt-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            long posted = System.nanoTime();
+            checkForStall(posted, stallNanos);
+            SwingUtilities.invokeLater(() -> {
+                long now = System.nanoTime();
+                delay.record(now - posted, 0, 0, false);
+                long gap = now - lastAnsweredNanos;
+                lastAnsweredNanos = now;
+                edtThread = Thread.currentThread();
+                if (SAMPLES_THIS_STALL.getAndSet(0) > 0) {
+                    stall.record(gap, 0, 0, false);
+                    System.err.println("EDT responsive again after "
+                            + TimeUnit.NANOSECONDS.toMillis(gap) + " ms");
+                }
+            });
+        }, INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop probing
+     */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Get the number of times the EDT was blocked beyond the stall threshold
+     *
+     * @return Stalls since startup
+     */
+    public static long getStallCount() {
+        return STALLS.sum();
+    }
+
+    private static void checkForStall(long now, long stallNanos) {
+        Thread edt = edtThread;
+        long blocked = now - lastAnsweredNanos;
+        int samples = SAMPLES_THIS_STALL.get();
+        if (edt == null || samples >= MAX_SAMPLES_PER_STALL || blocked < stallNanos * (samples + 1)
+                || !SAMPLES_THIS_STALL.compareAndSet(samples, samples + 1)) {
+            return;
+        }
+        if (samples == 0) {
+            STALLS.increment();
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append("EDT blocked for ").append(TimeUnit.NANOSECONDS.toMillis(blocked))
+                .append(" ms, stack of ").append(edt.getName()).append(" (").append(edt.getState()).append("):");
+        for (StackTraceElement frame : edt.getStackTrace()) {
+            report.append(System.lineSeparator()).append("\tat ").append(frame);
+        }
+        System.err.println(report);
+    }
+}
@@ -31,6 +31,7 @@ import javax.swing.border.EmptyBorder;
 import com.banking.gui.panels.AccountManagementPanel;
 import com.banking.gui.panels.CustomerManagementPanel;
 import com.banking.gui.panels.DashboardPanel;
+import com.banking.gui.panels.PerformancePanel;
 import com.banking.gui.panels.ReportsPanel;
 import com.banking.gui.panels.SettingsPanel;
 import com.banking.gui.panels.TransactionPanel;
@@ -60,6 +61,7 @@ public class MainFrame extends JFrame {
     private JButton accountsButton;
     private JButton transactionsButton;
     private JButton reportsButton;
+    private JButton performanceButton;
     private JButton settingsButton;
     private JButton logoutButton;
 
@@ -102,9 +104,13 @@ public class MainFrame extends JFrame {
         // Add panels to card layout
         contentPanel.add(new DashboardPanel(), "DASHBOARD");
         contentPanel.add(new CustomerManagementPanel(), "CUSTOMERS");
-        contentPanel.add(new AccountManagementPanel(), "ACCOUNTS");
-        contentPanel.add(new TransactionPanel(), "TRANSACTIONS");
+        AccountManagementPanel accountPanel = new AccountManagementPanel();
+        TransactionPanel transactionPanel = new TransactionPanel();
+        transactionPanel.addTransactionListener(accountPanel::applyTransactionResult);
+        contentPanel.add(accountPanel, "ACCOUNTS");
+        contentPanel.add(transactionPanel, "TRANSACTIONS");
         contentPanel.add(new ReportsPanel(), "REPORTS");
+        contentPanel.add(new PerformancePanel(), "PERFORMANCE");
         contentPanel.add(new SettingsPanel(), "SETTINGS");
 
         // Add to main panel
@@ -141,6 +147,7 @@ public class MainFrame extends JFrame {
         accountsButton = createNavButton("💰", "Accounts", "ACCOUNTS"); 
         transactionsButton = createNavButton("↔", "Transactions", "TRANSACTIONS"); 
         reportsButton = createNavButton("📊", "Reports", "REPORTS");
+        performanceButton = createNavButton("📈", "Performance", "PERFORMANCE");
         settingsButton = createNavButton("⚙", "Settings", "SETTINGS");
 
         navigationPanel.add(dashboardButton);
@@ -153,6 +160,8 @@ public class MainFrame extends JFrame {
         navigationPanel.add(Box.createRigidArea(new Dimension(0, 2)));
         navigationPanel.add(reportsButton);
         navigationPanel.add(Box.createRigidArea(new Dimension(0, 2)));
+        navigationPanel.add(performanceButton);
+        navigationPanel.add(Box.createRigidArea(new Dimension(0, 2)));
         navigationPanel.add(settingsButton);
         
         navigationPanel.add(Box.createVerticalGlue());
@@ -322,7 +331,7 @@ public class MainFrame extends JFrame {
 
     private void updateNavButtonSelection(JButton selectedButton) {
         JButton[] buttons = {dashboardButton, customersButton, accountsButton, 
-                             transactionsButton, reportsButton, settingsButton};
+                             transactionsButton, reportsButton, performanceButton, settingsButton};
         
         for (JButton button : buttons) {
             button.setBackground(NAV_BG);
@@ -411,6 +420,7 @@ public class MainFrame extends JFrame {
             case "ACCOUNTS": updateNavButtonSelection(accountsButton); break;
             case "TRANSACTIONS": updateNavButtonSelection(transactionsButton); break;
             case "REPORTS": updateNavButtonSelection(reportsButton); break;
+            case "PERFORMANCE": updateNavButtonSelection(performanceButton); break;
             case "SETTINGS": updateNavButtonSelection(settingsButton); break;
         }
     }
@@ -0,0 +1,121 @@
+package com.banking.gui;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.JComponent;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+import com.banking.metrics.MetricsRegistry;
+
+/**
+ * Repaint manager that reports Swing components being changed off the Event
+ * Dispatch Thread, e.g. a label updated from SwingWorker.doInBackground().
+ *
+ * Changing a realized component invalidates it or marks it dirty, and both go
+ * through the repaint manager on the calling thread. A call from any other
+ * thread than the EDT is counted as the swing.offEdtViolations gauge and its
+ * stack is printed to System.err once per call site. repaint() called by the
+ * application is thread-safe and is not reported.
+ */
+public class ThreadCheckingRepaintManager extends RepaintManager {
+
+    private static final LongAdder VIOLATIONS = new LongAdder();
+    private static final Set<String> REPORTED_SITES = ConcurrentHashMap.newKeySet();
+
+    static {
+        MetricsRegistry.getInstance().registerGauge("swing.offEdtViolations", VIOLATIONS::sum);
+    }
+
+    /**
+     * Replace the current repaint manager, unless finvault.edt.checkThreads is
+     * false. Call on the EDT before any window is shown.
+     */
+    public static void install() {
+        if (Boolean.parseBoolean(System.getProperty("finvault.edt.checkThreads", "true"))) {
+            RepaintManager.setCurrentManager(new ThreadCheckingRepaintManager());
+        }
+    }
+
+    /**
+     * Get the number of component changes made off the EDT
+     *
+     * @return Violations since startup
+     */
+    public static long getViolationCount() {
+        return VIOLATIONS.sum();
+    }
+
+    @Override
+    public synchronized void addInvalidComponent(JComponent component) {
+        checkThread(component);
+        super.addInvalidComponent(component);
+    }
+
+    @Override
+    public void addDirtyRegion(JComponent component, int x, int y, int w, int h) {
+        checkThread(component);
+        super.addDirtyRegion(component, x, y, w, h);
+    }
+
+    private static void checkThread(JComponent component) {
+        // Components may be built off the EDT until they are realized
+        if (SwingUtilities.isEventDispatchThread() || !component.isDisplayable()) {
+            return;
+        }
+
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        if (isThreadSafeRepaint(stack)) {
+            return;
+        }
+        String site = null;
+        for (StackTraceElement frame : stack) {
+            if (!isPlatform(frame) && !frame.getClassName().equals(ThreadCheckingRepaintManager.class.getName())) {
+                site = frame.toString();
+                break;
+            }
+        }
+
+        VIOLATIONS.increment();
+        if (REPORTED_SITES.add(String.valueOf(site))) {
+            StringBuilder report = new StringBuilder();
+            report.append("Swing component ").append(component.getClass().getName())
+                    .append(" changed off the EDT on thread ").append(Thread.currentThread().getName())
+                    .append(':');
+            for (StackTraceElement frame : stack) {
+                report.append(System.lineSeparator()).append("\tat ").append(frame);
+            }
+            System.err.println(report);
+        }
+    }
+
+    /**
+     * Check whether the call comes from repaint() called directly by the
+     * application, or from images loading in the background. Swing itself
+     * calls repaint() when a component changes, so setText() off the EDT
+     * also arrives here through repaint().
+     */
+    private static boolean isThreadSafeRepaint(StackTraceElement[] stack) {
+        for (int i = 0; i < stack.length; i++) {
+            if ("imageUpdate".equals(stack[i].getMethodName())) {
+                return true;
+            }
+            if ("repaint".equals(stack[i].getMethodName()) && isPlatform(stack[i])) {
+                // Skip repaint() overloads calling each other to find the caller
+                while (i + 1 < stack.length && "repaint".equals(stack[i + 1].getMethodName())) {
+                    i++;
+                }
+                return i + 1 < stack.length && !isPlatform(stack[i + 1]);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPlatform(StackTraceElement frame) {
+        String className = frame.getClassName();
+        return className.startsWith("java.") || className.startsWith("javax.")
+                || className.startsWith("sun.") || className.startsWith("jdk.");
+    }
+}
@@ -0,0 +1,85 @@
+package com.banking.gui;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingWorker;
+
+import com.banking.jfr.WorkerLoadEvent;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+
+/**
+ * Starts SwingWorkers and keeps track of how many are waiting for one of
+ * SwingWorker's background threads and how many are running.
+ *
+ * SwingWorker runs at most ten workers at once and queues the rest, so a
+ * growing queue means database calls are backing up behind each other.
+ * The time from execute() until the start is reported back on the EDT is
+ * recorded as the SwingWorker.queueWait metric, and the whole load from
+ * execute() until done as a WorkerLoadEvent for Java Flight Recorder.
+ */
+public final class WorkerTracker {
+
+    private static final AtomicInteger QUEUED = new AtomicInteger();
+    private static final AtomicInteger RUNNING = new AtomicInteger();
+    private static final MethodMetrics QUEUE_WAIT = MetricsRegistry.getInstance().method("SwingWorker.queueWait");
+
+    static {
+        MetricsRegistry.getInstance().registerGauge("swing.workersQueued", QUEUED::get);
+        MetricsRegistry.getInstance().registerGauge("swing.workersRunning", RUNNING::get);
+    }
+
+    private WorkerTracker() {
+    }
+
+    /**
+     * Execute a worker and track it until it is done
+     *
+     * @param worker Worker that has not been started
+     */
+    public static void execute(SwingWorker<?, ?> worker) {
+        long queuedAt = System.nanoTime();
+        long[] queueWait = new long[1];
+        WorkerLoadEvent load = new WorkerLoadEvent();
+        load.begin();
+        QUEUED.incrementAndGet();
+        worker.addPropertyChangeListener(event -> {
+            if (!"state".equals(event.getPropertyName())) {
+                return;
+            }
+            if (event.getNewValue() == SwingWorker.StateValue.STARTED) {
+                QUEUED.decrementAndGet();
+                RUNNING.incrementAndGet();
+                queueWait[0] = System.nanoTime() - queuedAt;
+                QUEUE_WAIT.record(queueWait[0], 0, 0, false);
+            } else if (event.getNewValue() == SwingWorker.StateValue.DONE) {
+                if (event.getOldValue() == SwingWorker.StateValue.STARTED) {
+                    RUNNING.decrementAndGet();
+                } else {
+                    // Cancelled before it started
+                    QUEUED.decrementAndGet();
+                }
+                load.complete(worker.getClass().getName(), queueWait[0], worker.isCancelled());
+            }
+        });
+        worker.execute();
+    }
+
+    /**
+     * Get the number of workers waiting for a thread
+     *
+     * @return Queued workers
+     */
+    public static int getQueued() {
+        return QUEUED.get();
+    }
+
+    /**
+     * Get the number of workers in doInBackground()
+     *
+     * @return Running workers
+     */
+    public static int getRunning() {
+        return RUNNING.get();
+    }
+}
@@ -36,6 +36,7 @@ public class AccountDialog extends JDialog {
     private final CustomerService customerService = new CustomerService();
     private final Account account;
     private boolean saved = false;
+    private Account createdAccount;
 
     private JComboBox<String> accountTypeCombo;
     private JTextField customerIdField, initialDepositField, interestRateField, overdraftLimitField;
@@ -324,7 +325,7 @@ public class AccountDialog extends JDialog {
                 BigDecimal initialDeposit = new BigDecimal(initialDepositField.getText().trim());
                 String type = (String) accountTypeCombo.getSelectedItem();
 
-                Account createdAccount = null;
+                createdAccount = null;
 
                 if ("Savings".equals(type)) {
                     BigDecimal interestRate = new BigDecimal(interestRateField.getText().trim())
@@ -441,4 +442,6 @@ public class AccountDialog extends JDialog {
     }
 
     public boolean isSaved() { return saved; }
+
+    public Account getCreatedAccount() { return createdAccount; }
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.banking.gui.dialogs;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
+import javax.swing.border.EmptyBorder;
+
+import com.banking.export.ExportFilter;
+import com.banking.export.ExportFormat;
+import com.banking.export.TransactionExporter;
+import com.banking.gui.WorkerTracker;
+import com.banking.util.DateUtil;
+
+/**
+ * Dialog that exports transactions, optionally limited to one account, a
+ * date range and a type, to a CSV or JSON Lines file. The export streams in
+ * the background with live progress and can be cancelled.
+ */
+public class ExportDialog extends JDialog {
+
+    private static final String[] TYPES = {"All Types", "DEPOSIT", "WITHDRAWAL", "TRANSFER"};
+
+    private JTextField accountIdField, fromField, toField;
+    private JComboBox<String> typeCombo;
+    private JComboBox<ExportFormat> formatCombo;
+    private JProgressBar progressBar;
+    private JLabel statusLabel;
+    private JButton exportButton, cancelButton;
+
+    private TransactionExporter exporter;
+
+    public ExportDialog(java.awt.Window parent) {
+        super(parent, "Export Transactions", ModalityType.APPLICATION_MODAL);
+        setSize(460, 380);
+        setLocationRelativeTo(parent);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                cancelOrClose();
+            }
+        });
+
+        initComponents();
+    }
+
+    private void initComponents() {
+        JPanel content = new JPanel(new GridBagLayout());
+        content.setBorder(new EmptyBorder(20, 25, 10, 25));
+        content.setBackground(Color.WHITE);
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(6, 6, 6, 6);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        accountIdField = new JTextField();
+        fromField = new JTextField();
+        toField = new JTextField();
+        typeCombo = new JComboBox<>(TYPES);
+        formatCombo = new JComboBox<>(ExportFormat.values());
+
+        int row = 0;
+        addRow(content, gbc, row++, "Account ID (blank for all)", accountIdField);
+        addRow(content, gbc, row++, "From (yyyy-MM-dd)", fromField);
+        addRow(content, gbc, row++, "To (yyyy-MM-dd)", toField);
+        addRow(content, gbc, row++, "Type", typeCombo);
+        addRow(content, gbc, row++, "Format", formatCombo);
+
+        progressBar = new JProgressBar();
+        progressBar.setVisible(false);
+        gbc.gridx = 0;
+        gbc.gridy = row++;
+        gbc.gridwidth = 2;
+        content.add(progressBar, gbc);
+
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        statusLabel.setForeground(Color.GRAY);
+        gbc.gridy = row;
+        content.add(statusLabel, gbc);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        buttons.setBackground(Color.WHITE);
+        exportButton = new JButton("Export...");
+        exportButton.addActionListener(e -> startExport());
+        cancelButton = new JButton("Close");
+        cancelButton.addActionListener(e -> cancelOrClose());
+        buttons.add(cancelButton);
+        buttons.add(exportButton);
+
+        getContentPane().setLayout(new BorderLayout());
+        getContentPane().add(content, BorderLayout.CENTER);
+        getContentPane().add(buttons, BorderLayout.SOUTH);
+    }
+
+    private void addRow(JPanel panel, GridBagConstraints gbc, int row, String label, java.awt.Component field) {
+        JLabel jLabel = new JLabel(label);
+        jLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        gbc.gridx = 0;
+        gbc.gridy = row;
+        gbc.gridwidth = 1;
+        gbc.weightx = 0.4;
+        panel.add(jLabel, gbc);
+        gbc.gridx = 1;
+        gbc.weightx = 0.6;
+        panel.add(field, gbc);
+    }
+
+    private ExportFilter readFilter() {
+        String accountText = accountIdField.getText().trim();
+        Integer accountId = null;
+        if (!accountText.isEmpty()) {
+            try {
+                accountId = Integer.parseInt(accountText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Account ID must be a number");
+            }
+        }
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = DateUtil.parseDate(fromField.getText().trim());
+            to = DateUtil.parseDate(toField.getText().trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Dates must be in the format yyyy-MM-dd");
+        }
+        String type = typeCombo.getSelectedIndex() == 0 ? null : (String) typeCombo.getSelectedItem();
+        return new ExportFilter(accountId, DateUtil.startOfDay(from), DateUtil.endOfDay(to), type);
+    }
+
+    private void startExport() {
+        ExportFilter filter;
+        try {
+            filter = readFilter();
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Invalid Filter", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        ExportFormat format = (ExportFormat) formatCombo.getSelectedItem();
+
+        JFileChooser chooser = new JFileChooser();
+        String name = filter.getAccountId() != null
+                ? "statement-" + filter.getAccountId() : "transactions";
+        chooser.setSelectedFile(new File(name + "." + format.getExtension()));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path target = chooser.getSelectedFile().toPath();
+
+        exporter = new TransactionExporter();
+        TransactionExporter current = exporter;
+        exportButton.setEnabled(false);
+        cancelButton.setText("Cancel");
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(true);
+        statusLabel.setText("Starting export...");
+
+        SwingWorker<Long, long[]> worker = new SwingWorker<>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return current.export(filter, format, target, (rows, bytes) -> publish(new long[] {rows, bytes}));
+            }
+
+            @Override
+            protected void process(List<long[]> chunks) {
+                long[] latest = chunks.get(chunks.size() - 1);
+                statusLabel.setText(String.format("%,d transactions, %.1f MB written", latest[0],
+                        latest[1] / (1024.0 * 1024.0)));
+            }
+
+            @Override
+            protected void done() {
+                exporter = null;
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+                exportButton.setEnabled(true);
+                cancelButton.setText("Close");
+                try {
+                    long rows = get();
+                    statusLabel.setText(String.format("Exported %,d transactions to %s", rows,
+                            target.getFileName()));
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof CancellationException) {
+                        statusLabel.setText("Export cancelled");
+                        return;
+                    }
+                    cause.printStackTrace();
+                    statusLabel.setText("Export failed");
+                    JOptionPane.showMessageDialog(ExportDialog.this,
+                        "Error exporting transactions: " + cause.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        WorkerTracker.execute(worker);
+    }
+
+    private void cancelOrClose() {
+        TransactionExporter current = exporter;
+        if (current != null) {
+            statusLabel.setText("Cancelling...");
+            current.cancel();
+        } else {
+            dispose();
+        }
+    }
+}
@@ -13,8 +13,12 @@ import java.awt.GridLayout;
 import java.awt.Insets;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -31,18 +35,25 @@ import javax.swing.JSeparator;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
 
+import com.banking.dao.PageRequest;
+import com.banking.gui.WorkerTracker;
 import com.banking.gui.dialogs.AccountDialog;
+import com.banking.gui.table.PagedTableModel;
 import com.banking.model.Account;
 import com.banking.model.CurrentAccount;
 import com.banking.model.Customer;
+import com.banking.model.Money;
 import com.banking.model.SavingsAccount;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionResult;
 import com.banking.service.AccountService;
 import com.banking.service.CustomerService;
 
@@ -51,11 +62,14 @@ import com.banking.service.CustomerService;
  */
 public class AccountManagementPanel extends JPanel {
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
     private final AccountService accountService;
     private final CustomerService customerService;
     
     private JTable accountTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Account> tableModel;
+    private final Map<Integer, String> customerNames = new ConcurrentHashMap<>();
     private JComboBox<String> accountTypeFilter;
     private JTextField searchField;
     private JButton refreshButton;
@@ -66,6 +80,7 @@ public class AccountManagementPanel extends JPanel {
     private JLabel statusLabel;
     private JLabel totalBalanceLabel;
     private JLabel totalAccountsLabel;
+    private Money totalBalance = Money.ZERO;
 
     public AccountManagementPanel() {
         this.accountService = new AccountService();
@@ -167,20 +182,32 @@ public class AccountManagementPanel extends JPanel {
             new EmptyBorder(10, 10, 10, 10)
         ));
 
-        // Create table model
+        // Create table model, rows are fetched a page at a time as they scroll into view
         String[] columns = {"ID", "Type", "Customer", "Balance $", "Status", "Interest/Overdraft", "Opened"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-            
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                if (columnIndex == 3) return BigDecimal.class;
-                return String.class;
-            }
-        };
+        Class<?>[] columnClasses = {Integer.class, String.class, String.class, Money.class,
+            String.class, String.class, String.class};
+        tableModel = new PagedTableModel<>(columns, columnClasses,
+            new PagedTableModel.PageSource<Account>() {
+                @Override
+                public int count(PageRequest request) throws Exception {
+                    return accountService.countAccounts(request);
+                }
+
+                @Override
+                public List<Account> fetchPage(PageRequest request, Account after, int limit) throws Exception {
+                    List<Account> accounts = accountService.getAccountsPage(request, after, limit);
+                    loadCustomerNames(accounts);
+                    return accounts;
+                }
+
+                @Override
+                public Account fetchAt(PageRequest request, int offset) throws Exception {
+                    return accountService.getAccountAtOffset(request, offset);
+                }
+            },
+            this::getColumnValue);
+        // Rows pinned by insertRows are skipped by ID on later pages
+        tableModel.setRowKey(Account::getAccountId);
 
         
         accountTable = new JTable(tableModel) {
@@ -246,6 +273,16 @@ public class AccountManagementPanel extends JPanel {
         accountTable.setSelectionBackground(new Color(45, 85, 255, 50));
         accountTable.getColumnModel().getColumn(2).setPreferredWidth(100);
 
+        // Balances stay Money in the model and are only formatted when painted
+        DefaultTableCellRenderer moneyRenderer = new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "" : ((Money) value).format());
+            }
+        };
+        moneyRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+        accountTable.setDefaultRenderer(Money.class, moneyRenderer);
+
         // Style table header
         JTableHeader header = accountTable.getTableHeader();
         header.setFont(new Font("Segoe UI", Font.BOLD, 16));
@@ -254,6 +291,9 @@ public class AccountManagementPanel extends JPanel {
         header.setBorder(BorderFactory.createMatteBorder(0, 0, 2, 0, new Color(45, 85, 255)));
 
         // Add selection listener
+        tableModel.installHeaderSorting(accountTable,
+            new String[]{"id", "type", null, "balance", "status", null, "opened"});
+
         accountTable.getSelectionModel().addListSelectionListener(e -> {
             boolean rowSelected = accountTable.getSelectedRow() != -1;
             editButton.setEnabled(rowSelected);
@@ -329,76 +369,67 @@ public class AccountManagementPanel extends JPanel {
     }
 
     private void loadAccounts() {
-        SwingWorker<List<Account>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Account> doInBackground() throws Exception {
-                statusLabel.setText("Loading accounts from database...");
-                List<Customer> customers = customerService.getAllCustomers();
-                List<Account> allAccounts = new ArrayList<>();
-                
-                for (Customer customer : customers) {
-                    allAccounts.addAll(accountService.getAccountsByCustomerId(customer.getCustomerId()));
-                }
-                
-                // Sort by account ID (newest first)
-                allAccounts.sort((a1, a2) -> Integer.compare(a2.getAccountId(), a1.getAccountId()));
-                
-                return allAccounts;
-            }
+        statusLabel.setText("Loading accounts from database...");
+        loadPage(buildPageRequest(), count -> statusLabel.setText(String.format("Loaded %d accounts", count)));
+    }
 
-            @Override
-            protected void done() {
-                try {
-                    List<Account> accounts = get();
-                    updateTableData(accounts);
-                    updateStatistics(accounts);
-                    statusLabel.setText(String.format("Loaded %d accounts", accounts.size()));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    statusLabel.setText("Error loading accounts");
-                    JOptionPane.showMessageDialog(AccountManagementPanel.this,
-                        "Error loading accounts: " + e.getMessage(),
-                        "Database Error",
-                        JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        };
-        worker.execute();
+    private PageRequest buildPageRequest() {
+        String selected = (String) accountTypeFilter.getSelectedItem();
+        String filter = "All Accounts".equals(selected) ? null : selected.toUpperCase();
+
+        // Keep the column the user sorted by, newest first otherwise
+        PageRequest current = tableModel.getRequest();
+        String sortKey = current != null ? current.getSortKey() : "id";
+        boolean ascending = current != null && current.isAscending();
+
+        return new PageRequest(filter, searchField.getText(), sortKey, ascending);
     }
 
-    private void updateTableData(List<Account> accounts) {
-        tableModel.setRowCount(0);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        
-        for (Account account : accounts) {
-            String customerName = "";
-            try {
-                Customer customer = customerService.getCustomerById(account.getCustomerId());
-                if (customer != null) {
-                    customerName = customer.getFullName() + " (ID: " + customer.getCustomerId() + ")";
-                }
-            } catch (Exception e) {
-                customerName = "ID: " + account.getCustomerId();
-            }
+    private void loadPage(PageRequest request, IntConsumer onReady) {
+        tableModel.refresh(request, onReady);
+        updateStatistics(request);
+    }
 
-            String extraInfo = "";
-            if (account instanceof SavingsAccount) {
-                SavingsAccount sa = (SavingsAccount) account;
-                extraInfo = String.format("%.2f%%", sa.getInterestRate().multiply(new BigDecimal("100")));
-            } else if (account instanceof CurrentAccount) {
-                CurrentAccount ca = (CurrentAccount) account;
-                extraInfo = "$" + String.format("%,.2f", ca.getOverdraftLimit());
+    /**
+     * Look up the owners of a page of accounts in one query, skipping
+     * customers already cached from earlier pages
+     */
+    private void loadCustomerNames(List<Account> accounts) throws Exception {
+        Set<Integer> missing = new HashSet<>();
+        for (Account account : accounts) {
+            if (!customerNames.containsKey(account.getCustomerId())) {
+                missing.add(account.getCustomerId());
             }
+        }
+        for (Customer customer : customerService.getCustomersByIds(missing).values()) {
+            customerNames.put(customer.getCustomerId(),
+                customer.getFullName() + " (ID: " + customer.getCustomerId() + ")");
+        }
+    }
 
-            tableModel.addRow(new Object[]{
-                account.getAccountId(),
-                account.getAccountType(),
-                customerName,
-                account.getBalance(),
-                getStatusWithIcon(account.getStatus()),
-                extraInfo,
-                account.getDateOpened().format(formatter)
-            });
+    private Object getColumnValue(Account account, int column) {
+        switch (column) {
+            case 0:
+                return account.getAccountId();
+            case 1:
+                return account.getAccountType();
+            case 2:
+                return customerNames.getOrDefault(account.getCustomerId(), "ID: " + account.getCustomerId());
+            case 3:
+                return account.getBalanceMoney();
+            case 4:
+                return getStatusWithIcon(account.getStatus());
+            case 5:
+                if (account instanceof SavingsAccount) {
+                    SavingsAccount sa = (SavingsAccount) account;
+                    return String.format("%.2f%%", sa.getInterestRate().multiply(new BigDecimal("100")));
+                } else if (account instanceof CurrentAccount) {
+                    CurrentAccount ca = (CurrentAccount) account;
+                    return "$" + String.format("%,.2f", ca.getOverdraftLimit());
+                }
+                return "";
+            default:
+                return account.getDateOpened().format(DATE_FORMATTER);
         }
     }
 
@@ -414,75 +445,63 @@ private String getStatusWithIcon(String status) {
 
 
 
-    private void updateStatistics(List<Account> accounts) {
-        int totalCount = accounts.size();
-        BigDecimal totalBalance = accounts.stream()
-            .map(Account::getBalance)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        totalAccountsLabel.setText("Total Accounts: " + totalCount);
-        totalBalanceLabel.setText("Total Balance: $" + String.format("%,.2f", totalBalance));
-    }
+    private void updateStatistics(PageRequest request) {
+        SwingWorker<Money, Void> worker = new SwingWorker<>() {
+            private int totalCount;
 
-    private void filterAccounts() {
-        String filter = (String) accountTypeFilter.getSelectedItem();
-        
-        SwingWorker<List<Account>, Void> worker = new SwingWorker<>() {
             @Override
-            protected List<Account> doInBackground() throws Exception {
-                statusLabel.setText("Filtering accounts...");
-                List<Customer> customers = customerService.getAllCustomers();
-                List<Account> filteredAccounts = new ArrayList<>();
-                
-                for (Customer customer : customers) {
-                    List<Account> accounts = accountService.getAccountsByCustomerId(customer.getCustomerId());
-                    for (Account account : accounts) {
-                        boolean matches = false;
-                        
-                        switch (filter) {
-                            case "All Accounts":
-                                matches = true;
-                                break;
-                            case "Savings":
-                                matches = account instanceof SavingsAccount;
-                                break;
-                            case "Current":
-                                matches = account instanceof CurrentAccount;
-                                break;
-                            case "Active":
-                                matches = "ACTIVE".equals(account.getStatus());
-                                break;
-                            case "Closed":
-                                matches = "CLOSED".equals(account.getStatus());
-                                break;
-                            case "Frozen":
-                                matches = "FROZEN".equals(account.getStatus());
-                                break;
-                        }
-                        
-                        if (matches) {
-                            filteredAccounts.add(account);
-                        }
-                    }
-                }
-                
-                filteredAccounts.sort((a1, a2) -> Integer.compare(a2.getAccountId(), a1.getAccountId()));
-                return filteredAccounts;
+            protected Money doInBackground() throws Exception {
+                totalCount = accountService.countAccounts(request);
+                return Money.of(accountService.getTotalBalance(request));
             }
 
             @Override
             protected void done() {
                 try {
-                    List<Account> accounts = get();
-                    updateTableData(accounts);
-                    updateStatistics(accounts);
-                    statusLabel.setText(String.format("Showing %d %s", accounts.size(), filter.toLowerCase()));
+                    totalBalance = get();
+                    totalAccountsLabel.setText("Total Accounts: " + totalCount);
+                    totalBalanceLabel.setText("Total Balance: $" + totalBalance.format());
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
             }
         };
-        worker.execute();
+        WorkerTracker.execute(worker);
+    }
+
+    /**
+     * Patch the balances of accounts changed by a deposit, withdrawal or
+     * transfer instead of reloading the table
+     *
+     * @param result Changed transactions and new balances
+     */
+    public void applyTransactionResult(TransactionResult result) {
+        Map<Integer, BigDecimal> newBalances = result.getNewBalances();
+        tableModel.updateRows(a -> newBalances.containsKey(a.getAccountId()),
+            a -> a.setBalance(newBalances.get(a.getAccountId())));
+
+        PageRequest request = tableModel.getRequest();
+        if (request != null && request.getFilter() == null && request.getSearchPattern() == null) {
+            // Every account is counted, so the total moves by the net amount
+            for (Transaction transaction : result.getTransactions()) {
+                String type = transaction.getTransactionType();
+                if ("DEPOSIT".equals(type) || "TRANSFER_IN".equals(type)) {
+                    totalBalance = totalBalance.plus(transaction.getAmountMoney());
+                } else {
+                    totalBalance = totalBalance.minus(transaction.getAmountMoney());
+                }
+            }
+            totalBalanceLabel.setText("Total Balance: $" + totalBalance.format());
+        } else if (request != null) {
+            updateStatistics(request);
+        }
+    }
+
+    private void filterAccounts() {
+        String filter = (String) accountTypeFilter.getSelectedItem();
+        statusLabel.setText("Filtering accounts...");
+        loadPage(buildPageRequest(), count -> statusLabel.setText(String.format("Showing %d %s",
+            count, filter.toLowerCase())));
     }
 
     private void searchAccounts() {
@@ -492,49 +511,27 @@ private String getStatusWithIcon(String status) {
             return;
         }
 
-        SwingWorker<List<Account>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Account> doInBackground() throws Exception {
-                statusLabel.setText("Searching accounts...");
-                List<Customer> customers = customerService.getAllCustomers();
-                List<Account> searchResults = new ArrayList<>();
-                
-                for (Customer customer : customers) {
-                    List<Account> accounts = accountService.getAccountsByCustomerId(customer.getCustomerId());
-                    for (Account account : accounts) {
-                        if (String.valueOf(account.getAccountId()).contains(searchTerm) ||
-                            customer.getFullName().toLowerCase().contains(searchTerm) ||
-                            customer.getEmail().toLowerCase().contains(searchTerm)) {
-                            searchResults.add(account);
-                        }
-                    }
-                }
-                
-                searchResults.sort((a1, a2) -> Integer.compare(a2.getAccountId(), a1.getAccountId()));
-                return searchResults;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    List<Account> accounts = get();
-                    updateTableData(accounts);
-                    updateStatistics(accounts);
-                    statusLabel.setText(String.format("Found %d accounts matching '%s'", 
-                        accounts.size(), searchTerm));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        };
-        worker.execute();
+        statusLabel.setText("Searching accounts...");
+        loadPage(buildPageRequest(), count -> statusLabel.setText(String.format(
+            "Found %d accounts matching '%s'", count, searchTerm)));
     }
 
     private void addAccount() {
         AccountDialog dialog = new AccountDialog((JFrame) SwingUtilities.getWindowAncestor(this), null);
         dialog.setVisible(true);
         if (dialog.isSaved()) {
-            loadAccounts();
+            Account created = dialog.getCreatedAccount();
+            if (created != null) {
+                try {
+                    loadCustomerNames(List.of(created));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                tableModel.insertRows(List.of(created));
+                updateStatistics(tableModel.getRequest());
+            } else {
+                loadAccounts();
+            }
             JOptionPane.showMessageDialog(this,
                 "Account created successfully!",
                 "Success",
@@ -545,8 +542,10 @@ private String getStatusWithIcon(String status) {
     private void editAccount() {
         int selectedRow = accountTable.getSelectedRow();
         if (selectedRow != -1) {
-            int accountId = (int) tableModel.getValueAt(selectedRow, 0);
-            editAccount(accountId);
+            Account account = tableModel.getRow(selectedRow);
+            if (account != null) {
+                editAccount(account.getAccountId());
+            }
         }
     }
 
@@ -609,7 +608,7 @@ private String getStatusWithIcon(String status) {
         }
 
         // Current Balance
-        JLabel balanceLabel = new JLabel("Current Balance: $" + String.format("%,.2f", account.getBalance()));
+        JLabel balanceLabel = new JLabel("Current Balance: $" + account.getBalanceMoney().format());
         balanceLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         balanceLabel.setForeground(new Color(40, 167, 69));
         gbc.gridx = 0;
@@ -668,10 +667,10 @@ private String getStatusWithIcon(String status) {
         freezeButton.addActionListener(e -> updateAccountStatus(account, "FROZEN", dialog));
         inactiveButton.addActionListener(e -> updateAccountStatus(account, "INACTIVE", dialog));
         closeButton.addActionListener(e -> {
-            if (account.getBalance().compareTo(BigDecimal.ZERO) != 0) {
+            if (!account.getBalanceMoney().isZero()) {
                 JOptionPane.showMessageDialog(dialog,
                     "Cannot close account with non-zero balance.\nCurrent balance: $" + 
-                    String.format("%,.2f", account.getBalance()),
+                    account.getBalanceMoney().format(),
                     "Cannot Close Account",
                     JOptionPane.WARNING_MESSAGE);
                 return;
@@ -777,7 +776,8 @@ private String getStatusWithIcon(String status) {
                         "Success",
                         JOptionPane.INFORMATION_MESSAGE);
                     dialog.dispose();
-                    loadAccounts();
+                    int accountId = account.getAccountId();
+                    tableModel.updateRows(a -> a.getAccountId() == accountId, a -> a.setStatus(newStatus));
                 }
             } catch (Exception e) {
                 e.printStackTrace();
@@ -791,8 +791,10 @@ private String getStatusWithIcon(String status) {
         private void viewAccountDetails() {
         int selectedRow = accountTable.getSelectedRow();
         if (selectedRow != -1) {
-            int accountId = (int) tableModel.getValueAt(selectedRow, 0);
-            viewAccountDetails(accountId);
+            Account account = tableModel.getRow(selectedRow);
+            if (account != null) {
+                viewAccountDetails(account.getAccountId());
+            }
         }
     }
 
@@ -863,7 +865,7 @@ private String getStatusWithIcon(String status) {
         }
 
         addDetailRow(detailsPanel, gbc, row++, "Balance:",
-                "$" + String.format("%,.2f", account.getBalance()));
+                "$" + account.getBalanceMoney().format());
 
         addDetailRow(detailsPanel, gbc, row++, "Status:", account.getStatus());
 
@@ -986,10 +988,10 @@ private String getStatusWithIcon(String status) {
             JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
+            statusLabel.setText("Applying interest to savings accounts...");
             SwingWorker<Integer, Void> worker = new SwingWorker<>() {
                 @Override
                 protected Integer doInBackground() throws Exception {
-                    statusLabel.setText("Applying interest to savings accounts...");
                     return accountService.applyInterestToSavingsAccounts();
                 }
 
@@ -1011,7 +1013,7 @@ private String getStatusWithIcon(String status) {
                     }
                 }
             };
-            worker.execute();
+            WorkerTracker.execute(worker);
         }
     }
 }
\ No newline at end of file
@@ -30,13 +30,13 @@ import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
-import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
 
+import com.banking.dao.PageRequest;
 import com.banking.gui.dialogs.CustomerDialog;
+import com.banking.gui.table.PagedTableModel;
 import com.banking.model.Customer;
 import com.banking.service.CustomerService;
 
@@ -45,10 +45,12 @@ import com.banking.service.CustomerService;
  */
 public class CustomerManagementPanel extends JPanel {
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
     private final CustomerService customerService;
     
     private JTable customerTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Customer> tableModel;
     private JTextField searchField;
     private JButton searchButton;
     private JButton refreshButton;
@@ -208,12 +210,26 @@ private JPanel createTablePanel() {
 
     // Table columns
     String[] columns = {"ID", "First Name", "Last Name", "Email", "Phone", "Status", "Registered"};
-    tableModel = new DefaultTableModel(columns, 0) {
-        @Override
-        public boolean isCellEditable(int row, int column) {
-            return false;
-        }
-    };
+    Class<?>[] columnClasses = {Integer.class, String.class, String.class, String.class,
+        String.class, String.class, String.class};
+    tableModel = new PagedTableModel<>(columns, columnClasses,
+        new PagedTableModel.PageSource<Customer>() {
+            @Override
+            public int count(PageRequest request) throws Exception {
+                return customerService.countCustomers(request);
+            }
+
+            @Override
+            public List<Customer> fetchPage(PageRequest request, Customer after, int limit) throws Exception {
+                return customerService.getCustomersPage(request, after, limit);
+            }
+
+            @Override
+            public Customer fetchAt(PageRequest request, int offset) throws Exception {
+                return customerService.getCustomerAtOffset(request, offset);
+            }
+        },
+        this::getColumnValue);
 
     // JTable
     customerTable = new JTable(tableModel) {
@@ -292,6 +308,9 @@ private JPanel createTablePanel() {
     header.setBorder(BorderFactory.createMatteBorder(0, 0, 2, 0, primaryColor));
 
     // Enable/disable buttons based on row selection
+    tableModel.installHeaderSorting(customerTable,
+        new String[]{"id", "firstName", "lastName", "email", null, "status", "registered"});
+
     customerTable.getSelectionModel().addListSelectionListener(e -> {
         boolean rowSelected = customerTable.getSelectedRow() != -1;
         editButton.setEnabled(rowSelected);
@@ -339,49 +358,39 @@ private JPanel createTablePanel() {
     private void loadCustomers() {
         statusLabel.setText("⏳ Loading...");
         statusLabel.setForeground(Color.GRAY);
-        
-        SwingWorker<List<Customer>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Customer> doInBackground() throws Exception {
-                return customerService.getAllCustomers();
-            }
 
-            @Override
-            protected void done() {
-                try {
-                    List<Customer> customers = get();
-                    updateTableData(customers);
-                    totalCountLabel.setText("Total Customers: " + customers.size());
-                    statusLabel.setText("● Loaded " + customers.size() + " customers");
-                    statusLabel.setForeground(successColor);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    statusLabel.setText("⚠ Error loading customers");
-                    statusLabel.setForeground(dangerColor);
-                    JOptionPane.showMessageDialog(CustomerManagementPanel.this,
-                        "Error loading customers: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        };
-        worker.execute();
+        tableModel.refresh(buildPageRequest(null), count -> {
+            totalCountLabel.setText("Total Customers: " + count);
+            statusLabel.setText("● Loaded " + count + " customers");
+            statusLabel.setForeground(successColor);
+        });
     }
 
-    private void updateTableData(List<Customer> customers) {
-        tableModel.setRowCount(0);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        
-        for (Customer customer : customers) {
-            tableModel.addRow(new Object[]{
-                customer.getCustomerId(),
-                customer.getFirstName(),
-                customer.getLastName(),
-                customer.getEmail(),
-                customer.getPhone() != null ? customer.getPhone() : "-",
-                formatStatus(customer.getStatus()),
-                customer.getDateRegistered().format(formatter)
-            });
+    private PageRequest buildPageRequest(String searchTerm) {
+        // Keep the column the user sorted by
+        PageRequest current = tableModel.getRequest();
+        String sortKey = current != null ? current.getSortKey() : "id";
+        boolean ascending = current == null || current.isAscending();
+
+        return new PageRequest(null, searchTerm, sortKey, ascending);
+    }
+
+    private Object getColumnValue(Customer customer, int column) {
+        switch (column) {
+            case 0:
+                return customer.getCustomerId();
+            case 1:
+                return customer.getFirstName();
+            case 2:
+                return customer.getLastName();
+            case 3:
+                return customer.getEmail();
+            case 4:
+                return customer.getPhone() != null ? customer.getPhone() : "-";
+            case 5:
+                return formatStatus(customer.getStatus());
+            default:
+                return customer.getDateRegistered().format(DATE_FORMATTER);
         }
     }
 
@@ -406,34 +415,11 @@ private JPanel createTablePanel() {
         statusLabel.setText("⏳ Searching...");
         statusLabel.setForeground(Color.GRAY);
 
-        SwingWorker<List<Customer>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Customer> doInBackground() throws Exception {
-                List<Customer> allCustomers = customerService.getAllCustomers();
-                return allCustomers.stream()
-                    .filter(c -> (c.getFirstName() != null && c.getFirstName().toLowerCase().contains(searchTerm)) ||
-                                (c.getLastName() != null && c.getLastName().toLowerCase().contains(searchTerm)) ||
-                                (c.getEmail() != null && c.getEmail().toLowerCase().contains(searchTerm)) ||
-                                (c.getPhone() != null && c.getPhone().contains(searchTerm)))
-                    .toList();
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    List<Customer> filtered = get();
-                    updateTableData(filtered);
-                    totalCountLabel.setText("Showing: " + filtered.size() + " customers");
-                    statusLabel.setText("● Found " + filtered.size() + " matches");
-                    statusLabel.setForeground(successColor);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    statusLabel.setText("⚠ Search failed");
-                    statusLabel.setForeground(dangerColor);
-                }
-            }
-        };
-        worker.execute();
+        tableModel.refresh(buildPageRequest(searchTerm), count -> {
+            totalCountLabel.setText("Showing: " + count + " customers");
+            statusLabel.setText("● Found " + count + " matches");
+            statusLabel.setForeground(successColor);
+        });
     }
 
     private void addCustomer() {
@@ -451,9 +437,12 @@ private JPanel createTablePanel() {
     private void editCustomer() {
         int selectedRow = customerTable.getSelectedRow();
         if (selectedRow != -1) {
-            int customerId = (int) tableModel.getValueAt(selectedRow, 0);
+            Customer selected = tableModel.getRow(selectedRow);
+            if (selected == null) {
+                return;
+            }
             try {
-                Customer customer = customerService.getCustomerById(customerId);
+                Customer customer = customerService.getCustomerById(selected.getCustomerId());
                 if (customer != null) {
                     CustomerDialog dialog = new CustomerDialog((JFrame) SwingUtilities.getWindowAncestor(this), customer);
                     dialog.setVisible(true);
@@ -478,9 +467,12 @@ private JPanel createTablePanel() {
     private void deleteCustomer() {
         int selectedRow = customerTable.getSelectedRow();
         if (selectedRow != -1) {
-            int customerId = (int) tableModel.getValueAt(selectedRow, 0);
-            String customerName = tableModel.getValueAt(selectedRow, 1) + " " + 
-                                 tableModel.getValueAt(selectedRow, 2);
+            Customer selected = tableModel.getRow(selectedRow);
+            if (selected == null) {
+                return;
+            }
+            int customerId = selected.getCustomerId();
+            String customerName = selected.getFirstName() + " " + selected.getLastName();
 
             int confirm = JOptionPane.showConfirmDialog(this,
                 "⚠ Delete customer: " + customerName + "?\n" +
@@ -518,9 +510,12 @@ private JPanel createTablePanel() {
     private void viewCustomerDetails() {
         int selectedRow = customerTable.getSelectedRow();
         if (selectedRow != -1) {
-            int customerId = (int) tableModel.getValueAt(selectedRow, 0);
+            Customer selected = tableModel.getRow(selectedRow);
+            if (selected == null) {
+                return;
+            }
             try {
-                Customer customer = customerService.getCustomerById(customerId);
+                Customer customer = customerService.getCustomerById(selected.getCustomerId());
                 if (customer != null) {
                     showCustomerDetailsDialog(customer);
                 }
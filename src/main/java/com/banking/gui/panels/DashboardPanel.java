@@ -13,10 +13,19 @@ import java.awt.GridLayout;
 import java.awt.Insets;
 import java.awt.RenderingHints;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
@@ -28,6 +37,7 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.SwingConstants;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
 
 import org.jfree.chart.ChartFactory;
@@ -38,23 +48,39 @@ import org.jfree.chart.plot.PiePlot;
 import org.jfree.chart.plot.RingPlot;
 import org.jfree.data.general.DefaultPieDataset;
 
+import com.banking.gui.WorkerTracker;
 import com.banking.model.Account;
 import com.banking.model.CurrentAccount;
 import com.banking.model.Customer;
+import com.banking.model.HighWaterMark;
+import com.banking.model.Money;
 import com.banking.model.SavingsAccount;
 import com.banking.model.Transaction;
-import com.banking.service.AccountService;
-import com.banking.service.CustomerService;
-import com.banking.service.TransactionService;
+import com.banking.service.DashboardService;
 
 /**
  * Enhanced dashboard panel with real statistics
  */
 public class DashboardPanel extends JPanel {
 
-    private final CustomerService customerService;
-    private final AccountService accountService;
-    private final TransactionService transactionService;
+    private static final int RECENT_LIMIT = 30;
+    private static final int REFRESH_INTERVAL_MS = 30_000;
+    // Deltas miss late-committed IDs, status changes and deletes, a full load catches up
+    private static final long FULL_RELOAD_INTERVAL_MS = 5 * 60_000;
+
+    private final DashboardService dashboardService;
+    private final Timer refreshTimer;
+
+    // Figures as of the last high-water mark, only touched on the EDT
+    private HighWaterMark mark;
+    private LocalDate statsDate;
+    private long loadedAt;
+    private int totalCustomers;
+    private int newCustomersToday;
+    private final Map<Integer, Account> accounts = new LinkedHashMap<>();
+    private final Deque<Transaction> recent = new ArrayDeque<>();
+    private final Map<String, Integer> todayCounts = new HashMap<>();
+    private boolean refreshing;
     
     private JLabel totalCustomersLabel;
     private JLabel totalAccountsLabel;
@@ -70,9 +96,8 @@ public class DashboardPanel extends JPanel {
     private Color borderColor = new Color(180, 180, 180); 
 
     public DashboardPanel() {
-        this.customerService = new CustomerService();
-        this.accountService = new AccountService();
-        this.transactionService = new TransactionService();
+        this.dashboardService = new DashboardService();
+        this.refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> refreshDelta());
         
         setLayout(new BorderLayout());
         setBackground(Color.WHITE);
@@ -104,8 +129,8 @@ public class DashboardPanel extends JPanel {
         repaint();
     }
 
-    private void buildDashboard(List<Customer> customers, List<Account> accounts, 
-                                List<Transaction> recentTransactions, DashboardStats stats) {
+    private void buildDashboard(List<Account> accounts, List<Transaction> recentTransactions,
+                                DashboardStats stats) {
         removeAll();
         setLayout(new BorderLayout());
 
@@ -130,7 +155,7 @@ public class DashboardPanel extends JPanel {
         centerPanel.add(statsPanel, gbc);
 
         // Charts
-        JPanel chartsPanel = createChartsPanel(accounts);
+        JPanel chartsPanel = createChartsPanel(accounts, stats);
         gbc.gridx = 0;
         gbc.gridy = 1;
         gbc.gridwidth = 1;
@@ -280,7 +305,7 @@ public class DashboardPanel extends JPanel {
         return card;
     }
 
-    private JPanel createChartsPanel(List<Account> accounts) {
+    private JPanel createChartsPanel(List<Account> accounts, DashboardStats stats) {
         JPanel panel = new JPanel(new GridLayout(2, 2, 15, 15));
         panel.setBackground(Color.WHITE);
 
@@ -291,7 +316,7 @@ public class DashboardPanel extends JPanel {
         panel.add(createStatusChart(accounts));
 
         // Monthly Activity Chart
-        panel.add(createActivityChart());
+        panel.add(createActivityChart(stats));
 
         // Balance Distribution
         panel.add(createBalanceChart(accounts));
@@ -380,7 +405,7 @@ public class DashboardPanel extends JPanel {
         return panel;
     }
 
-    private JPanel createActivityChart() {
+    private JPanel createActivityChart(DashboardStats stats) {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(Color.WHITE);
         panel.setBorder(BorderFactory.createCompoundBorder(
@@ -396,9 +421,9 @@ public class DashboardPanel extends JPanel {
         activityPanel.setBackground(Color.WHITE);
         activityPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
 
-        activityPanel.add(createActivityRow("Deposits", "12", successColor));
-        activityPanel.add(createActivityRow("Withdrawals", "8", warningColor));
-        activityPanel.add(createActivityRow("Transfers", "5", infoColor));
+        activityPanel.add(createActivityRow("Deposits", String.valueOf(stats.getTodayDeposits()), successColor));
+        activityPanel.add(createActivityRow("Withdrawals", String.valueOf(stats.getTodayWithdrawals()), warningColor));
+        activityPanel.add(createActivityRow("Transfers", String.valueOf(stats.getTodayTransfers()), infoColor));
 
         panel.add(activityPanel, BorderLayout.CENTER);
 
@@ -436,11 +461,13 @@ public class DashboardPanel extends JPanel {
         panel.add(titleLabel, BorderLayout.NORTH);
 
         // Calculate balance ranges
-        long under1k = accounts.stream().filter(a -> a.getBalance().compareTo(new BigDecimal("1000")) < 0).count();
+        Money oneThousand = Money.ofMinor(100_000);
+        Money tenThousand = Money.ofMinor(1_000_000);
+        long under1k = accounts.stream().filter(a -> a.getBalanceMoney().isLessThan(oneThousand)).count();
         long under10k = accounts.stream().filter(a -> 
-            a.getBalance().compareTo(new BigDecimal("1000")) >= 0 && 
-            a.getBalance().compareTo(new BigDecimal("10000")) < 0).count();
-        long over10k = accounts.stream().filter(a -> a.getBalance().compareTo(new BigDecimal("10000")) >= 0).count();
+            !a.getBalanceMoney().isLessThan(oneThousand) && 
+            a.getBalanceMoney().isLessThan(tenThousand)).count();
+        long over10k = accounts.stream().filter(a -> !a.getBalanceMoney().isLessThan(tenThousand)).count();
 
         JPanel rangesPanel = new JPanel(new GridLayout(3, 1, 5, 5));
         rangesPanel.setBackground(Color.WHITE);
@@ -537,62 +564,182 @@ public class DashboardPanel extends JPanel {
     }
 
     private void loadDashboardData() {
+        refreshTimer.stop();
         SwingWorker<DashboardData, Void> worker = new SwingWorker<>() {
             @Override
             protected DashboardData doInBackground() throws Exception {
-                // Load all customers
-                List<Customer> customers = customerService.getAllCustomers();
-                
-                // Load all accounts
-                List<Account> allAccounts = new java.util.ArrayList<>();
-                for (Customer customer : customers) {
-                    allAccounts.addAll(accountService.getAccountsByCustomerId(customer.getCustomerId()));
-                }
-                
-                // Load recent transactions (last 30)
-                List<Transaction> recentTransactions = new java.util.ArrayList<>();
-                for (Account account : allAccounts) {
-                    recentTransactions.addAll(transactionService.getTransactionsByAccountId(account.getAccountId()));
-                }
-                recentTransactions.sort((t1, t2) -> t2.getTransactionDate().compareTo(t1.getTransactionDate()));
-                if (recentTransactions.size() > 30) {
-                    recentTransactions = recentTransactions.subList(0, 30);
-                }
-                
-                // Calculate statistics
-                DashboardStats stats = calculateStats(customers, allAccounts, recentTransactions);
-                
-                return new DashboardData(customers, allAccounts, recentTransactions, stats);
+                // Read the mark first and drop anything newer, the first delta picks it up
+                HighWaterMark newMark = dashboardService.getHighWaterMark();
+                LocalDate today = LocalDate.now();
+
+                List<Customer> customers = dashboardService.getCustomersAfterId(0);
+                customers.removeIf(c -> c.getCustomerId() > newMark.getMaxCustomerId());
+
+                List<Account> accounts = dashboardService.getAccountsAfterId(0);
+                accounts.removeIf(a -> a.getAccountId() > newMark.getMaxAccountId());
+
+                List<Transaction> recentTransactions = dashboardService.getRecentTransactions(RECENT_LIMIT);
+                recentTransactions.removeIf(t -> t.getTransactionId() > newMark.getMaxTransactionId());
+
+                Map<String, Integer> todayCounts = dashboardService.getTransactionCountsByTypeSince(
+                    today.atStartOfDay(), newMark.getMaxTransactionId());
+
+                return new DashboardData(newMark, today, customers, accounts, recentTransactions, todayCounts);
             }
 
             @Override
             protected void done() {
                 try {
                     DashboardData data = get();
-                    buildDashboard(data.customers, data.accounts, 
-                                  data.recentTransactions, data.stats);
+                    mark = data.mark;
+                    statsDate = data.date;
+                    loadedAt = System.currentTimeMillis();
+                    totalCustomers = 0;
+                    newCustomersToday = 0;
+                    accounts.clear();
+                    recent.clear();
+                    todayCounts.clear();
+                    todayCounts.putAll(data.todayCounts);
+                    foldCustomers(data.customers);
+                    data.accounts.forEach(a -> accounts.put(a.getAccountId(), a));
+                    recent.addAll(data.recentTransactions);
+
+                    rebuildDashboard();
+                    refreshTimer.start();
                 } catch (InterruptedException | ExecutionException e) {
                     e.printStackTrace();
                     showError("Failed to load dashboard data");
                 }
             }
         };
-        worker.execute();
+        WorkerTracker.execute(worker);
     }
 
-    private DashboardStats calculateStats(List<Customer> customers, List<Account> accounts, 
-                                          List<Transaction> transactions) {
+    /**
+     * Poll the high-water mark and fold in only the rows written since the
+     * last poll. On a quiet system this is a single query. Balances of the
+     * accounts those rows touch are re-read rather than adjusted, and a
+     * full load every FULL_RELOAD_INTERVAL_MS picks up everything a delta
+     * cannot see.
+     */
+    private void refreshDelta() {
+        if (refreshing || mark == null) {
+            return;
+        }
+        if (!LocalDate.now().equals(statsDate)
+                || System.currentTimeMillis() - loadedAt >= FULL_RELOAD_INTERVAL_MS) {
+            // "Today" counters cannot be rolled over incrementally
+            loadDashboardData();
+            return;
+        }
+
+        refreshing = true;
+        final HighWaterMark previous = mark;
+        final LocalDate date = statsDate;
+        SwingWorker<DashboardData, Void> worker = new SwingWorker<>() {
+            @Override
+            protected DashboardData doInBackground() throws Exception {
+                HighWaterMark newMark = dashboardService.getHighWaterMark();
+                if (!previous.isBehind(newMark)) {
+                    return null;
+                }
+
+                List<Customer> customers = newMark.getMaxCustomerId() > previous.getMaxCustomerId()
+                    ? dashboardService.getCustomersAfterId(previous.getMaxCustomerId()) : List.of();
+                List<Account> newAccounts = newMark.getMaxAccountId() > previous.getMaxAccountId()
+                    ? dashboardService.getAccountsAfterId(previous.getMaxAccountId()) : List.of();
+                List<Transaction> transactions = newMark.getMaxTransactionId() > previous.getMaxTransactionId()
+                    ? dashboardService.getTransactionsAfterId(previous.getMaxTransactionId()) : List.of();
+
+                // Rows may have landed after the mark was read; the next poll covers them
+                DashboardData delta = new DashboardData(newMark, date,
+                    filter(customers, c -> c.getCustomerId() <= newMark.getMaxCustomerId()),
+                    filter(newAccounts, a -> a.getAccountId() <= newMark.getMaxAccountId()),
+                    filter(transactions, t -> t.getTransactionId() <= newMark.getMaxTransactionId()),
+                    Map.of());
+
+                // Current balances already include every committed posting, adding amounts would double count
+                Set<Integer> touched = new HashSet<>();
+                delta.recentTransactions.forEach(t -> touched.add(t.getAccountId()));
+                delta.touchedAccountIds = touched;
+                delta.touchedAccounts = dashboardService.getAccountsByIds(touched);
+                return delta;
+            }
+
+            @Override
+            protected void done() {
+                refreshing = false;
+                try {
+                    DashboardData delta = get();
+                    if (delta == null) {
+                        return;
+                    }
+                    mark = delta.mark;
+                    foldCustomers(delta.customers);
+                    foldTransactions(delta.recentTransactions);
+                    delta.accounts.forEach(a -> accounts.put(a.getAccountId(), a));
+                    for (Integer accountId : delta.touchedAccountIds) {
+                        Account account = delta.touchedAccounts.get(accountId);
+                        if (account == null) {
+                            accounts.remove(accountId);
+                        } else if (accountId <= mark.getMaxAccountId()) {
+                            accounts.put(accountId, account);
+                        }
+                    }
+                    rebuildDashboard();
+                } catch (InterruptedException | ExecutionException e) {
+                    // Keep showing the last good figures, the next tick retries
+                    System.err.println("Dashboard refresh failed: " + e.getMessage());
+                }
+            }
+        };
+        WorkerTracker.execute(worker);
+    }
+
+    private static <T> List<T> filter(List<T> rows, java.util.function.Predicate<T> keep) {
+        List<T> kept = new ArrayList<>(rows);
+        kept.removeIf(keep.negate());
+        return kept;
+    }
+
+    private void foldCustomers(List<Customer> customers) {
+        totalCustomers += customers.size();
+        for (Customer customer : customers) {
+            if (customer.getDateRegistered().toLocalDate().equals(statsDate)) {
+                newCustomersToday++;
+            }
+        }
+    }
+
+    /**
+     * Apply new transactions to today's counters and the recent list.
+     * Balances are re-read separately.
+     */
+    private void foldTransactions(List<Transaction> transactions) {
+        for (Transaction t : transactions) {
+            if (t.getTransactionDate().toLocalDate().equals(statsDate)) {
+                todayCounts.merge(t.getTransactionType(), 1, Integer::sum);
+            }
+
+            recent.addFirst(t);
+            if (recent.size() > RECENT_LIMIT) {
+                recent.removeLast();
+            }
+        }
+    }
+
+    private void rebuildDashboard() {
+        List<Account> accountList = new ArrayList<>(accounts.values());
+        buildDashboard(accountList, new ArrayList<>(recent), calculateStats(accountList));
+    }
+
+    private DashboardStats calculateStats(List<Account> accounts) {
         DashboardStats stats = new DashboardStats();
         
         // Basic counts
-        stats.totalCustomers = customers.size();
+        stats.totalCustomers = totalCustomers;
         stats.totalAccounts = accounts.size();
-        
-        // New customers today
-        LocalDate today = LocalDate.now();
-        stats.newCustomersToday = (int) customers.stream()
-            .filter(c -> c.getDateRegistered().toLocalDate().equals(today))
-            .count();
+        stats.newCustomersToday = newCustomersToday;
         
         // Account type counts
         stats.savingsAccounts = accounts.stream()
@@ -602,26 +749,19 @@ public class DashboardPanel extends JPanel {
         
         // Balance calculations
         stats.totalBalance = accounts.stream()
-            .map(Account::getBalance)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+            .map(Account::getBalanceMoney)
+            .reduce(Money.ZERO, Money::plus)
+            .toBigDecimal();
         
         stats.averageBalance = accounts.isEmpty() ? BigDecimal.ZERO : 
-            stats.totalBalance.divide(BigDecimal.valueOf(accounts.size()), BigDecimal.ROUND_HALF_UP);
+            stats.totalBalance.divide(BigDecimal.valueOf(accounts.size()), RoundingMode.HALF_UP);
         
         // Today's transactions
-        stats.todayTransactions = (int) transactions.stream()
-            .filter(t -> t.getTransactionDate().toLocalDate().equals(today))
-            .count();
-        
-        stats.todayDeposits = (int) transactions.stream()
-            .filter(t -> t.getTransactionDate().toLocalDate().equals(today) && 
-                         "DEPOSIT".equals(t.getTransactionType()))
-            .count();
-        
-        stats.todayWithdrawals = (int) transactions.stream()
-            .filter(t -> t.getTransactionDate().toLocalDate().equals(today) && 
-                         "WITHDRAWAL".equals(t.getTransactionType()))
-            .count();
+        stats.todayTransactions = todayCounts.values().stream().mapToInt(Integer::intValue).sum();
+        stats.todayDeposits = todayCounts.getOrDefault("DEPOSIT", 0);
+        stats.todayWithdrawals = todayCounts.getOrDefault("WITHDRAWAL", 0);
+        // Each transfer is recorded as an OUT/IN pair, count it once
+        stats.todayTransfers = todayCounts.getOrDefault("TRANSFER_OUT", 0);
         
         return stats;
     }
@@ -657,16 +797,23 @@ public class DashboardPanel extends JPanel {
 
     // Inner classes for data transport
     private static class DashboardData {
+        HighWaterMark mark;
+        LocalDate date;
         List<Customer> customers;
         List<Account> accounts;
         List<Transaction> recentTransactions;
-        DashboardStats stats;
+        Map<String, Integer> todayCounts;
+        Set<Integer> touchedAccountIds = Set.of();
+        Map<Integer, Account> touchedAccounts = Map.of();
         
-        DashboardData(List<Customer> c, List<Account> a, List<Transaction> t, DashboardStats s) {
+        DashboardData(HighWaterMark m, LocalDate d, List<Customer> c, List<Account> a,
+                      List<Transaction> t, Map<String, Integer> counts) {
+            this.mark = m;
+            this.date = d;
             this.customers = c;
             this.accounts = a;
             this.recentTransactions = t;
-            this.stats = s;
+            this.todayCounts = counts;
         }
     }
 
@@ -681,6 +828,7 @@ public class DashboardPanel extends JPanel {
         int todayTransactions;
         int todayDeposits;
         int todayWithdrawals;
+        int todayTransfers;
         
         public int getTotalCustomers() { return totalCustomers; }
         public int getNewCustomersToday() { return newCustomersToday; }
@@ -696,5 +844,6 @@ public class DashboardPanel extends JPanel {
         public int getTodayTransactions() { return todayTransactions; }
         public int getTodayDeposits() { return todayDeposits; }
         public int getTodayWithdrawals() { return todayWithdrawals; }
+        public int getTodayTransfers() { return todayTransfers; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,306 @@
+package com.banking.gui.panels;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.GridLayout;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableModel;
+
+import org.HdrHistogram.Histogram;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.time.Millisecond;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import com.banking.config.ConnectionPool;
+import com.banking.config.DatabaseConfig;
+import com.banking.gui.EdtProbe;
+import com.banking.gui.ThreadCheckingRepaintManager;
+import com.banking.gui.WorkerTracker;
+import com.banking.gui.table.PagedTableModel;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+
+/**
+ * Live view of in-process performance metrics: DAO latency percentiles,
+ * connection pool occupancy and wait, cache hit rates, SwingWorker queue
+ * depth and EDT stalls.
+ *
+ * Charts are sampled once a second and show the last five minutes. Each
+ * point covers only the second before it, worked out from the difference
+ * between consecutive snapshots of the cumulative counters and histograms.
+ * The table below shows cumulative figures per DAO method.
+ */
+public class PerformancePanel extends JPanel {
+
+    private static final int SAMPLE_INTERVAL_MS = 1000;
+    private static final int HISTORY_SECONDS = 300;
+    private static final String EDT_METRIC = "EDT.dispatchDelay";
+    private static final String WORKER_METRIC = "SwingWorker.queueWait";
+    private static final String STALL_METRIC = "EDT.stall";
+
+    private final MetricsRegistry registry;
+    private final DatabaseConfig dbConfig;
+    private final Timer sampleTimer;
+
+    // Previous cumulative values, only touched on the EDT
+    private final Map<String, Histogram> previousLatencies = new HashMap<>();
+    private ConnectionPool.Stats previousPool;
+    private long previousPageHits;
+    private long previousPageMisses;
+
+    private final TimeSeries daoP50 = new TimeSeries("p50");
+    private final TimeSeries daoP99 = new TimeSeries("p99");
+    private final TimeSeries daoP999 = new TimeSeries("p99.9");
+    private final TimeSeries poolActive = new TimeSeries("Active");
+    private final TimeSeries poolIdle = new TimeSeries("Idle");
+    private final TimeSeries poolWait = new TimeSeries("Avg wait");
+    private final TimeSeries statementHitRate = new TimeSeries("Statement cache");
+    private final TimeSeries pageHitRate = new TimeSeries("Table page cache");
+    private final TimeSeries workersQueued = new TimeSeries("Queued");
+    private final TimeSeries workersRunning = new TimeSeries("Running");
+    private final TimeSeries edtMax = new TimeSeries("Max");
+    private final TimeSeries edtP99 = new TimeSeries("p99");
+
+    private DefaultTableModel methodTableModel;
+    private JLabel summaryLabel;
+
+    private Color borderColor = new Color(180, 180, 180);
+
+    public PerformancePanel() {
+        this.registry = MetricsRegistry.getInstance();
+        this.dbConfig = DatabaseConfig.getInstance();
+
+        setLayout(new BorderLayout());
+        setBackground(Color.WHITE);
+        setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        for (TimeSeries series : new TimeSeries[]{daoP50, daoP99, daoP999, poolActive, poolIdle, poolWait,
+                statementHitRate, pageHitRate, workersQueued, workersRunning, edtMax, edtP99}) {
+            series.setMaximumItemAge(HISTORY_SECONDS * 1000L);
+        }
+
+        initComponents();
+
+        // Take the baseline so the first point covers one interval only
+        sample(false);
+        this.sampleTimer = new Timer(SAMPLE_INTERVAL_MS, e -> sample(true));
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        sampleTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        // Stop sampling once the frame is disposed, e.g. on logout
+        sampleTimer.stop();
+        super.removeNotify();
+    }
+
+    private void initComponents() {
+        JPanel header = new JPanel(new BorderLayout());
+        header.setBackground(Color.WHITE);
+        header.setBorder(new EmptyBorder(0, 0, 15, 0));
+
+        JLabel titleLabel = new JLabel("📈 Performance");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
+        header.add(titleLabel, BorderLayout.NORTH);
+
+        summaryLabel = new JLabel(" ");
+        summaryLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        summaryLabel.setForeground(new Color(100, 100, 100));
+        header.add(summaryLabel, BorderLayout.SOUTH);
+        add(header, BorderLayout.NORTH);
+
+        JPanel charts = new JPanel(new GridLayout(2, 3, 15, 15));
+        charts.setBackground(Color.WHITE);
+        charts.add(createChart("DAO latency", "ms", daoP50, daoP99, daoP999));
+        charts.add(createChart("Connection pool", "connections", poolActive, poolIdle));
+        charts.add(createChart("Connection wait", "ms per borrow", poolWait));
+        charts.add(createChart("Cache hit rate", "%", statementHitRate, pageHitRate));
+        charts.add(createChart("Background workers", "workers", workersQueued, workersRunning));
+        charts.add(createChart("EDT stalls", "ms", edtMax, edtP99));
+
+        methodTableModel = new DefaultTableModel(new String[]{"Method", "Calls", "Errors", "Rows", "p50 ms",
+                "p99 ms", "p99.9 ms", "Max ms", "Pool wait ms"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable methodTable = new JTable(methodTableModel);
+        methodTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        methodTable.setRowHeight(22);
+        methodTable.setAutoCreateRowSorter(true);
+        JScrollPane tableScroll = new JScrollPane(methodTable);
+        tableScroll.setPreferredSize(new Dimension(0, 200));
+        tableScroll.setBorder(BorderFactory.createLineBorder(borderColor, 1));
+
+        JPanel center = new JPanel(new BorderLayout(0, 15));
+        center.setBackground(Color.WHITE);
+        center.add(charts, BorderLayout.CENTER);
+        center.add(tableScroll, BorderLayout.SOUTH);
+        add(center, BorderLayout.CENTER);
+    }
+
+    private JPanel createChart(String title, String axisLabel, TimeSeries... series) {
+        TimeSeriesCollection dataset = new TimeSeriesCollection();
+        for (TimeSeries s : series) {
+            dataset.addSeries(s);
+        }
+
+        JFreeChart chart = ChartFactory.createTimeSeriesChart("", "", axisLabel, dataset, true, true, false);
+        XYPlot plot = chart.getXYPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setRangeGridlinePaint(new Color(200, 200, 200));
+        plot.setDomainGridlinePaint(new Color(200, 200, 200));
+
+        ChartPanel chartPanel = new ChartPanel(chart);
+        chartPanel.setPreferredSize(new Dimension(300, 200));
+        chartPanel.setBackground(Color.WHITE);
+
+        JPanel wrapper = new JPanel(new BorderLayout());
+        wrapper.setBackground(Color.WHITE);
+        wrapper.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(borderColor, 1),
+            new EmptyBorder(10, 10, 10, 10)
+        ));
+        JLabel titleLabel = new JLabel(title);
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        wrapper.add(titleLabel, BorderLayout.NORTH);
+        wrapper.add(chartPanel, BorderLayout.CENTER);
+        return wrapper;
+    }
+
+    /**
+     * Read the metrics and, unless this is the baseline, add one point per
+     * series. Everything here is in-process and cheap, so it runs on the EDT.
+     */
+    private void sample(boolean record) {
+        Millisecond now = new Millisecond();
+        Map<String, MethodMetrics> methods = registry.getMethods();
+
+        Histogram dao = null;
+        Histogram edt = null;
+        long daoCalls = 0;
+        for (MethodMetrics metrics : methods.values()) {
+            Histogram interval = intervalLatencies(metrics);
+            if (EDT_METRIC.equals(metrics.getName())) {
+                edt = interval;
+            } else if (!WORKER_METRIC.equals(metrics.getName()) && !STALL_METRIC.equals(metrics.getName())) {
+                if (dao == null) {
+                    dao = interval;
+                } else {
+                    dao.add(interval);
+                }
+                daoCalls += interval.getTotalCount();
+            }
+        }
+
+        ConnectionPool.Stats pool = dbConfig.getPoolStats();
+        long pageHits = PagedTableModel.getPageCacheHits();
+        long pageMisses = PagedTableModel.getPageCacheMisses();
+
+        if (record) {
+            if (dao != null && dao.getTotalCount() > 0) {
+                daoP50.addOrUpdate(now, dao.getValueAtPercentile(50) / 1000.0);
+                daoP99.addOrUpdate(now, dao.getValueAtPercentile(99) / 1000.0);
+                daoP999.addOrUpdate(now, dao.getValueAtPercentile(99.9) / 1000.0);
+            }
+
+            poolActive.addOrUpdate(now, pool.getActive());
+            poolIdle.addOrUpdate(now, pool.getIdle());
+            long borrows = pool.getAcquisitions() - previousPool.getAcquisitions();
+            if (borrows > 0) {
+                poolWait.addOrUpdate(now, (pool.getWaitNanos() - previousPool.getWaitNanos()) / 1e6 / borrows);
+            }
+
+            addRate(statementHitRate, now, pool.getStatementHits() - previousPool.getStatementHits(),
+                    pool.getStatementMisses() - previousPool.getStatementMisses());
+            addRate(pageHitRate, now, pageHits - previousPageHits, pageMisses - previousPageMisses);
+
+            workersQueued.addOrUpdate(now, WorkerTracker.getQueued());
+            workersRunning.addOrUpdate(now, WorkerTracker.getRunning());
+
+            if (edt != null && edt.getTotalCount() > 0) {
+                edtMax.addOrUpdate(now, edt.getMaxValue() / 1000.0);
+                edtP99.addOrUpdate(now, edt.getValueAtPercentile(99) / 1000.0);
+            }
+
+            summaryLabel.setText(String.format("%d DAO calls in the last second  •  %d of %d connections busy"
+                    + "  •  %d workers queued  •  EDT max delay %.1f ms  •  %d EDT stalls"
+                    + "  •  %d off-EDT updates", daoCalls, pool.getActive(),
+                    pool.getActive() + pool.getIdle(), WorkerTracker.getQueued(),
+                    edt == null ? 0.0 : edt.getMaxValue() / 1000.0, EdtProbe.getStallCount(),
+                    ThreadCheckingRepaintManager.getViolationCount()));
+            updateMethodTable(methods);
+        }
+
+        previousPool = pool;
+        previousPageHits = pageHits;
+        previousPageMisses = pageMisses;
+    }
+
+    /**
+     * Get the latencies recorded since the previous sample
+     */
+    private Histogram intervalLatencies(MethodMetrics metrics) {
+        Histogram current = metrics.getLatencyMicros();
+        Histogram previous = previousLatencies.put(metrics.getName(), current);
+        Histogram interval = current.copy();
+        if (previous != null) {
+            try {
+                interval.subtract(previous);
+            } catch (IllegalArgumentException e) {
+                // The metric was reset in between, everything in it is new
+                interval = current.copy();
+            }
+        }
+        return interval;
+    }
+
+    private static void addRate(TimeSeries series, Millisecond now, long hits, long misses) {
+        if (hits + misses > 0) {
+            series.addOrUpdate(now, 100.0 * hits / (hits + misses));
+        }
+    }
+
+    private void updateMethodTable(Map<String, MethodMetrics> methods) {
+        int row = 0;
+        for (MethodMetrics metrics : methods.values()) {
+            Object[] values = {metrics.getName(), metrics.getCalls(), metrics.getErrors(), metrics.getRows(),
+                    round(metrics.getP50Millis()), round(metrics.getP99Millis()), round(metrics.getP999Millis()),
+                    round(metrics.getMaxMillis()), round(metrics.getAveragePoolWaitMillis())};
+            if (row < methodTableModel.getRowCount()) {
+                for (int column = 0; column < values.length; column++) {
+                    methodTableModel.setValueAt(values[column], row, column);
+                }
+            } else {
+                methodTableModel.addRow(values);
+            }
+            row++;
+        }
+        methodTableModel.setRowCount(row);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.banking.gui.panels;
 
+import com.banking.gui.dialogs.ExportDialog;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -106,7 +107,7 @@ public class ReportsPanel extends JPanel {
         JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
         rightPanel.setBackground(Color.WHITE);
 
-        exportButton = createStyledButton("📥 Export PDF", new Color(108, 117, 125));
+        exportButton = createStyledButton("📥 Export Transactions", new Color(108, 117, 125));
         exportButton.addActionListener(e -> exportReport());
 
         rightPanel.add(exportButton);
@@ -351,9 +352,6 @@ public class ReportsPanel extends JPanel {
     }
 
     private void exportReport() {
-        JOptionPane.showMessageDialog(this,
-            "Exporting report to PDF...\nThis feature is coming soon!",
-            "Export Report",
-            JOptionPane.INFORMATION_MESSAGE);
+        new ExportDialog(SwingUtilities.getWindowAncestor(this)).setVisible(true);
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.GridLayout;
 import java.awt.Insets;
+import java.sql.Connection;
 
 import javax.swing.Box;
 import javax.swing.JButton;
@@ -21,8 +22,14 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
 import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
 
+import com.banking.config.ConnectionPool;
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.GroupCommitExecutor;
+import com.banking.gui.WorkerTracker;
+
 /**
  * Modern settings panel
  */
@@ -219,12 +226,7 @@ public class SettingsPanel extends JPanel {
         testConnectionButton.setForeground(Color.WHITE);
         testConnectionButton.setBorder(new EmptyBorder(5, 10, 5, 10));
         testConnectionButton.setFocusPainted(false);
-        testConnectionButton.addActionListener(e -> {
-            JOptionPane.showMessageDialog(this,
-                "Database connection successful!\nHost: localhost:5432\nDatabase: banking_system",
-                "Connection Test",
-                JOptionPane.INFORMATION_MESSAGE);
-        });
+        testConnectionButton.addActionListener(e -> testConnection());
 
         gbc.gridy = row++;
         contentPanel.add(testConnectionButton, gbc);
@@ -295,6 +297,59 @@ public class SettingsPanel extends JPanel {
         return comboBox;
     }
 
+    private void testConnection() {
+        SwingWorker<ConnectionPool.Stats, Void> worker = new SwingWorker<>() {
+            @Override
+            protected ConnectionPool.Stats doInBackground() throws Exception {
+                DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+                Connection conn = dbConfig.getConnection();
+                try {
+                    if (!conn.isValid(5)) {
+                        throw new Exception("Connection is not valid");
+                    }
+                } finally {
+                    dbConfig.closeConnection(conn);
+                }
+                return dbConfig.getPoolStats();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    ConnectionPool.Stats stats = get();
+                    String message = String.format("Database connection successful!\nHost: localhost:5432\nDatabase: banking_system\n\n"
+                            + "Statement cache: %d hits, %d misses (%.1f%% hit rate)\n"
+                            + "Connections: %d active, %d idle, %d opened\n"
+                            + "Average wait: %.2f ms over %d borrows",
+                            stats.getStatementHits(), stats.getStatementMisses(),
+                            stats.getStatementHitRate() * 100,
+                            stats.getActive(), stats.getIdle(), stats.getPhysicalOpens(),
+                            stats.getAverageWaitMillis(), stats.getAcquisitions());
+                    GroupCommitExecutor groupCommit = GroupCommitExecutor.sharedIfStarted();
+                    if (groupCommit != null) {
+                        GroupCommitExecutor.Stats batching = groupCommit.getStats();
+                        message += String.format("\n\nGroup commit: %d requests in %d batches (avg %.1f, max %d)\n"
+                                + "Batch limit %d, linger %d \u00b5s, %d failed requests",
+                                batching.getRequests(), batching.getBatches(), batching.getAverageBatchSize(),
+                                batching.getLargestBatch(), batching.getMaxBatchSize(),
+                                batching.getLingerMicros(), batching.getFailedRequests());
+                    }
+                    JOptionPane.showMessageDialog(SettingsPanel.this,
+                        message,
+                        "Connection Test",
+                        JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(SettingsPanel.this,
+                        "Database connection failed: " + cause.getMessage(),
+                        "Connection Test",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        WorkerTracker.execute(worker);
+    }
+
     private void saveSettings() {
         String theme = (String) themeCombo.getSelectedItem();
         String language = (String) languageCombo.getSelectedItem();
@@ -12,7 +12,11 @@ import java.awt.GridLayout;
 import java.awt.Insets;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -30,12 +34,16 @@ import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 
+import com.banking.dao.PageRequest;
+import com.banking.gui.WorkerTracker;
+import com.banking.gui.table.PagedTableModel;
 import com.banking.model.Account;
 import com.banking.model.InsufficientFundsException;
+import com.banking.model.Money;
 import com.banking.model.Transaction;
+import com.banking.model.TransactionResult;
 import com.banking.service.AccountService;
 import com.banking.service.TransactionService;
 
@@ -44,11 +52,15 @@ import com.banking.service.TransactionService;
  */
 public class TransactionPanel extends JPanel {
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private final TransactionService transactionService;
     private final AccountService accountService;
     
     private JTable transactionTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Transaction> tableModel;
+    private Map<String, Money> totals = new HashMap<>();
+    private final List<Consumer<TransactionResult>> transactionListeners = new ArrayList<>();
     private JComboBox<String> transactionTypeFilter;
     private JTextField searchField;
     private JButton refreshButton;
@@ -162,14 +174,30 @@ public class TransactionPanel extends JPanel {
             new EmptyBorder(10, 10, 10, 10)
         ));
 
-        // Create table model
+        // Create table model, rows are fetched a page at a time as they scroll into view
         String[] columns = {"ID", "Date", "Type", "Account", "Amount", "Description", "Status"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        Class<?>[] columnClasses = {Long.class, String.class, String.class, String.class,
+            String.class, String.class, String.class};
+        tableModel = new PagedTableModel<>(columns, columnClasses,
+            new PagedTableModel.PageSource<Transaction>() {
+                @Override
+                public int count(PageRequest request) throws Exception {
+                    return transactionService.countTransactions(request);
+                }
+
+                @Override
+                public List<Transaction> fetchPage(PageRequest request, Transaction after, int limit) throws Exception {
+                    return transactionService.getTransactionsPage(request, after, limit);
+                }
+
+                @Override
+                public Transaction fetchAt(PageRequest request, int offset) throws Exception {
+                    return transactionService.getTransactionAtOffset(request, offset);
+                }
+            },
+            this::getColumnValue);
+        // Rows pinned by insertRows are skipped by ID on later pages
+        tableModel.setRowKey(Transaction::getTransactionId);
 
         transactionTable = new JTable(tableModel);
         transactionTable.setFont(new Font("Segoe UI", Font.PLAIN, 14));
@@ -186,6 +214,8 @@ public class TransactionPanel extends JPanel {
         header.setBackground(new Color(248, 249, 250));
         header.setForeground(Color.BLACK);
         header.setBorder(BorderFactory.createMatteBorder(0, 0, 2, 0, new Color(45, 85, 255)));
+        tableModel.installHeaderSorting(transactionTable,
+            new String[]{"id", "date", null, "account", "amount", null, null});
 
         // Add selection listener
         transactionTable.getSelectionModel().addListSelectionListener(e -> {
@@ -293,93 +323,141 @@ public class TransactionPanel extends JPanel {
     }
 
     private void loadTransactions() {
-        SwingWorker<List<Transaction>, Void> worker = new SwingWorker<>() {
+        statusLabel.setText("Loading transactions from database...");
+        loadPage(buildPageRequest(), count -> statusLabel.setText(String.format("Showing %d transactions", count)));
+    }
+
+    private PageRequest buildPageRequest() {
+        String filter;
+        switch ((String) transactionTypeFilter.getSelectedItem()) {
+            case "Deposits": filter = "DEPOSIT"; break;
+            case "Withdrawals": filter = "WITHDRAWAL"; break;
+            case "Transfers": filter = "TRANSFER"; break;
+            default: filter = null;
+        }
+
+        // Keep the column the user sorted by, most recent first otherwise
+        PageRequest current = tableModel.getRequest();
+        String sortKey = current != null ? current.getSortKey() : "date";
+        boolean ascending = current != null && current.isAscending();
+
+        return new PageRequest(filter, searchField.getText(), sortKey, ascending);
+    }
+
+    private void loadPage(PageRequest request, java.util.function.IntConsumer onReady) {
+        tableModel.refresh(request, onReady);
+        updateSummary(request);
+    }
+
+    private Object getColumnValue(Transaction transaction, int column) {
+        switch (column) {
+            case 0:
+                return transaction.getTransactionId();
+            case 1:
+                return transaction.getTransactionDate().format(DATE_FORMATTER);
+            case 2:
+                return "<html><font color='" + getTypeColor(transaction.getTransactionType()) + "'>"
+                    + getTypeDisplay(transaction.getTransactionType()) + "</font></html>";
+            case 3:
+                return transaction.getAccountId() + (transaction.getRecipientAccountId() != null ?
+                    " → " + transaction.getRecipientAccountId() : "");
+            case 4:
+                return formatAmount(transaction);
+            case 5:
+                return transaction.getDescription();
+            default:
+                return "Completed"; // All transactions in DB are completed
+        }
+    }
+
+    private void updateSummary(PageRequest request) {
+        SwingWorker<Map<String, Money>, Void> worker = new SwingWorker<>() {
             @Override
-            protected List<Transaction> doInBackground() throws Exception {
-                statusLabel.setText("Loading transactions from database...");
-                
-                // Get all accounts first
-                List<com.banking.model.Customer> customers = new com.banking.service.CustomerService().getAllCustomers();
-                java.util.ArrayList<Transaction> allTransactions = new java.util.ArrayList<>();
-                
-                for (var customer : customers) {
-                    List<Account> accounts = accountService.getAccountsByCustomerId(customer.getCustomerId());
-                    for (Account account : accounts) {
-                        allTransactions.addAll(transactionService.getTransactionsByAccountId(account.getAccountId()));
-                    }
+            protected Map<String, Money> doInBackground() throws Exception {
+                Map<String, Money> sums = new HashMap<>();
+                for (Map.Entry<String, BigDecimal> total
+                        : transactionService.getTransactionTotalsByType(request).entrySet()) {
+                    sums.put(total.getKey(), Money.of(total.getValue()));
                 }
-                
-                // Sort by date (most recent first)
-                allTransactions.sort((t1, t2) -> t2.getTransactionDate().compareTo(t1.getTransactionDate()));
-                
-                return allTransactions;
+                return sums;
             }
 
             @Override
             protected void done() {
                 try {
-                    List<Transaction> transactions = get();
-                    updateTableData(transactions);
-                    updateSummary(transactions);
-                    statusLabel.setText(String.format("Showing %d transactions", transactions.size()));
+                    totals = get();
+                    updateSummary(totals);
                 } catch (Exception e) {
                     e.printStackTrace();
-                    statusLabel.setText("Error loading transactions: " + e.getMessage());
-                    JOptionPane.showMessageDialog(TransactionPanel.this,
-                        "Error loading transactions: " + e.getMessage(),
-                        "Database Error",
-                        JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        WorkerTracker.execute(worker);
     }
 
-    private void updateTableData(List<Transaction> transactions) {
-        tableModel.setRowCount(0);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        
-        for (Transaction transaction : transactions) {
-            String amountStr = formatAmount(transaction);
-            String typeDisplay = getTypeDisplay(transaction.getTransactionType());
-            String colorCode = getTypeColor(transaction.getTransactionType());
-            
-            tableModel.addRow(new Object[]{
-                transaction.getTransactionId(),
-                transaction.getTransactionDate().format(formatter),
-                "<html><font color='" + colorCode + "'>" + typeDisplay + "</font></html>",
-                transaction.getAccountId() + (transaction.getRecipientAccountId() != null ? 
-                    " → " + transaction.getRecipientAccountId() : ""),
-                amountStr,
-                transaction.getDescription(),
-                "Completed" // All transactions in DB are completed
-            });
+    /**
+     * Patch the table and summary with the rows changed by a write instead of
+     * reloading them, then pass the result on to other views
+     */
+    private void applyResult(TransactionResult result) {
+        PageRequest request = tableModel.getRequest();
+        List<Transaction> shown = new ArrayList<>();
+        for (Transaction transaction : result.getTransactions()) {
+            if (request == null || matches(request, transaction)) {
+                shown.add(transaction);
+                totals.merge(transaction.getTransactionType(), transaction.getAmountMoney(), Money::plus);
+            }
+        }
+
+        tableModel.insertRows(shown);
+        updateSummary(totals);
+        statusLabel.setText(String.format("Showing %d transactions", tableModel.getRowCount()));
+
+        for (Consumer<TransactionResult> listener : transactionListeners) {
+            listener.accept(result);
         }
     }
 
-    private void updateSummary(List<Transaction> transactions) {
-        BigDecimal totalCredit = BigDecimal.ZERO;
-        BigDecimal totalDebit = BigDecimal.ZERO;
-
-        for (Transaction transaction : transactions) {
-            String type = transaction.getTransactionType();
-            BigDecimal amount = transaction.getAmount();
-            
-            if ("DEPOSIT".equals(type) || "TRANSFER_IN".equals(type)) {
-                totalCredit = totalCredit.add(amount);
-            } else if ("WITHDRAWAL".equals(type) || "TRANSFER_OUT".equals(type)) {
-                totalDebit = totalDebit.add(amount);
-            }
+    private boolean matches(PageRequest request, Transaction transaction) {
+        String filter = request.getFilter();
+        String type = transaction.getTransactionType();
+        if (filter != null && !(type.equals(filter) || ("TRANSFER".equals(filter) && type.startsWith("TRANSFER")))) {
+            return false;
         }
 
-        totalCreditLabel.setText("$" + String.format("%,.2f", totalCredit));
-        totalDebitLabel.setText("$" + String.format("%,.2f", totalDebit));
+        String pattern = request.getSearchPattern();
+        if (pattern == null) {
+            return true;
+        }
+        String term = pattern.substring(1, pattern.length() - 1);
+        return String.valueOf(transaction.getTransactionId()).contains(term)
+            || (transaction.getDescription() != null && transaction.getDescription().toLowerCase().contains(term));
+    }
+
+    /**
+     * Register a listener notified after each deposit, withdrawal or transfer
+     * made from this panel
+     *
+     * @param listener Receives the changed transactions and balances
+     */
+    public void addTransactionListener(Consumer<TransactionResult> listener) {
+        transactionListeners.add(listener);
+    }
+
+    private void updateSummary(Map<String, Money> totals) {
+        Money totalCredit = totals.getOrDefault("DEPOSIT", Money.ZERO)
+            .plus(totals.getOrDefault("TRANSFER_IN", Money.ZERO));
+        Money totalDebit = totals.getOrDefault("WITHDRAWAL", Money.ZERO)
+            .plus(totals.getOrDefault("TRANSFER_OUT", Money.ZERO));
+
+        totalCreditLabel.setText("$" + totalCredit.format());
+        totalDebitLabel.setText("$" + totalDebit.format());
         
-        BigDecimal netBalance = totalCredit.subtract(totalDebit);
-        balanceLabel.setText("$" + String.format("%,.2f", netBalance));
+        Money netBalance = totalCredit.minus(totalDebit);
+        balanceLabel.setText("$" + netBalance.format());
         
         // Set color based on balance
-        if (netBalance.compareTo(BigDecimal.ZERO) >= 0) {
+        if (!netBalance.isNegative()) {
             balanceLabel.setForeground(new Color(40, 167, 69));
         } else {
             balanceLabel.setForeground(new Color(220, 53, 69));
@@ -388,9 +466,8 @@ public class TransactionPanel extends JPanel {
 
     private String formatAmount(Transaction transaction) {
         String type = transaction.getTransactionType();
-        BigDecimal amount = transaction.getAmount();
         String prefix = ("DEPOSIT".equals(type) || "TRANSFER_IN".equals(type)) ? "+" : "-";
-        return prefix + "$" + String.format("%,.2f", amount);
+        return prefix + "$" + transaction.getAmountMoney().format();
     }
 
     private String getTypeDisplay(String type) {
@@ -418,52 +495,9 @@ public class TransactionPanel extends JPanel {
 
     private void filterTransactions() {
         String filter = (String) transactionTypeFilter.getSelectedItem();
-        SwingWorker<List<Transaction>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Transaction> doInBackground() throws Exception {
-                statusLabel.setText("Filtering transactions...");
-                
-                List<com.banking.model.Customer> customers = new com.banking.service.CustomerService().getAllCustomers();
-                java.util.ArrayList<Transaction> filteredTransactions = new java.util.ArrayList<>();
-                
-                for (var customer : customers) {
-                    List<Account> accounts = accountService.getAccountsByCustomerId(customer.getCustomerId());
-                    for (Account account : accounts) {
-                        List<Transaction> transactions = transactionService.getTransactionsByAccountId(account.getAccountId());
-                        
-                        for (Transaction t : transactions) {
-                            if ("All Transactions".equals(filter)) {
-                                filteredTransactions.add(t);
-                            } else if ("Deposits".equals(filter) && "DEPOSIT".equals(t.getTransactionType())) {
-                                filteredTransactions.add(t);
-                            } else if ("Withdrawals".equals(filter) && "WITHDRAWAL".equals(t.getTransactionType())) {
-                                filteredTransactions.add(t);
-                            } else if ("Transfers".equals(filter) && 
-                                      (t.getTransactionType().startsWith("TRANSFER"))) {
-                                filteredTransactions.add(t);
-                            }
-                        }
-                    }
-                }
-                
-                filteredTransactions.sort((t1, t2) -> t2.getTransactionDate().compareTo(t1.getTransactionDate()));
-                return filteredTransactions;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    List<Transaction> transactions = get();
-                    updateTableData(transactions);
-                    updateSummary(transactions);
-                    statusLabel.setText(String.format("Showing %d %s", 
-                        transactions.size(), filter.toLowerCase()));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        };
-        worker.execute();
+        statusLabel.setText("Filtering transactions...");
+        loadPage(buildPageRequest(), count -> statusLabel.setText(String.format("Showing %d %s",
+            count, filter.toLowerCase())));
     }
 
     private void searchTransactions() {
@@ -473,46 +507,9 @@ public class TransactionPanel extends JPanel {
             return;
         }
 
-        SwingWorker<List<Transaction>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Transaction> doInBackground() throws Exception {
-                statusLabel.setText("Searching transactions...");
-                
-                List<com.banking.model.Customer> customers = new com.banking.service.CustomerService().getAllCustomers();
-                java.util.ArrayList<Transaction> searchResults = new java.util.ArrayList<>();
-                
-                for (var customer : customers) {
-                    List<Account> accounts = accountService.getAccountsByCustomerId(customer.getCustomerId());
-                    for (Account account : accounts) {
-                        List<Transaction> transactions = transactionService.getTransactionsByAccountId(account.getAccountId());
-                        
-                        for (Transaction t : transactions) {
-                            if (String.valueOf(t.getTransactionId()).contains(searchTerm) ||
-                                t.getDescription().toLowerCase().contains(searchTerm)) {
-                                searchResults.add(t);
-                            }
-                        }
-                    }
-                }
-                
-                searchResults.sort((t1, t2) -> t2.getTransactionDate().compareTo(t1.getTransactionDate()));
-                return searchResults;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    List<Transaction> transactions = get();
-                    updateTableData(transactions);
-                    updateSummary(transactions);
-                    statusLabel.setText(String.format("Found %d transactions matching '%s'", 
-                        transactions.size(), searchTerm));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        };
-        worker.execute();
+        statusLabel.setText("Searching transactions...");
+        loadPage(buildPageRequest(), count -> statusLabel.setText(String.format(
+            "Found %d transactions matching '%s'", count, searchTerm)));
     }
 
     private void showDepositDialog() {
@@ -664,17 +661,17 @@ public class TransactionPanel extends JPanel {
                 }
 
                 // Perform deposit
-                Transaction transaction = transactionService.deposit(accountId, amount, description);
+                TransactionResult result = transactionService.performDeposit(accountId, amount, description);
+                Transaction transaction = result.getTransaction();
                 
                 dialog.dispose();
+                applyResult(result);
                 
                 // Show success message in a nicer format
                 showSuccessDialog("Deposit Successful", 
                     String.format("Amount: $%,.2f\nAccount: #%d\nTransaction ID: %d",
                         amount, accountId, transaction.getTransactionId()));
                 
-                loadTransactions();
-                
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(dialog,
                     "Please enter valid numbers",
@@ -836,16 +833,16 @@ public class TransactionPanel extends JPanel {
                     return;
                 }
 
-                Transaction transaction = transactionService.withdraw(accountId, amount, description);
+                TransactionResult result = transactionService.performWithdrawal(accountId, amount, description);
+                Transaction transaction = result.getTransaction();
                 
                 dialog.dispose();
+                applyResult(result);
                 
                 showSuccessDialog("Withdrawal Successful", 
                     String.format("Amount: $%,.2f\nAccount: #%d\nTransaction ID: %d\nNew Balance: $%,.2f",
                         amount, accountId, transaction.getTransactionId(),
-                        account.getBalance().subtract(amount)));
-                
-                loadTransactions();
+                        result.getNewBalances().get(accountId)));
                 
             } catch (InsufficientFundsException ex) {
                 JOptionPane.showMessageDialog(dialog,
@@ -1050,17 +1047,17 @@ public class TransactionPanel extends JPanel {
                     return;
                 }
 
-                Transaction[] transactions = transactionService.transfer(fromAccount, toAccount, amount, description);
+                TransactionResult result = transactionService.performTransfer(fromAccount, toAccount, amount, description);
+                List<Transaction> transactions = result.getTransactions();
                 
                 dialog.dispose();
+                applyResult(result);
                 
                 showSuccessDialog("Transfer Successful", 
                     String.format("Amount: $%,.2f\nFrom: #%d\nTo: #%d\nTransaction IDs: %d and %d\nSource New Balance: $%,.2f",
                         amount, fromAccount, toAccount, 
-                        transactions[0].getTransactionId(), transactions[1].getTransactionId(),
-                        sourceAccount.getBalance().subtract(amount)));
-                
-                loadTransactions();
+                        transactions.get(0).getTransactionId(), transactions.get(1).getTransactionId(),
+                        result.getNewBalances().get(fromAccount)));
                 
             } catch (InsufficientFundsException ex) {
                 JOptionPane.showMessageDialog(dialog,
@@ -1088,18 +1085,10 @@ public class TransactionPanel extends JPanel {
     private void viewTransactionDetails() {
         int selectedRow = transactionTable.getSelectedRow();
         if (selectedRow != -1) {
-            long transactionId = (Long) tableModel.getValueAt(selectedRow, 0);
-            try {
-                Transaction transaction = transactionService.getTransactionById(transactionId);
-                if (transaction != null) {
-                    showTransactionDetailsDialog(transaction);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this,
-                    "Error loading transaction details: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
+            // The row is already loaded if the user could see and select it
+            Transaction transaction = tableModel.getRow(selectedRow);
+            if (transaction != null) {
+                showTransactionDetailsDialog(transaction);
             }
         }
     }
@@ -1132,7 +1121,7 @@ public class TransactionPanel extends JPanel {
                 String.valueOf(transaction.getRecipientAccountId()));
         }
         
-        addDetailRow(detailsPanel, gbc, row++, "Amount:", "$" + String.format("%,.2f", transaction.getAmount()));
+        addDetailRow(detailsPanel, gbc, row++, "Amount:", "$" + transaction.getAmountMoney().format());
         addDetailRow(detailsPanel, gbc, row++, "Description:", transaction.getDescription());
 
         JButton closeButton = new JButton("Close");
@@ -0,0 +1,487 @@
+package com.banking.gui.table;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+import com.banking.dao.PageRequest;
+import com.banking.gui.WorkerTracker;
+
+/**
+ * Table model that loads rows from the database one page at a time.
+ *
+ * Only the row count is known up front. When the table asks for a row whose
+ * page is not cached, the page is fetched in the background using keyset
+ * pagination and the rows are repainted when it arrives. A bounded number of
+ * pages is kept in memory, so the table can scroll through millions of rows
+ * without holding them all.
+ *
+ * All methods except the page source callbacks must be called on the EDT.
+ *
+ * @param <T> Row type
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Page size used when none is given
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final int MAX_CACHED_PAGES = 20;
+    private static final int MAX_CACHED_CURSORS = 1000;
+
+    // Page lookups across all paged tables, for the performance panel
+    private static final LongAdder PAGE_HITS = new LongAdder();
+    private static final LongAdder PAGE_MISSES = new LongAdder();
+
+    /**
+     * Source of rows for the model. Methods are called on a background thread.
+     *
+     * @param <T> Row type
+     */
+    public interface PageSource<T> {
+
+        /**
+         * Count rows matching a request
+         *
+         * @param request Filter, search and sort options
+         * @return Number of matching rows
+         * @throws Exception if loading fails
+         */
+        int count(PageRequest request) throws Exception;
+
+        /**
+         * Fetch the rows that follow a keyset cursor
+         *
+         * @param request Filter, search and sort options
+         * @param after Last row of the previous page, or null for the first page
+         * @param limit Maximum number of rows
+         * @return Rows in sort order
+         * @throws Exception if loading fails
+         */
+        List<T> fetchPage(PageRequest request, T after, int limit) throws Exception;
+
+        /**
+         * Fetch the row at a position, used to seed a cursor when the table
+         * jumps to a page whose predecessor is not cached
+         *
+         * @param request Filter, search and sort options
+         * @param offset Zero-based position
+         * @return Row at the offset, or null if out of range
+         * @throws Exception if loading fails
+         */
+        T fetchAt(PageRequest request, int offset) throws Exception;
+    }
+
+    /**
+     * Extracts cell values from a row
+     *
+     * @param <T> Row type
+     */
+    public interface RowMapper<T> {
+
+        /**
+         * Get the value of a cell
+         *
+         * @param row Row object
+         * @param column Column index
+         * @return Cell value
+         */
+        Object getValue(T row, int column);
+    }
+
+    private final String[] columnNames;
+    private final Class<?>[] columnClasses;
+    private final PageSource<T> source;
+    private final RowMapper<T> mapper;
+    private final int pageSize;
+
+    // Pages in access order, evicting the least recently painted one
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    // Last row of each page seen, read by page loads on background threads
+    private final Map<Integer, T> cursors = Collections.synchronizedMap(
+            new LinkedHashMap<Integer, T>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+            return size() > MAX_CACHED_CURSORS;
+        }
+    });
+
+    private final Set<Integer> pendingPages = new HashSet<>();
+
+    // Rows inserted locally since the last refresh, shown above the paged rows.
+    // They are in the database too, so pages skip them by key.
+    private final List<T> headRows = new ArrayList<>();
+    private final Set<Object> headKeys = new HashSet<>();
+
+    private Function<T, ?> rowKey;
+    private PageRequest request;
+    private IntConsumer onReady;
+    // All rows, pinned ones included
+    private int rowCount;
+    private int generation;
+
+    /**
+     * Constructor
+     *
+     * @param columnNames Column headers
+     * @param columnClasses Column classes, same length as columnNames
+     * @param source Source of rows
+     * @param mapper Extracts cell values from rows
+     */
+    public PagedTableModel(String[] columnNames, Class<?>[] columnClasses,
+            PageSource<T> source, RowMapper<T> mapper) {
+        this(columnNames, columnClasses, source, mapper, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param columnNames Column headers
+     * @param columnClasses Column classes, same length as columnNames
+     * @param source Source of rows
+     * @param mapper Extracts cell values from rows
+     * @param pageSize Number of rows fetched per query
+     */
+    public PagedTableModel(String[] columnNames, Class<?>[] columnClasses,
+            PageSource<T> source, RowMapper<T> mapper, int pageSize) {
+        this.columnNames = columnNames;
+        this.columnClasses = columnClasses;
+        this.source = source;
+        this.mapper = mapper;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Discard cached pages and reload the row count and first page
+     *
+     * @param newRequest Filter, search and sort options
+     * @param callback Called on the EDT with the row count once the first page
+     * is shown, may be null
+     */
+    public void refresh(PageRequest newRequest, IntConsumer callback) {
+        this.request = newRequest;
+        this.onReady = callback;
+        final int loadGeneration = ++generation;
+        pendingPages.clear();
+        cursors.clear();
+
+        SwingWorker<List<T>, Void> worker = new SwingWorker<>() {
+            private int count;
+
+            @Override
+            protected List<T> doInBackground() throws Exception {
+                count = source.count(newRequest);
+                // Nothing is pinned once this load is shown
+                return source.fetchPage(newRequest, null, pageSize);
+            }
+
+            @Override
+            protected void done() {
+                if (loadGeneration != generation) {
+                    return;
+                }
+                try {
+                    List<T> firstPage = get();
+                    pages.clear();
+                    headRows.clear();
+                    headKeys.clear();
+                    rowCount = count;
+                    storePage(0, firstPage);
+                    fireTableDataChanged();
+                    if (callback != null) {
+                        callback.accept(rowCount);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error loading table rows: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        };
+        WorkerTracker.execute(worker);
+    }
+
+    /**
+     * Get how many row lookups found their page in memory, over all paged tables
+     *
+     * @return Page cache hits
+     */
+    public static long getPageCacheHits() {
+        return PAGE_HITS.sum();
+    }
+
+    /**
+     * Get how many row lookups had to load their page, over all paged tables
+     *
+     * @return Page cache misses
+     */
+    public static long getPageCacheMisses() {
+        return PAGE_MISSES.sum();
+    }
+
+    /**
+     * Reload with the current request
+     */
+    public void refresh() {
+        if (request != null) {
+            refresh(request, onReady);
+        }
+    }
+
+    /**
+     * Set how rows are identified, needed before insertRows() is used
+     *
+     * @param rowKey Extracts a key with value equality, such as the primary key
+     */
+    public void setRowKey(Function<T, ?> rowKey) {
+        this.rowKey = rowKey;
+    }
+
+    /**
+     * Get the current request
+     *
+     * @return Current filter, search and sort options
+     */
+    public PageRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Get the row object at an index
+     *
+     * @param rowIndex Row index
+     * @return Row object, or null if its page is not loaded yet
+     */
+    public T getRow(int rowIndex) {
+        if (rowIndex < headRows.size()) {
+            return headRows.get(rowIndex);
+        }
+        rowIndex -= headRows.size();
+        int page = rowIndex / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            PAGE_MISSES.increment();
+            loadPage(page);
+            return null;
+        }
+        PAGE_HITS.increment();
+        int index = rowIndex % pageSize;
+        return index < rows.size() ? rows.get(index) : null;
+    }
+
+    /**
+     * Show rows written by this client at the top of the table without
+     * reloading. They stay pinned there until the next refresh. Pages
+     * fetched later skip them by key, so they are not repeated further down
+     * and the pages around them keep their positions.
+     *
+     * @param rows New rows, in the order they should appear
+     * @throws IllegalStateException if no row key has been set
+     */
+    public void insertRows(List<T> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (rowKey == null) {
+            throw new IllegalStateException("insertRows needs a row key");
+        }
+        Set<Object> keys = new HashSet<>();
+        rows.forEach(row -> keys.add(rowKey.apply(row)));
+
+        // A page loaded after the write may already hold a new row; it and
+        // every page after it are one row off, so drop them
+        int firstStale = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, List<T>> entry : new ArrayList<>(pages.entrySet())) {
+            for (T row : entry.getValue()) {
+                if (keys.contains(rowKey.apply(row))) {
+                    firstStale = Math.min(firstStale, entry.getKey());
+                    break;
+                }
+            }
+        }
+        final int stale = firstStale;
+        pages.keySet().removeIf(page -> page >= stale);
+        synchronized (cursors) {
+            cursors.keySet().removeIf(page -> page >= stale);
+        }
+
+        headRows.addAll(0, rows);
+        headKeys.addAll(keys);
+        rowCount += rows.size();
+        fireTableRowsInserted(0, rows.size() - 1);
+    }
+
+    /**
+     * Update loaded rows in place and repaint only those rows. Rows on pages
+     * that are not cached pick up the change when they are next fetched.
+     *
+     * @param matcher Selects the rows to update
+     * @param updater Applies the change to a row
+     * @return Number of rows updated
+     */
+    public int updateRows(Predicate<T> matcher, Consumer<T> updater) {
+        int updated = 0;
+        for (int i = 0; i < headRows.size(); i++) {
+            T row = headRows.get(i);
+            if (matcher.test(row)) {
+                updater.accept(row);
+                fireTableRowsUpdated(i, i);
+                updated++;
+            }
+        }
+        // Iterate a copy, Map.get on an access-ordered map would reorder it
+        for (Map.Entry<Integer, List<T>> entry : new ArrayList<>(pages.entrySet())) {
+            int first = headRows.size() + entry.getKey() * pageSize;
+            List<T> rows = entry.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (matcher.test(rows.get(i))) {
+                    updater.accept(rows.get(i));
+                    fireTableRowsUpdated(first + i, first + i);
+                    updated++;
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Sort on header clicks by pushing the order to the database.
+     * Clicking the sorted column again reverses the direction.
+     *
+     * @param table Table showing this model
+     * @param sortKeys DAO sort key per column, null for unsortable columns
+     */
+    public void installHeaderSorting(JTable table, String[] sortKeys) {
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(table.columnAtPoint(e.getPoint()));
+                if (column < 0 || column >= sortKeys.length || sortKeys[column] == null || request == null) {
+                    return;
+                }
+                String key = sortKeys[column];
+                boolean ascending = key.equals(request.getSortKey()) ? !request.isAscending() : true;
+                refresh(request.withSort(key, ascending), onReady);
+            }
+        });
+    }
+
+    private void loadPage(int page) {
+        if (request == null || !pendingPages.add(page)) {
+            return;
+        }
+
+        final PageRequest pageRequest = request;
+        final int loadGeneration = generation;
+        final Set<Object> skip = new HashSet<>(headKeys);
+        final Function<T, ?> key = rowKey;
+
+        SwingWorker<List<T>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<T> doInBackground() throws Exception {
+                T after = cursors.get(page - 1);
+                if (after == null) {
+                    // No cursor for the previous page (e.g. scrollbar dragged far
+                    // down), so seed one with a single offset lookup. The database
+                    // counts pinned rows where they sort, so after an insert a
+                    // jump can repeat up to that many rows until the next refresh
+                    after = source.fetchAt(pageRequest, page * pageSize - 1);
+                    if (after == null) {
+                        return Collections.emptyList();
+                    }
+                }
+                if (skip.isEmpty()) {
+                    return source.fetchPage(pageRequest, after, pageSize);
+                }
+                // Read past the pinned rows this page may contain
+                List<T> rows = new ArrayList<>(source.fetchPage(pageRequest, after, pageSize + skip.size()));
+                rows.removeIf(row -> skip.contains(key.apply(row)));
+                return rows.size() > pageSize ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+            }
+
+            @Override
+            protected void done() {
+                if (loadGeneration != generation) {
+                    return;
+                }
+                pendingPages.remove(page);
+                if (!skip.equals(headKeys)) {
+                    // Rows were pinned while this page loaded and it may hold them
+                    loadPage(page);
+                    return;
+                }
+                try {
+                    storePage(page, get());
+                    int first = page * pageSize;
+                    int last = Math.min(first + pageSize, rowCount - headRows.size()) - 1;
+                    if (first <= last) {
+                        fireTableRowsUpdated(headRows.size() + first, headRows.size() + last);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error loading table page " + page + ": " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        };
+        WorkerTracker.execute(worker);
+    }
+
+    private void storePage(int page, List<T> rows) {
+        pages.put(page, rows);
+        if (!rows.isEmpty()) {
+            cursors.put(page, rows.get(rows.size() - 1));
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columnClasses[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        T row = getRow(rowIndex);
+        return row == null ? null : mapper.getValue(row, columnIndex);
+    }
+}
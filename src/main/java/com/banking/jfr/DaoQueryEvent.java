@@ -0,0 +1,65 @@
+package com.banking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one call through an instrumented DAO.
+ *
+ * The SQL id is the DAO method, e.g. AccountDAO.getAccountById, which is also
+ * the name of its entry in the metrics registry. The statement is the last
+ * SQL the call prepared on its thread. Calls faster than 20 ms are dropped
+ * unless a recording lowers com.banking.DaoQuery#threshold.
+ */
+@Name("com.banking.DaoQuery")
+@Label("DAO Query")
+@Category({"FinVault", "Database"})
+@Description("Call through an instrumented DAO")
+@Threshold("20 ms")
+@StackTrace(false)
+public class DaoQueryEvent extends Event {
+
+    @Label("SQL Id")
+    String sqlId;
+
+    @Label("Statement")
+    String statement;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Connection Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long connectionWait;
+
+    @Label("Failed")
+    boolean failed;
+
+    /**
+     * End the event and commit it if it passed the threshold
+     *
+     * @param sqlId DAO interface and method
+     * @param statement Last SQL prepared during the call, or null
+     * @param rows Rows returned
+     * @param connectionWaitNanos Time spent waiting for a pooled connection
+     * @param failed Whether the call threw
+     */
+    public void complete(String sqlId, String statement, int rows, long connectionWaitNanos,
+            boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.sqlId = sqlId;
+            this.statement = statement;
+            this.rows = rows;
+            this.connectionWait = connectionWaitNanos;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
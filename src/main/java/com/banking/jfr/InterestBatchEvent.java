@@ -0,0 +1,60 @@
+package com.banking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for one batch of savings accounts credited by an interest run.
+ * Every batch is recorded by default, a recording can raise
+ * com.banking.InterestBatch#threshold to keep only slow ones.
+ */
+@Name("com.banking.InterestBatch")
+@Label("Interest Batch")
+@Category({"FinVault", "Service"})
+@Description("Batch of savings accounts read and credited with interest")
+@Threshold("0 ms")
+@StackTrace(false)
+public class InterestBatchEvent extends Event {
+
+    @Label("Batch")
+    int batch;
+
+    @Label("First Account")
+    int firstAccountId;
+
+    @Label("Last Account")
+    int lastAccountId;
+
+    @Label("Accounts Read")
+    int accountsRead;
+
+    @Label("Accounts Credited")
+    int accountsCredited;
+
+    /**
+     * End the event and commit it if it passed the threshold
+     *
+     * @param batch Zero-based batch number within the run
+     * @param firstAccountId First account ID in the batch
+     * @param lastAccountId Last account ID in the batch
+     * @param accountsRead Savings accounts in the batch
+     * @param accountsCredited Active accounts that were credited
+     */
+    public void complete(int batch, int firstAccountId, int lastAccountId, int accountsRead,
+            int accountsCredited) {
+        end();
+        if (shouldCommit()) {
+            this.batch = batch;
+            this.firstAccountId = firstAccountId;
+            this.lastAccountId = lastAccountId;
+            this.accountsRead = accountsRead;
+            this.accountsCredited = accountsCredited;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.banking.jfr;
+
+import java.math.BigDecimal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for one deposit, withdrawal or transfer through TransactionService.
+ *
+ * Only operations that take longer than the threshold are recorded, 10 ms
+ * unless a recording sets com.banking.Operation#threshold.
+ */
+@Name("com.banking.Operation")
+@Label("Banking Operation")
+@Category({"FinVault", "Service"})
+@Description("Deposit, withdrawal or transfer including validation and posting")
+@Threshold("10 ms")
+@StackTrace(false)
+public class OperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Account")
+    int accountId;
+
+    @Label("Destination Account")
+    @Description("Receiving account of a transfer, 0 otherwise")
+    int toAccountId;
+
+    @Label("Amount")
+    String amount;
+
+    @Label("Outcome")
+    @Description("OK, or the simple name of the exception thrown")
+    String outcome;
+
+    /**
+     * End the event and commit it if it passed the threshold
+     *
+     * @param operation DEPOSIT, WITHDRAWAL or TRANSFER
+     * @param accountId Account ID, the source account for transfers
+     * @param toAccountId Destination account ID, 0 if not a transfer
+     * @param amount Amount of the operation
+     * @param failure Exception thrown by the operation, null on success
+     */
+    public void complete(String operation, int accountId, int toAccountId, BigDecimal amount,
+            Exception failure) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.accountId = accountId;
+            this.toAccountId = toAccountId;
+            this.amount = amount != null ? amount.toPlainString() : null;
+            this.outcome = failure == null ? "OK" : failure.getClass().getSimpleName();
+            commit();
+        }
+    }
+}
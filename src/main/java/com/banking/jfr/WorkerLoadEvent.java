@@ -0,0 +1,52 @@
+package com.banking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for a SwingWorker started by a panel, from execute() until it is
+ * done, so it covers the queue wait, doInBackground() and done() on the EDT.
+ * Loads under 50 ms are dropped unless a recording lowers
+ * com.banking.WorkerLoad#threshold.
+ */
+@Name("com.banking.WorkerLoad")
+@Label("Background Load")
+@Category({"FinVault", "Swing"})
+@Description("SwingWorker from execute() until done")
+@Threshold("50 ms")
+@StackTrace(false)
+public class WorkerLoadEvent extends Event {
+
+    @Label("Worker")
+    String worker;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueWait;
+
+    @Label("Cancelled")
+    boolean cancelled;
+
+    /**
+     * End the event and commit it if it passed the threshold
+     *
+     * @param worker Worker class name
+     * @param queueWaitNanos Time from execute() until the worker started, 0 if it never did
+     * @param cancelled Whether the worker was cancelled
+     */
+    public void complete(String worker, long queueWaitNanos, boolean cancelled) {
+        end();
+        if (shouldCommit()) {
+            this.worker = worker;
+            this.queueWait = queueWaitNanos;
+            this.cancelled = cancelled;
+            commit();
+        }
+    }
+}
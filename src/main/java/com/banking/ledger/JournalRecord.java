@@ -0,0 +1,250 @@
+package com.banking.ledger;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.banking.model.Money;
+import com.banking.model.Transaction;
+
+/**
+ * One entry in the ledger journal.
+ *
+ * Every change to engine state is journaled before it is acknowledged:
+ * deposits, withdrawals, transfers (both legs in one record), balance
+ * adjustments, and ACCOUNT records that capture an account's full state when
+ * it is loaded into memory or its status changes. Replaying the records in
+ * sequence order on top of a snapshot rebuilds the in-memory balances.
+ */
+final class JournalRecord {
+
+    static final byte DEPOSIT = 1;
+    static final byte WITHDRAWAL = 2;
+    static final byte TRANSFER = 3;
+    static final byte ADJUSTMENT = 4;
+    static final byte ACCOUNT = 5;
+
+    private long sequence;
+    private final byte kind;
+    private final int accountId;
+    private final int toAccountId;
+    private final long amount;
+    private final long transactionId;
+    private final long toTransactionId;
+    private final long timestamp;
+    private final long overdraftLimit;
+    private final String accountType;
+    private final String text;
+
+    private JournalRecord(long sequence, byte kind, int accountId, int toAccountId, long amount,
+            long transactionId, long toTransactionId, long timestamp, long overdraftLimit,
+            String accountType, String text) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.accountId = accountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.transactionId = transactionId;
+        this.toTransactionId = toTransactionId;
+        this.timestamp = timestamp;
+        this.overdraftLimit = overdraftLimit;
+        this.accountType = accountType;
+        this.text = text;
+    }
+
+    static JournalRecord deposit(int accountId, long amount, long transactionId, long timestamp,
+            String description) {
+        return new JournalRecord(0, DEPOSIT, accountId, 0, amount, transactionId, 0, timestamp, 0,
+                null, description);
+    }
+
+    static JournalRecord withdrawal(int accountId, long amount, long transactionId, long timestamp,
+            String description) {
+        return new JournalRecord(0, WITHDRAWAL, accountId, 0, amount, transactionId, 0, timestamp, 0,
+                null, description);
+    }
+
+    static JournalRecord transfer(int fromAccountId, int toAccountId, long amount, long outTransactionId,
+            long inTransactionId, long timestamp, String description) {
+        return new JournalRecord(0, TRANSFER, fromAccountId, toAccountId, amount, outTransactionId,
+                inTransactionId, timestamp, 0, null, description);
+    }
+
+    static JournalRecord adjustment(int accountId, long delta, long timestamp) {
+        return new JournalRecord(0, ADJUSTMENT, accountId, 0, delta, 0, 0, timestamp, 0, null, null);
+    }
+
+    static JournalRecord account(LedgerAccount account, long timestamp) {
+        return new JournalRecord(0, ACCOUNT, account.getAccountId(), 0, account.getBalance(), 0, 0,
+                timestamp, account.getOverdraftLimit(), account.getAccountType(), account.getStatus());
+    }
+
+    /**
+     * Apply this record to a set of account states. Legs for accounts that are
+     * not in the map are skipped, those accounts are loaded from the database
+     * when next used.
+     *
+     * @param accounts Account states to update
+     */
+    void applyTo(Map<Integer, LedgerAccount> accounts) {
+        switch (kind) {
+            case DEPOSIT:
+            case ADJUSTMENT:
+                credit(accounts, accountId, amount);
+                break;
+            case WITHDRAWAL:
+                credit(accounts, accountId, -amount);
+                break;
+            case TRANSFER:
+                credit(accounts, accountId, -amount);
+                credit(accounts, toAccountId, amount);
+                break;
+            case ACCOUNT:
+                accounts.put(accountId, new LedgerAccount(accountId, accountType, text, overdraftLimit, amount));
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record kind: " + kind);
+        }
+    }
+
+    private static void credit(Map<Integer, LedgerAccount> accounts, int accountId, long delta) {
+        LedgerAccount account = accounts.get(accountId);
+        if (account != null) {
+            account.setBalance(account.getBalance() + delta);
+        }
+    }
+
+    /**
+     * Build the transaction rows this record stands for
+     *
+     * @return Transactions, empty for ADJUSTMENT and ACCOUNT records
+     */
+    List<Transaction> toTransactions() {
+        List<Transaction> transactions = new ArrayList<>(2);
+        Money value = Money.ofMinor(amount);
+        switch (kind) {
+            case DEPOSIT:
+                transactions.add(new Transaction(accountId, "DEPOSIT", value, text));
+                break;
+            case WITHDRAWAL:
+                transactions.add(new Transaction(accountId, "WITHDRAWAL", value, text));
+                break;
+            case TRANSFER:
+                Transaction[] pair = Transaction.createTransferPair(accountId, toAccountId, value, text);
+                pair[0].setTransactionId(transactionId);
+                pair[1].setTransactionId(toTransactionId);
+                transactions.add(pair[0]);
+                transactions.add(pair[1]);
+                break;
+            default:
+                return transactions;
+        }
+        transactions.get(0).setTransactionId(transactionId);
+        for (Transaction transaction : transactions) {
+            transaction.setTransactionDate(new Timestamp(timestamp).toLocalDateTime());
+        }
+        return transactions;
+    }
+
+    /**
+     * Encode the record payload
+     *
+     * @return Payload bytes, without the journal frame
+     */
+    byte[] encode() {
+        byte[] typeBytes = bytes(accountType);
+        byte[] textBytes = bytes(text);
+        ByteBuffer buffer = ByteBuffer.allocate(57 + 8 + length(typeBytes) + length(textBytes));
+        buffer.putLong(sequence);
+        buffer.put(kind);
+        buffer.putInt(accountId);
+        buffer.putInt(toAccountId);
+        buffer.putLong(amount);
+        buffer.putLong(transactionId);
+        buffer.putLong(toTransactionId);
+        buffer.putLong(timestamp);
+        buffer.putLong(overdraftLimit);
+        putBytes(buffer, typeBytes);
+        putBytes(buffer, textBytes);
+        return buffer.array();
+    }
+
+    /**
+     * Decode a record payload
+     *
+     * @param buffer Buffer positioned at the payload
+     * @return Decoded record
+     * @throws BufferUnderflowException if the payload is truncated
+     */
+    static JournalRecord decode(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        byte kind = buffer.get();
+        int accountId = buffer.getInt();
+        int toAccountId = buffer.getInt();
+        long amount = buffer.getLong();
+        long transactionId = buffer.getLong();
+        long toTransactionId = buffer.getLong();
+        long timestamp = buffer.getLong();
+        long overdraftLimit = buffer.getLong();
+        String accountType = getString(buffer);
+        String text = getString(buffer);
+        return new JournalRecord(sequence, kind, accountId, toAccountId, amount, transactionId,
+                toTransactionId, timestamp, overdraftLimit, accountType, text);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    // Getters
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    byte getKind() {
+        return kind;
+    }
+
+    int getAccountId() {
+        return accountId;
+    }
+
+    int getToAccountId() {
+        return toAccountId;
+    }
+
+    long getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,139 @@
+package com.banking.ledger;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.banking.model.Account;
+import com.banking.model.CurrentAccount;
+import com.banking.model.Money;
+
+/**
+ * In-memory state of one account held by the ledger engine.
+ *
+ * Amounts are kept as whole cents. Only the partition thread that owns the
+ * account changes it; fields are volatile so other partitions can check the
+ * status of a transfer destination.
+ */
+final class LedgerAccount {
+
+    private final int accountId;
+    private volatile String accountType;
+    private volatile String status;
+    private volatile long overdraftLimit;
+    private volatile long balance;
+
+    /**
+     * Constructor
+     *
+     * @param accountId Account identifier
+     * @param accountType SAVINGS or CURRENT
+     * @param status Account status
+     * @param overdraftLimit Overdraft limit in cents, 0 for savings accounts
+     * @param balance Balance in cents
+     */
+    LedgerAccount(int accountId, String accountType, String status, long overdraftLimit, long balance) {
+        this.accountId = accountId;
+        this.accountType = accountType;
+        this.status = status;
+        this.overdraftLimit = overdraftLimit;
+        this.balance = balance;
+    }
+
+    /**
+     * Create the engine state for an account read from the database
+     *
+     * @param account Account
+     * @return LedgerAccount
+     */
+    static LedgerAccount from(Account account) {
+        long overdraft = account instanceof CurrentAccount
+                ? ((CurrentAccount) account).getOverdraftLimitMoney().getMinorUnits() : 0;
+        return new LedgerAccount(account.getAccountId(), account.getAccountType(), account.getStatus(),
+                overdraft, account.getBalanceMoney().getMinorUnits());
+    }
+
+    /**
+     * Copy the status, type and overdraft limit of an account read from the
+     * database, keeping the in-memory balance
+     *
+     * @param account Account
+     */
+    void refresh(Account account) {
+        accountType = account.getAccountType();
+        status = account.getStatus();
+        overdraftLimit = account instanceof CurrentAccount
+                ? ((CurrentAccount) account).getOverdraftLimitMoney().getMinorUnits() : 0;
+    }
+
+    /**
+     * Mark the account deleted, after it disappeared from the database reads
+     */
+    void markDeleted() {
+        status = "DELETED";
+    }
+
+    /**
+     * Get the amount that can be withdrawn, including any overdraft
+     *
+     * @return Available balance in cents
+     */
+    long getAvailableBalance() {
+        return "CURRENT".equals(accountType) ? balance + overdraftLimit : balance;
+    }
+
+    boolean isActive() {
+        return "ACTIVE".equals(status);
+    }
+
+    LedgerAccount copy() {
+        return new LedgerAccount(accountId, accountType, status, overdraftLimit, balance);
+    }
+
+    /**
+     * Convert an amount to cents, rounding like a DECIMAL(15, 2) column
+     *
+     * @param amount Amount, may be null
+     * @return Cents
+     */
+    static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return Money.of(amount, RoundingMode.HALF_UP).getMinorUnits();
+    }
+
+    /**
+     * Convert cents to an amount
+     *
+     * @param cents Cents
+     * @return Amount with scale 2
+     */
+    static BigDecimal toAmount(long cents) {
+        return Money.ofMinor(cents).toBigDecimal();
+    }
+
+    // Getters and setters
+    int getAccountId() {
+        return accountId;
+    }
+
+    String getAccountType() {
+        return accountType;
+    }
+
+    String getStatus() {
+        return status;
+    }
+
+    long getOverdraftLimit() {
+        return overdraftLimit;
+    }
+
+    long getBalance() {
+        return balance;
+    }
+
+    void setBalance(long balance) {
+        this.balance = balance;
+    }
+}
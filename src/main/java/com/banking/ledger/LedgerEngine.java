@@ -0,0 +1,424 @@
+package com.banking.ledger;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.AccountDAOImpl;
+import com.banking.model.TransactionResult;
+
+/**
+ * In-memory ledger for high-frequency deposits, withdrawals and transfers.
+ *
+ * Balances are held in memory and partitioned by account ID. Each partition
+ * is changed only by its own thread, commands are journaled to a
+ * memory-mapped file before they are acknowledged, and a background flusher
+ * writes them to the accounts and transactions tables. Periodic snapshots fold
+ * flushed journal records into a snapshot file so old segments can be deleted.
+ * On start the engine recovers from the last snapshot plus the journal and
+ * writes anything the database is missing.
+ *
+ * While the engine runs it is the only writer of account balances: database
+ * reads of balances and transactions lag by the flush delay, and balance
+ * changes made elsewhere must go through adjust(). Status and overdraft
+ * changes written to the database are picked up with refreshAccount().
+ */
+public class LedgerEngine {
+
+    /**
+     * System property that turns the engine on at startup
+     */
+    public static final String ENABLED_PROPERTY = "finvault.ledger.engine";
+
+    /**
+     * System property for the journal and snapshot directory
+     */
+    public static final String DIRECTORY_PROPERTY = "finvault.ledger.directory";
+
+    /**
+     * System property for the number of partitions
+     */
+    public static final String PARTITIONS_PROPERTY = "finvault.ledger.partitions";
+
+    private static final int PARTITION_CAPACITY = 65536;
+    private static final int ID_BLOCK_SIZE = 1000;
+    private static final int RECOVERY_BATCH = 1000;
+    private static final long SNAPSHOT_INTERVAL_SECONDS = 60;
+    private static final long STOP_TIMEOUT_MILLIS = 30_000;
+
+    private static volatile LedgerEngine running;
+
+    private final Path directory;
+    private final DatabaseConfig dbConfig;
+    private final LedgerPartition[] partitions;
+    private final ScheduledExecutorService snapshotter;
+    private LedgerJournal journal;
+    private LedgerFlusher flusher;
+    private LedgerSnapshot snapshot;
+    private volatile Throwable failure;
+    private volatile boolean stopping;
+
+    private LedgerEngine(Path directory, int partitionCount) {
+        this.directory = directory;
+        this.dbConfig = DatabaseConfig.getInstance();
+        this.partitions = new LedgerPartition[partitionCount];
+        AccountDAOImpl accountDAO = new AccountDAOImpl();
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new LedgerPartition(i, this, accountDAO,
+                    new TransactionIdAllocator(dbConfig, ID_BLOCK_SIZE), PARTITION_CAPACITY);
+        }
+        this.snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Recover and start the engine
+     *
+     * @param directory Directory for the journal and snapshot
+     * @param partitionCount Number of partitions
+     * @return Running engine
+     * @throws Exception if recovery fails
+     */
+    public static synchronized LedgerEngine start(Path directory, int partitionCount) throws Exception {
+        if (running != null) {
+            throw new IllegalStateException("Ledger engine is already running");
+        }
+        Files.createDirectories(directory);
+
+        LedgerEngine engine = new LedgerEngine(directory, partitionCount);
+        engine.recover();
+        for (LedgerPartition partition : engine.partitions) {
+            partition.start();
+        }
+        engine.flusher.start();
+        engine.snapshotter.scheduleWithFixedDelay(engine::snapshotQuietly,
+                SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        running = engine;
+        System.out.println("Ledger engine started with " + partitionCount + " partitions in " + directory);
+        return engine;
+    }
+
+    /**
+     * Start the engine if the finvault.ledger.engine system property is true
+     *
+     * @return Running engine, or null if the engine is disabled
+     * @throws Exception if recovery fails
+     */
+    public static LedgerEngine startIfEnabled() throws Exception {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "ledger"));
+        int partitionCount = Integer.getInteger(PARTITIONS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        return start(directory, Math.max(1, partitionCount));
+    }
+
+    /**
+     * Get the running engine
+     *
+     * @return Engine, or null if the engine is not running
+     */
+    public static LedgerEngine current() {
+        return running;
+    }
+
+    /**
+     * Wait for a command and rethrow its failure as thrown by the DAO layer
+     *
+     * @param <T> Result type
+     * @param future Command future
+     * @return Result
+     * @throws Exception if the command failed
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Deposit to an account
+     *
+     * @param accountId Account ID
+     * @param amount Positive amount
+     * @param description Transaction description
+     * @return Completes once the deposit is journaled
+     */
+    public CompletableFuture<TransactionResult> deposit(int accountId, BigDecimal amount, String description) {
+        return submit(accountId, new LedgerPartition.Command(LedgerPartition.Command.DEPOSIT, accountId, 0,
+                positiveCents(amount), description));
+    }
+
+    /**
+     * Withdraw from an account
+     *
+     * @param accountId Account ID
+     * @param amount Positive amount
+     * @param description Transaction description
+     * @return Completes once the withdrawal is journaled
+     */
+    public CompletableFuture<TransactionResult> withdraw(int accountId, BigDecimal amount, String description) {
+        return submit(accountId, new LedgerPartition.Command(LedgerPartition.Command.WITHDRAWAL, accountId, 0,
+                positiveCents(amount), description));
+    }
+
+    /**
+     * Transfer between accounts
+     *
+     * @param fromAccountId Source account ID
+     * @param toAccountId Destination account ID
+     * @param amount Positive amount
+     * @param description Transaction description
+     * @return Completes once the transfer is journaled and credited
+     */
+    public CompletableFuture<TransactionResult> transfer(int fromAccountId, int toAccountId, BigDecimal amount,
+            String description) {
+        if (fromAccountId == toAccountId) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+        return submit(fromAccountId, new LedgerPartition.Command(LedgerPartition.Command.TRANSFER, fromAccountId,
+                toAccountId, positiveCents(amount), description));
+    }
+
+    /**
+     * Change a balance without recording a transaction, e.g. to credit interest
+     *
+     * @param accountId Account ID
+     * @param delta Amount to add, negative to subtract
+     * @return Completes with the new balance once the change is journaled
+     */
+    public CompletableFuture<TransactionResult> adjust(int accountId, BigDecimal delta) {
+        return submit(accountId, new LedgerPartition.Command(LedgerPartition.Command.ADJUST, accountId, 0,
+                LedgerAccount.toCents(delta), null));
+    }
+
+    /**
+     * Reload an account's status, type and overdraft limit from the database
+     *
+     * @param accountId Account ID
+     * @return Completes once the engine uses the new values
+     */
+    public CompletableFuture<TransactionResult> refreshAccount(int accountId) {
+        return submit(accountId, new LedgerPartition.Command(LedgerPartition.Command.REFRESH, accountId, 0, 0, null));
+    }
+
+    /**
+     * Get the balance held in memory
+     *
+     * @param accountId Account ID
+     * @return Balance, or null if the account has not been used by the engine
+     */
+    public BigDecimal getBalance(int accountId) {
+        LedgerAccount account = partitionFor(accountId).peek(accountId);
+        return account == null ? null : LedgerAccount.toAmount(account.getBalance());
+    }
+
+    /**
+     * Finish outstanding commands, write them to the database, take a final
+     * snapshot and stop
+     */
+    public void shutdown() {
+        synchronized (LedgerEngine.class) {
+            if (running != this) {
+                return;
+            }
+            stopping = true;
+            try {
+                for (LedgerPartition partition : partitions) {
+                    if (!partition.awaitIdle(STOP_TIMEOUT_MILLIS)) {
+                        System.err.println("Ledger partition still busy at shutdown");
+                    }
+                }
+                for (LedgerPartition partition : partitions) {
+                    partition.stop();
+                }
+                flusher.stop(STOP_TIMEOUT_MILLIS);
+                snapshotter.shutdownNow();
+                snapshotQuietly();
+                journal.close();
+            } catch (Exception e) {
+                System.err.println("Error stopping ledger engine: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                running = null;
+            }
+        }
+    }
+
+    LedgerPartition partitionFor(int accountId) {
+        return partitions[Math.floorMod(accountId, partitions.length)];
+    }
+
+    LedgerJournal getJournal() {
+        return journal;
+    }
+
+    LedgerFlusher getFlusher() {
+        return flusher;
+    }
+
+    boolean isFailed() {
+        return failure != null;
+    }
+
+    void fail(Throwable cause) {
+        failure = cause;
+    }
+
+    private CompletableFuture<TransactionResult> submit(int accountId, LedgerPartition.Command command) {
+        if (stopping) {
+            throw new IllegalStateException("Ledger engine is stopping");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Ledger engine stopped after a journal failure", failure);
+        }
+        return partitionFor(accountId).submit(command);
+    }
+
+    private static long positiveCents(BigDecimal amount) {
+        long cents = LedgerAccount.toCents(amount);
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return cents;
+    }
+
+    /**
+     * Rebuild state from the snapshot and journal and write records the
+     * database has not seen yet
+     */
+    private void recover() throws Exception {
+        LedgerSnapshot stored = LedgerSnapshot.read(directory);
+        long checkpoint = LedgerFlusher.readCheckpoint(dbConfig);
+        LedgerFlusher recoveryFlusher = new LedgerFlusher(dbConfig, checkpoint);
+
+        Replay replay = new Replay(stored, checkpoint, recoveryFlusher);
+        long last = LedgerJournal.read(directory, Math.min(stored.getSequence(), checkpoint), Long.MAX_VALUE, replay);
+        replay.finish();
+
+        Map<Integer, LedgerAccount> accounts = replay.accounts;
+        if (stored.getSequence() < checkpoint && last < checkpoint) {
+            // Flushed records the snapshot misses are gone from the journal, so
+            // start cold and load accounts from the database instead
+            System.err.println("Ledger journal ends before the database checkpoint, discarding snapshot");
+            accounts.clear();
+        } else if (checkpoint < stored.getSequence() && last < stored.getSequence()) {
+            System.err.println("Ledger journal ends at " + last + " but the snapshot is at "
+                    + stored.getSequence() + ", the database is missing ledger records");
+        }
+
+        long sequence = Math.max(last, Math.max(stored.getSequence(), checkpoint));
+        snapshot = new LedgerSnapshot(sequence, accounts);
+        snapshot.write(directory);
+        LedgerJournal.deleteAll(directory);
+
+        for (LedgerAccount account : accounts.values()) {
+            partitionFor(account.getAccountId()).restore(account.copy());
+        }
+        journal = new LedgerJournal(directory, LedgerJournal.DEFAULT_SEGMENT_SIZE, sequence + 1);
+        flusher = new LedgerFlusher(dbConfig, sequence);
+        if (replay.flushed > 0) {
+            System.out.println("Ledger recovery wrote " + replay.flushed + " journal records to the database");
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            takeSnapshot();
+        } catch (Exception e) {
+            System.err.println("Error writing ledger snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized void takeSnapshot() throws Exception {
+        long upTo = flusher.getFlushedSequence();
+        if (upTo <= snapshot.getSequence()) {
+            return;
+        }
+        LedgerSnapshot next = snapshot.advance(directory, upTo);
+        next.write(directory);
+        snapshot = next;
+        journal.deleteSegmentsUpTo(next.getSequence());
+    }
+
+    /**
+     * Applies journal records after the snapshot to its accounts and writes
+     * records after the checkpoint to the database during recovery
+     */
+    private static class Replay implements Consumer<JournalRecord> {
+
+        private final long snapshotSequence;
+        private final long checkpoint;
+        private final LedgerFlusher flusher;
+        private final Map<Integer, LedgerAccount> accounts;
+        private final List<JournalRecord> batch = new ArrayList<>();
+        private Exception error;
+        private long flushed;
+
+        Replay(LedgerSnapshot snapshot, long checkpoint, LedgerFlusher flusher) {
+            this.snapshotSequence = snapshot.getSequence();
+            this.checkpoint = checkpoint;
+            this.flusher = flusher;
+            this.accounts = snapshot.copyAccounts();
+        }
+
+        @Override
+        public void accept(JournalRecord record) {
+            if (error != null) {
+                return;
+            }
+            if (record.getSequence() > snapshotSequence) {
+                record.applyTo(accounts);
+            }
+            if (record.getSequence() > checkpoint) {
+                batch.add(record);
+                if (batch.size() >= RECOVERY_BATCH) {
+                    flushBatch();
+                }
+            }
+        }
+
+        void finish() throws Exception {
+            flushBatch();
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        @SuppressWarnings("UseSpecificCatch")
+        private void flushBatch() {
+            if (batch.isEmpty() || error != null) {
+                return;
+            }
+            try {
+                flusher.flush(batch);
+                flushed += batch.size();
+            } catch (Exception e) {
+                error = e;
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.banking.ledger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.model.Transaction;
+
+/**
+ * Writes journaled records to the accounts and transactions tables in the
+ * background.
+ *
+ * Records are written in sequence order, many per database transaction.
+ * Balances are changed by delta, so writes made outside the engine are kept,
+ * and the last sequence number written is stored in ledger_checkpoint in the
+ * same transaction. On recovery only records after the checkpoint are written
+ * again, so nothing is applied twice.
+ */
+class LedgerFlusher implements Runnable {
+
+    private static final int MAX_BATCH = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private static final String READ_CHECKPOINT_SQL = "SELECT flushed_sequence FROM ledger_checkpoint "
+            + "WHERE checkpoint_id = 1";
+    private static final String UPDATE_CHECKPOINT_SQL = "UPDATE ledger_checkpoint SET flushed_sequence = ? "
+            + "WHERE checkpoint_id = 1";
+    private static final String INSERT_TRANSACTION_SQL = "INSERT INTO transactions (transaction_id, account_id, "
+            + "transaction_type, amount, transaction_date, description, recipient_account_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_BALANCE_SQL = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
+
+    private final DatabaseConfig dbConfig;
+    private final BlockingQueue<JournalRecord> queue = new LinkedBlockingQueue<>();
+    private final PriorityQueue<JournalRecord> pending = new PriorityQueue<>(
+            Comparator.comparingLong(JournalRecord::getSequence));
+    private volatile long flushedSequence;
+    private volatile boolean draining;
+    private Thread thread;
+
+    /**
+     * Constructor
+     *
+     * @param dbConfig Database configuration
+     * @param flushedSequence Last sequence number already in the database
+     */
+    LedgerFlusher(DatabaseConfig dbConfig, long flushedSequence) {
+        this.dbConfig = dbConfig;
+        this.flushedSequence = flushedSequence;
+    }
+
+    /**
+     * Start the background thread
+     */
+    void start() {
+        thread = new Thread(this, "ledger-flusher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue durable records for writing. Records may arrive out of order from
+     * different partitions; they are written once there is no gap before them.
+     *
+     * @param records Journaled records
+     */
+    void submit(List<JournalRecord> records) {
+        queue.addAll(records);
+    }
+
+    /**
+     * Write what is queued, waiting at most the given time, then stop
+     *
+     * @param timeoutMillis Maximum time to wait for outstanding writes
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void stop(long timeoutMillis) throws InterruptedException {
+        draining = true;
+        thread.join(timeoutMillis);
+        if (thread.isAlive()) {
+            System.err.println("Ledger flusher did not finish, unwritten records stay in the journal");
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    /**
+     * Get the last sequence number written to the database
+     *
+     * @return Sequence number
+     */
+    long getFlushedSequence() {
+        return flushedSequence;
+    }
+
+    @Override
+    public void run() {
+        List<JournalRecord> drained = new ArrayList<>(MAX_BATCH);
+        long retryDelay = 100;
+
+        while (true) {
+            try {
+                JournalRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    pending.add(first);
+                    queue.drainTo(drained, MAX_BATCH);
+                    pending.addAll(drained);
+                    drained.clear();
+                }
+
+                List<JournalRecord> batch = takeContiguous();
+                if (batch.isEmpty()) {
+                    if (draining && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+
+                try {
+                    flush(batch);
+                    retryDelay = 100;
+                } catch (Exception e) {
+                    System.err.println("Error flushing ledger records, retrying: " + e.getMessage());
+                    pending.addAll(batch);
+                    Thread.sleep(retryDelay);
+                    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private List<JournalRecord> takeContiguous() {
+        List<JournalRecord> batch = new ArrayList<>();
+        long expected = flushedSequence + 1;
+        while (batch.size() < MAX_BATCH && !pending.isEmpty() && pending.peek().getSequence() == expected) {
+            batch.add(pending.poll());
+            expected++;
+        }
+        return batch;
+    }
+
+    /**
+     * Write records and advance the checkpoint in one database transaction
+     *
+     * @param records Contiguous records in sequence order
+     * @throws Exception if the write fails, nothing is written in that case
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    void flush(List<JournalRecord> records) throws Exception {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // Lock account rows in ID order, like fv_transfer, to avoid deadlocks
+        Map<Integer, Long> deltas = new TreeMap<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (JournalRecord record : records) {
+            switch (record.getKind()) {
+                case JournalRecord.DEPOSIT:
+                case JournalRecord.ADJUSTMENT:
+                    deltas.merge(record.getAccountId(), record.getAmount(), Long::sum);
+                    break;
+                case JournalRecord.WITHDRAWAL:
+                    deltas.merge(record.getAccountId(), -record.getAmount(), Long::sum);
+                    break;
+                case JournalRecord.TRANSFER:
+                    deltas.merge(record.getAccountId(), -record.getAmount(), Long::sum);
+                    deltas.merge(record.getToAccountId(), record.getAmount(), Long::sum);
+                    break;
+                default:
+                    // ACCOUNT records only change engine state
+                    break;
+            }
+            transactions.addAll(record.toTransactions());
+        }
+
+        Connection conn = null;
+        PreparedStatement balanceStmt = null;
+        PreparedStatement insertStmt = null;
+        PreparedStatement checkpointStmt = null;
+        long last = records.get(records.size() - 1).getSequence();
+
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+
+            balanceStmt = conn.prepareStatement(UPDATE_BALANCE_SQL);
+            for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+                if (delta.getValue() != 0) {
+                    balanceStmt.setBigDecimal(1, LedgerAccount.toAmount(delta.getValue()));
+                    balanceStmt.setInt(2, delta.getKey());
+                    balanceStmt.addBatch();
+                }
+            }
+            balanceStmt.executeBatch();
+
+            insertStmt = conn.prepareStatement(INSERT_TRANSACTION_SQL);
+            for (Transaction transaction : transactions) {
+                insertStmt.setLong(1, transaction.getTransactionId());
+                insertStmt.setInt(2, transaction.getAccountId());
+                insertStmt.setString(3, transaction.getTransactionType());
+                insertStmt.setBigDecimal(4, transaction.getAmountMoney().toBigDecimal());
+                insertStmt.setTimestamp(5, Timestamp.valueOf(transaction.getTransactionDate()));
+                insertStmt.setString(6, transaction.getDescription());
+                if (transaction.getRecipientAccountId() != null) {
+                    insertStmt.setInt(7, transaction.getRecipientAccountId());
+                } else {
+                    insertStmt.setNull(7, Types.INTEGER);
+                }
+                insertStmt.addBatch();
+            }
+            insertStmt.executeBatch();
+
+            checkpointStmt = conn.prepareStatement(UPDATE_CHECKPOINT_SQL);
+            checkpointStmt.setLong(1, last);
+            checkpointStmt.executeUpdate();
+
+            conn.commit();
+            flushedSequence = last;
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (Exception rollbackEx) {
+                    System.err.println("Error during transaction rollback");
+                }
+            }
+            throw e;
+        } finally {
+            if (balanceStmt != null) try {
+                balanceStmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (insertStmt != null) try {
+                insertStmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (checkpointStmt != null) try {
+                checkpointStmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (Exception e) {
+                    System.err.println("Error resetting auto-commit");
+                }
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Read the last sequence number written to the database
+     *
+     * @param dbConfig Database configuration
+     * @return Sequence number, 0 if nothing was written yet
+     * @throws Exception if the checkpoint cannot be read
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    static long readCheckpoint(DatabaseConfig dbConfig) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(READ_CHECKPOINT_SQL);
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.banking.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal stored in memory-mapped segment files.
+ *
+ * Each record is framed as [payload length][CRC32 of payload][payload] and
+ * gets the next sequence number when appended. A zero length marks the end of
+ * the written part of a segment; a bad checksum (torn write) is treated the
+ * same way. When a record does not fit, the segment is forced and a new one
+ * named after its first sequence number is started.
+ *
+ * Appends only copy into the mapping. sync() forces the mapping to disk and
+ * covers every record appended so far, so partitions that call it while
+ * another force is running usually find their records already durable
+ * (group fsync).
+ */
+class LedgerJournal implements Closeable {
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int FRAME_HEADER = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32 crc = new CRC32();
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSequence;
+    private volatile long syncedSequence;
+
+    /**
+     * Open a new segment for appending
+     *
+     * @param directory Journal directory
+     * @param segmentSize Size of each segment file in bytes
+     * @param nextSequence Sequence number of the first record to append
+     * @throws IOException if the segment cannot be created
+     */
+    LedgerJournal(Path directory, int segmentSize, long nextSequence) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.nextSequence = nextSequence;
+        this.syncedSequence = nextSequence - 1;
+        openSegment();
+    }
+
+    /**
+     * Append records and assign their sequence numbers
+     *
+     * @param records Records in order
+     * @return Sequence number of the last record
+     * @throws IOException if a new segment cannot be created
+     */
+    synchronized long append(List<JournalRecord> records) throws IOException {
+        for (JournalRecord record : records) {
+            record.setSequence(nextSequence);
+            byte[] payload = record.encode();
+            if (FRAME_HEADER + payload.length > segmentSize - FRAME_HEADER) {
+                throw new IOException("Journal record too large: " + payload.length + " bytes");
+            }
+            if (buffer.remaining() < FRAME_HEADER + payload.length) {
+                buffer.force();
+                channel.close();
+                openSegment();
+            }
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(payload);
+            nextSequence++;
+        }
+        return nextSequence - 1;
+    }
+
+    /**
+     * Make sure records up to a sequence number are on disk
+     *
+     * @param sequence Last sequence number that must be durable
+     */
+    void sync(long sequence) {
+        synchronized (syncLock) {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            MappedByteBuffer current;
+            long target;
+            synchronized (this) {
+                current = buffer;
+                target = nextSequence - 1;
+            }
+            current.force();
+            syncedSequence = target;
+        }
+    }
+
+    /**
+     * Delete segments whose records all have sequence numbers up to the given one
+     *
+     * @param sequence Last sequence number no longer needed
+     * @throws IOException if listing the directory fails
+     */
+    void deleteSegmentsUpTo(long sequence) throws IOException {
+        List<Path> segments = listSegments(directory);
+        // A segment ends where the next one starts, so the last (active)
+        // segment is never deleted
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequence(segments.get(i + 1)) - 1 <= sequence) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void openSegment() throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    /**
+     * Read records from the journal segments in a directory
+     *
+     * @param directory Journal directory
+     * @param afterSequence Skip records up to and including this sequence number
+     * @param upToSequence Stop after this sequence number
+     * @param consumer Receives records in sequence order
+     * @return Sequence number of the last record read, or afterSequence if none
+     * @throws IOException if a segment cannot be read
+     */
+    static long read(Path directory, long afterSequence, long upToSequence,
+            Consumer<JournalRecord> consumer) throws IOException {
+        long last = afterSequence;
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= afterSequence + 1) {
+                continue;
+            }
+            try (FileChannel segment = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                ByteBuffer mapped = segment.map(FileChannel.MapMode.READ_ONLY, 0, segment.size());
+                CRC32 checksum = new CRC32();
+                while (mapped.remaining() >= FRAME_HEADER) {
+                    int length = mapped.getInt();
+                    int expected = mapped.getInt();
+                    if (length <= 0 || length > mapped.remaining()) {
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    mapped.get(payload);
+                    checksum.reset();
+                    checksum.update(payload);
+                    if ((int) checksum.getValue() != expected) {
+                        break;
+                    }
+                    JournalRecord record;
+                    try {
+                        record = JournalRecord.decode(ByteBuffer.wrap(payload));
+                    } catch (BufferUnderflowException e) {
+                        break;
+                    }
+                    if (record.getSequence() > upToSequence) {
+                        return last;
+                    }
+                    if (record.getSequence() > afterSequence) {
+                        consumer.accept(record);
+                        last = record.getSequence();
+                    }
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Delete every journal segment in a directory
+     *
+     * @param directory Journal directory
+     * @throws IOException if a segment cannot be deleted
+     */
+    static void deleteAll(Path directory) throws IOException {
+        for (Path segment : listSegments(directory)) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        // Zero-padded names sort in sequence order
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,470 @@
+package com.banking.ledger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.banking.dao.AccountDAO;
+import com.banking.model.Account;
+import com.banking.model.InsufficientFundsException;
+import com.banking.model.TransactionResult;
+
+/**
+ * One shard of the ledger engine: the accounts whose ID maps to it and the
+ * single thread allowed to change them.
+ *
+ * The thread drains commands in batches, applies each to memory, appends the
+ * batch to the journal with one sync and only then completes the callers'
+ * futures. Because no other thread writes these balances, no per-account
+ * locking is needed. Transfers are debited by the source account's partition,
+ * and the credit is handed to the destination partition once the transfer is
+ * journaled.
+ */
+class LedgerPartition implements Runnable {
+
+    private static final int MAX_BATCH = 512;
+
+    /**
+     * Unit of work for a partition thread
+     */
+    static final class Command {
+
+        static final int DEPOSIT = 1;
+        static final int WITHDRAWAL = 2;
+        static final int TRANSFER = 3;
+        static final int ADJUST = 4;
+        static final int REFRESH = 5;
+        static final int CREDIT = 6;
+        static final int LOAD = 7;
+        static final int STOP = 8;
+
+        final int type;
+        final int accountId;
+        final int toAccountId;
+        final long amount;
+        final String description;
+        final CompletableFuture<TransactionResult> future;
+
+        // CREDIT: the journaled transfer and the source balance after it
+        JournalRecord record;
+        long fromBalance;
+
+        // LOAD: the transfer to retry once the destination is loaded
+        Command retry;
+
+        Command(int type, int accountId, int toAccountId, long amount, String description) {
+            this.type = type;
+            this.accountId = accountId;
+            this.toAccountId = toAccountId;
+            this.amount = amount;
+            this.description = description;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    private final String name;
+    private final LedgerEngine engine;
+    private final AccountDAO accountDAO;
+    private final TransactionIdAllocator ids;
+    private final Map<Integer, LedgerAccount> accounts = new ConcurrentHashMap<>();
+
+    // Unbounded so partitions can always hand each other work; callers are
+    // bounded by the permits instead
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+    private final int capacity;
+    private final Semaphore permits;
+    private Thread thread;
+
+    // State of the batch being processed
+    private final List<JournalRecord> records = new ArrayList<>();
+    private final List<Runnable> undo = new ArrayList<>();
+    private final List<Runnable> completions = new ArrayList<>();
+    private final List<CompletableFuture<TransactionResult>> acknowledged = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param index Partition number, used in the thread name
+     * @param engine Owning engine
+     * @param accountDAO Used to load accounts on first use
+     * @param ids Transaction ID allocator owned by this partition
+     * @param capacity Maximum number of commands callers can have outstanding
+     */
+    LedgerPartition(int index, LedgerEngine engine, AccountDAO accountDAO, TransactionIdAllocator ids,
+            int capacity) {
+        this.name = "ledger-partition-" + index;
+        this.engine = engine;
+        this.accountDAO = accountDAO;
+        this.ids = ids;
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * Add a recovered account before the thread starts
+     *
+     * @param account Account state
+     */
+    void restore(LedgerAccount account) {
+        accounts.put(account.getAccountId(), account);
+    }
+
+    /**
+     * Start the partition thread
+     */
+    void start() {
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue a command from a caller, waiting if too many are outstanding
+     *
+     * @param command Command
+     * @return The command's future
+     */
+    CompletableFuture<TransactionResult> submit(Command command) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.future.completeExceptionally(e);
+            return command.future;
+        }
+        command.future.whenComplete((result, error) -> permits.release());
+        queue.add(command);
+        return command.future;
+    }
+
+    /**
+     * Queue a command from another partition
+     *
+     * @param command Command
+     */
+    void forward(Command command) {
+        queue.add(command);
+    }
+
+    /**
+     * Look up an account held in memory, from any thread
+     *
+     * @param accountId Account ID
+     * @return Account state, or null if not loaded
+     */
+    LedgerAccount peek(int accountId) {
+        return accounts.get(accountId);
+    }
+
+    /**
+     * Wait until every command submitted by callers has completed
+     *
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the partition became idle in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        if (permits.tryAcquire(capacity, timeoutMillis, TimeUnit.MILLISECONDS)) {
+            permits.release(capacity);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stop the thread after the commands already queued
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void stop() throws InterruptedException {
+        queue.add(new Command(Command.STOP, 0, 0, 0, null));
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        List<Command> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            boolean stop = process(batch);
+            batch.clear();
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("UseSpecificCatch")
+    private boolean process(List<Command> batch) {
+        boolean stop = false;
+        long now = System.currentTimeMillis();
+
+        for (Command command : batch) {
+            if (command.type == Command.STOP) {
+                stop = true;
+                continue;
+            }
+            if (engine.isFailed() && command.type != Command.CREDIT) {
+                callerFuture(command).completeExceptionally(
+                        new IllegalStateException("Ledger engine stopped after a journal failure"));
+                continue;
+            }
+            try {
+                switch (command.type) {
+                    case Command.DEPOSIT:
+                        deposit(command, now);
+                        break;
+                    case Command.WITHDRAWAL:
+                        withdraw(command, now);
+                        break;
+                    case Command.TRANSFER:
+                        transfer(command, now);
+                        break;
+                    case Command.ADJUST:
+                        adjust(command, now);
+                        break;
+                    case Command.REFRESH:
+                        refresh(command, now);
+                        break;
+                    case Command.CREDIT:
+                        credit(command, now);
+                        break;
+                    case Command.LOAD:
+                        loadForTransfer(command, now);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown ledger command: " + command.type);
+                }
+            } catch (Exception e) {
+                callerFuture(command).completeExceptionally(e);
+            }
+        }
+
+        try {
+            if (!records.isEmpty()) {
+                try {
+                    long last = engine.getJournal().append(records);
+                    engine.getJournal().sync(last);
+                    engine.getFlusher().submit(new ArrayList<>(records));
+                } catch (Exception e) {
+                    System.err.println("Ledger journal write failed: " + e.getMessage());
+                    e.printStackTrace();
+                    for (Runnable action : undo) {
+                        action.run();
+                    }
+                    for (CompletableFuture<TransactionResult> future : acknowledged) {
+                        future.completeExceptionally(e);
+                    }
+                    engine.fail(e);
+                    return stop;
+                }
+            }
+            for (Runnable completion : completions) {
+                completion.run();
+            }
+            return stop;
+        } finally {
+            records.clear();
+            undo.clear();
+            completions.clear();
+            acknowledged.clear();
+        }
+    }
+
+    private void deposit(Command command, long now) throws Exception {
+        LedgerAccount account = load(command.accountId, now);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + command.accountId);
+        }
+        if (!account.isActive()) {
+            throw new IllegalStateException("Cannot deposit to a non-active account");
+        }
+
+        JournalRecord record = JournalRecord.deposit(command.accountId, command.amount, ids.next(), now,
+                command.description);
+        long balance = apply(account, command.amount);
+        records.add(record);
+        acknowledge(command, () -> command.future.complete(result(record, command.accountId, balance)));
+    }
+
+    private void withdraw(Command command, long now) throws Exception {
+        LedgerAccount account = load(command.accountId, now);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + command.accountId);
+        }
+        if (!account.isActive()) {
+            throw new IllegalStateException("Cannot withdraw from a non-active account");
+        }
+        if (account.getAvailableBalance() < command.amount) {
+            throw new InsufficientFundsException("Insufficient funds for withdrawal");
+        }
+
+        JournalRecord record = JournalRecord.withdrawal(command.accountId, command.amount, ids.next(), now,
+                command.description);
+        long balance = apply(account, -command.amount);
+        records.add(record);
+        acknowledge(command, () -> command.future.complete(result(record, command.accountId, balance)));
+    }
+
+    private void transfer(Command command, long now) throws Exception {
+        LedgerAccount from = load(command.accountId, now);
+        if (from == null) {
+            throw new IllegalArgumentException("Source account not found: " + command.accountId);
+        }
+
+        LedgerPartition target = engine.partitionFor(command.toAccountId);
+        LedgerAccount to = target == this ? load(command.toAccountId, now) : target.peek(command.toAccountId);
+        if (to == null) {
+            if (target == this) {
+                throw new IllegalArgumentException("Destination account not found: " + command.toAccountId);
+            }
+            // Only the owning partition may load the destination; retry after it has
+            Command load = new Command(Command.LOAD, command.toAccountId, 0, 0, null);
+            load.retry = command;
+            target.forward(load);
+            return;
+        }
+
+        if (!from.isActive()) {
+            throw new IllegalStateException("Cannot transfer from a non-active account");
+        }
+        if (!to.isActive()) {
+            throw new IllegalStateException("Cannot transfer to a non-active account");
+        }
+        if (from.getAvailableBalance() < command.amount) {
+            throw new InsufficientFundsException("Insufficient funds for transfer");
+        }
+
+        JournalRecord record = JournalRecord.transfer(command.accountId, command.toAccountId, command.amount,
+                ids.next(), ids.next(), now, command.description);
+        long fromBalance = apply(from, -command.amount);
+        records.add(record);
+
+        if (target == this) {
+            long toBalance = apply(to, command.amount);
+            acknowledge(command, () -> command.future.complete(
+                    transferResult(record, command, fromBalance, toBalance)));
+        } else {
+            acknowledge(command, () -> {
+                Command credit = new Command(Command.CREDIT, command.toAccountId, 0, command.amount, null);
+                credit.record = record;
+                credit.fromBalance = fromBalance;
+                credit.retry = command;
+                target.forward(credit);
+            });
+        }
+    }
+
+    private void credit(Command command, long now) throws Exception {
+        // Already journaled by the source partition, so it is not undone
+        LedgerAccount to = load(command.accountId, now);
+        long toBalance = to == null ? 0 : to.getBalance() + command.amount;
+        if (to != null) {
+            to.setBalance(toBalance);
+        }
+        command.retry.future.complete(transferResult(command.record, command.retry, command.fromBalance, toBalance));
+    }
+
+    private void loadForTransfer(Command command, long now) throws Exception {
+        Command transfer = command.retry;
+        try {
+            if (load(command.accountId, now) == null) {
+                throw new IllegalArgumentException("Destination account not found: " + command.accountId);
+            }
+        } catch (Exception e) {
+            transfer.future.completeExceptionally(e);
+            return;
+        }
+        acknowledge(transfer, () -> engine.partitionFor(transfer.accountId).forward(transfer));
+    }
+
+    private void adjust(Command command, long now) throws Exception {
+        LedgerAccount account = load(command.accountId, now);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + command.accountId);
+        }
+
+        JournalRecord record = JournalRecord.adjustment(command.accountId, command.amount, now);
+        long balance = apply(account, command.amount);
+        records.add(record);
+        acknowledge(command, () -> command.future.complete(result(record, command.accountId, balance)));
+    }
+
+    private void refresh(Command command, long now) throws Exception {
+        LedgerAccount account = accounts.get(command.accountId);
+        if (account != null) {
+            Account stored = accountDAO.getAccountById(command.accountId);
+            if (stored != null) {
+                account.refresh(stored);
+            } else {
+                // Soft-deleted accounts are not returned, stop posting to them
+                account.markDeleted();
+            }
+            records.add(JournalRecord.account(account, now));
+        }
+        acknowledge(command, () -> command.future.complete(
+                new TransactionResult(Collections.emptyList(), Collections.emptyMap())));
+    }
+
+    /**
+     * Get an account, loading it from the database and journaling its state
+     * the first time it is used
+     */
+    private LedgerAccount load(int accountId, long now) throws Exception {
+        LedgerAccount account = accounts.get(accountId);
+        if (account == null) {
+            Account stored = accountDAO.getAccountById(accountId);
+            if (stored == null) {
+                return null;
+            }
+            account = LedgerAccount.from(stored);
+            accounts.put(accountId, account);
+            records.add(JournalRecord.account(account, now));
+        }
+        return account;
+    }
+
+    private long apply(LedgerAccount account, long delta) {
+        long balance = account.getBalance() + delta;
+        account.setBalance(balance);
+        undo.add(() -> account.setBalance(account.getBalance() - delta));
+        return balance;
+    }
+
+    private static CompletableFuture<TransactionResult> callerFuture(Command command) {
+        // CREDIT and LOAD act on behalf of the transfer that created them
+        return command.retry != null ? command.retry.future : command.future;
+    }
+
+    private void acknowledge(Command command, Runnable completion) {
+        acknowledged.add(command.future);
+        completions.add(completion);
+    }
+
+    private static TransactionResult result(JournalRecord record, int accountId, long balance) {
+        return new TransactionResult(record.toTransactions(),
+                Collections.singletonMap(accountId, LedgerAccount.toAmount(balance)));
+    }
+
+    private static TransactionResult transferResult(JournalRecord record, Command transfer, long fromBalance,
+            long toBalance) {
+        Map<Integer, BigDecimal> balances = new LinkedHashMap<>();
+        balances.put(transfer.accountId, LedgerAccount.toAmount(fromBalance));
+        balances.put(transfer.toAccountId, LedgerAccount.toAmount(toBalance));
+        return new TransactionResult(record.toTransactions(), balances);
+    }
+}
@@ -0,0 +1,151 @@
+package com.banking.ledger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Account states as of a journal sequence number.
+ *
+ * A new snapshot is built by replaying journal records on top of the previous
+ * one rather than by copying live engine state, so it is consistent without
+ * pausing the partitions. Only records already flushed to the database are
+ * folded in, after which the journal segments holding them can be deleted.
+ */
+final class LedgerSnapshot {
+
+    private static final String FILE_NAME = "snapshot.dat";
+    private static final String TEMP_FILE_NAME = "snapshot.tmp";
+    private static final int MAGIC = 0x46564C53;
+    private static final int VERSION = 1;
+
+    private final long sequence;
+    private final Map<Integer, LedgerAccount> accounts;
+
+    /**
+     * Constructor
+     *
+     * @param sequence Last journal sequence number included
+     * @param accounts Account states, not copied
+     */
+    LedgerSnapshot(long sequence, Map<Integer, LedgerAccount> accounts) {
+        this.sequence = sequence;
+        this.accounts = accounts;
+    }
+
+    /**
+     * Read the snapshot in a directory
+     *
+     * @param directory Ledger directory
+     * @return Snapshot, or an empty one at sequence 0 if there is none
+     * @throws IOException if the snapshot exists but cannot be read
+     */
+    static LedgerSnapshot read(Path directory) throws IOException {
+        Path path = directory.resolve(FILE_NAME);
+        if (!Files.exists(path)) {
+            return new LedgerSnapshot(0, new HashMap<>());
+        }
+
+        CRC32 crc = new CRC32();
+        try (InputStream file = Files.newInputStream(path);
+                CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file), crc);
+                DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a ledger snapshot: " + path);
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            Map<Integer, LedgerAccount> accounts = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                LedgerAccount account = new LedgerAccount(in.readInt(), in.readUTF(), in.readUTF(),
+                        in.readLong(), in.readLong());
+                accounts.put(account.getAccountId(), account);
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Ledger snapshot checksum mismatch: " + path);
+            }
+            return new LedgerSnapshot(sequence, accounts);
+        }
+    }
+
+    /**
+     * Write this snapshot, replacing the previous one atomically
+     *
+     * @param directory Ledger directory
+     * @throws IOException if writing fails
+     */
+    void write(Path directory) throws IOException {
+        Path temp = directory.resolve(TEMP_FILE_NAME);
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(file), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(accounts.size());
+            for (LedgerAccount account : accounts.values()) {
+                out.writeInt(account.getAccountId());
+                out.writeUTF(account.getAccountType());
+                out.writeUTF(account.getStatus());
+                out.writeLong(account.getOverdraftLimit());
+                out.writeLong(account.getBalance());
+            }
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Build the snapshot that follows this one
+     *
+     * @param directory Ledger directory holding the journal
+     * @param upToSequence Last journal sequence number to fold in
+     * @return New snapshot, this one is not changed
+     * @throws IOException if the journal cannot be read
+     */
+    LedgerSnapshot advance(Path directory, long upToSequence) throws IOException {
+        Map<Integer, LedgerAccount> next = copyAccounts();
+        long last = LedgerJournal.read(directory, sequence, upToSequence, record -> record.applyTo(next));
+        return new LedgerSnapshot(last, next);
+    }
+
+    /**
+     * Copy the account states so they can be changed
+     *
+     * @return Account ID to a copy of its state
+     */
+    Map<Integer, LedgerAccount> copyAccounts() {
+        Map<Integer, LedgerAccount> copy = new HashMap<>(accounts.size() * 2);
+        for (LedgerAccount account : accounts.values()) {
+            copy.put(account.getAccountId(), account.copy());
+        }
+        return copy;
+    }
+
+    // Getters
+    long getSequence() {
+        return sequence;
+    }
+
+    Map<Integer, LedgerAccount> getAccounts() {
+        return Collections.unmodifiableMap(accounts);
+    }
+}
@@ -0,0 +1,84 @@
+package com.banking.ledger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import com.banking.config.DatabaseConfig;
+
+/**
+ * Hands out transaction IDs reserved in blocks from the transactions
+ * sequence, so the engine can return final IDs without a database round trip
+ * per transaction. Not thread-safe; each partition has its own allocator.
+ */
+class TransactionIdAllocator {
+
+    private static final String RESERVE_SQL = "SELECT nextval(pg_get_serial_sequence('transactions', 'transaction_id')) "
+            + "FROM generate_series(1, ?)";
+
+    private final DatabaseConfig dbConfig;
+    private final int blockSize;
+    private long[] block = new long[0];
+    private int next;
+
+    /**
+     * Constructor
+     *
+     * @param dbConfig Database configuration
+     * @param blockSize Number of IDs reserved per round trip
+     */
+    TransactionIdAllocator(DatabaseConfig dbConfig, int blockSize) {
+        this.dbConfig = dbConfig;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Get the next transaction ID
+     *
+     * @return Transaction ID
+     * @throws Exception if a new block cannot be reserved
+     */
+    long next() throws Exception {
+        if (next == block.length) {
+            block = reserve();
+            next = 0;
+        }
+        return block[next++];
+    }
+
+    @SuppressWarnings("UseSpecificCatch")
+    private long[] reserve() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(RESERVE_SQL);
+            pstmt.setInt(1, blockSize);
+            rs = pstmt.executeQuery();
+
+            long[] ids = new long[blockSize];
+            int count = 0;
+            while (rs.next()) {
+                ids[count++] = rs.getLong(1);
+            }
+            if (count != blockSize) {
+                throw new Exception("Reserved " + count + " transaction IDs, expected " + blockSize);
+            }
+            return ids;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.banking.loadtest;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.banking.ApplicationLifecycle;
+import com.banking.datagen.DataGenerator;
+import com.banking.datagen.DatasetProfile;
+import com.banking.ledger.LedgerEngine;
+import com.banking.model.Customer;
+import com.banking.model.Money;
+import com.banking.service.AccountService;
+import com.banking.service.CustomerService;
+import com.banking.service.TransactionService;
+import com.banking.util.ThreadUtil;
+
+/**
+ * Command-line load generator that drives TransactionService with many
+ * concurrent tellers, to reproduce production contention.
+ *
+ * Each run opens its own accounts, then every teller repeatedly picks an
+ * operation from the configured mix and accounts from a Zipf distribution.
+ * With a target rate, operations are scheduled at fixed intervals and
+ * latency is measured from the scheduled start, so a stalled system is not
+ * hidden by tellers that stop sending. Deadlocks and serialization failures
+ * are retried. At the end the sum of all balances is checked against the
+ * opening balances plus deposits minus withdrawals.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.loadtest.LoadGenerator
+ * --tellers 200 --accounts 1000 --mix 60/25/15 --zipf 1.1 --rate 2000 --duration 60
+ *
+ * Tellers run on virtual threads when the JVM has them (Java 21+), otherwise
+ * on a fixed platform thread pool. Raise -Dfinvault.db.poolSize to let more
+ * tellers reach the database at once.
+ */
+public class LoadGenerator {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private enum Operation {
+        DEPOSIT, WITHDRAWAL, TRANSFER
+    }
+
+    private final int tellers;
+    private final int accountCount;
+    private final double depositShare;
+    private final double withdrawalShare;
+    private final double zipfExponent;
+    private final double targetRate;
+    private final long durationNanos;
+    private final Money openingBalance;
+    private final long maxAmountCents;
+
+    private final TransactionService transactionService = new TransactionService();
+    private final AccountService accountService = new AccountService();
+    private final Map<Operation, Histogram> latencies = new HashMap<>();
+    private final Map<Operation, LongAdder> completed = new HashMap<>();
+    private final LongAdder depositedCents = new LongAdder();
+    private final LongAdder withdrawnCents = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder deadlocks = new LongAdder();
+    private final LongAdder serializationFailures = new LongAdder();
+    private final LongAdder exhaustedRetries = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder unknownOutcomes = new LongAdder();
+    private final AtomicLong tickets = new AtomicLong();
+
+    private int[] accountIds;
+    private ZipfSampler sampler;
+    private long startNanos;
+    private long endNanos;
+
+    /**
+     * Constructor
+     *
+     * @param options Parsed command-line options
+     */
+    LoadGenerator(Map<String, String> options) {
+        tellers = Integer.parseInt(options.getOrDefault("tellers", "64"));
+        accountCount = Integer.parseInt(options.getOrDefault("accounts", "100"));
+        zipfExponent = Double.parseDouble(options.getOrDefault("zipf", "1.0"));
+        targetRate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+        openingBalance = Money.of(new BigDecimal(options.getOrDefault("opening-balance", "10000.00")));
+        maxAmountCents = Money.of(new BigDecimal(options.getOrDefault("max-amount", "500.00"))).getMinorUnits();
+
+        String[] mix = options.getOrDefault("mix", "60/25/15").split("/");
+        if (mix.length != 3) {
+            throw new IllegalArgumentException("Mix must be deposit/withdraw/transfer, e.g. 60/25/15");
+        }
+        double deposit = Double.parseDouble(mix[0]);
+        double withdrawal = Double.parseDouble(mix[1]);
+        double total = deposit + withdrawal + Double.parseDouble(mix[2]);
+        if (total <= 0) {
+            throw new IllegalArgumentException("Mix must not be all zero");
+        }
+        depositShare = deposit / total;
+        withdrawalShare = withdrawal / total;
+
+        if (tellers < 1 || accountCount < 2) {
+            throw new IllegalArgumentException("Need at least 1 teller and 2 accounts");
+        }
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_NANOS, 3));
+            completed.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options;
+        try {
+            options = parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        if (!ApplicationLifecycle.start()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        boolean conserved = false;
+        try {
+            if (options.containsKey("dataset")) {
+                // Background data so queries see realistic table sizes
+                new DataGenerator(DatasetProfile.valueOf(options.get("dataset").toUpperCase()), 42).loadIfEmpty();
+            }
+            LoadGenerator generator = new LoadGenerator(options);
+            generator.openAccounts();
+            generator.run();
+            conserved = generator.report();
+        } catch (Exception e) {
+            System.err.println("Load test failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            ApplicationLifecycle.stop();
+        }
+        System.exit(conserved ? 0 : 1);
+    }
+
+    /**
+     * Register a customer for this run and open its accounts
+     *
+     * @throws Exception if the accounts cannot be created
+     */
+    void openAccounts() throws Exception {
+        Customer customer = new CustomerService().registerCustomer("Load", "Test",
+                "loadtest-" + System.currentTimeMillis() + "@example.com", null, null);
+
+        accountIds = new int[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountIds[i] = accountService.createCurrentAccount(customer.getCustomerId(),
+                    openingBalance.toBigDecimal(), BigDecimal.ZERO).getAccountId();
+        }
+        sampler = new ZipfSampler(accountCount, zipfExponent);
+        System.out.printf("Opened %d accounts for customer #%d (hottest account gets %.1f%% of picks)%n",
+                accountCount, customer.getCustomerId(), sampler.getHottestShare() * 100);
+    }
+
+    /**
+     * Run the tellers until the duration is up
+     *
+     * @throws InterruptedException if interrupted while waiting for tellers
+     */
+    void run() throws InterruptedException {
+        ExecutorService executor = newTellerExecutor();
+        startNanos = System.nanoTime();
+        endNanos = startNanos + durationNanos;
+        for (int i = 0; i < tellers; i++) {
+            executor.execute(this::runTeller);
+        }
+        executor.shutdown();
+        executor.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(5), TimeUnit.NANOSECONDS);
+        endNanos = System.nanoTime();
+    }
+
+    private ExecutorService newTellerExecutor() {
+        if (ThreadUtil.hasVirtualThreads()) {
+            System.out.printf("Starting %d tellers on virtual threads%n", tellers);
+        } else {
+            System.out.printf("Starting %d tellers on platform threads (no virtual threads in this JVM)%n", tellers);
+        }
+        return ThreadUtil.newPerTaskExecutor("teller", tellers);
+    }
+
+    private void runTeller() {
+        double nanosPerOperation = targetRate > 0 ? TimeUnit.SECONDS.toNanos(1) / targetRate : 0;
+        while (true) {
+            long intendedStart;
+            if (targetRate > 0) {
+                intendedStart = startNanos + (long) (tickets.getAndIncrement() * nanosPerOperation);
+                if (intendedStart >= endNanos) {
+                    return;
+                }
+                long wait;
+                while ((wait = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                intendedStart = System.nanoTime();
+                if (intendedStart >= endNanos) {
+                    return;
+                }
+            }
+            execute(pickOperation(), intendedStart);
+        }
+    }
+
+    private Operation pickOperation() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        if (u < depositShare) {
+            return Operation.DEPOSIT;
+        }
+        return u < depositShare + withdrawalShare ? Operation.WITHDRAWAL : Operation.TRANSFER;
+    }
+
+    private void execute(Operation operation, long intendedStart) {
+        int from = sampler.next();
+        int to = operation == Operation.TRANSFER ? sampler.nextOtherThan(from) : from;
+        Money amount = Money.ofMinor(ThreadLocalRandom.current().nextLong(100, maxAmountCents + 1));
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                post(operation, accountIds[from], accountIds[to], amount);
+                latencies.get(operation).recordValue(
+                        Math.min(System.nanoTime() - intendedStart, MAX_LATENCY_NANOS));
+                completed.get(operation).increment();
+                if (operation == Operation.DEPOSIT) {
+                    depositedCents.add(amount.getMinorUnits());
+                } else if (operation == Operation.WITHDRAWAL) {
+                    withdrawnCents.add(amount.getMinorUnits());
+                }
+                return;
+            } catch (Exception e) {
+                if (!shouldRetry(e) || attempt == MAX_ATTEMPTS) {
+                    if (shouldRetry(e)) {
+                        exhaustedRetries.increment();
+                    }
+                    return;
+                }
+                retries.increment();
+                // Back off a little so the competing transaction can finish
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(
+                        ThreadLocalRandom.current().nextLong(100, 1000L << attempt)));
+            }
+        }
+    }
+
+    private void post(Operation operation, int fromAccountId, int toAccountId, Money amount) throws Exception {
+        switch (operation) {
+            case DEPOSIT:
+                transactionService.performDeposit(fromAccountId, amount.toBigDecimal(), "Load test deposit");
+                break;
+            case WITHDRAWAL:
+                transactionService.performWithdrawal(fromAccountId, amount.toBigDecimal(), "Load test withdrawal");
+                break;
+            default:
+                transactionService.performTransfer(fromAccountId, toAccountId, amount.toBigDecimal(),
+                        "Load test transfer");
+                break;
+        }
+    }
+
+    /**
+     * Classify a failure and count it
+     *
+     * @return true if the operation should be retried
+     */
+    private boolean shouldRetry(Exception e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null) {
+                String state = ((SQLException) cause).getSQLState();
+                if ("40P01".equals(state)) {
+                    deadlocks.increment();
+                    return true;
+                }
+                if ("40001".equals(state)) {
+                    serializationFailures.increment();
+                    return true;
+                }
+                if (state.startsWith("08")) {
+                    // Connection lost, the commit may or may not have happened
+                    unknownOutcomes.increment();
+                    errors.increment();
+                    return false;
+                }
+            }
+        }
+
+        // Business rule failures: insufficient funds, inactive or unknown accounts
+        if (e instanceof com.banking.model.InsufficientFundsException || e instanceof IllegalArgumentException
+                || e instanceof IllegalStateException || e.getClass() == Exception.class) {
+            rejected.increment();
+        } else {
+            errors.increment();
+        }
+        return false;
+    }
+
+    /**
+     * Print throughput, latency and error counts, then check that money was
+     * neither created nor lost
+     *
+     * @return true if the balances add up
+     * @throws Exception if the final balances cannot be read
+     */
+    boolean report() throws Exception {
+        double seconds = (endNanos - startNanos) / 1e9;
+        long total = 0;
+        for (LongAdder count : completed.values()) {
+            total += count.sum();
+        }
+
+        System.out.println();
+        System.out.printf("Tellers: %d, accounts: %d, zipf: %.2f, mix: %.0f/%.0f/%.0f, rate: %s%n",
+                tellers, accountCount, zipfExponent, depositShare * 100, withdrawalShare * 100,
+                (1 - depositShare - withdrawalShare) * 100,
+                targetRate > 0 ? String.format("%.0f ops/s", targetRate) : "unlimited");
+        System.out.printf("Completed %d operations in %.1f s: %.1f ops/s%n", total, seconds, total / seconds);
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            System.out.printf("  %-10s %9d ok   p50 %8.2f ms   p99 %8.2f ms   p99.9 %8.2f ms   max %8.2f ms%n",
+                    operation, completed.get(operation).sum(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+        System.out.printf("Rejected (funds or account rules): %d%n", rejected.sum());
+        System.out.printf("Retries: %d (deadlocks %d, serialization failures %d), gave up after %d attempts: %d%n",
+                retries.sum(), deadlocks.sum(), serializationFailures.sum(), MAX_ATTEMPTS, exhaustedRetries.sum());
+        System.out.printf("Errors: %d (unknown outcome %d)%n", errors.sum(), unknownOutcomes.sum());
+
+        return checkConservation();
+    }
+
+    private boolean checkConservation() throws Exception {
+        long expected = Math.addExact(Math.multiplyExact(openingBalance.getMinorUnits(), accountCount),
+                depositedCents.sum() - withdrawnCents.sum());
+
+        LedgerEngine engine = LedgerEngine.current();
+        long actual = 0;
+        for (int accountId : accountIds) {
+            BigDecimal engineBalance = engine != null ? engine.getBalance(accountId) : null;
+            Money balance = engineBalance != null
+                    ? Money.of(engineBalance)
+                    : accountService.getAccountById(accountId).getBalanceMoney();
+            actual = Math.addExact(actual, balance.getMinorUnits());
+        }
+
+        if (expected == actual) {
+            System.out.printf("Conservation: OK, balances total %s%n", Money.ofMinor(actual));
+            return true;
+        }
+        System.out.printf("Conservation: MISMATCH, expected %s but balances total %s (difference %s)%s%n",
+                Money.ofMinor(expected), Money.ofMinor(actual), Money.ofMinor(actual - expected),
+                unknownOutcomes.sum() > 0 ? ", some operations had an unknown outcome" : "");
+        return false;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if ("help".equals(name)) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: LoadGenerator [options]");
+        System.out.println("  --tellers N            concurrent tellers (default 64)");
+        System.out.println("  --accounts N           accounts opened for the run (default 100)");
+        System.out.println("  --mix D/W/T            deposit/withdraw/transfer weights (default 60/25/15)");
+        System.out.println("  --zipf S               account skew, 0 = uniform (default 1.0)");
+        System.out.println("  --rate OPS             target operations per second, 0 = unlimited (default 0)");
+        System.out.println("  --duration SECONDS     run time (default 30)");
+        System.out.println("  --opening-balance AMT  balance of each new account (default 10000.00)");
+        System.out.println("  --max-amount AMT       largest single amount (default 500.00)");
+        System.out.println("  --dataset PROFILE      fill an empty database with small, medium or large data first");
+    }
+}
@@ -0,0 +1,80 @@
+package com.banking.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks indexes 0..n-1 with Zipf-distributed popularity: index k is chosen
+ * with probability proportional to 1 / (k + 1)^exponent. An exponent of 0
+ * gives a uniform choice, around 1 a few hot accounts take most traffic.
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+
+    /**
+     * Constructor, precomputes the cumulative distribution
+     *
+     * @param size Number of indexes
+     * @param exponent Skew, 0 or more
+     */
+    public ZipfSampler(int size, double exponent) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent cannot be negative");
+        }
+        cumulative = new double[size];
+        double total = 0;
+        for (int k = 0; k < size; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= total;
+        }
+    }
+
+    /**
+     * Draw an index
+     *
+     * @return Index between 0 and size - 1
+     */
+    public int next() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int index = Arrays.binarySearch(cumulative, u);
+        // Not found gives -(insertion point) - 1; the insertion point is the pick
+        index = index >= 0 ? index : -index - 1;
+        return Math.min(index, cumulative.length - 1);
+    }
+
+    /**
+     * Draw an index different from another one
+     *
+     * @param excluded Index to avoid
+     * @return Index between 0 and size - 1, not equal to excluded
+     */
+    public int nextOtherThan(int excluded) {
+        if (cumulative.length < 2) {
+            throw new IllegalStateException("Need at least two indexes");
+        }
+        for (int attempt = 0; attempt < 8; attempt++) {
+            int index = next();
+            if (index != excluded) {
+                return index;
+            }
+        }
+        // Heavily skewed toward excluded, take a neighbour instead
+        return (excluded + 1) % cumulative.length;
+    }
+
+    /**
+     * Get the probability of the most popular index
+     *
+     * @return Share of draws that pick index 0
+     */
+    public double getHottestShare() {
+        return cumulative[0];
+    }
+}
@@ -0,0 +1,117 @@
+package com.banking.metrics;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+
+import com.banking.config.ConnectionPool;
+import com.banking.jfr.DaoQueryEvent;
+
+/**
+ * Wraps a DAO in a dynamic proxy that records, per interface method, the
+ * call count, errors, latency, rows returned and time spent waiting for a
+ * pooled connection.
+ *
+ * Rows are the size of a returned collection, map or array, or 1 for a
+ * returned object other than a number, boolean or string.
+ *
+ * Each call is also a DaoQueryEvent for Java Flight Recorder.
+ */
+public final class DaoMetrics {
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * Instrument a DAO
+     *
+     * @param type DAO interface, e.g. AccountDAO.class
+     * @param target Implementation to delegate to
+     * @param <T> DAO interface type
+     * @return Instrumented DAO, or the target itself when metrics are disabled
+     */
+    public static <T> T instrument(Class<T> type, T target) {
+        if (!MetricsRegistry.isEnabled()) {
+            return target;
+        }
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new Handler(registry, type.getSimpleName(), target)));
+    }
+
+    private static final class Handler implements InvocationHandler {
+
+        private final MetricsRegistry registry;
+        private final String prefix;
+        private final Object target;
+
+        Handler(MetricsRegistry registry, String prefix, Object target) {
+            this.registry = registry;
+            this.prefix = prefix + ".";
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "Instrumented" + target;
+                }
+            }
+
+            String name = prefix + method.getName();
+            MethodMetrics metrics = registry.method(name);
+            DaoQueryEvent event = new DaoQueryEvent();
+            boolean traced = event.isEnabled();
+            if (traced) {
+                ConnectionPool.clearCurrentThreadLastSql();
+            }
+            long waitBefore = ConnectionPool.getCurrentThreadWaitNanos();
+            long start = System.nanoTime();
+            event.begin();
+            try {
+                Object result = method.invoke(target, args);
+                long waited = ConnectionPool.getCurrentThreadWaitNanos() - waitBefore;
+                int rows = countRows(result);
+                metrics.record(System.nanoTime() - start, waited, rows, false);
+                if (traced) {
+                    event.complete(name, ConnectionPool.getCurrentThreadLastSql(), rows, waited, false);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                long waited = ConnectionPool.getCurrentThreadWaitNanos() - waitBefore;
+                metrics.record(System.nanoTime() - start, waited, 0, true);
+                if (traced) {
+                    event.complete(name, ConnectionPool.getCurrentThreadLastSql(), 0, waited, true);
+                }
+                throw e.getCause();
+            }
+        }
+
+        private static int countRows(Object result) {
+            if (result == null || result instanceof Number || result instanceof Boolean
+                    || result instanceof CharSequence) {
+                return 0;
+            }
+            if (result instanceof Collection) {
+                return ((Collection<?>) result).size();
+            }
+            if (result instanceof Map) {
+                return ((Map<?, ?>) result).size();
+            }
+            if (result.getClass().isArray()) {
+                return Array.getLength(result);
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.banking.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Call count, error count, rows returned, connection pool wait and latency
+ * histogram of one method. Recording is lock-free.
+ *
+ * Latencies are kept in microseconds up to one minute with two significant
+ * digits, which keeps each histogram to a few kilobytes.
+ */
+public class MethodMetrics implements MethodMetricsMXBean {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder poolWaitNanos = new LongAdder();
+    private final ConcurrentHistogram latencyMicros = new ConcurrentHistogram(MAX_MICROS, 2);
+
+    /**
+     * Constructor
+     *
+     * @param name Metric name, e.g. AccountDAO.getAccountById
+     */
+    MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record one call
+     *
+     * @param elapsedNanos Time the call took
+     * @param waitNanos Part of it spent waiting for a pooled connection
+     * @param rowCount Rows returned, 0 if none or not applicable
+     * @param failed true if the call threw
+     */
+    public void record(long elapsedNanos, long waitNanos, int rowCount, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+        if (waitNanos > 0) {
+            poolWaitNanos.add(waitNanos);
+        }
+        latencyMicros.recordValue(Math.min(MAX_MICROS, Math.max(0, elapsedNanos / 1000)));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latencyMicros.getMean() / 1000.0;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latencyMicros.getValueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latencyMicros.getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Millis() {
+        return latencyMicros.getValueAtPercentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latencyMicros.getMaxValue() / 1000.0;
+    }
+
+    @Override
+    public double getAveragePoolWaitMillis() {
+        long count = calls.sum();
+        return count == 0 ? 0.0 : poolWaitNanos.sum() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Get a copy of the latency histogram
+     *
+     * @return Histogram of latencies in microseconds
+     */
+    public Histogram getLatencyMicros() {
+        return latencyMicros.copy();
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        poolWaitNanos.reset();
+        latencyMicros.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls, %d errors, %d rows, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, "
+                + "max %.2f ms, %.2f ms avg pool wait", name, getCalls(), getErrors(), getRows(),
+                getP50Millis(), getP99Millis(), getP999Millis(), getMaxMillis(), getAveragePoolWaitMillis());
+    }
+}
@@ -0,0 +1,30 @@
+package com.banking.metrics;
+
+/**
+ * JMX view of the metrics of one instrumented method
+ */
+public interface MethodMetricsMXBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    double getAveragePoolWaitMillis();
+
+    /**
+     * Clear all counters and the latency histogram
+     */
+    void reset();
+}
@@ -0,0 +1,325 @@
+package com.banking.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.banking.config.DatabaseConfig;
+
+/**
+ * Process-wide registry of method metrics and gauges.
+ *
+ * Method metrics are created on first use and registered as MXBeans under
+ * com.banking:type=Metrics,name=&lt;metric&gt;. Gauges are read when asked
+ * for and exposed together as attributes of com.banking:type=Gauges. When
+ * -Dfinvault.metrics.snapshotDir is set, a JSON snapshot of everything is
+ * appended to a daily file in that directory every
+ * finvault.metrics.snapshotMillis (default one minute).
+ *
+ * Metrics are on by default; -Dfinvault.metrics.enabled=false leaves the
+ * DAOs unwrapped.
+ */
+public class MetricsRegistry {
+
+    /**
+     * System property that turns DAO instrumentation on or off, default on
+     */
+    public static final String ENABLED_PROPERTY = "finvault.metrics.enabled";
+
+    /**
+     * System property for the directory periodic snapshots are written to
+     */
+    public static final String SNAPSHOT_DIR_PROPERTY = "finvault.metrics.snapshotDir";
+
+    /**
+     * System property for the time between snapshots
+     */
+    public static final String SNAPSHOT_MILLIS_PROPERTY = "finvault.metrics.snapshotMillis";
+
+    private static final String JMX_DOMAIN = "com.banking";
+
+    private static MetricsRegistry instance;
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    private volatile ScheduledExecutorService snapshotWriter;
+    private Path snapshotDir;
+
+    private MetricsRegistry() {
+        registerPoolGauges();
+        register(objectName("Gauges", null), new GaugesMBean());
+    }
+
+    /**
+     * Get the registry, creating it and starting the snapshot writer if one
+     * is configured
+     *
+     * @return MetricsRegistry instance
+     */
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+            String dir = System.getProperty(SNAPSHOT_DIR_PROPERTY);
+            if (dir != null && !dir.isEmpty()) {
+                instance.startSnapshots(Paths.get(dir), Long.getLong(SNAPSHOT_MILLIS_PROPERTY, 60_000));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether DAO calls should be instrumented
+     *
+     * @return true unless switched off with finvault.metrics.enabled=false
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Get or create the metrics of a method
+     *
+     * @param name Metric name, e.g. AccountDAO.getAccountById
+     * @return MethodMetrics, the same object for the same name
+     */
+    public MethodMetrics method(String name) {
+        MethodMetrics metrics = methods.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        return methods.computeIfAbsent(name, key -> {
+            MethodMetrics created = new MethodMetrics(key);
+            register(objectName("Metrics", key), created);
+            return created;
+        });
+    }
+
+    /**
+     * Register a value that is read whenever metrics are reported
+     *
+     * @param name Gauge name, e.g. groupCommit.queued
+     * @param supplier Reads the current value
+     */
+    public void registerGauge(String name, Supplier<? extends Number> supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Get all method metrics
+     *
+     * @return Metrics by name, sorted
+     */
+    public Map<String, MethodMetrics> getMethods() {
+        return new TreeMap<>(methods);
+    }
+
+    /**
+     * Read all gauges
+     *
+     * @return Current values by name, sorted; gauges that fail to read are left out
+     */
+    public Map<String, Number> readGauges() {
+        Map<String, Number> values = new TreeMap<>();
+        for (Map.Entry<String, Supplier<? extends Number>> gauge : gauges.entrySet()) {
+            try {
+                values.put(gauge.getKey(), gauge.getValue().get());
+            } catch (RuntimeException e) {
+                System.err.println("Error reading gauge " + gauge.getKey() + ": " + e.getMessage());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Append a snapshot to today's file every interval
+     *
+     * @param directory Directory for the snapshot files
+     * @param intervalMillis Time between snapshots
+     */
+    public synchronized void startSnapshots(Path directory, long intervalMillis) {
+        if (snapshotWriter != null) {
+            return;
+        }
+        snapshotDir = directory;
+        snapshotWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotWriter.scheduleAtFixedRate(this::writeSnapshotQuietly, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the snapshot writer after writing a last snapshot
+     */
+    public void shutdown() {
+        ScheduledExecutorService writer = snapshotWriter;
+        if (writer != null) {
+            writer.shutdownNow();
+            writeSnapshotQuietly();
+        }
+    }
+
+    /**
+     * Render all metrics and gauges as one line of JSON
+     *
+     * @return JSON object with time, methods and gauges
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\"time\":\"").append(LocalDateTime.now()).append("\",\"methods\":{");
+        boolean first = true;
+        for (MethodMetrics metrics : getMethods().values()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(metrics.getName()).append("\":{")
+                    .append("\"calls\":").append(metrics.getCalls())
+                    .append(",\"errors\":").append(metrics.getErrors())
+                    .append(",\"rows\":").append(metrics.getRows())
+                    .append(",\"meanMillis\":").append(round(metrics.getMeanMillis()))
+                    .append(",\"p50Millis\":").append(round(metrics.getP50Millis()))
+                    .append(",\"p99Millis\":").append(round(metrics.getP99Millis()))
+                    .append(",\"p999Millis\":").append(round(metrics.getP999Millis()))
+                    .append(",\"maxMillis\":").append(round(metrics.getMaxMillis()))
+                    .append(",\"avgPoolWaitMillis\":").append(round(metrics.getAveragePoolWaitMillis()))
+                    .append('}');
+        }
+        json.append("},\"gauges\":{");
+        first = true;
+        for (Map.Entry<String, Number> gauge : readGauges().entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            Number value = gauge.getValue();
+            json.append('"').append(gauge.getKey()).append("\":")
+                    .append(value instanceof Double || value instanceof Float ? round(value.doubleValue()) : value);
+        }
+        return json.append("}}").toString();
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            Files.createDirectories(snapshotDir);
+            Path file = snapshotDir.resolve("metrics-" + LocalDate.now() + ".jsonl");
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(toJson());
+                out.write('\n');
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error writing metrics snapshot: " + e.getMessage());
+        }
+    }
+
+    private void registerPoolGauges() {
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        registerGauge("pool.active", () -> dbConfig.getPoolStats().getActive());
+        registerGauge("pool.idle", () -> dbConfig.getPoolStats().getIdle());
+        registerGauge("pool.acquisitions", () -> dbConfig.getPoolStats().getAcquisitions());
+        registerGauge("pool.averageWaitMillis", () -> dbConfig.getPoolStats().getAverageWaitMillis());
+        registerGauge("pool.physicalOpens", () -> dbConfig.getPoolStats().getPhysicalOpens());
+        registerGauge("pool.statementHitRate", () -> dbConfig.getPoolStats().getStatementHitRate());
+    }
+
+    private void register(ObjectName name, Object mbean) {
+        if (name == null) {
+            return;
+        }
+        try {
+            if (!mbeanServer.isRegistered(name)) {
+                mbeanServer.registerMBean(mbean, name);
+            }
+        } catch (Exception e) {
+            System.err.println("Error registering " + name + " with JMX: " + e.getMessage());
+        }
+    }
+
+    private static ObjectName objectName(String type, String name) {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":type=" + type
+                    + (name == null ? "" : ",name=" + ObjectName.quote(name)));
+        } catch (Exception e) {
+            System.err.println("Invalid JMX name for " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    /**
+     * Exposes every registered gauge as a read-only attribute
+     */
+    private class GaugesMBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) {
+            Supplier<? extends Number> gauge = gauges.get(attribute);
+            return gauge == null ? null : gauge.get();
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException("Gauges are read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException("Gauges have no operations");
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            Map<String, Number> values = readGauges();
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+            int i = 0;
+            for (Map.Entry<String, Number> value : values.entrySet()) {
+                attributes[i++] = new MBeanAttributeInfo(value.getKey(), value.getValue().getClass().getName(),
+                        value.getKey(), true, false, false);
+            }
+            return new MBeanInfo(getClass().getName(), "FinVault gauges", attributes, null, null, null);
+        }
+    }
+}
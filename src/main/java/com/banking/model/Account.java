@@ -1,6 +1,7 @@
 package com.banking.model;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 /**
@@ -11,7 +12,7 @@ public abstract class Account {
     protected int accountId;
     protected int customerId;
     protected String accountType;
-    protected BigDecimal balance;
+    protected Money balance;
     protected LocalDateTime dateOpened;
     protected String status;
 
@@ -19,7 +20,7 @@ public abstract class Account {
      * Default constructor
      */
     public Account() {
-        this.balance = BigDecimal.ZERO;
+        this.balance = Money.ZERO;
         this.dateOpened = LocalDateTime.now();
         this.status = "ACTIVE";
     }
@@ -34,7 +35,7 @@ public abstract class Account {
     public Account(int accountId, int customerId, BigDecimal balance) {
         this.accountId = accountId;
         this.customerId = customerId;
-        this.balance = balance;
+        this.balance = toMoney(balance);
         this.dateOpened = LocalDateTime.now();
         this.status = "ACTIVE";
     }
@@ -52,7 +53,7 @@ public abstract class Account {
             LocalDateTime dateOpened, String status) {
         this.accountId = accountId;
         this.customerId = customerId;
-        this.balance = balance;
+        this.balance = toMoney(balance);
         this.dateOpened = dateOpened;
         this.status = status;
     }
@@ -65,7 +66,18 @@ public abstract class Account {
      * @throws IllegalArgumentException if amount is negative
      */
     public boolean deposit(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        return deposit(toMoney(amount));
+    }
+
+    /**
+     * Deposit money into the account
+     *
+     * @param amount Amount to deposit
+     * @return true if successful, false otherwise
+     * @throws IllegalArgumentException if amount is negative
+     */
+    public boolean deposit(Money amount) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Deposit amount must be positive");
         }
 
@@ -73,7 +85,7 @@ public abstract class Account {
             return false;
         }
 
-        balance = balance.add(amount);
+        balance = balance.plus(amount);
         return true;
     }
 
@@ -86,7 +98,19 @@ public abstract class Account {
      * @throws InsufficientFundsException if balance is insufficient
      */
     public boolean withdraw(BigDecimal amount) throws InsufficientFundsException {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        return withdraw(toMoney(amount));
+    }
+
+    /**
+     * Withdraw money from the account
+     *
+     * @param amount Amount to withdraw
+     * @return true if successful, false otherwise
+     * @throws IllegalArgumentException if amount is negative
+     * @throws InsufficientFundsException if balance is insufficient
+     */
+    public boolean withdraw(Money amount) throws InsufficientFundsException {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Withdrawal amount must be positive");
         }
 
@@ -94,11 +118,11 @@ public abstract class Account {
             return false;
         }
 
-        if (balance.compareTo(amount) < 0) {
+        if (balance.isLessThan(amount)) {
             throw new InsufficientFundsException("Insufficient funds for withdrawal");
         }
 
-        balance = balance.subtract(amount);
+        balance = balance.minus(amount);
         return true;
     }
 
@@ -107,7 +131,27 @@ public abstract class Account {
      *
      * @return Interest amount
      */
-    public abstract BigDecimal calculateInterest();
+    public BigDecimal calculateInterest() {
+        return calculateInterestMoney().toBigDecimal();
+    }
+
+    /**
+     * Calculate interest (different for each account type)
+     *
+     * @return Interest amount
+     */
+    public abstract Money calculateInterestMoney();
+
+    /**
+     * Convert a BigDecimal amount, rounding extra decimals the way the
+     * DECIMAL(15, 2) columns do
+     *
+     * @param amount Amount, may be null
+     * @return Money, or null if amount is null
+     */
+    protected static Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount, RoundingMode.HALF_UP);
+    }
 
     // Getters and Setters
     public int getAccountId() {
@@ -135,10 +179,18 @@ public abstract class Account {
     }
 
     public BigDecimal getBalance() {
-        return balance;
+        return balance == null ? null : balance.toBigDecimal();
     }
 
     public void setBalance(BigDecimal balance) {
+        this.balance = toMoney(balance);
+    }
+
+    public Money getBalanceMoney() {
+        return balance;
+    }
+
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
 
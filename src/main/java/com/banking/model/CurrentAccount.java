@@ -9,7 +9,7 @@ import java.time.LocalDateTime;
  */
 public class CurrentAccount extends Account {
 
-    private BigDecimal overdraftLimit;
+    private Money overdraftLimit;
 
     /**
      * Default constructor
@@ -17,7 +17,7 @@ public class CurrentAccount extends Account {
     public CurrentAccount() {
         super();
         this.accountType = "CURRENT";
-        this.overdraftLimit = BigDecimal.ZERO; // No overdraft by default
+        this.overdraftLimit = Money.ZERO; // No overdraft by default
     }
 
     /**
@@ -31,7 +31,7 @@ public class CurrentAccount extends Account {
     public CurrentAccount(int accountId, int customerId, BigDecimal balance, BigDecimal overdraftLimit) {
         super(accountId, customerId, balance);
         this.accountType = "CURRENT";
-        this.overdraftLimit = overdraftLimit;
+        this.overdraftLimit = toMoney(overdraftLimit);
     }
 
     /**
@@ -48,7 +48,7 @@ public class CurrentAccount extends Account {
             LocalDateTime dateOpened, String status, BigDecimal overdraftLimit) {
         super(accountId, customerId, balance, dateOpened, status);
         this.accountType = "CURRENT";
-        this.overdraftLimit = overdraftLimit;
+        this.overdraftLimit = toMoney(overdraftLimit);
     }
 
     /**
@@ -57,8 +57,8 @@ public class CurrentAccount extends Account {
      * @return Zero interest
      */
     @Override
-    public BigDecimal calculateInterest() {
-        return BigDecimal.ZERO;
+    public Money calculateInterestMoney() {
+        return Money.ZERO;
     }
 
     /**
@@ -70,8 +70,8 @@ public class CurrentAccount extends Account {
      * overdraft limit
      */
     @Override
-    public boolean withdraw(BigDecimal amount) throws InsufficientFundsException {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public boolean withdraw(Money amount) throws InsufficientFundsException {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Withdrawal amount must be positive");
         }
 
@@ -80,13 +80,12 @@ public class CurrentAccount extends Account {
         }
 
         // Check if withdrawal exceeds balance plus overdraft limit
-        BigDecimal maximumWithdrawal = balance.add(overdraftLimit);
-        if (amount.compareTo(maximumWithdrawal) > 0) {
+        if (amount.isGreaterThan(getAvailableBalanceMoney())) {
             throw new InsufficientFundsException(
                     "Withdrawal amount exceeds balance plus overdraft limit");
         }
 
-        balance = balance.subtract(amount);
+        balance = balance.minus(amount);
         return true;
     }
 
@@ -96,7 +95,7 @@ public class CurrentAccount extends Account {
      * @return true if balance is negative, false otherwise
      */
     public boolean isOverdrawn() {
-        return balance.compareTo(BigDecimal.ZERO) < 0;
+        return balance.isNegative();
     }
 
     /**
@@ -105,16 +104,29 @@ public class CurrentAccount extends Account {
      * @return Available balance (balance + overdraft limit)
      */
     public BigDecimal getAvailableBalance() {
-        return balance.add(overdraftLimit);
+        return getAvailableBalanceMoney().toBigDecimal();
+    }
+
+    /**
+     * Get the available balance including overdraft
+     *
+     * @return Available balance (balance + overdraft limit)
+     */
+    public Money getAvailableBalanceMoney() {
+        return balance.plus(overdraftLimit);
     }
 
     // Getters and setters
     public BigDecimal getOverdraftLimit() {
-        return overdraftLimit;
+        return overdraftLimit == null ? null : overdraftLimit.toBigDecimal();
     }
 
     public void setOverdraftLimit(BigDecimal overdraftLimit) {
-        this.overdraftLimit = overdraftLimit;
+        this.overdraftLimit = toMoney(overdraftLimit);
+    }
+
+    public Money getOverdraftLimitMoney() {
+        return overdraftLimit;
     }
 
     @Override
@@ -0,0 +1,62 @@
+package com.banking.model;
+
+/**
+ * Highest row IDs seen in the main tables. IDs are not committed in order:
+ * concurrent writers commit out of sequence order and the ledger engine
+ * reserves transaction IDs in blocks, so a row with a lower ID can still
+ * appear after the mark was read. Readers that fold in rows past a mark
+ * must reload in full now and then to pick those up.
+ */
+public class HighWaterMark {
+
+    private final long maxTransactionId;
+    private final int maxCustomerId;
+    private final int maxAccountId;
+
+    /**
+     * Constructor
+     *
+     * @param maxTransactionId Highest transaction ID
+     * @param maxCustomerId Highest customer ID
+     * @param maxAccountId Highest account ID
+     */
+    public HighWaterMark(long maxTransactionId, int maxCustomerId, int maxAccountId) {
+        this.maxTransactionId = maxTransactionId;
+        this.maxCustomerId = maxCustomerId;
+        this.maxAccountId = maxAccountId;
+    }
+
+    /**
+     * Check whether any table has moved past this mark
+     *
+     * @param other More recent mark
+     * @return true if other has a higher ID in any table
+     */
+    public boolean isBehind(HighWaterMark other) {
+        return other.maxTransactionId > maxTransactionId
+                || other.maxCustomerId > maxCustomerId
+                || other.maxAccountId > maxAccountId;
+    }
+
+    // Getters
+    public long getMaxTransactionId() {
+        return maxTransactionId;
+    }
+
+    public int getMaxCustomerId() {
+        return maxCustomerId;
+    }
+
+    public int getMaxAccountId() {
+        return maxAccountId;
+    }
+
+    @Override
+    public String toString() {
+        return "HighWaterMark{"
+                + "maxTransactionId=" + maxTransactionId
+                + ", maxCustomerId=" + maxCustomerId
+                + ", maxAccountId=" + maxAccountId
+                + '}';
+    }
+}
@@ -0,0 +1,333 @@
+package com.banking.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable amount of money held as a long count of minor units (cents).
+ *
+ * Arithmetic is exact and throws ArithmeticException on overflow instead of
+ * wrapping. Conversions that can lose precision take an explicit rounding
+ * mode. BigDecimal is only created at the edges, when a value is shown or
+ * handed to code that still expects it.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Number of decimal places, matching the DECIMAL(15, 2) columns
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * Zero amount
+     */
+    public static final Money ZERO = new Money(0);
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+        10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Create an amount from minor units
+     *
+     * @param minorUnits Amount in cents
+     * @return Money
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Create an amount from a BigDecimal that has no more than two decimals
+     *
+     * @param amount Amount
+     * @return Money
+     * @throws ArithmeticException if the amount needs rounding or does not fit
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Create an amount from a BigDecimal, rounding it to two decimals
+     *
+     * @param amount Amount
+     * @param roundingMode How to round extra decimals
+     * @return Money
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static Money of(BigDecimal amount, RoundingMode roundingMode) {
+        return ofMinor(amount.setScale(SCALE, roundingMode).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Parse a plain decimal string such as "-1234.5" without going through
+     * BigDecimal, as returned for NUMERIC columns by ResultSet.getString
+     *
+     * @param text Decimal text with at most two decimals
+     * @return Money
+     * @throws NumberFormatException if the text is not a plain decimal
+     * @throws ArithmeticException if the amount has more than two decimals or
+     * does not fit
+     */
+    public static Money parse(CharSequence text) {
+        int length = text.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            index++;
+        }
+        if (index == length) {
+            throw new NumberFormatException("Not a decimal amount: " + text);
+        }
+
+        long units = 0;
+        int decimals = -1;
+        for (; index < length; index++) {
+            char c = text.charAt(index);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimals >= 0) {
+                    if (decimals == SCALE) {
+                        if (c != '0') {
+                            throw new ArithmeticException("More than " + SCALE + " decimals: " + text);
+                        }
+                        continue;
+                    }
+                    decimals++;
+                }
+                // Accumulate negatively so Long.MIN_VALUE cents still parses
+                units = Math.subtractExact(Math.multiplyExact(units, 10), c - '0');
+            } else {
+                throw new NumberFormatException("Not a decimal amount: " + text);
+            }
+        }
+
+        for (int i = Math.max(decimals, 0); i < SCALE; i++) {
+            units = Math.multiplyExact(units, 10);
+        }
+        return ofMinor(negative ? units : Math.negateExact(units));
+    }
+
+    /**
+     * Add an amount
+     *
+     * @param other Amount to add
+     * @return Sum
+     * @throws ArithmeticException on overflow
+     */
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Subtract an amount
+     *
+     * @param other Amount to subtract
+     * @return Difference
+     * @throws ArithmeticException on overflow
+     */
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Negate the amount
+     *
+     * @return Negated amount
+     * @throws ArithmeticException on overflow
+     */
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    /**
+     * Multiply by a factor such as an interest rate
+     *
+     * @param factor Factor to multiply by
+     * @param roundingMode How to round the product to cents
+     * @return Product
+     * @throws ArithmeticException if the product does not fit
+     */
+    public Money multiply(BigDecimal factor, RoundingMode roundingMode) {
+        int scale = factor.scale();
+        if (scale >= 0 && scale < POWERS_OF_TEN.length && factor.precision() < 19) {
+            return multiply(factor.unscaledValue().longValue(), scale, roundingMode);
+        }
+        return of(toBigDecimal().multiply(factor), roundingMode);
+    }
+
+    /**
+     * Multiply by a fixed-point factor given as unscaledFactor / 10^scale,
+     * without allocating intermediate BigDecimals
+     *
+     * @param unscaledFactor Unscaled factor, e.g. 25 for 0.025 with scale 3
+     * @param scale Number of decimals in the factor, 0 to 18
+     * @param roundingMode How to round the product to cents
+     * @return Product
+     * @throws ArithmeticException if the product does not fit
+     */
+    public Money multiply(long unscaledFactor, int scale, RoundingMode roundingMode) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Scale out of range: " + scale);
+        }
+        long product;
+        try {
+            product = Math.multiplyExact(minorUnits, unscaledFactor);
+        } catch (ArithmeticException e) {
+            // Rare: fall back to exact decimal arithmetic
+            return of(toBigDecimal().multiply(BigDecimal.valueOf(unscaledFactor, scale)), roundingMode);
+        }
+        return ofMinor(divide(product, POWERS_OF_TEN[scale], roundingMode));
+    }
+
+    /**
+     * Divide two longs, rounding the quotient like BigDecimal would
+     */
+    private static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        int sign = Long.signum(dividend) * Long.signum(divisor);
+        boolean increment;
+        switch (roundingMode) {
+            case UNNECESSARY:
+                throw new ArithmeticException("Rounding necessary");
+            case DOWN:
+                increment = false;
+                break;
+            case UP:
+                increment = true;
+                break;
+            case FLOOR:
+                increment = sign < 0;
+                break;
+            case CEILING:
+                increment = sign > 0;
+                break;
+            default:
+                // HALF_UP, HALF_DOWN, HALF_EVEN; divisor is at most 10^18, so
+                // twice the remainder cannot overflow
+                int half = Long.compare(Math.abs(remainder) * 2, Math.abs(divisor));
+                if (half != 0) {
+                    increment = half > 0;
+                } else if (roundingMode == RoundingMode.HALF_UP) {
+                    increment = true;
+                } else if (roundingMode == RoundingMode.HALF_DOWN) {
+                    increment = false;
+                } else {
+                    increment = (quotient & 1) != 0;
+                }
+                break;
+        }
+        return increment ? quotient + sign : quotient;
+    }
+
+    /**
+     * Get the amount in minor units
+     *
+     * @return Amount in cents
+     */
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Convert to a BigDecimal with two decimals
+     *
+     * @return BigDecimal amount
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Format with thousands separators and two decimals, e.g. "-1,234.50",
+     * for display without going through BigDecimal
+     *
+     * @return Formatted amount
+     */
+    public String format() {
+        String digits = Long.toString(minorUnits);
+        int start = minorUnits < 0 ? 1 : 0;
+        int length = digits.length() - start;
+        StringBuilder text = new StringBuilder(length + length / 3 + 4);
+        if (start > 0) {
+            text.append('-');
+        }
+        if (length <= SCALE) {
+            text.append("0.");
+            for (int i = length; i < SCALE; i++) {
+                text.append('0');
+            }
+            return text.append(digits, start, digits.length()).toString();
+        }
+
+        int whole = length - SCALE;
+        for (int i = 0; i < whole; i++) {
+            if (i > 0 && (whole - i) % 3 == 0) {
+                text.append(',');
+            }
+            text.append(digits.charAt(start + i));
+        }
+        return text.append('.').append(digits, start + whole, digits.length()).toString();
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > other.minorUnits;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Money && ((Money) obj).minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
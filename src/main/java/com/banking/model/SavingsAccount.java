@@ -12,6 +12,7 @@ public class SavingsAccount extends Account {
 
     private BigDecimal interestRate;
     private static final BigDecimal MINIMUM_BALANCE = new BigDecimal("100.00");
+    private static final Money MINIMUM_BALANCE_MONEY = Money.of(MINIMUM_BALANCE);
 
     /**
      * Default constructor
@@ -59,8 +60,8 @@ public class SavingsAccount extends Account {
      * @return Calculated interest amount
      */
     @Override
-    public BigDecimal calculateInterest() {
-        return balance.multiply(interestRate).setScale(2, RoundingMode.HALF_EVEN);
+    public Money calculateInterestMoney() {
+        return balance.multiply(interestRate, RoundingMode.HALF_EVEN);
     }
 
     /**
@@ -69,9 +70,9 @@ public class SavingsAccount extends Account {
      * @return The interest amount that was added
      */
     public BigDecimal applyMonthlyInterest() {
-        BigDecimal interest = calculateInterest();
-        balance = balance.add(interest);
-        return interest;
+        Money interest = calculateInterestMoney();
+        balance = balance.plus(interest);
+        return interest.toBigDecimal();
     }
 
     /**
@@ -82,9 +83,9 @@ public class SavingsAccount extends Account {
      * @throws InsufficientFundsException if balance would fall below minimum
      */
     @Override
-    public boolean withdraw(BigDecimal amount) throws InsufficientFundsException {
+    public boolean withdraw(Money amount) throws InsufficientFundsException {
         // Check if withdrawal would put balance below minimum
-        if (balance.subtract(amount).compareTo(MINIMUM_BALANCE) < 0) {
+        if (balance.minus(amount).isLessThan(MINIMUM_BALANCE_MONEY)) {
             throw new InsufficientFundsException(
                     "Withdrawal would put the account below the minimum balance of " + MINIMUM_BALANCE);
         }
@@ -1,6 +1,7 @@
 package com.banking.model;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 /**
@@ -11,7 +12,7 @@ public class Transaction {
     private long transactionId;
     private int accountId;
     private String transactionType;
-    private BigDecimal amount;
+    private Money amount;
     private LocalDateTime transactionDate;
     private String description;
     private Integer recipientAccountId; // Optional, for transfers
@@ -32,6 +33,22 @@ public class Transaction {
      * @param description Transaction description
      */
     public Transaction(int accountId, String transactionType, BigDecimal amount, String description) {
+        this();
+        this.accountId = accountId;
+        this.transactionType = transactionType;
+        this.amount = toMoney(amount);
+        this.description = description;
+    }
+
+    /**
+     * Constructor with essential parameters
+     *
+     * @param accountId Account ID
+     * @param transactionType Type of transaction
+     * @param amount Transaction amount
+     * @param description Transaction description
+     */
+    public Transaction(int accountId, String transactionType, Money amount, String description) {
         this();
         this.accountId = accountId;
         this.transactionType = transactionType;
@@ -69,7 +86,7 @@ public class Transaction {
         this.transactionId = transactionId;
         this.accountId = accountId;
         this.transactionType = transactionType;
-        this.amount = amount;
+        this.amount = toMoney(amount);
         this.transactionDate = transactionDate;
         this.description = description;
         this.recipientAccountId = recipientAccountId;
@@ -86,6 +103,20 @@ public class Transaction {
      */
     public static Transaction[] createTransferPair(int sourceAccountId, int destinationAccountId,
             BigDecimal amount, String description) {
+        return createTransferPair(sourceAccountId, destinationAccountId, toMoney(amount), description);
+    }
+
+    /**
+     * Create a matching pair of transactions for a transfer
+     *
+     * @param sourceAccountId Source account
+     * @param destinationAccountId Destination account
+     * @param amount Transfer amount
+     * @param description Transfer description
+     * @return Array of two transactions (outgoing and incoming)
+     */
+    public static Transaction[] createTransferPair(int sourceAccountId, int destinationAccountId,
+            Money amount, String description) {
         Transaction outgoing = new Transaction(sourceAccountId, "TRANSFER_OUT", amount,
                 "Transfer to account #" + destinationAccountId + ": " + description);
         outgoing.setRecipientAccountId(destinationAccountId);
@@ -97,6 +128,14 @@ public class Transaction {
         return new Transaction[]{outgoing, incoming};
     }
 
+    /**
+     * Convert a BigDecimal amount, rounding extra decimals the way the
+     * DECIMAL(15, 2) column does
+     */
+    private static Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount, RoundingMode.HALF_UP);
+    }
+
     // Getters and setters
     public long getTransactionId() {
         return transactionId;
@@ -123,10 +162,18 @@ public class Transaction {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return amount == null ? null : amount.toBigDecimal();
     }
 
     public void setAmount(BigDecimal amount) {
+        this.amount = toMoney(amount);
+    }
+
+    public Money getAmountMoney() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -0,0 +1,67 @@
+package com.banking.model;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows changed by a single deposit, withdrawal or transfer: the transactions
+ * that were recorded and the resulting balance of every account touched.
+ * Lets callers patch what they display without re-reading the database.
+ */
+public class TransactionResult {
+
+    private final List<Transaction> transactions;
+    private final Map<Integer, BigDecimal> newBalances;
+
+    /**
+     * Constructor
+     *
+     * @param transactions Recorded transactions, in creation order
+     * @param newBalances Account ID to balance after the operation
+     */
+    public TransactionResult(List<Transaction> transactions, Map<Integer, BigDecimal> newBalances) {
+        this.transactions = Collections.unmodifiableList(transactions);
+        this.newBalances = Collections.unmodifiableMap(new LinkedHashMap<>(newBalances));
+    }
+
+    /**
+     * Create a result for an operation on a single account
+     *
+     * @param transaction Recorded transaction
+     * @param newBalance Balance of the account after the operation
+     * @return TransactionResult
+     */
+    public static TransactionResult of(Transaction transaction, BigDecimal newBalance) {
+        return new TransactionResult(List.of(transaction),
+                Collections.singletonMap(transaction.getAccountId(), newBalance));
+    }
+
+    /**
+     * Get the first recorded transaction (the only one, or the outgoing leg of a transfer)
+     *
+     * @return Transaction
+     */
+    public Transaction getTransaction() {
+        return transactions.get(0);
+    }
+
+    // Getters
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public Map<Integer, BigDecimal> getNewBalances() {
+        return newBalances;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionResult{"
+                + "transactions=" + transactions
+                + ", newBalances=" + newBalances
+                + '}';
+    }
+}
@@ -0,0 +1,466 @@
+package com.banking.purge;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.util.DatabaseUtil;
+
+/**
+ * Background job that removes the rows of soft-deleted accounts and
+ * customers listed in purge_queue.
+ *
+ * Deleting an account only flips its status to DELETED and queues it, so
+ * the request returns at once however long its history is. The purger then
+ * deletes its transactions in small batches, each in a short transaction of
+ * its own with a pause in between, so it never holds locks or a pooled
+ * connection for long. Transfers from other accounts keep their own leg and
+ * only lose the reference to the deleted account. Each batch adds its row
+ * count to rows_purged in the same transaction, so progress is visible in
+ * the queue and a stopped purge resumes where it left off.
+ *
+ * Entries wait out a grace period first, which lets the ledger engine flush
+ * postings accepted before the delete. A customer is removed once all of its
+ * accounts are gone. Several processes may run the purger; each batch is
+ * idempotent.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.purge.Purger --once
+ */
+public class Purger {
+
+    /**
+     * System property that turns the shared purger off when false
+     */
+    public static final String ENABLED_PROPERTY = "finvault.purge.enabled";
+
+    /**
+     * System property for how often to look for queued deletes, in seconds
+     */
+    public static final String INTERVAL_PROPERTY = "finvault.purge.intervalSeconds";
+
+    /**
+     * System property for the number of rows removed per transaction
+     */
+    public static final String BATCH_SIZE_PROPERTY = "finvault.purge.batchSize";
+
+    /**
+     * System property for the pause between batches, in milliseconds
+     */
+    public static final String PAUSE_PROPERTY = "finvault.purge.pauseMillis";
+
+    /**
+     * System property for how long a delete waits in the queue before it is
+     * purged, in seconds
+     */
+    public static final String GRACE_PROPERTY = "finvault.purge.graceSeconds";
+
+    // Accounts sort before customers; a customer waits until its accounts are gone
+    private static final String NEXT_SQL =
+            "SELECT q.purge_id, q.entity_type, q.entity_id FROM purge_queue q " +
+            "WHERE q.finished_at IS NULL AND q.requested_at <= LOCALTIMESTAMP - ? * INTERVAL '1 second' " +
+            "AND NOT (q.entity_type = 'CUSTOMER' AND EXISTS " +
+            "(SELECT 1 FROM accounts a WHERE a.customer_id = q.entity_id)) " +
+            "ORDER BY q.entity_type, q.purge_id LIMIT 1";
+    private static final String START_SQL =
+            "UPDATE purge_queue SET started_at = COALESCE(started_at, LOCALTIMESTAMP) WHERE purge_id = ?";
+    private static final String PROGRESS_SQL =
+            "UPDATE purge_queue SET rows_purged = rows_purged + ? WHERE purge_id = ?";
+    private static final String FINISH_SQL =
+            "UPDATE purge_queue SET finished_at = LOCALTIMESTAMP WHERE purge_id = ?";
+
+    // Row-value IN keeps each batch on the partition key, so it prunes
+    private static final String DELETE_TRANSACTIONS_SQL =
+            "DELETE FROM transactions WHERE (transaction_id, transaction_date) IN " +
+            "(SELECT transaction_id, transaction_date FROM transactions WHERE account_id = ? LIMIT ?)";
+    private static final String DETACH_TRANSFERS_SQL =
+            "UPDATE transactions SET recipient_account_id = NULL WHERE (transaction_id, transaction_date) IN " +
+            "(SELECT transaction_id, transaction_date FROM transactions WHERE recipient_account_id = ? LIMIT ?)";
+    private static final String DELETE_ARCHIVED_SQL =
+            "DELETE FROM transactions_archive WHERE transaction_id IN " +
+            "(SELECT transaction_id FROM transactions_archive WHERE account_id = ? LIMIT ?)";
+    private static final String DELETE_STATEMENT_BALANCES_SQL =
+            "DELETE FROM statement_balances WHERE account_id = ?";
+    // The carry-forward row goes with the account through ON DELETE CASCADE
+    private static final String DELETE_ACCOUNT_SQL =
+            "DELETE FROM accounts WHERE account_id = ? AND status = 'DELETED'";
+    private static final String DELETE_CUSTOMER_SQL =
+            "DELETE FROM customers WHERE customer_id = ? AND status = 'DELETED'";
+
+    private static Purger shared;
+
+    private final DatabaseConfig dbConfig;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final long graceSeconds;
+    private final MethodMetrics batchMetrics = MetricsRegistry.getInstance().method("Purge.batch");
+    private volatile ScheduledExecutorService poller;
+    private volatile boolean stopping;
+
+    /**
+     * Constructor
+     *
+     * @param dbConfig Database configuration
+     * @param batchSize Rows removed per transaction
+     * @param pauseMillis Pause between batches
+     * @param graceSeconds Time a delete waits in the queue
+     */
+    public Purger(DatabaseConfig dbConfig, int batchSize, long pauseMillis, long graceSeconds) {
+        if (batchSize <= 0 || pauseMillis < 0 || graceSeconds < 0) {
+            throw new IllegalArgumentException("Batch size must be positive, pause and grace not negative");
+        }
+        this.dbConfig = dbConfig;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.graceSeconds = graceSeconds;
+    }
+
+    /**
+     * Get the purger shared by the application, starting it in the
+     * background on first use
+     *
+     * @return Shared purger, or null if the finvault.purge.enabled system
+     * property is false
+     */
+    public static synchronized Purger shared() {
+        if (shared == null && !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY))) {
+            shared = new Purger(DatabaseConfig.getInstance(), Integer.getInteger(BATCH_SIZE_PROPERTY, 500),
+                    Long.getLong(PAUSE_PROPERTY, 100), Long.getLong(GRACE_PROPERTY, 60));
+            shared.startPolling(Long.getLong(INTERVAL_PROPERTY, 30));
+        }
+        return shared;
+    }
+
+    /**
+     * Get the shared purger if it has been started
+     *
+     * @return Shared purger, or null
+     */
+    public static synchronized Purger sharedIfStarted() {
+        return shared;
+    }
+
+    /**
+     * Purge queued deletes in the background
+     *
+     * @param intervalSeconds Time between looks at the queue once it is empty
+     */
+    public synchronized void startPolling(long intervalSeconds) {
+        if (poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the polling thread. A batch in progress is finished, the rest of
+     * the entry is left for the next run.
+     */
+    public void shutdown() {
+        stopping = true;
+        ScheduledExecutorService current = poller;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Purge every queued delete that is past its grace period
+     *
+     * @return Number of accounts and customers removed
+     * @throws Exception if a database operation fails; finished batches are kept
+     */
+    public int runOnce() throws Exception {
+        int purged = 0;
+        long[] entry;
+        while (!stopping && (entry = next()) != null) {
+            long purgeId = entry[0];
+            int entityId = (int) entry[2];
+            long start = System.nanoTime();
+            long rows;
+            if (entry[1] == 0) {
+                rows = purgeAccount(purgeId, entityId);
+            } else {
+                rows = finish(purgeId, entityId, DELETE_CUSTOMER_SQL);
+            }
+            if (rows < 0) {
+                break;
+            }
+            purged++;
+            System.out.printf("Purged %s #%d: %d rows in %.1f s%n", entry[1] == 0 ? "account" : "customer",
+                    entityId, rows, (System.nanoTime() - start) / 1e9);
+        }
+        return purged;
+    }
+
+    /**
+     * Remove an account's transactions, detach the transfers pointing at it,
+     * then delete the account
+     *
+     * @return Rows removed or detached, -1 if stopped before the end
+     */
+    private long purgeAccount(long purgeId, int accountId) throws Exception {
+        update(START_SQL, purgeId);
+        long rows = 0;
+        for (String sql : new String[]{DELETE_TRANSACTIONS_SQL, DETACH_TRANSFERS_SQL, DELETE_ARCHIVED_SQL}) {
+            int count;
+            do {
+                if (stopping) {
+                    return -1;
+                }
+                count = batch(purgeId, sql, accountId);
+                rows += count;
+                if (count == batchSize) {
+                    pause();
+                }
+            } while (count == batchSize);
+        }
+        rows += finish(purgeId, accountId, DELETE_STATEMENT_BALANCES_SQL, DELETE_ACCOUNT_SQL);
+        return rows;
+    }
+
+    /**
+     * Run one batch and record its row count in the queue, in one transaction
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private int batch(long purgeId, String sql, int accountId) throws Exception {
+        long start = System.nanoTime();
+        int count = 0;
+        boolean failed = true;
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, accountId);
+            pstmt.setInt(2, batchSize);
+            count = pstmt.executeUpdate();
+            pstmt.close();
+
+            pstmt = conn.prepareStatement(PROGRESS_SQL);
+            pstmt.setLong(1, count);
+            pstmt.setLong(2, purgeId);
+            pstmt.executeUpdate();
+
+            conn.commit();
+            failed = false;
+            return count;
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (Exception rollbackEx) {
+                    System.err.println("Error during transaction rollback");
+                }
+            }
+            throw e;
+        } finally {
+            batchMetrics.record(System.nanoTime() - start, 0, count, failed);
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (Exception e) {
+                    System.err.println("Error resetting auto-commit");
+                }
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Delete what is left of an entry and mark it finished, in one
+     * transaction
+     *
+     * @param statements Deletes taking the entity ID, in order
+     * @return Rows deleted
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private int finish(long purgeId, int entityId, String... statements) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            conn.setAutoCommit(false);
+
+            int count = 0;
+            for (String sql : statements) {
+                pstmt = conn.prepareStatement(sql);
+                pstmt.setInt(1, entityId);
+                count += pstmt.executeUpdate();
+                pstmt.close();
+            }
+
+            pstmt = conn.prepareStatement(FINISH_SQL);
+            pstmt.setLong(1, purgeId);
+            pstmt.executeUpdate();
+
+            conn.commit();
+            return count;
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (Exception rollbackEx) {
+                    System.err.println("Error during transaction rollback");
+                }
+            }
+            throw e;
+        } finally {
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (Exception e) {
+                    System.err.println("Error resetting auto-commit");
+                }
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Get the next entry to purge
+     *
+     * @return purge_id, 0 for an account or 1 for a customer, and the entity
+     * ID; null if nothing is due
+     */
+    private long[] next() throws Exception {
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement pstmt = conn.prepareStatement(NEXT_SQL)) {
+                pstmt.setLong(1, graceSeconds);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    return new long[]{rs.getLong(1), "ACCOUNT".equals(rs.getString(2)) ? 0 : 1, rs.getInt(3)};
+                }
+            }
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    private void update(String sql, long purgeId) throws Exception {
+        Connection conn = null;
+        try {
+            conn = dbConfig.getConnection();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setLong(1, purgeId);
+                pstmt.executeUpdate();
+            }
+        } finally {
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    private void pause() {
+        if (pauseMillis > 0) {
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                stopping = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void poll() {
+        try {
+            runOnce();
+        } catch (Exception e) {
+            System.err.println("Error purging deleted accounts: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Purge the queue once and exit
+     *
+     * @param args --once, --batch-size N, --pause-millis N, --grace-seconds N
+     */
+    public static void main(String[] args) {
+        int batchSize = Integer.getInteger(BATCH_SIZE_PROPERTY, 500);
+        long pauseMillis = Long.getLong(PAUSE_PROPERTY, 100);
+        long graceSeconds = Long.getLong(GRACE_PROPERTY, 60);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--once":
+                        break;
+                    case "--batch-size":
+                        batchSize = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--pause-millis":
+                        pauseMillis = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--grace-seconds":
+                        graceSeconds = Long.parseLong(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: Purger [--once] [--batch-size N] [--pause-millis N] [--grace-seconds N]");
+            System.exit(2);
+        }
+
+        if (!DatabaseUtil.initializeDatabase()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        int status = 1;
+        try {
+            Purger purger = new Purger(dbConfig, batchSize, pauseMillis, graceSeconds);
+            int purged = purger.runOnce();
+            System.out.printf("Purged %d deleted accounts and customers%n", purged);
+            status = 0;
+        } catch (Exception e) {
+            System.err.println("Purge failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (MetricsRegistry.isEnabled()) {
+                MetricsRegistry.getInstance().shutdown();
+            }
+            dbConfig.shutdown();
+        }
+        System.exit(status);
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
@@ -0,0 +1,381 @@
+package com.banking.reconciliation;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.model.Money;
+import com.banking.util.DatabaseUtil;
+
+/**
+ * Batch job that checks every account's stored balance against the sum of
+ * its transactions: deposits and incoming transfers minus withdrawals and
+ * outgoing transfers.
+ *
+ * Accounts are checked in ranges of consecutive IDs, each with a single
+ * GROUP BY aggregate joined to the accounts and the carry-forward of their
+ * archived transactions, on parallel connections. One statement sees one
+ * snapshot, so balances and transactions of a range are always compared as
+ * of the same moment. Accounts that do not add up are
+ * written to reconciliation_report under the run's row in
+ * reconciliation_runs.
+ *
+ * A sampled run checks a random fraction of the ranges, for a quick check
+ * during business hours; a full run checks them all.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.reconciliation.ReconciliationJob --sample 0.05
+ */
+public class ReconciliationJob {
+
+    private static final int DEFAULT_BLOCK_SIZE = 10_000;
+    private static final int MAX_REPORTED = 10;
+
+    private static final String ACCOUNT_RANGE_SQL = "SELECT MIN(account_id), MAX(account_id) FROM accounts";
+    private static final String RECONCILE_SQL =
+            "SELECT a.account_id, fv_balance(a), COALESCE(cf.balance, 0) + COALESCE(t.ledger_balance, 0), " +
+            "COALESCE(cf.transaction_count, 0) + COALESCE(t.transaction_count, 0) " +
+            "FROM accounts a LEFT JOIN account_carry_forward cf ON cf.account_id = a.account_id LEFT JOIN (" +
+            "SELECT account_id, SUM(CASE transaction_type " +
+            "WHEN 'DEPOSIT' THEN amount WHEN 'TRANSFER_IN' THEN amount " +
+            "WHEN 'WITHDRAWAL' THEN -amount WHEN 'TRANSFER_OUT' THEN -amount END) AS ledger_balance, " +
+            "COUNT(*) AS transaction_count " +
+            "FROM transactions WHERE account_id BETWEEN ? AND ? GROUP BY account_id) t " +
+            "ON t.account_id = a.account_id " +
+            // Deleted accounts lose their rows to the purger one batch at a time
+            "WHERE a.account_id BETWEEN ? AND ? AND a.status <> 'DELETED'";
+    private static final String CREATE_RUN_SQL =
+            "INSERT INTO reconciliation_runs (sample_fraction) VALUES (?) RETURNING run_id";
+    private static final String FINISH_RUN_SQL =
+            "UPDATE reconciliation_runs SET finished_at = CURRENT_TIMESTAMP, accounts_checked = ?, " +
+            "discrepancies = ? WHERE run_id = ?";
+    private static final String REPORT_SQL =
+            "INSERT INTO reconciliation_report (run_id, account_id, stored_balance, ledger_balance, difference, " +
+            "transaction_count) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final int blockSize;
+    private final int threads;
+    private final double sampleFraction;
+    private final long seed;
+    private final DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+    private final MethodMetrics blockMetrics = MetricsRegistry.getInstance().method("Reconciliation.block");
+
+    private final LongAdder accountsChecked = new LongAdder();
+    private final LongAdder discrepancies = new LongAdder();
+    private final LongAdder absoluteDifferenceCents = new LongAdder();
+    private final List<String> examples = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param blockSize Account IDs per aggregate query
+     * @param threads Ranges checked at once, each on its own connection
+     * @param sampleFraction Fraction of ranges to check, 1 for a full run
+     * @param seed Seed that picks the sampled ranges
+     */
+    public ReconciliationJob(int blockSize, int threads, double sampleFraction, long seed) {
+        if (blockSize <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Block size and threads must be positive");
+        }
+        if (sampleFraction <= 0 || sampleFraction > 1) {
+            throw new IllegalArgumentException("Sample fraction must be above 0 and at most 1");
+        }
+        this.blockSize = blockSize;
+        this.threads = threads;
+        this.sampleFraction = sampleFraction;
+        this.seed = seed;
+    }
+
+    /**
+     * Reconcile the accounts and record the discrepancies
+     *
+     * @return Number of accounts whose balance does not match their transactions
+     * @throws Exception if a query or the report write fails
+     */
+    public long run() throws Exception {
+        long start = System.nanoTime();
+        long runId = createRun();
+
+        List<int[]> blocks = new ArrayList<>();
+        int[] range = accountRange();
+        if (range != null) {
+            Random random = new Random(seed);
+            for (long first = range[0]; first <= range[1]; first += blockSize) {
+                if (sampleFraction >= 1 || random.nextDouble() < sampleFraction) {
+                    blocks.add(new int[] {(int) first, (int) Math.min(first + blockSize - 1, range[1])});
+                }
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "reconciliation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int[] block : blocks) {
+                Callable<Void> task = () -> {
+                    reconcileBlock(runId, block[0], block[1]);
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            try {
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                for (Future<Void> future : futures) {
+                    future.cancel(true);
+                }
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        finishRun(runId);
+        printReport(runId, blocks.size(), System.nanoTime() - start);
+        return discrepancies.sum();
+    }
+
+    /**
+     * Compare one range of accounts and report the ones that do not add up
+     *
+     * @param runId Run ID
+     * @param firstAccountId First account ID (inclusive)
+     * @param lastAccountId Last account ID (inclusive)
+     * @throws Exception if the query or the report write fails
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private void reconcileBlock(long runId, int firstAccountId, int lastAccountId) throws Exception {
+        long start = System.nanoTime();
+        int checked = 0;
+        boolean failed = true;
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        PreparedStatement report = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(RECONCILE_SQL);
+            pstmt.setInt(1, firstAccountId);
+            pstmt.setInt(2, lastAccountId);
+            pstmt.setInt(3, firstAccountId);
+            pstmt.setInt(4, lastAccountId);
+            rs = pstmt.executeQuery();
+
+            int mismatched = 0;
+            while (rs.next()) {
+                checked++;
+                long stored = Money.parse(rs.getString(2)).getMinorUnits();
+                long ledger = Money.parse(rs.getString(3)).getMinorUnits();
+                if (stored == ledger) {
+                    continue;
+                }
+                if (report == null) {
+                    report = conn.prepareStatement(REPORT_SQL);
+                }
+                int accountId = rs.getInt(1);
+                long difference = stored - ledger;
+                report.setLong(1, runId);
+                report.setInt(2, accountId);
+                report.setBigDecimal(3, Money.ofMinor(stored).toBigDecimal());
+                report.setBigDecimal(4, Money.ofMinor(ledger).toBigDecimal());
+                report.setBigDecimal(5, Money.ofMinor(difference).toBigDecimal());
+                report.setLong(6, rs.getLong(4));
+                report.addBatch();
+                mismatched++;
+                absoluteDifferenceCents.add(Math.abs(difference));
+                synchronized (examples) {
+                    if (examples.size() < MAX_REPORTED) {
+                        examples.add(String.format("  #%d stored %s, transactions add up to %s (difference %s)",
+                                accountId, Money.ofMinor(stored), Money.ofMinor(ledger), Money.ofMinor(difference)));
+                    }
+                }
+            }
+            if (report != null) {
+                report.executeBatch();
+            }
+
+            accountsChecked.add(checked);
+            discrepancies.add(mismatched);
+            failed = false;
+        } finally {
+            blockMetrics.record(System.nanoTime() - start, 0, checked, failed);
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (report != null) try {
+                report.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    private long createRun() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(CREATE_RUN_SQL);
+            pstmt.setBigDecimal(1, BigDecimal.valueOf(sampleFraction));
+            rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                throw new Exception("Failed to create reconciliation run - no ID returned");
+            }
+            return rs.getLong(1);
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) dbConfig.closeConnection(conn);
+        }
+    }
+
+    private void finishRun(long runId) throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(FINISH_RUN_SQL);
+            pstmt.setLong(1, accountsChecked.sum());
+            pstmt.setLong(2, discrepancies.sum());
+            pstmt.setLong(3, runId);
+            pstmt.executeUpdate();
+        } finally {
+            if (pstmt != null) pstmt.close();
+            if (conn != null) dbConfig.closeConnection(conn);
+        }
+    }
+
+    private int[] accountRange() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(ACCOUNT_RANGE_SQL);
+            rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            int min = rs.getInt(1);
+            return rs.wasNull() ? null : new int[] {min, rs.getInt(2)};
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) dbConfig.closeConnection(conn);
+        }
+    }
+
+    private void printReport(long runId, int blockCount, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Reconciliation run #%d: %s, %d ranges of %d account IDs, %d threads%n", runId,
+                sampleFraction >= 1 ? "full" : String.format("%.1f%% sample", sampleFraction * 100),
+                blockCount, blockSize, threads);
+        System.out.printf("Checked %d accounts in %.1f s: %.1f accounts/s%n", accountsChecked.sum(), seconds,
+                accountsChecked.sum() / seconds);
+        if (discrepancies.sum() == 0) {
+            System.out.println("All balances match their transactions");
+            return;
+        }
+        System.out.printf("Discrepancies: %d accounts, %s in total (see reconciliation_report, run_id %d)%n",
+                discrepancies.sum(), Money.ofMinor(absoluteDifferenceCents.sum()), runId);
+        for (String example : examples) {
+            System.out.println(example);
+        }
+    }
+
+    /**
+     * Run a reconciliation
+     *
+     * @param args --sample FRACTION (default 1, a full run), --seed, --block-size, --threads
+     */
+    public static void main(String[] args) {
+        double sample = 1.0;
+        long seed = System.currentTimeMillis();
+        int blockSize = DEFAULT_BLOCK_SIZE;
+        Integer threads = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                String value = args[++i];
+                switch (name) {
+                    case "--sample":
+                        sample = Double.parseDouble(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--block-size":
+                        blockSize = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + name);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: ReconciliationJob [--sample FRACTION] [--seed N] [--block-size N] [--threads N]");
+            System.exit(2);
+        }
+        if (threads == null) {
+            // Sampled runs happen during the day, leave the pool to the tellers
+            threads = sample < 1 ? 2 : Integer.getInteger(DatabaseConfig.POOL_SIZE_PROPERTY,
+                    Runtime.getRuntime().availableProcessors());
+        }
+
+        if (!DatabaseUtil.initializeDatabase()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        int status = 1;
+        try {
+            long found = new ReconciliationJob(blockSize, threads, sample, seed).run();
+            status = found == 0 ? 0 : 3;
+        } catch (Exception e) {
+            System.err.println("Reconciliation failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (MetricsRegistry.isEnabled()) {
+                MetricsRegistry.getInstance().shutdown();
+            }
+            DatabaseConfig.getInstance().shutdown();
+        }
+        System.exit(status);
+    }
+}
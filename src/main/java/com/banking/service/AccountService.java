@@ -4,9 +4,14 @@ import com.banking.dao.AccountDAO;
 import com.banking.dao.AccountDAOImpl;
 import com.banking.dao.CustomerDAO;
 import com.banking.dao.CustomerDAOImpl;
+import com.banking.dao.PageRequest;
+import com.banking.jfr.InterestBatchEvent;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.DaoMetrics;
 import com.banking.model.Account;
 import com.banking.model.CurrentAccount;
 import com.banking.model.Customer;
+import com.banking.model.Money;
 import com.banking.model.SavingsAccount;
 
 import java.math.BigDecimal;
@@ -17,15 +22,24 @@ import java.util.List;
  */
 public class AccountService {
 
+    // Savings accounts read and credited per interest batch
+    private static final int INTEREST_BATCH_SIZE = 500;
+    private static final String INTEREST_DESCRIPTION = "Interest credit";
+
+    // More stripes spread credits further but make every balance read sum them
+    private static final int MAX_BALANCE_STRIPES = 64;
+
     private final AccountDAO accountDAO;
     private final CustomerDAO customerDAO;
+    private final TransactionService transactionService;
 
     /**
      * Default constructor
      */
     public AccountService() {
-        this.accountDAO = new AccountDAOImpl();
-        this.customerDAO = new CustomerDAOImpl();
+        this.accountDAO = DaoMetrics.instrument(AccountDAO.class, new AccountDAOImpl());
+        this.customerDAO = DaoMetrics.instrument(CustomerDAO.class, new CustomerDAOImpl());
+        this.transactionService = new TransactionService();
     }
 
     /**
@@ -140,7 +154,27 @@ public class AccountService {
             throw new IllegalArgumentException("Account not found: " + accountId);
         }
 
-        return accountDAO.updateAccountStatus(accountId, newStatus);
+        boolean updated = accountDAO.updateAccountStatus(accountId, newStatus);
+        refreshLedger(accountId);
+        return updated;
+    }
+
+    /**
+     * Turn balance striping on or off for an account that receives many
+     * concurrent credits, such as a merchant settlement or payroll account
+     *
+     * @param accountId Account ID
+     * @param stripes Number of sub-balance rows, 0 to turn striping off
+     * @throws Exception if operation fails
+     */
+    public void setBalanceStripes(int accountId, int stripes) throws Exception {
+        if (stripes < 0 || stripes > MAX_BALANCE_STRIPES) {
+            throw new IllegalArgumentException("Stripe count must be between 0 and " + MAX_BALANCE_STRIPES);
+        }
+        if (accountDAO.getAccountById(accountId) == null) {
+            throw new IllegalArgumentException("Account not found: " + accountId);
+        }
+        accountDAO.setBalanceStripes(accountId, stripes);
     }
 
     /**
@@ -156,51 +190,162 @@ public class AccountService {
             throw new IllegalArgumentException("Account not found: " + accountId);
         }
 
-        // Check if account has zero balance
-        if (account.getBalance().compareTo(BigDecimal.ZERO) != 0) {
+        // Check if account has zero balance, the ledger engine holds the latest one
+        LedgerEngine engine = LedgerEngine.current();
+        BigDecimal engineBalance = engine != null ? engine.getBalance(accountId) : null;
+        if (engineBalance != null) {
+            account.setBalance(engineBalance);
+        }
+        if (!account.getBalanceMoney().isZero()) {
             throw new IllegalStateException("Account must have zero balance before closing");
         }
 
-        return accountDAO.updateAccountStatus(accountId, "CLOSED");
+        boolean closed = accountDAO.updateAccountStatus(accountId, "CLOSED");
+        refreshLedger(accountId);
+        return closed;
     }
 
     /**
-     * Delete an account
+     * Delete an account. It disappears at once, its transactions are
+     * removed later by the purger.
      *
      * @param accountId Account ID
      * @return true if deleted successfully, false otherwise
      * @throws Exception if operation fails
      */
     public boolean deleteAccount(int accountId) throws Exception {
-        return accountDAO.deleteAccount(accountId);
+        boolean deleted = accountDAO.deleteAccount(accountId);
+        refreshLedger(accountId);
+        return deleted;
     }
 
     /**
-     * Apply interest to all savings accounts
+     * Apply interest to all savings accounts. Accounts are read in batches in
+     * ID order, each batch continuing after the last account of the previous
+     * one, so memory stays flat however many accounts there are.
      *
      * @return Number of accounts updated
      * @throws Exception if operation fails
      */
     public int applyInterestToSavingsAccounts() throws Exception {
-        List<Account> savingsAccounts = accountDAO.getAccountsByCustomerIdAndType(0, "SAVINGS");
+        PageRequest request = new PageRequest("SAVINGS", null, "id", true);
         int updatedCount = 0;
+        int batch = 0;
+        Account after = null;
 
-        for (Account account : savingsAccounts) {
-            if (account instanceof SavingsAccount && "ACTIVE".equals(account.getStatus())) {
-                SavingsAccount savingsAccount = (SavingsAccount) account;
-                BigDecimal interest = savingsAccount.calculateInterest();
-                BigDecimal newBalance = savingsAccount.getBalance().add(interest);
+        while (true) {
+            InterestBatchEvent event = new InterestBatchEvent();
+            event.begin();
+            List<Account> savingsAccounts = accountDAO.getAccountsPage(request, after, INTEREST_BATCH_SIZE);
+            if (savingsAccounts.isEmpty()) {
+                break;
+            }
 
-                accountDAO.updateBalance(savingsAccount.getAccountId(), newBalance);
-                updatedCount++;
+            int credited = 0;
+            for (Account account : savingsAccounts) {
+                if (account instanceof SavingsAccount && "ACTIVE".equals(account.getStatus())) {
+                    applyInterest((SavingsAccount) account);
+                    credited++;
+                }
+            }
+            updatedCount += credited;
+
+            after = savingsAccounts.get(savingsAccounts.size() - 1);
+            event.complete(batch++, savingsAccounts.get(0).getAccountId(), after.getAccountId(),
+                    savingsAccounts.size(), credited);
+            if (savingsAccounts.size() < INTEREST_BATCH_SIZE) {
+                break;
             }
         }
 
         return updatedCount;
     }
 
+    /**
+     * Credit one savings account with its interest
+     *
+     * @param savingsAccount Active savings account
+     * @throws Exception if operation fails
+     */
+    private void applyInterest(SavingsAccount savingsAccount) throws Exception {
+        LedgerEngine engine = LedgerEngine.current();
+        if (engine != null) {
+            // The engine owns balances while it runs
+            BigDecimal engineBalance = engine.getBalance(savingsAccount.getAccountId());
+            if (engineBalance != null) {
+                savingsAccount.setBalance(engineBalance);
+            }
+        }
+
+        Money interest = savingsAccount.calculateInterestMoney();
+        if (interest.isPositive()) {
+            // Posted as a deposit so the account's transactions keep adding up to its balance
+            transactionService.performDeposit(savingsAccount.getAccountId(), interest.toBigDecimal(),
+                    INTEREST_DESCRIPTION);
+        }
+    }
+
+    /**
+     * Let a running ledger engine pick up a status change
+     *
+     * @param accountId Account ID
+     */
+    private void refreshLedger(int accountId) {
+        LedgerEngine engine = LedgerEngine.current();
+        if (engine != null) {
+            engine.refreshAccount(accountId);
+        }
+    }
+
     public void updateBalance(int accountId, BigDecimal newBalance) {
         // TODO Auto-generated method stub
         throw new UnsupportedOperationException("Unimplemented method 'updateBalance'");
     }
+
+    /**
+     * Count accounts matching a page request
+     *
+     * @param request Filter and search options
+     * @return Number of matching accounts
+     * @throws Exception if operation fails
+     */
+    public int countAccounts(PageRequest request) throws Exception {
+        return accountDAO.countAccounts(request);
+    }
+
+    /**
+     * Sum the balances of accounts matching a page request
+     *
+     * @param request Filter and search options
+     * @return Total balance
+     * @throws Exception if operation fails
+     */
+    public BigDecimal getTotalBalance(PageRequest request) throws Exception {
+        return accountDAO.getTotalBalance(request);
+    }
+
+    /**
+     * Get one page of accounts using keyset pagination
+     *
+     * @param request Filter, search and sort options
+     * @param after Last account of the previous page, or null for the first page
+     * @param limit Maximum number of accounts to return
+     * @return List of accounts
+     * @throws Exception if operation fails
+     */
+    public List<Account> getAccountsPage(PageRequest request, Account after, int limit) throws Exception {
+        return accountDAO.getAccountsPage(request, after, limit);
+    }
+
+    /**
+     * Get the account at a position in the sorted result
+     *
+     * @param request Filter, search and sort options
+     * @param offset Zero-based position
+     * @return Account at the offset, or null if out of range
+     * @throws Exception if operation fails
+     */
+    public Account getAccountAtOffset(PageRequest request, int offset) throws Exception {
+        return accountDAO.getAccountAtOffset(request, offset);
+    }
 }
@@ -1,9 +1,17 @@
 package com.banking.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.banking.dao.AccountDAO;
+import com.banking.dao.AccountDAOImpl;
 import com.banking.dao.CustomerDAO;
 import com.banking.dao.CustomerDAOImpl;
+import com.banking.dao.PageRequest;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.DaoMetrics;
+import com.banking.model.Account;
 import com.banking.model.Customer;
 
 /**
@@ -12,12 +20,14 @@ import com.banking.model.Customer;
 public class CustomerService {
 
     private final CustomerDAO customerDAO;
+    private final AccountDAO accountDAO;
 
     /**
      * Default constructor
      */
     public CustomerService() {
-        this.customerDAO = new CustomerDAOImpl();
+        this.customerDAO = DaoMetrics.instrument(CustomerDAO.class, new CustomerDAOImpl());
+        this.accountDAO = DaoMetrics.instrument(AccountDAO.class, new AccountDAOImpl());
     }
 
     /**
@@ -135,14 +145,24 @@ public class CustomerService {
     }
 
     /**
-     * Delete a customer and all associated accounts
+     * Delete a customer and all associated accounts. They disappear at once,
+     * their rows are removed later by the purger.
      *
      * @param customerId Customer ID
      * @return true if deleted successfully, false otherwise
      * @throws Exception if operation fails
      */
     public boolean deleteCustomer(int customerId) throws Exception {
-        return customerDAO.deleteCustomer(customerId);
+        // Read before the delete hides them
+        List<Account> accounts = accountDAO.getAccountsByCustomerId(customerId);
+        boolean deleted = customerDAO.deleteCustomer(customerId);
+        LedgerEngine engine = LedgerEngine.current();
+        if (deleted && engine != null) {
+            for (Account account : accounts) {
+                engine.refreshAccount(account.getAccountId());
+            }
+        }
+        return deleted;
     }
 
     /**
@@ -155,4 +175,51 @@ public class CustomerService {
         return customerDAO.getAllCustomers();
 
     }
+
+    /**
+     * Get several customers in one query
+     *
+     * @param customerIds Customer IDs
+     * @return Map from customer ID to customer, missing IDs are absent
+     * @throws Exception if operation fails
+     */
+    public Map<Integer, Customer> getCustomersByIds(Collection<Integer> customerIds) throws Exception {
+        return customerDAO.getCustomersByIds(customerIds);
+    }
+
+    /**
+     * Count customers matching a page request
+     *
+     * @param request Filter and search options
+     * @return Number of matching customers
+     * @throws Exception if operation fails
+     */
+    public int countCustomers(PageRequest request) throws Exception {
+        return customerDAO.countCustomers(request);
+    }
+
+    /**
+     * Get one page of customers using keyset pagination
+     *
+     * @param request Filter, search and sort options
+     * @param after Last customer of the previous page, or null for the first page
+     * @param limit Maximum number of customers to return
+     * @return List of customers
+     * @throws Exception if operation fails
+     */
+    public List<Customer> getCustomersPage(PageRequest request, Customer after, int limit) throws Exception {
+        return customerDAO.getCustomersPage(request, after, limit);
+    }
+
+    /**
+     * Get the customer at a position in the sorted result
+     *
+     * @param request Filter, search and sort options
+     * @param offset Zero-based position
+     * @return Customer at the offset, or null if out of range
+     * @throws Exception if operation fails
+     */
+    public Customer getCustomerAtOffset(PageRequest request, int offset) throws Exception {
+        return customerDAO.getCustomerAtOffset(request, offset);
+    }
 }
@@ -0,0 +1,130 @@
+package com.banking.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.banking.analytics.ColumnarTransactionStore;
+import com.banking.dao.AccountDAO;
+import com.banking.dao.AccountDAOImpl;
+import com.banking.dao.CustomerDAO;
+import com.banking.dao.CustomerDAOImpl;
+import com.banking.dao.DashboardDAO;
+import com.banking.dao.DashboardDAOImpl;
+import com.banking.dao.TransactionDAO;
+import com.banking.dao.TransactionDAOImpl;
+import com.banking.metrics.DaoMetrics;
+import com.banking.model.Account;
+import com.banking.model.Customer;
+import com.banking.model.HighWaterMark;
+import com.banking.model.Transaction;
+
+/**
+ * Service class for the dashboard: a cheap high-water mark check plus
+ * queries for the rows written since the last mark
+ */
+public class DashboardService {
+
+    private final DashboardDAO dashboardDAO;
+    private final CustomerDAO customerDAO;
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+
+    /**
+     * Default constructor
+     */
+    public DashboardService() {
+        this.dashboardDAO = DaoMetrics.instrument(DashboardDAO.class, new DashboardDAOImpl());
+        this.customerDAO = DaoMetrics.instrument(CustomerDAO.class, new CustomerDAOImpl());
+        this.accountDAO = DaoMetrics.instrument(AccountDAO.class, new AccountDAOImpl());
+        this.transactionDAO = DaoMetrics.instrument(TransactionDAO.class, new TransactionDAOImpl());
+    }
+
+    /**
+     * Get the highest customer, account and transaction IDs
+     *
+     * @return Current high-water mark
+     * @throws Exception if operation fails
+     */
+    public HighWaterMark getHighWaterMark() throws Exception {
+        return dashboardDAO.getHighWaterMark();
+    }
+
+    /**
+     * Get customers registered after a given ID
+     *
+     * @param customerId Highest customer ID already seen
+     * @return New customers in ID order
+     * @throws Exception if operation fails
+     */
+    public List<Customer> getCustomersAfterId(int customerId) throws Exception {
+        return customerDAO.getCustomersAfterId(customerId);
+    }
+
+    /**
+     * Get accounts opened after a given ID
+     *
+     * @param accountId Highest account ID already seen
+     * @return New accounts in ID order
+     * @throws Exception if operation fails
+     */
+    public List<Account> getAccountsAfterId(int accountId) throws Exception {
+        return accountDAO.getAccountsAfterId(accountId);
+    }
+
+    /**
+     * Re-read the current state of several accounts
+     *
+     * @param accountIds Account identifiers
+     * @return Map of account ID to account, deleted accounts are omitted
+     * @throws Exception if operation fails
+     */
+    public Map<Integer, Account> getAccountsByIds(Collection<Integer> accountIds) throws Exception {
+        return accountDAO.getAccountsByIds(accountIds);
+    }
+
+    /**
+     * Get transactions recorded after a given ID
+     *
+     * @param transactionId Highest transaction ID already seen
+     * @return New transactions in ID order
+     * @throws Exception if operation fails
+     */
+    public List<Transaction> getTransactionsAfterId(long transactionId) throws Exception {
+        return transactionDAO.getTransactionsAfterId(transactionId);
+    }
+
+    /**
+     * Get the most recent transactions across all accounts
+     *
+     * @param limit Maximum number of transactions
+     * @return Transactions, newest first
+     * @throws Exception if operation fails
+     */
+    public List<Transaction> getRecentTransactions(int limit) throws Exception {
+        return transactionDAO.getRecentTransactions(limit);
+    }
+
+    /**
+     * Count transactions by type since a point in time
+     *
+     * @param since Start of the period
+     * @param maxTransactionId Ignore transactions with a greater ID
+     * @return Map of transaction type to count
+     * @throws Exception if operation fails
+     */
+    public Map<String, Integer> getTransactionCountsByTypeSince(LocalDateTime since, long maxTransactionId) throws Exception {
+        // Answer from the columnar store only when it has been reconciled up to the mark;
+        // IDs commit out of order, so rows below its last loaded ID can still be missing
+        ColumnarTransactionStore store = ColumnarTransactionStore.sharedIfStarted();
+        if (store != null && store.isLoaded() && store.getReconciledTransactionId() >= maxTransactionId) {
+            Map<String, Integer> counts = new HashMap<>();
+            store.query().since(since).upToTransactionId(maxTransactionId).groupByType()
+                    .forEach((type, totals) -> counts.put(type, (int) totals.getCount()));
+            return counts;
+        }
+        return transactionDAO.getTransactionCountsByTypeSince(since, maxTransactionId);
+    }
+}
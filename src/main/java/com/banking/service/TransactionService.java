@@ -1,15 +1,25 @@
 package com.banking.service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import com.banking.dao.AccountDAO;
 import com.banking.dao.AccountDAOImpl;
+import com.banking.dao.GroupCommitExecutor;
+import com.banking.dao.GroupCommitTransactionDAO;
+import com.banking.dao.PageRequest;
 import com.banking.dao.TransactionDAO;
 import com.banking.dao.TransactionDAOImpl;
+import com.banking.jfr.OperationEvent;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.DaoMetrics;
 import com.banking.model.Account;
+import com.banking.model.Money;
 import com.banking.model.Transaction;
+import com.banking.model.TransactionResult;
 
 /**
  * Service class to manage Transaction-related operations
@@ -23,8 +33,22 @@ public class TransactionService {
      * Default constructor
      */
     public TransactionService() {
-        this.transactionDAO = new TransactionDAOImpl();
-        this.accountDAO = new AccountDAOImpl();
+        GroupCommitExecutor groupCommit = GroupCommitExecutor.shared();
+        this.transactionDAO = DaoMetrics.instrument(TransactionDAO.class, groupCommit != null
+                ? new GroupCommitTransactionDAO(groupCommit)
+                : new TransactionDAOImpl());
+        this.accountDAO = DaoMetrics.instrument(AccountDAO.class, new AccountDAOImpl());
+    }
+
+    /**
+     * Constructor with explicit DAOs, e.g. in-memory stand-ins for benchmarks
+     *
+     * @param transactionDAO Transaction DAO
+     * @param accountDAO Account DAO
+     */
+    public TransactionService(TransactionDAO transactionDAO, AccountDAO accountDAO) {
+        this.transactionDAO = transactionDAO;
+        this.accountDAO = accountDAO;
     }
 
     /**
@@ -37,11 +61,46 @@ public class TransactionService {
      * @throws Exception if operation fails
      */
     public Transaction deposit(int accountId, BigDecimal amount, String description) throws Exception {
+        return performDeposit(accountId, amount, description).getTransaction();
+    }
+
+    /**
+     * Make a deposit to an account and return the changed rows
+     *
+     * @param accountId Account ID
+     * @param amount Amount to deposit
+     * @param description Transaction description
+     * @return Transaction record and new account balance
+     * @throws Exception if operation fails
+     */
+    public TransactionResult performDeposit(int accountId, BigDecimal amount, String description) throws Exception {
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        try {
+            TransactionResult result = executeDeposit(accountId, amount, description);
+            event.complete("DEPOSIT", accountId, 0, amount, null);
+            return result;
+        } catch (Exception e) {
+            event.complete("DEPOSIT", accountId, 0, amount, e);
+            throw e;
+        }
+    }
+
+    private TransactionResult executeDeposit(int accountId, BigDecimal amount, String description) throws Exception {
         // Validate input
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!toMoney(amount).isPositive()) {
             throw new IllegalArgumentException("Deposit amount must be positive");
         }
 
+        LedgerEngine engine = LedgerEngine.current();
+        if (engine != null) {
+            return LedgerEngine.await(engine.deposit(accountId, amount, description));
+        }
+
+        if (transactionDAO.isValidatedInDatabase()) {
+            return transactionDAO.postDeposit(accountId, amount, description);
+        }
+
         // Check if account exists and is active
         Account account = accountDAO.getAccountById(accountId);
         if (account == null) {
@@ -53,7 +112,7 @@ public class TransactionService {
         }
 
         // Create deposit transaction
-        return transactionDAO.createDepositTransaction(accountId, amount, description);
+        return transactionDAO.postDeposit(accountId, amount, description);
     }
 
     /**
@@ -66,11 +125,46 @@ public class TransactionService {
      * @throws Exception if operation fails
      */
     public Transaction withdraw(int accountId, BigDecimal amount, String description) throws Exception {
+        return performWithdrawal(accountId, amount, description).getTransaction();
+    }
+
+    /**
+     * Make a withdrawal from an account and return the changed rows
+     *
+     * @param accountId Account ID
+     * @param amount Amount to withdraw
+     * @param description Transaction description
+     * @return Transaction record and new account balance
+     * @throws Exception if operation fails
+     */
+    public TransactionResult performWithdrawal(int accountId, BigDecimal amount, String description) throws Exception {
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        try {
+            TransactionResult result = executeWithdrawal(accountId, amount, description);
+            event.complete("WITHDRAWAL", accountId, 0, amount, null);
+            return result;
+        } catch (Exception e) {
+            event.complete("WITHDRAWAL", accountId, 0, amount, e);
+            throw e;
+        }
+    }
+
+    private TransactionResult executeWithdrawal(int accountId, BigDecimal amount, String description) throws Exception {
         // Validate input
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!toMoney(amount).isPositive()) {
             throw new IllegalArgumentException("Withdrawal amount must be positive");
         }
 
+        LedgerEngine engine = LedgerEngine.current();
+        if (engine != null) {
+            return LedgerEngine.await(engine.withdraw(accountId, amount, description));
+        }
+
+        if (transactionDAO.isValidatedInDatabase()) {
+            return transactionDAO.postWithdrawal(accountId, amount, description);
+        }
+
         // Check if account exists and is active
         Account account = accountDAO.getAccountById(accountId);
         if (account == null) {
@@ -82,7 +176,7 @@ public class TransactionService {
         }
 
         // Create withdrawal transaction
-        return transactionDAO.createWithdrawalTransaction(accountId, amount, description);
+        return transactionDAO.postWithdrawal(accountId, amount, description);
     }
 
     /**
@@ -96,8 +190,38 @@ public class TransactionService {
      * @throws Exception if operation fails
      */
     public Transaction[] transfer(int fromAccountId, int toAccountId, BigDecimal amount, String description) throws Exception {
+        return performTransfer(fromAccountId, toAccountId, amount, description)
+                .getTransactions().toArray(new Transaction[0]);
+    }
+
+    /**
+     * Transfer money between accounts and return the changed rows
+     *
+     * @param fromAccountId Source account ID
+     * @param toAccountId Destination account ID
+     * @param amount Amount to transfer
+     * @param description Transaction description
+     * @return Outgoing and incoming transaction records and both new balances
+     * @throws Exception if operation fails
+     */
+    public TransactionResult performTransfer(int fromAccountId, int toAccountId, BigDecimal amount,
+            String description) throws Exception {
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        try {
+            TransactionResult result = executeTransfer(fromAccountId, toAccountId, amount, description);
+            event.complete("TRANSFER", fromAccountId, toAccountId, amount, null);
+            return result;
+        } catch (Exception e) {
+            event.complete("TRANSFER", fromAccountId, toAccountId, amount, e);
+            throw e;
+        }
+    }
+
+    private TransactionResult executeTransfer(int fromAccountId, int toAccountId, BigDecimal amount,
+            String description) throws Exception {
         // Validate input
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!toMoney(amount).isPositive()) {
             throw new IllegalArgumentException("Transfer amount must be positive");
         }
 
@@ -105,6 +229,16 @@ public class TransactionService {
             throw new IllegalArgumentException("Cannot transfer to the same account");
         }
 
+        LedgerEngine engine = LedgerEngine.current();
+        if (engine != null) {
+            return LedgerEngine.await(engine.transfer(fromAccountId, toAccountId, amount, description));
+        }
+
+        if (transactionDAO.isValidatedInDatabase()) {
+            // Existence, status and funds are checked under row locks in fv_transfer
+            return transactionDAO.postTransfer(fromAccountId, toAccountId, amount, description);
+        }
+
         // Check if accounts exist and are active
         Account fromAccount = accountDAO.getAccountById(fromAccountId);
         if (fromAccount == null) {
@@ -125,7 +259,26 @@ public class TransactionService {
         }
 
         // Create transfer transaction
-        return transactionDAO.createTransferTransaction(fromAccountId, toAccountId, amount, description);
+        return transactionDAO.postTransfer(fromAccountId, toAccountId, amount, description);
+    }
+
+    /**
+     * Convert a requested amount to cents, rounding like the DAOs do, so the
+     * checks here compare longs instead of BigDecimals
+     *
+     * @param amount Requested amount
+     * @return Amount as Money
+     * @throws IllegalArgumentException if the amount is missing or too large
+     */
+    private static Money toMoney(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        try {
+            return Money.of(amount, RoundingMode.HALF_UP);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is too large: " + amount);
+        }
     }
 
     /**
@@ -156,6 +309,23 @@ public class TransactionService {
         return transactionDAO.getTransactionsByAccountId(accountId);
     }
 
+    /**
+     * Get one page of an account's history, newest first
+     *
+     * @param accountId Account ID
+     * @param beforeTransactionId Last transaction ID of the previous page, or 0 for the newest page
+     * @param limit Maximum number of transactions to return
+     * @return Transactions
+     * @throws Exception if operation fails
+     */
+    public List<Transaction> getAccountHistoryPage(int accountId, long beforeTransactionId, int limit)
+            throws Exception {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return transactionDAO.getAccountHistoryPage(accountId, beforeTransactionId, limit);
+    }
+
     /**
      * Get transactions for an account within a date range
      *
@@ -200,4 +370,51 @@ public class TransactionService {
 
         return transactionDAO.getTransactionsByAccountIdAndType(accountId, transactionType);
     }
+
+    /**
+     * Count transactions matching a page request
+     *
+     * @param request Filter and search options
+     * @return Number of matching transactions
+     * @throws Exception if operation fails
+     */
+    public int countTransactions(PageRequest request) throws Exception {
+        return transactionDAO.countTransactions(request);
+    }
+
+    /**
+     * Get one page of transactions using keyset pagination
+     *
+     * @param request Filter, search and sort options
+     * @param after Last transaction of the previous page, or null for the first page
+     * @param limit Maximum number of transactions to return
+     * @return List of transactions
+     * @throws Exception if operation fails
+     */
+    public List<Transaction> getTransactionsPage(PageRequest request, Transaction after, int limit) throws Exception {
+        return transactionDAO.getTransactionsPage(request, after, limit);
+    }
+
+    /**
+     * Get the transaction at a position in the sorted result
+     *
+     * @param request Filter, search and sort options
+     * @param offset Zero-based position
+     * @return Transaction at the offset, or null if out of range
+     * @throws Exception if operation fails
+     */
+    public Transaction getTransactionAtOffset(PageRequest request, int offset) throws Exception {
+        return transactionDAO.getTransactionAtOffset(request, offset);
+    }
+
+    /**
+     * Sum transaction amounts by type
+     *
+     * @param request Filter and search options
+     * @return Map from transaction type to total amount
+     * @throws Exception if operation fails
+     */
+    public Map<String, BigDecimal> getTransactionTotalsByType(PageRequest request) throws Exception {
+        return transactionDAO.getTransactionTotalsByType(request);
+    }
 }
@@ -0,0 +1,82 @@
+package com.banking.statement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Record of the account blocks whose statements are complete, kept next to
+ * the statement files so a rerun into the same directory resumes where the
+ * last run stopped.
+ *
+ * Each completed block is one line holding its account ID range, appended
+ * and forced to disk once the block's files and balance snapshots are
+ * written. A block interrupted halfway is simply redone.
+ */
+final class StatementCheckpoint {
+
+    private final FileChannel channel;
+    private final Set<String> completed = new HashSet<>();
+
+    /**
+     * Open or create a checkpoint file
+     *
+     * @param file Checkpoint file
+     * @throws IOException if the file cannot be read or opened
+     */
+    StatementCheckpoint(Path file) throws IOException {
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    completed.add(line);
+                }
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Check whether a block was completed by this or an earlier run
+     *
+     * @param firstAccountId First account ID of the block
+     * @param lastAccountId Last account ID of the block
+     * @return true if complete
+     */
+    synchronized boolean isComplete(int firstAccountId, int lastAccountId) {
+        return completed.contains(firstAccountId + "-" + lastAccountId);
+    }
+
+    /**
+     * Record a block as complete
+     *
+     * @param firstAccountId First account ID of the block
+     * @param lastAccountId Last account ID of the block
+     * @throws IOException if the checkpoint cannot be written
+     */
+    synchronized void markComplete(int firstAccountId, int lastAccountId) throws IOException {
+        String block = firstAccountId + "-" + lastAccountId;
+        ByteBuffer line = ByteBuffer.wrap((block + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        channel.force(false);
+        completed.add(block);
+    }
+
+    /**
+     * Close the checkpoint file
+     *
+     * @throws IOException if closing fails
+     */
+    synchronized void close() throws IOException {
+        channel.close();
+    }
+}
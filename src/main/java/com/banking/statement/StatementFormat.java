@@ -0,0 +1,27 @@
+package com.banking.statement;
+
+/**
+ * File formats statements can be rendered in
+ */
+public enum StatementFormat {
+
+    /** Fixed-width text for printing or mailing */
+    TEXT("txt"),
+    /** One row per transaction with the running balance, plus opening and closing rows */
+    CSV("csv");
+
+    private final String extension;
+
+    StatementFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Get the file extension
+     *
+     * @return Extension without the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,517 @@
+package com.banking.statement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.banking.config.DatabaseConfig;
+import com.banking.dao.TransactionArchive;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.model.Money;
+import com.banking.util.DatabaseUtil;
+
+/**
+ * Batch job that writes a monthly statement file for every account.
+ *
+ * Accounts are split into blocks of consecutive IDs, which a fork/join pool
+ * works through in parallel. Each block is read in one REPEATABLE READ
+ * transaction with a handful of queries, whatever the number of accounts
+ * in it: the accounts, their balance movements since the period started,
+ * the previous month's balance snapshots and one ordered range query that
+ * streams every transaction of the block for the period.
+ *
+ * A statement opens at the previous month's closing balance snapshot when
+ * there is one. Otherwise the closing balance is the current balance minus
+ * everything posted after the period, and the opening balance is the
+ * closing balance minus the period's movements. The new balances are saved
+ * as snapshots for next month. Completed blocks are checkpointed next to
+ * the files, so an interrupted run picks up where it stopped.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.statement.StatementJob --month 2024-05 --out statements --format csv
+ */
+public class StatementJob {
+
+    private static final int DEFAULT_BLOCK_SIZE = 1_000;
+    private static final int FETCH_SIZE = 5_000;
+
+    private static final String SIGNED_AMOUNT =
+            "CASE WHEN transaction_type IN ('DEPOSIT', 'TRANSFER_IN') THEN amount ELSE -amount END";
+
+    private static final String ACCOUNT_RANGE_SQL = "SELECT MIN(account_id), MAX(account_id) FROM accounts";
+    private static final String ACCOUNTS_SQL =
+            "SELECT a.account_id, a.account_type, fv_balance(a), c.first_name, c.last_name " +
+            "FROM accounts a JOIN customers c ON c.customer_id = a.customer_id " +
+            "WHERE a.account_id BETWEEN ? AND ? AND a.date_opened < ? AND a.status <> 'DELETED' " +
+            "ORDER BY a.account_id";
+    private static final String MOVEMENTS_SQL =
+            "SELECT account_id, " +
+            "SUM(CASE WHEN transaction_date < ? THEN " + SIGNED_AMOUNT + " ELSE 0 END), " +
+            "SUM(CASE WHEN transaction_date >= ? THEN " + SIGNED_AMOUNT + " ELSE 0 END) " +
+            "FROM %s WHERE account_id BETWEEN ? AND ? AND transaction_date >= ? GROUP BY account_id";
+    private static final String SNAPSHOTS_SQL =
+            "SELECT account_id, closing_balance FROM statement_balances " +
+            "WHERE account_id BETWEEN ? AND ? AND period_start = ?";
+    private static final String TRANSACTIONS_SQL =
+            "SELECT account_id, transaction_id, transaction_type, amount, transaction_date, description " +
+            "FROM %s WHERE account_id BETWEEN ? AND ? AND transaction_date >= ? AND transaction_date < ? " +
+            "ORDER BY account_id, transaction_id";
+    private static final String SAVE_SNAPSHOT_SQL =
+            "INSERT INTO statement_balances (account_id, period_start, opening_balance, closing_balance) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT (account_id, period_start) DO UPDATE " +
+            "SET opening_balance = EXCLUDED.opening_balance, closing_balance = EXCLUDED.closing_balance";
+
+    /**
+     * An account in the block being processed, with its statement balances
+     */
+    static final class AccountRow {
+
+        final int accountId;
+        final String accountType;
+        final String customerName;
+        long openingCents;
+        long closingCents;
+
+        AccountRow(int accountId, String accountType, String customerName) {
+            this.accountId = accountId;
+            this.accountType = accountType;
+            this.customerName = customerName;
+        }
+    }
+
+    private final YearMonth period;
+    private final Path outputDir;
+    private final StatementFormat format;
+    private final int blockSize;
+    private final int parallelism;
+    private final DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+    private final MethodMetrics blockMetrics = MetricsRegistry.getInstance().method("Statements.block");
+
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder blocksDone = new LongAdder();
+    private final LongAdder blocksSkipped = new LongAdder();
+    private final LongAdder blocksFailed = new LongAdder();
+    private final AtomicLong slowestBlockNanos = new AtomicLong();
+
+    private StatementCheckpoint checkpoint;
+
+    /**
+     * Constructor
+     *
+     * @param period Month to produce statements for
+     * @param outputDir Directory for the statements, a subdirectory per month is created
+     * @param format File format
+     * @param blockSize Account IDs per block
+     * @param parallelism Blocks processed at once, at most the connection pool size is useful
+     */
+    public StatementJob(YearMonth period, Path outputDir, StatementFormat format, int blockSize, int parallelism) {
+        if (blockSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Block size and parallelism must be positive");
+        }
+        this.period = period;
+        this.outputDir = outputDir.resolve(period.toString());
+        this.format = format;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Write the statements of every account that was open during the period
+     *
+     * @return true if every block completed
+     * @throws Exception if the job cannot start; failures of single blocks
+     * are reported and leave those blocks for the next run
+     */
+    public boolean run() throws Exception {
+        long start = System.nanoTime();
+        Files.createDirectories(outputDir);
+        checkpoint = new StatementCheckpoint(outputDir.resolve("statements.checkpoint"));
+
+        List<int[]> blocks = new ArrayList<>();
+        try {
+            int[] range = accountRange();
+            if (range != null) {
+                // Aligned to the block size so reruns see the same blocks
+                long alignedStart = (range[0] - 1L) / blockSize * blockSize + 1;
+                for (long first = alignedStart; first <= range[1]; first += blockSize) {
+                    blocks.add(new int[] {(int) first, (int) Math.min(first + blockSize - 1, Integer.MAX_VALUE)});
+                }
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new BlockTask(blocks, 0, blocks.size()));
+            } finally {
+                pool.shutdown();
+            }
+        } finally {
+            checkpoint.close();
+        }
+
+        printReport(blocks.size(), System.nanoTime() - start);
+        return blocksFailed.sum() == 0;
+    }
+
+    /**
+     * Splits a list of blocks in halves until each task has one block
+     */
+    private final class BlockTask extends RecursiveAction {
+
+        private final List<int[]> blocks;
+        private final int from;
+        private final int to;
+
+        BlockTask(List<int[]> blocks, int from, int to) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int[] block = blocks.get(from);
+                runBlock(block[0], block[1]);
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BlockTask(blocks, from, middle), new BlockTask(blocks, middle, to));
+            }
+        }
+    }
+
+    private void runBlock(int firstAccountId, int lastAccountId) {
+        if (checkpoint.isComplete(firstAccountId, lastAccountId)) {
+            blocksSkipped.increment();
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        int statements = 0;
+        try {
+            statements = processBlock(firstAccountId, lastAccountId);
+            checkpoint.markComplete(firstAccountId, lastAccountId);
+            blocksDone.increment();
+            failed = false;
+        } catch (Exception e) {
+            blocksFailed.increment();
+            System.err.println("Statements for accounts " + firstAccountId + "-" + lastAccountId + " failed: "
+                    + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            slowestBlockNanos.accumulateAndGet(elapsed, Math::max);
+            blockMetrics.record(elapsed, 0, statements, failed);
+        }
+    }
+
+    /**
+     * Write the statements of one block of accounts and save their balance
+     * snapshots
+     *
+     * @param firstAccountId First account ID (inclusive)
+     * @param lastAccountId Last account ID (inclusive)
+     * @return Number of statements written
+     * @throws Exception if the database read or a file write fails
+     */
+    @SuppressWarnings("UseSpecificCatch")
+    private int processBlock(int firstAccountId, int lastAccountId) throws Exception {
+        LocalDate periodStart = period.atDay(1);
+        LocalDate periodEnd = period.atEndOfMonth();
+        Timestamp startTime = Timestamp.valueOf(periodStart.atStartOfDay());
+        Timestamp endTime = Timestamp.valueOf(periodStart.plusMonths(1).atStartOfDay());
+        String source = TransactionArchive.getInstance().source(periodStart.atStartOfDay());
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            // Balances, movements and transactions must come from one snapshot to add up
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+            List<AccountRow> rows = new ArrayList<>();
+            Map<Integer, Long> currentBalances = new HashMap<>();
+            pstmt = conn.prepareStatement(ACCOUNTS_SQL);
+            pstmt.setInt(1, firstAccountId);
+            pstmt.setInt(2, lastAccountId);
+            pstmt.setTimestamp(3, endTime);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                AccountRow row = new AccountRow(rs.getInt(1), rs.getString(2),
+                        rs.getString(4) + " " + rs.getString(5));
+                currentBalances.put(row.accountId, Money.parse(rs.getString(3)).getMinorUnits());
+                rows.add(row);
+            }
+            rs.close();
+            pstmt.close();
+            if (rows.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+
+            // [0] within the period, [1] after it
+            Map<Integer, long[]> movements = new HashMap<>();
+            pstmt = conn.prepareStatement(String.format(MOVEMENTS_SQL, source));
+            pstmt.setTimestamp(1, endTime);
+            pstmt.setTimestamp(2, endTime);
+            pstmt.setInt(3, firstAccountId);
+            pstmt.setInt(4, lastAccountId);
+            pstmt.setTimestamp(5, startTime);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                movements.put(rs.getInt(1), new long[] {Money.parse(rs.getString(2)).getMinorUnits(),
+                        Money.parse(rs.getString(3)).getMinorUnits()});
+            }
+            rs.close();
+            pstmt.close();
+
+            Map<Integer, Long> snapshots = new HashMap<>();
+            pstmt = conn.prepareStatement(SNAPSHOTS_SQL);
+            pstmt.setInt(1, firstAccountId);
+            pstmt.setInt(2, lastAccountId);
+            pstmt.setDate(3, Date.valueOf(periodStart.minusMonths(1)));
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                snapshots.put(rs.getInt(1), Money.parse(rs.getString(2)).getMinorUnits());
+            }
+            rs.close();
+            pstmt.close();
+
+            for (AccountRow row : rows) {
+                long[] movement = movements.getOrDefault(row.accountId, new long[2]);
+                Long previousClosing = snapshots.get(row.accountId);
+                if (previousClosing != null) {
+                    row.openingCents = previousClosing;
+                    row.closingCents = previousClosing + movement[0];
+                } else {
+                    row.closingCents = currentBalances.get(row.accountId) - movement[1];
+                    row.openingCents = row.closingCents - movement[0];
+                }
+            }
+
+            Path dir = outputDir.resolve(firstAccountId + "-" + lastAccountId);
+            Files.createDirectories(dir);
+            pstmt = conn.prepareStatement(String.format(TRANSACTIONS_SQL, source));
+            pstmt.setFetchSize(FETCH_SIZE);
+            pstmt.setInt(1, firstAccountId);
+            pstmt.setInt(2, lastAccountId);
+            pstmt.setTimestamp(3, startTime);
+            pstmt.setTimestamp(4, endTime);
+            rs = pstmt.executeQuery();
+            writeStatements(rs, rows, dir, periodStart, periodEnd);
+            rs.close();
+            pstmt.close();
+
+            pstmt = conn.prepareStatement(SAVE_SNAPSHOT_SQL);
+            for (AccountRow row : rows) {
+                pstmt.setInt(1, row.accountId);
+                pstmt.setDate(2, Date.valueOf(periodStart));
+                pstmt.setBigDecimal(3, Money.ofMinor(row.openingCents).toBigDecimal());
+                pstmt.setBigDecimal(4, Money.ofMinor(row.closingCents).toBigDecimal());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+
+            accounts.add(rows.size());
+            return rows.size();
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (Exception rollbackEx) {
+                    System.err.println("Error rolling back statement block: " + rollbackEx.getMessage());
+                }
+            }
+            throw e;
+        } finally {
+            if (rs != null) try {
+                rs.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (pstmt != null) try {
+                pstmt.close();
+            } catch (Exception e) {
+                /* ignore */ }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                } catch (Exception e) {
+                    System.err.println("Error resetting connection state");
+                }
+                dbConfig.closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Merge the ordered transaction stream with the ordered accounts, one
+     * statement file per account
+     */
+    private void writeStatements(ResultSet rs, List<AccountRow> rows, Path dir, LocalDate periodStart,
+            LocalDate periodEnd) throws Exception {
+        int next = 0;
+        AccountRow current = null;
+        StatementWriter writer = null;
+        try {
+            while (rs.next()) {
+                int accountId = rs.getInt(1);
+                while ((current == null || current.accountId < accountId) && next < rows.size()) {
+                    if (writer != null) {
+                        transactions.add(writer.finish(periodEnd));
+                        writer.close();
+                    }
+                    current = rows.get(next++);
+                    writer = open(dir, current, periodStart, periodEnd);
+                }
+                // Rows of accounts opened after the period have no statement
+                if (current != null && current.accountId == accountId) {
+                    writer.append(rs.getLong(2), rs.getString(3), Money.parse(rs.getString(4)).getMinorUnits(),
+                            rs.getTimestamp(5).toLocalDateTime(), rs.getString(6));
+                }
+            }
+            if (writer != null) {
+                transactions.add(writer.finish(periodEnd));
+                writer.close();
+                writer = null;
+            }
+            // Accounts without transactions in the period
+            while (next < rows.size()) {
+                writer = open(dir, rows.get(next++), periodStart, periodEnd);
+                writer.finish(periodEnd);
+                writer.close();
+                writer = null;
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    private StatementWriter open(Path dir, AccountRow row, LocalDate periodStart, LocalDate periodEnd)
+            throws IOException {
+        Path file = dir.resolve("account-" + row.accountId + "." + format.getExtension());
+        return new StatementWriter(file, format, row, periodStart, periodEnd);
+    }
+
+    private int[] accountRange() throws Exception {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConfig.getConnection();
+            pstmt = conn.prepareStatement(ACCOUNT_RANGE_SQL);
+            rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            int min = rs.getInt(1);
+            return rs.wasNull() ? null : new int[] {min, rs.getInt(2)};
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) dbConfig.closeConnection(conn);
+        }
+    }
+
+    private void printReport(int blockCount, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Statements for %s in %s (%s)%n", period, outputDir, format);
+        System.out.printf("Blocks: %d total, %d done, %d already done, %d failed (block size %d, %d threads)%n",
+                blockCount, blocksDone.sum(), blocksSkipped.sum(), blocksFailed.sum(), blockSize, parallelism);
+        System.out.printf("Accounts: %d in %.1f s: %.1f statements/s%n", accounts.sum(), seconds,
+                accounts.sum() / seconds);
+        System.out.printf("Transactions: %d: %.1f rows/s%n", transactions.sum(), transactions.sum() / seconds);
+        System.out.printf("Slowest block: %.1f ms%n", slowestBlockNanos.get() / 1e6);
+    }
+
+    /**
+     * Run the statement job
+     *
+     * @param args --month yyyy-MM (default last month), --out (default statements),
+     * --format text|csv, --block-size, --threads
+     */
+    public static void main(String[] args) {
+        YearMonth month = YearMonth.now().minusMonths(1);
+        Path out = Paths.get("statements");
+        StatementFormat format = StatementFormat.TEXT;
+        int blockSize = DEFAULT_BLOCK_SIZE;
+        int threads = Integer.getInteger(DatabaseConfig.POOL_SIZE_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                String value = args[++i];
+                switch (name) {
+                    case "--month":
+                        month = YearMonth.parse(value);
+                        break;
+                    case "--out":
+                        out = Paths.get(value);
+                        break;
+                    case "--format":
+                        format = StatementFormat.valueOf(value.toUpperCase());
+                        break;
+                    case "--block-size":
+                        blockSize = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + name);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: StatementJob [--month yyyy-MM] [--out DIR] [--format text|csv] "
+                    + "[--block-size N] [--threads N]");
+            System.exit(2);
+        }
+
+        if (!DatabaseUtil.initializeDatabase()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        boolean complete = false;
+        try {
+            complete = new StatementJob(month, out, format, blockSize, threads).run();
+        } catch (Exception e) {
+            System.err.println("Statement job failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (MetricsRegistry.isEnabled()) {
+                MetricsRegistry.getInstance().shutdown();
+            }
+            DatabaseConfig.getInstance().shutdown();
+        }
+        System.exit(complete ? 0 : 1);
+    }
+}
@@ -0,0 +1,126 @@
+package com.banking.statement;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.banking.model.Money;
+import com.banking.util.DateUtil;
+
+/**
+ * Renders one account's statement to a file while its transactions stream
+ * past, keeping only the running balance.
+ */
+final class StatementWriter implements Closeable {
+
+    private final BufferedWriter out;
+    private final StatementFormat format;
+    private long balanceCents;
+    private long credits;
+    private long debits;
+    private int rows;
+
+    /**
+     * Open the file and write the statement header
+     *
+     * @param file Statement file, replaced if it exists
+     * @param format File format
+     * @param account Account and computed balances
+     * @param periodStart First day of the period
+     * @param periodEnd Last day of the period
+     * @throws IOException if the file cannot be written
+     */
+    StatementWriter(Path file, StatementFormat format, StatementJob.AccountRow account, LocalDate periodStart,
+            LocalDate periodEnd) throws IOException {
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.format = format;
+        this.balanceCents = account.openingCents;
+
+        if (format == StatementFormat.CSV) {
+            out.write("date,transaction_id,type,description,amount,balance\n");
+            out.write(DateUtil.formatDate(periodStart) + ",,OPENING,,," + Money.ofMinor(balanceCents) + "\n");
+        } else {
+            out.write("FinVault Monthly Statement\n\n");
+            out.write(String.format("Account:   #%d (%s)%n", account.accountId, account.accountType));
+            out.write(String.format("Customer:  %s%n", account.customerName));
+            out.write(String.format("Period:    %s to %s%n%n", DateUtil.formatDate(periodStart),
+                    DateUtil.formatDate(periodEnd)));
+            out.write(String.format("%-20s %-12s %-32s %14s %14s%n", "Date", "Type", "Description", "Amount",
+                    "Balance"));
+            out.write(String.format("%-20s %-12s %-32s %14s %14s%n", "", "", "Opening balance", "",
+                    Money.ofMinor(balanceCents)));
+        }
+    }
+
+    /**
+     * Write one transaction
+     *
+     * @param transactionId Transaction ID
+     * @param type Transaction type
+     * @param amountCents Amount in cents, always positive
+     * @param date Transaction date
+     * @param description Description, may be null
+     * @throws IOException if the file cannot be written
+     */
+    void append(long transactionId, String type, long amountCents, LocalDateTime date, String description)
+            throws IOException {
+        boolean credit = "DEPOSIT".equals(type) || "TRANSFER_IN".equals(type);
+        long signed = credit ? amountCents : -amountCents;
+        balanceCents += signed;
+        if (credit) {
+            credits += amountCents;
+        } else {
+            debits += amountCents;
+        }
+        rows++;
+
+        String text = description == null ? "" : description;
+        if (format == StatementFormat.CSV) {
+            out.write(DateUtil.formatDateTime(date) + "," + transactionId + "," + type + "," + csv(text) + ","
+                    + Money.ofMinor(signed) + "," + Money.ofMinor(balanceCents) + "\n");
+        } else {
+            if (text.length() > 32) {
+                text = text.substring(0, 31) + "~";
+            }
+            out.write(String.format("%-20s %-12s %-32s %14s %14s%n", DateUtil.formatDateTime(date), type, text,
+                    Money.ofMinor(signed), Money.ofMinor(balanceCents)));
+        }
+    }
+
+    /**
+     * Write the closing balance and totals
+     *
+     * @param periodEnd Last day of the period
+     * @return Number of transactions written
+     * @throws IOException if the file cannot be written
+     */
+    int finish(LocalDate periodEnd) throws IOException {
+        if (format == StatementFormat.CSV) {
+            out.write(DateUtil.formatDate(periodEnd) + ",,CLOSING,,," + Money.ofMinor(balanceCents) + "\n");
+        } else {
+            out.write(String.format("%-20s %-12s %-32s %14s %14s%n%n", "", "", "Closing balance", "",
+                    Money.ofMinor(balanceCents)));
+            out.write(String.format("Transactions: %d   Credits: %s   Debits: %s%n", rows, Money.ofMinor(credits),
+                    Money.ofMinor(debits)));
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
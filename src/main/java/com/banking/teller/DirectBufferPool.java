@@ -0,0 +1,82 @@
+package com.banking.teller;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of equally sized direct ByteBuffers.
+ *
+ * Direct buffers are written to and read from sockets without the JDK
+ * copying them into a temporary native buffer first, but they are slow to
+ * allocate and only freed by the garbage collector, so they are reused
+ * instead of allocated per request. At most maxPooled buffers are kept,
+ * extra ones released while the pool is full are left to the collector.
+ */
+public class DirectBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final AtomicLong allocations = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param bufferSize Capacity of each buffer in bytes
+     * @param maxPooled Most free buffers to keep
+     */
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Take a cleared buffer from the pool, allocating one if none is free
+     *
+     * @return Buffer ready for writing
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            allocations.incrementAndGet();
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        freeCount.decrementAndGet();
+        return buffer.clear();
+    }
+
+    /**
+     * Return a buffer, which must not be used afterwards
+     *
+     * @param buffer Buffer from acquire()
+     */
+    public void release(ByteBuffer buffer) {
+        if (freeCount.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get the number of buffers ever allocated, which stops growing once
+     * the pool has warmed up
+     *
+     * @return Allocations
+     */
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    /**
+     * Get the number of free buffers in the pool
+     *
+     * @return Free buffers
+     */
+    public int getFree() {
+        return freeCount.get();
+    }
+}
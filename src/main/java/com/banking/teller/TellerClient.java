@@ -0,0 +1,450 @@
+package com.banking.teller;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Blocking client for the teller protocol, and a command-line harness that
+ * drives a TellerServer with pipelined requests from several connections.
+ *
+ * The single-request methods send one frame and wait for its response. For
+ * pipelining, queue requests with the send methods, flush() them and then
+ * receive() the responses, which arrive in the order the requests were sent.
+ * A client is not thread-safe.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.teller.TellerClient
+ * --port 9090 --connections 8 --pipeline 64 --requests 200000 --accounts 1,2,3
+ */
+public class TellerClient implements Closeable {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Decoded response frame
+     */
+    public static final class Response {
+
+        private final byte status;
+        private final long requestId;
+        private final long transactionId;
+        private final long balanceCents;
+
+        Response(byte status, long requestId, long transactionId, long balanceCents) {
+            this.status = status;
+            this.requestId = requestId;
+            this.transactionId = transactionId;
+            this.balanceCents = balanceCents;
+        }
+
+        public byte getStatus() {
+            return status;
+        }
+
+        public boolean isOk() {
+            return status == TellerProtocol.STATUS_OK;
+        }
+
+        public long getRequestId() {
+            return requestId;
+        }
+
+        public long getTransactionId() {
+            return transactionId;
+        }
+
+        public long getBalanceCents() {
+            return balanceCents;
+        }
+
+        @Override
+        public String toString() {
+            return "Response{status=" + TellerProtocol.statusName(status) + ", requestId=" + requestId
+                    + ", transactionId=" + transactionId + ", balanceCents=" + balanceCents + "}";
+        }
+    }
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    // Kept in read mode between calls
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private long nextRequestId = 1;
+
+    /**
+     * Connect to a teller server
+     *
+     * @param host Server host
+     * @param port Server port
+     * @throws IOException if the connection fails
+     */
+    public TellerClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        in.flip();
+    }
+
+    /**
+     * Deposit and wait for the response
+     *
+     * @param accountId Account ID
+     * @param cents Amount in cents
+     * @return Response
+     * @throws IOException if the connection fails
+     */
+    public Response deposit(int accountId, long cents) throws IOException {
+        sendDeposit(accountId, cents);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Withdraw and wait for the response
+     *
+     * @param accountId Account ID
+     * @param cents Amount in cents
+     * @return Response
+     * @throws IOException if the connection fails
+     */
+    public Response withdraw(int accountId, long cents) throws IOException {
+        sendWithdraw(accountId, cents);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Transfer and wait for the response
+     *
+     * @param fromAccountId Source account ID
+     * @param toAccountId Destination account ID
+     * @param cents Amount in cents
+     * @return Response
+     * @throws IOException if the connection fails
+     */
+    public Response transfer(int fromAccountId, int toAccountId, long cents) throws IOException {
+        sendTransfer(fromAccountId, toAccountId, cents);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Ask for a balance and wait for the response
+     *
+     * @param accountId Account ID
+     * @return Response
+     * @throws IOException if the connection fails
+     */
+    public Response balance(int accountId) throws IOException {
+        sendBalance(accountId);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Queue a deposit request
+     *
+     * @param accountId Account ID
+     * @param cents Amount in cents
+     * @return Request ID
+     * @throws IOException if the connection fails
+     */
+    public long sendDeposit(int accountId, long cents) throws IOException {
+        makeRoom();
+        long requestId = nextRequestId++;
+        TellerProtocol.putPosting(out, TellerProtocol.OP_DEPOSIT, requestId, accountId, cents);
+        return requestId;
+    }
+
+    /**
+     * Queue a withdrawal request
+     *
+     * @param accountId Account ID
+     * @param cents Amount in cents
+     * @return Request ID
+     * @throws IOException if the connection fails
+     */
+    public long sendWithdraw(int accountId, long cents) throws IOException {
+        makeRoom();
+        long requestId = nextRequestId++;
+        TellerProtocol.putPosting(out, TellerProtocol.OP_WITHDRAW, requestId, accountId, cents);
+        return requestId;
+    }
+
+    /**
+     * Queue a transfer request
+     *
+     * @param fromAccountId Source account ID
+     * @param toAccountId Destination account ID
+     * @param cents Amount in cents
+     * @return Request ID
+     * @throws IOException if the connection fails
+     */
+    public long sendTransfer(int fromAccountId, int toAccountId, long cents) throws IOException {
+        makeRoom();
+        long requestId = nextRequestId++;
+        TellerProtocol.putTransfer(out, requestId, fromAccountId, toAccountId, cents);
+        return requestId;
+    }
+
+    /**
+     * Queue a balance inquiry
+     *
+     * @param accountId Account ID
+     * @return Request ID
+     * @throws IOException if the connection fails
+     */
+    public long sendBalance(int accountId) throws IOException {
+        makeRoom();
+        long requestId = nextRequestId++;
+        TellerProtocol.putBalance(out, requestId, accountId);
+        return requestId;
+    }
+
+    /**
+     * Write all queued requests to the server
+     *
+     * @throws IOException if the connection fails
+     */
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Wait for the next response
+     *
+     * @return Response
+     * @throws IOException if the connection fails or the frame is malformed
+     */
+    public Response receive() throws IOException {
+        while (in.remaining() < TellerProtocol.RESPONSE_FRAME_BYTES) {
+            in.compact();
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0) {
+                throw new EOFException("Teller server closed the connection");
+            }
+        }
+        int length = in.getInt();
+        if (length != TellerProtocol.RESPONSE_FRAME_BYTES - TellerProtocol.LENGTH_BYTES) {
+            throw new IOException("Invalid response length " + length);
+        }
+        return new Response(in.get(), in.getLong(), in.getLong(), in.getLong());
+    }
+
+    /**
+     * Check whether a whole response has already been read, so receive()
+     * will not block
+     *
+     * @return true if a response is buffered
+     */
+    public boolean hasBufferedResponse() {
+        return in.remaining() >= TellerProtocol.RESPONSE_FRAME_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void makeRoom() throws IOException {
+        if (out.remaining() < TellerProtocol.LENGTH_BYTES + TellerProtocol.MAX_REQUEST_BODY) {
+            flush();
+        }
+    }
+
+    /**
+     * Run the load harness
+     *
+     * @param args Options, see --help
+     */
+    public static void main(String[] args) {
+        Map<String, String> options;
+        try {
+            options = parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        String host = options.getOrDefault("host", "localhost");
+        int port = Integer.parseInt(options.getOrDefault("port", "9090"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "4"));
+        int pipeline = Integer.parseInt(options.getOrDefault("pipeline", "32"));
+        long requests = Long.parseLong(options.getOrDefault("requests", "100000"));
+        long cents = Long.parseLong(options.getOrDefault("cents", "100"));
+        String[] accountArgs = options.getOrDefault("accounts", "1").split(",");
+        int[] accounts = new int[accountArgs.length];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = Integer.parseInt(accountArgs[i].trim());
+        }
+        String[] mixArgs = options.getOrDefault("mix", "40/30/15/15").split("/");
+        if (mixArgs.length != 4) {
+            System.err.println("--mix needs four weights, e.g. 40/30/15/15");
+            System.exit(2);
+        }
+        double[] mix = new double[4];
+        double total = 0;
+        for (int i = 0; i < 4; i++) {
+            total += Double.parseDouble(mixArgs[i]);
+            mix[i] = total;
+        }
+        if (accounts.length < 2) {
+            // Transfers need two accounts
+            total -= mix[2] - mix[1];
+            mix[2] = mix[1];
+            mix[3] = total;
+        }
+
+        Histogram latency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        LongAdder[] statuses = new LongAdder[TellerProtocol.STATUS_ERROR + 2];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = new LongAdder();
+        }
+        LongAdder failedConnections = new LongAdder();
+        long perConnection = Math.max(1, requests / connections);
+        double weightTotal = total;
+
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            Thread thread = new Thread(() -> {
+                try (TellerClient client = new TellerClient(host, port)) {
+                    client.run(perConnection, pipeline, accounts, mix, weightTotal, cents, latency, statuses);
+                } catch (IOException e) {
+                    failedConnections.increment();
+                    System.err.println("Connection failed: " + e.getMessage());
+                }
+            }, "teller-client-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long completed = latency.getTotalCount();
+        System.out.printf("Connections: %d, pipeline depth: %d, accounts: %d%n", connections, pipeline,
+                accounts.length);
+        System.out.printf("Completed %d requests in %.1f s: %.1f requests/s%n", completed, seconds,
+                completed / seconds);
+        System.out.printf("Latency p50 %.3f ms   p99 %.3f ms   p99.9 %.3f ms   max %.3f ms%n",
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+        for (int i = 0; i < statuses.length; i++) {
+            long count = statuses[i].sum();
+            if (count > 0) {
+                System.out.printf("  %-20s %d%n", TellerProtocol.statusName((byte) i), count);
+            }
+        }
+        if (failedConnections.sum() > 0) {
+            System.out.printf("Failed connections: %d%n", failedConnections.sum());
+        }
+    }
+
+    /**
+     * Send requests with at most pipeline of them outstanding
+     */
+    private void run(long count, int pipeline, int[] accounts, double[] mix, double weightTotal, long cents,
+            Histogram latency, LongAdder[] statuses) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] sendTimes = new long[pipeline];
+        long sent = 0;
+        long received = 0;
+        while (received < count) {
+            while (sent < count && sent - received < pipeline) {
+                sendTimes[(int) (sent % pipeline)] = System.nanoTime();
+                int account = accounts[random.nextInt(accounts.length)];
+                double pick = random.nextDouble() * weightTotal;
+                if (pick < mix[0]) {
+                    sendDeposit(account, cents);
+                } else if (pick < mix[1]) {
+                    sendWithdraw(account, cents);
+                } else if (pick < mix[2]) {
+                    int other = accounts[random.nextInt(accounts.length)];
+                    while (other == account) {
+                        other = accounts[random.nextInt(accounts.length)];
+                    }
+                    sendTransfer(account, other, cents);
+                } else {
+                    sendBalance(account);
+                }
+                sent++;
+            }
+            flush();
+
+            do {
+                Response response = receive();
+                latency.recordValue(Math.min(System.nanoTime() - sendTimes[(int) (received % pipeline)],
+                        MAX_LATENCY_NANOS));
+                int status = response.getStatus();
+                statuses[status >= 0 && status < statuses.length - 1 ? status : statuses.length - 1].increment();
+                received++;
+            } while (received < sent && hasBufferedResponse());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if ("help".equals(name)) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: TellerClient [options]");
+        System.out.println("  --host HOST            server host (default localhost)");
+        System.out.println("  --port PORT            server port (default 9090)");
+        System.out.println("  --connections N        concurrent connections (default 4)");
+        System.out.println("  --pipeline N           requests in flight per connection (default 32)");
+        System.out.println("  --requests N           total requests (default 100000)");
+        System.out.println("  --accounts ID,ID,...   accounts to use (default 1)");
+        System.out.println("  --mix D/W/T/B          deposit/withdraw/transfer/balance weights (default 40/30/15/15)");
+        System.out.println("  --cents N              amount of each posting in cents (default 100)");
+    }
+}
@@ -0,0 +1,101 @@
+package com.banking.teller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State of one terminal connection.
+ *
+ * The selector thread reads and decodes request frames and queues them.
+ * One task at a time executes a connection's requests in order on the
+ * worker executor and queues the encoded responses, which the selector
+ * thread writes out.
+ */
+final class TellerConnection {
+
+    /**
+     * Decoded request frame
+     */
+    static final class Request {
+
+        final byte opcode;
+        final long requestId;
+        final int accountId;
+        final int toAccountId;
+        final long cents;
+
+        Request(byte opcode, long requestId, int accountId, int toAccountId, long cents) {
+            this.opcode = opcode;
+            this.requestId = requestId;
+            this.accountId = accountId;
+            this.toAccountId = toAccountId;
+            this.cents = cents;
+        }
+    }
+
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ByteBuffer readBuffer;
+
+    final ConcurrentLinkedQueue<Request> requests = new ConcurrentLinkedQueue<>();
+    final AtomicInteger pending = new AtomicInteger();
+    final AtomicBoolean scheduled = new AtomicBoolean();
+    // Flipped response buffers, in the order they have to be written
+    final ConcurrentLinkedQueue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+
+    volatile boolean closed;
+    // Only touched on the selector thread
+    boolean readPaused;
+
+    TellerConnection(SocketChannel channel, SelectionKey key, ByteBuffer readBuffer) {
+        this.channel = channel;
+        this.key = key;
+        this.readBuffer = readBuffer;
+    }
+
+    /**
+     * Decode all complete frames in the read buffer
+     *
+     * @return Number of requests queued
+     * @throws IOException if a frame is malformed
+     */
+    int decode() throws IOException {
+        ByteBuffer in = readBuffer;
+        in.flip();
+        int decoded = 0;
+        try {
+            while (in.remaining() >= TellerProtocol.LENGTH_BYTES) {
+                int start = in.position();
+                int length = in.getInt(start);
+                if (length < TellerProtocol.HEADER_BYTES || length > TellerProtocol.MAX_REQUEST_BODY) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (in.remaining() < TellerProtocol.LENGTH_BYTES + length) {
+                    break;
+                }
+                byte opcode = in.get(start + TellerProtocol.LENGTH_BYTES);
+                if (TellerProtocol.requestBodyLength(opcode) != length) {
+                    throw new IOException("Invalid frame for opcode " + opcode + " with length " + length);
+                }
+
+                in.position(start + TellerProtocol.LENGTH_BYTES + 1);
+                long requestId = in.getLong();
+                int accountId = in.getInt();
+                int toAccountId = opcode == TellerProtocol.OP_TRANSFER ? in.getInt() : 0;
+                long cents = opcode == TellerProtocol.OP_BALANCE ? 0 : in.getLong();
+
+                requests.offer(new Request(opcode, requestId, accountId, toAccountId, cents));
+                decoded++;
+            }
+        } finally {
+            in.compact();
+        }
+        pending.addAndGet(decoded);
+        return decoded;
+    }
+}
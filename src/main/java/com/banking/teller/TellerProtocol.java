@@ -0,0 +1,153 @@
+package com.banking.teller;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary frame format spoken by branch teller terminals.
+ *
+ * All integers are big-endian and amounts are in cents. Every frame starts
+ * with a 4-byte length of the rest of the frame, followed by a 1-byte code
+ * and the 8-byte request ID chosen by the terminal, which the response
+ * echoes so pipelined requests can be matched up.
+ *
+ * Requests, after length, opcode and request ID:
+ * DEPOSIT and WITHDRAW: account ID (4), amount (8);
+ * TRANSFER: source account ID (4), destination account ID (4), amount (8);
+ * BALANCE: account ID (4).
+ *
+ * Responses, after length, status and request ID: transaction ID (8, 0 for
+ * a balance inquiry or a failure) and the new or current balance (8, of the
+ * source account for a transfer, 0 on failure).
+ *
+ * Responses on a connection come back in the order of its requests.
+ */
+public final class TellerProtocol {
+
+    public static final byte OP_DEPOSIT = 1;
+    public static final byte OP_WITHDRAW = 2;
+    public static final byte OP_TRANSFER = 3;
+    public static final byte OP_BALANCE = 4;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_INSUFFICIENT_FUNDS = 1;
+    public static final byte STATUS_NOT_FOUND = 2;
+    public static final byte STATUS_NOT_ACTIVE = 3;
+    public static final byte STATUS_INVALID = 4;
+    /** Deadlock or serialization failure, nothing was posted and the request can be resent */
+    public static final byte STATUS_RETRY = 5;
+    /** Unexpected failure, the outcome is unknown */
+    public static final byte STATUS_ERROR = 6;
+
+    /** Length prefix */
+    public static final int LENGTH_BYTES = 4;
+    /** Opcode or status plus request ID */
+    public static final int HEADER_BYTES = 1 + 8;
+    /** Largest frame body of any request */
+    public static final int MAX_REQUEST_BODY = HEADER_BYTES + 4 + 4 + 8;
+    /** Size of a whole response frame */
+    public static final int RESPONSE_FRAME_BYTES = LENGTH_BYTES + HEADER_BYTES + 8 + 8;
+
+    private TellerProtocol() {
+    }
+
+    /**
+     * Get the body length of a request with a given opcode
+     *
+     * @param opcode Opcode
+     * @return Length after the length prefix, or -1 for an unknown opcode
+     */
+    public static int requestBodyLength(byte opcode) {
+        switch (opcode) {
+            case OP_DEPOSIT:
+            case OP_WITHDRAW:
+                return HEADER_BYTES + 4 + 8;
+            case OP_TRANSFER:
+                return HEADER_BYTES + 4 + 4 + 8;
+            case OP_BALANCE:
+                return HEADER_BYTES + 4;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Get a readable name for a status code
+     *
+     * @param status Status code
+     * @return Name, e.g. INSUFFICIENT_FUNDS
+     */
+    public static String statusName(byte status) {
+        switch (status) {
+            case STATUS_OK:
+                return "OK";
+            case STATUS_INSUFFICIENT_FUNDS:
+                return "INSUFFICIENT_FUNDS";
+            case STATUS_NOT_FOUND:
+                return "NOT_FOUND";
+            case STATUS_NOT_ACTIVE:
+                return "NOT_ACTIVE";
+            case STATUS_INVALID:
+                return "INVALID";
+            case STATUS_RETRY:
+                return "RETRY";
+            case STATUS_ERROR:
+                return "ERROR";
+            default:
+                return "UNKNOWN(" + status + ")";
+        }
+    }
+
+    /**
+     * Write a deposit or withdrawal request
+     *
+     * @param out Buffer with at least 25 bytes remaining
+     * @param opcode OP_DEPOSIT or OP_WITHDRAW
+     * @param requestId Request ID
+     * @param accountId Account ID
+     * @param cents Amount in cents
+     */
+    public static void putPosting(ByteBuffer out, byte opcode, long requestId, int accountId, long cents) {
+        out.putInt(requestBodyLength(opcode)).put(opcode).putLong(requestId).putInt(accountId).putLong(cents);
+    }
+
+    /**
+     * Write a transfer request
+     *
+     * @param out Buffer with at least 29 bytes remaining
+     * @param requestId Request ID
+     * @param fromAccountId Source account ID
+     * @param toAccountId Destination account ID
+     * @param cents Amount in cents
+     */
+    public static void putTransfer(ByteBuffer out, long requestId, int fromAccountId, int toAccountId,
+            long cents) {
+        out.putInt(requestBodyLength(OP_TRANSFER)).put(OP_TRANSFER).putLong(requestId)
+                .putInt(fromAccountId).putInt(toAccountId).putLong(cents);
+    }
+
+    /**
+     * Write a balance inquiry
+     *
+     * @param out Buffer with at least 17 bytes remaining
+     * @param requestId Request ID
+     * @param accountId Account ID
+     */
+    public static void putBalance(ByteBuffer out, long requestId, int accountId) {
+        out.putInt(requestBodyLength(OP_BALANCE)).put(OP_BALANCE).putLong(requestId).putInt(accountId);
+    }
+
+    /**
+     * Write a response
+     *
+     * @param out Buffer with at least RESPONSE_FRAME_BYTES remaining
+     * @param status Status code
+     * @param requestId Request ID being answered
+     * @param transactionId Posted transaction ID, or 0
+     * @param balanceCents Balance in cents, or 0
+     */
+    public static void putResponse(ByteBuffer out, byte status, long requestId, long transactionId,
+            long balanceCents) {
+        out.putInt(RESPONSE_FRAME_BYTES - LENGTH_BYTES).put(status).putLong(requestId)
+                .putLong(transactionId).putLong(balanceCents);
+    }
+}
@@ -0,0 +1,511 @@
+package com.banking.teller;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.banking.ApplicationLifecycle;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.MethodMetrics;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.model.Account;
+import com.banking.model.InsufficientFundsException;
+import com.banking.model.Money;
+import com.banking.model.TransactionResult;
+import com.banking.service.AccountService;
+import com.banking.service.TransactionService;
+import com.banking.util.ThreadUtil;
+
+/**
+ * Non-blocking TCP front end for branch teller terminals speaking the
+ * binary TellerProtocol.
+ *
+ * One selector thread accepts connections, reads and decodes frames and
+ * writes responses. Terminals may pipeline: they can send many requests
+ * without waiting, and each connection's requests are executed in order by
+ * one worker task at a time, on virtual threads when the JVM has them.
+ * Responses are encoded straight into pooled direct buffers, written with
+ * a gathering write and returned to the pool, so the steady state allocates
+ * no buffers and nothing is copied on the way to the socket. A connection
+ * with finvault.teller.maxPipeline requests outstanding is not read from
+ * until it has caught up.
+ *
+ * Example:
+ * java -cp banking-system.jar com.banking.teller.TellerServer --port 9090
+ */
+public class TellerServer {
+
+    private static final int READ_BUFFER_BYTES = 16 * 1024;
+    private static final int RESPONSES_PER_BUFFER = 64;
+    private static final int MAX_GATHER = 16;
+    // Longest a finished response waits for more to share its write
+    private static final long FLUSH_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final String DEPOSIT_DESCRIPTION = "Teller deposit";
+    private static final String WITHDRAWAL_DESCRIPTION = "Teller withdrawal";
+    private static final String TRANSFER_DESCRIPTION = "Teller transfer";
+
+    private final TransactionService transactionService;
+    private final AccountService accountService;
+    private final int maxPipeline = Integer.getInteger("finvault.teller.maxPipeline", 1024);
+
+    private final DirectBufferPool readBuffers = new DirectBufferPool(READ_BUFFER_BYTES, 1024);
+    private final DirectBufferPool writeBuffers = new DirectBufferPool(
+            TellerProtocol.RESPONSE_FRAME_BYTES * RESPONSES_PER_BUFFER, 4096);
+    private final Set<TellerConnection> connections = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<TellerConnection> writeReady = new ConcurrentLinkedQueue<>();
+    // Selector thread only
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private final MethodMetrics[] metrics = new MethodMetrics[TellerProtocol.OP_BALANCE + 1];
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    /**
+     * Constructor with the default services
+     */
+    public TellerServer() {
+        this(new TransactionService(), new AccountService());
+    }
+
+    /**
+     * Constructor with explicit services
+     *
+     * @param transactionService Transaction service
+     * @param accountService Account service, for balance inquiries
+     */
+    public TellerServer(TransactionService transactionService, AccountService accountService) {
+        this.transactionService = transactionService;
+        this.accountService = accountService;
+
+        if (MetricsRegistry.isEnabled()) {
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            metrics[TellerProtocol.OP_DEPOSIT] = registry.method("Teller.deposit");
+            metrics[TellerProtocol.OP_WITHDRAW] = registry.method("Teller.withdraw");
+            metrics[TellerProtocol.OP_TRANSFER] = registry.method("Teller.transfer");
+            metrics[TellerProtocol.OP_BALANCE] = registry.method("Teller.balance");
+            registry.registerGauge("teller.connections", connections::size);
+            registry.registerGauge("teller.directBuffers",
+                    () -> readBuffers.getAllocations() + writeBuffers.getAllocations());
+        }
+    }
+
+    /**
+     * Start listening
+     *
+     * @param host Address to bind, e.g. 0.0.0.0
+     * @param port Port, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void start(String host, int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(host, port), Integer.getInteger("finvault.teller.backlog", 1024));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        workers = ThreadUtil.newPerTaskExecutor("teller-worker", Integer.getInteger("finvault.teller.threads", 64));
+        running = true;
+        selectorThread = new Thread(this::runSelector, "teller-selector");
+        selectorThread.start();
+    }
+
+    /**
+     * Stop gracefully: stop accepting connections, let the queued requests
+     * finish and their responses go out, then close everything
+     *
+     * @param graceSeconds Longest time to wait for queued requests
+     */
+    public synchronized void stop(int graceSeconds) {
+        if (!running) {
+            return;
+        }
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing teller listener: " + e.getMessage());
+        }
+        selector.wakeup();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(graceSeconds);
+        try {
+            while (System.nanoTime() < deadline && hasPendingWork()) {
+                Thread.sleep(10);
+            }
+            running = false;
+            selector.wakeup();
+            selectorThread.join(TimeUnit.SECONDS.toMillis(graceSeconds) + 1000);
+            workers.shutdown();
+            if (!workers.awaitTermination(graceSeconds, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running = false;
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the port the server listens on
+     *
+     * @return Port, or -1 if not started
+     */
+    public synchronized int getPort() {
+        return serverChannel == null ? -1 : serverChannel.socket().getLocalPort();
+    }
+
+    private boolean hasPendingWork() {
+        for (TellerConnection conn : connections) {
+            if (conn.pending.get() > 0 || !conn.outbound.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runSelector() {
+        try {
+            while (running) {
+                selector.select();
+                processWriteReady();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    TellerConnection conn = (TellerConnection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(conn);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(conn);
+                        }
+                    } catch (IOException e) {
+                        close(conn);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Teller selector failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            for (TellerConnection conn : connections) {
+                close(conn);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                /* ignore */
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        TellerConnection conn = new TellerConnection(channel, key, readBuffers.acquire());
+        key.attach(conn);
+        connections.add(conn);
+    }
+
+    private void read(TellerConnection conn) throws IOException {
+        if (conn.channel.read(conn.readBuffer) < 0) {
+            close(conn);
+            return;
+        }
+        if (conn.decode() > 0 && conn.scheduled.compareAndSet(false, true)) {
+            workers.execute(() -> drain(conn));
+        }
+        if (conn.pending.get() >= maxPipeline) {
+            conn.readPaused = true;
+            conn.key.interestOps(conn.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    private void processWriteReady() {
+        TellerConnection conn;
+        while ((conn = writeReady.poll()) != null) {
+            if (conn.closed) {
+                continue;
+            }
+            try {
+                write(conn);
+                if (conn.readPaused && conn.pending.get() < maxPipeline / 2) {
+                    conn.readPaused = false;
+                    conn.key.interestOps(conn.key.interestOps() | SelectionKey.OP_READ);
+                }
+            } catch (IOException e) {
+                close(conn);
+            }
+        }
+    }
+
+    private void write(TellerConnection conn) throws IOException {
+        try {
+            while (true) {
+                int count = 0;
+                for (ByteBuffer buffer : conn.outbound) {
+                    gather[count++] = buffer;
+                    if (count == MAX_GATHER) {
+                        break;
+                    }
+                }
+                if (count == 0) {
+                    conn.key.interestOps(conn.key.interestOps() & ~SelectionKey.OP_WRITE);
+                    return;
+                }
+
+                conn.channel.write(gather, 0, count);
+                ByteBuffer head;
+                while ((head = conn.outbound.peek()) != null && !head.hasRemaining()) {
+                    conn.outbound.poll();
+                    writeBuffers.release(head);
+                }
+                if (gather[count - 1].hasRemaining()) {
+                    // Socket buffer is full, continue when it drains
+                    conn.key.interestOps(conn.key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+        } finally {
+            Arrays.fill(gather, null);
+        }
+    }
+
+    private void close(TellerConnection conn) {
+        if (conn.closed) {
+            return;
+        }
+        conn.closed = true;
+        conn.key.cancel();
+        try {
+            conn.channel.close();
+        } catch (IOException e) {
+            /* ignore */
+        }
+        connections.remove(conn);
+        readBuffers.release(conn.readBuffer);
+        releaseOutbound(conn);
+    }
+
+    private void releaseOutbound(TellerConnection conn) {
+        ByteBuffer buffer;
+        while ((buffer = conn.outbound.poll()) != null) {
+            writeBuffers.release(buffer);
+        }
+    }
+
+    /**
+     * Execute a connection's queued requests in order, runs on a worker
+     *
+     * @param conn Connection whose task this is
+     */
+    private void drain(TellerConnection conn) {
+        ByteBuffer out = null;
+        long firstResponseNanos = 0;
+        while (true) {
+            TellerConnection.Request request = conn.closed ? null : conn.requests.poll();
+            if (request == null) {
+                if (out != null) {
+                    flush(conn, out);
+                    out = null;
+                }
+                if (conn.closed) {
+                    // The terminal is gone, it cannot learn the outcome of what is left
+                    conn.requests.clear();
+                    conn.pending.set(0);
+                }
+                conn.scheduled.set(false);
+                // A request may have been queued after the poll but before the flag was cleared
+                if (conn.closed || conn.requests.isEmpty() || !conn.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            if (out == null) {
+                out = writeBuffers.acquire();
+                firstResponseNanos = System.nanoTime();
+            }
+            execute(request, out);
+            conn.pending.decrementAndGet();
+            if (out.remaining() < TellerProtocol.RESPONSE_FRAME_BYTES
+                    || System.nanoTime() - firstResponseNanos > FLUSH_NANOS) {
+                flush(conn, out);
+                out = null;
+            }
+        }
+    }
+
+    private void flush(TellerConnection conn, ByteBuffer out) {
+        out.flip();
+        conn.outbound.offer(out);
+        if (conn.closed) {
+            releaseOutbound(conn);
+            return;
+        }
+        writeReady.offer(conn);
+        selector.wakeup();
+    }
+
+    private void execute(TellerConnection.Request request, ByteBuffer out) {
+        long start = System.nanoTime();
+        byte status = TellerProtocol.STATUS_OK;
+        long transactionId = 0;
+        long balanceCents = 0;
+        try {
+            TransactionResult result;
+            switch (request.opcode) {
+                case TellerProtocol.OP_DEPOSIT:
+                    result = transactionService.performDeposit(request.accountId,
+                            Money.ofMinor(request.cents).toBigDecimal(), DEPOSIT_DESCRIPTION);
+                    break;
+                case TellerProtocol.OP_WITHDRAW:
+                    result = transactionService.performWithdrawal(request.accountId,
+                            Money.ofMinor(request.cents).toBigDecimal(), WITHDRAWAL_DESCRIPTION);
+                    break;
+                case TellerProtocol.OP_TRANSFER:
+                    result = transactionService.performTransfer(request.accountId, request.toAccountId,
+                            Money.ofMinor(request.cents).toBigDecimal(), TRANSFER_DESCRIPTION);
+                    break;
+                default:
+                    result = null;
+                    BigDecimal balance = currentBalance(request.accountId);
+                    if (balance == null) {
+                        status = TellerProtocol.STATUS_NOT_FOUND;
+                    } else {
+                        balanceCents = Money.of(balance).getMinorUnits();
+                    }
+            }
+            if (result != null) {
+                // The outgoing leg comes first for transfers
+                transactionId = result.getTransaction().getTransactionId();
+                BigDecimal balance = result.getNewBalances().get(request.accountId);
+                balanceCents = balance != null ? Money.of(balance).getMinorUnits() : 0;
+            }
+        } catch (Exception e) {
+            status = statusFor(e);
+            if (status == TellerProtocol.STATUS_ERROR) {
+                System.err.println("Teller request " + request.requestId + " failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        TellerProtocol.putResponse(out, status, request.requestId, transactionId, balanceCents);
+        MethodMetrics metric = metrics[request.opcode];
+        if (metric != null) {
+            metric.record(System.nanoTime() - start, 0, 0, status == TellerProtocol.STATUS_ERROR);
+        }
+    }
+
+    private BigDecimal currentBalance(int accountId) throws Exception {
+        // The ledger engine holds the latest balance while it runs
+        LedgerEngine engine = LedgerEngine.current();
+        BigDecimal engineBalance = engine != null ? engine.getBalance(accountId) : null;
+        if (engineBalance != null) {
+            return engineBalance;
+        }
+        Account account = accountService.getAccountById(accountId);
+        return account != null ? account.getBalance() : null;
+    }
+
+    /**
+     * Map an exception from the services to a response status
+     *
+     * @param e Exception
+     * @return Status code
+     */
+    private static byte statusFor(Exception e) {
+        if (e instanceof InsufficientFundsException) {
+            return TellerProtocol.STATUS_INSUFFICIENT_FUNDS;
+        }
+        if (e instanceof IllegalArgumentException) {
+            // The services report unknown IDs as "... not found: <id>"
+            String message = e.getMessage();
+            return message != null && message.contains("not found")
+                    ? TellerProtocol.STATUS_NOT_FOUND : TellerProtocol.STATUS_INVALID;
+        }
+        if (e instanceof IllegalStateException) {
+            return TellerProtocol.STATUS_NOT_ACTIVE;
+        }
+        if (e instanceof SQLException) {
+            String state = ((SQLException) e).getSQLState();
+            if (state != null && state.startsWith("40")) {
+                return TellerProtocol.STATUS_RETRY;
+            }
+        }
+        return TellerProtocol.STATUS_ERROR;
+    }
+
+    /**
+     * Run the teller server until the process is stopped
+     *
+     * @param args --host (default 0.0.0.0) and --port (default 9090)
+     */
+    public static void main(String[] args) {
+        String host = "0.0.0.0";
+        int port = 9090;
+        for (int i = 0; i < args.length; i++) {
+            if ("--host".equals(args[i]) && i + 1 < args.length) {
+                host = args[++i];
+            } else if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: TellerServer [--host <address>] [--port <port>]");
+                System.exit(2);
+            }
+        }
+
+        if (!ApplicationLifecycle.start()) {
+            System.err.println("Failed to initialize database. Exiting...");
+            System.exit(1);
+        }
+
+        TellerServer server = new TellerServer();
+        try {
+            server.start(host, port);
+        } catch (IOException e) {
+            System.err.println("Could not listen on " + host + ":" + port + ": " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("FinVault teller server listening on " + host + ":" + server.getPort());
+
+        int graceSeconds = Integer.getInteger("finvault.teller.shutdownSeconds", 10);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Stopping teller server...");
+            server.stop(graceSeconds);
+            ApplicationLifecycle.stop();
+        }));
+    }
+}
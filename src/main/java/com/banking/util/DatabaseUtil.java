@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.YearMonth;
 
 import com.banking.config.DatabaseConfig;
 
@@ -31,20 +32,347 @@ public class DatabaseUtil {
         "balance DECIMAL(15, 2) NOT NULL, " +
         "interest_rate DECIMAL(5, 4), " + // For savings accounts (rate) or current accounts (overdraft limit)
         "date_opened TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-        "status VARCHAR(20) DEFAULT 'ACTIVE'" +
+        "status VARCHAR(20) DEFAULT 'ACTIVE', " +
+        "balance_stripes INTEGER NOT NULL DEFAULT 0" + // Sub-balance rows taking credits, 0 when not striped
         ")";
+
+    // Databases created before balance striping
+    private static final String ADD_ACCOUNTS_BALANCE_STRIPES_COLUMN_SQL =
+        "ALTER TABLE accounts ADD COLUMN IF NOT EXISTS balance_stripes INTEGER NOT NULL DEFAULT 0";
+
+    // Credits to a striped account land on one of its stripes instead of the
+    // accounts row; its balance is accounts.balance plus the stripes. Updated
+    // in place all the time, so leave room for HOT updates
+    private static final String CREATE_ACCOUNT_BALANCE_STRIPES_TABLE_SQL =
+        "CREATE TABLE account_balance_stripes (" +
+        "account_id INTEGER NOT NULL REFERENCES accounts(account_id) ON DELETE CASCADE, " +
+        "stripe INTEGER NOT NULL, " +
+        "balance DECIMAL(15, 2) NOT NULL DEFAULT 0, " +
+        "PRIMARY KEY (account_id, stripe)" +
+        ") WITH (fillfactor = 50)";
     
-    private static final String CREATE_TRANSACTIONS_TABLE_SQL =
-        "CREATE TABLE transactions (" +
-        "transaction_id BIGSERIAL PRIMARY KEY, " +
+    // Account history pages walk one account's rows by descending ID
+    static final String CREATE_TRANSACTIONS_ACCOUNT_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_transactions_account_id " +
+        "ON transactions (account_id, transaction_id)";
+
+    // Last ledger engine journal sequence written to the database, single row
+    private static final String CREATE_LEDGER_CHECKPOINT_TABLE_SQL =
+        "CREATE TABLE ledger_checkpoint (" +
+        "checkpoint_id INTEGER PRIMARY KEY, " +
+        "flushed_sequence BIGINT NOT NULL" +
+        ")";
+
+    private static final String SEED_LEDGER_CHECKPOINT_SQL =
+        "INSERT INTO ledger_checkpoint (checkpoint_id, flushed_sequence) VALUES (1, 0) " +
+        "ON CONFLICT (checkpoint_id) DO NOTHING";
+
+    // Opening and closing balance of each monthly statement, so the next
+    // month's statement opens where the last one closed
+    private static final String CREATE_STATEMENT_BALANCES_TABLE_SQL =
+        "CREATE TABLE statement_balances (" +
         "account_id INTEGER NOT NULL REFERENCES accounts(account_id), " +
-        "transaction_type VARCHAR(20) NOT NULL, " + // 'DEPOSIT', 'WITHDRAWAL', 'TRANSFER_OUT', 'TRANSFER_IN'
+        "period_start DATE NOT NULL, " +
+        "opening_balance DECIMAL(15, 2) NOT NULL, " +
+        "closing_balance DECIMAL(15, 2) NOT NULL, " +
+        "PRIMARY KEY (account_id, period_start)" +
+        ")";
+
+    // One row per reconciliation run, and one report row per account whose
+    // stored balance differs from the sum of its transactions
+    private static final String CREATE_RECONCILIATION_RUNS_TABLE_SQL =
+        "CREATE TABLE reconciliation_runs (" +
+        "run_id BIGSERIAL PRIMARY KEY, " +
+        "started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+        "finished_at TIMESTAMP, " +
+        "sample_fraction DECIMAL(5, 4) NOT NULL, " +
+        "accounts_checked BIGINT, " +
+        "discrepancies BIGINT" +
+        ")";
+
+    private static final String CREATE_RECONCILIATION_REPORT_TABLE_SQL =
+        "CREATE TABLE reconciliation_report (" +
+        "run_id BIGINT NOT NULL REFERENCES reconciliation_runs(run_id), " +
+        "account_id INTEGER NOT NULL, " +
+        "stored_balance DECIMAL(15, 2) NOT NULL, " +
+        "ledger_balance DECIMAL(15, 2) NOT NULL, " +
+        "difference DECIMAL(15, 2) NOT NULL, " +
+        "transaction_count BIGINT NOT NULL, " +
+        "PRIMARY KEY (run_id, account_id)" +
+        ")";
+
+    // The purger detaches a deleted account's transfers from their counterparts
+    static final String CREATE_TRANSACTIONS_RECIPIENT_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_transactions_recipient_account_id " +
+        "ON transactions (recipient_account_id) WHERE recipient_account_id IS NOT NULL";
+
+    // The columnar store re-checks the last few minutes of transactions; rows
+    // arrive in date order, so a BRIN index is tiny and nearly free to maintain
+    static final String CREATE_TRANSACTIONS_DATE_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_transactions_date ON transactions USING brin (transaction_date)";
+
+    // Deleted customers and accounts waiting for their rows to be removed,
+    // with the purger's progress
+    private static final String CREATE_PURGE_QUEUE_TABLE_SQL =
+        "CREATE TABLE purge_queue (" +
+        "purge_id BIGSERIAL PRIMARY KEY, " +
+        "entity_type VARCHAR(10) NOT NULL, " + // 'ACCOUNT' or 'CUSTOMER'
+        "entity_id INTEGER NOT NULL, " +
+        "requested_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+        "started_at TIMESTAMP, " +
+        "finished_at TIMESTAMP, " +
+        "rows_purged BIGINT NOT NULL DEFAULT 0, " +
+        "UNIQUE (entity_type, entity_id)" +
+        ")";
+
+    // Transactions moved out of the live table by the archiver. Same columns,
+    // no foreign keys: archived rows are never updated
+    private static final String CREATE_TRANSACTIONS_ARCHIVE_TABLE_SQL =
+        "CREATE TABLE transactions_archive (" +
+        "transaction_id BIGINT PRIMARY KEY, " +
+        "account_id INTEGER NOT NULL, " +
+        "transaction_type VARCHAR(20) NOT NULL, " +
         "amount DECIMAL(15, 2) NOT NULL, " +
-        "transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+        "transaction_date TIMESTAMP, " +
         "description TEXT, " +
-        "recipient_account_id INTEGER REFERENCES accounts(account_id)" +
+        "recipient_account_id INTEGER" +
         ")";
 
+    private static final String CREATE_TRANSACTIONS_ARCHIVE_ACCOUNT_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_transactions_archive_account_id " +
+        "ON transactions_archive (account_id, transaction_id)";
+
+    // Signed sum and count of each account's archived transactions, so the
+    // live rows plus the carry-forward still add up to the balance
+    private static final String CREATE_ACCOUNT_CARRY_FORWARD_TABLE_SQL =
+        "CREATE TABLE account_carry_forward (" +
+        "account_id INTEGER PRIMARY KEY REFERENCES accounts(account_id) ON DELETE CASCADE, " +
+        "archived_before TIMESTAMP NOT NULL, " +
+        "balance DECIMAL(15, 2) NOT NULL, " +
+        "transaction_count BIGINT NOT NULL, " +
+        "last_transaction_id BIGINT" +
+        ")";
+
+    // Archive horizon, single row: transactions before it may be archived
+    private static final String CREATE_TRANSACTION_ARCHIVE_STATE_TABLE_SQL =
+        "CREATE TABLE transaction_archive_state (" +
+        "state_id INTEGER PRIMARY KEY, " +
+        "archived_before TIMESTAMP" +
+        ")";
+
+    private static final String SEED_TRANSACTION_ARCHIVE_STATE_SQL =
+        "INSERT INTO transaction_archive_state (state_id, archived_before) VALUES (1, NULL) " +
+        "ON CONFLICT (state_id) DO NOTHING";
+
+    // Ledger functions: validation, row locking, balance update and ledger
+    // insert in one round trip. Errors use custom SQLSTATEs so callers can
+    // map them back to exceptions: FV001 insufficient funds, FV002 account
+    // not found, FV003 account not active, 22023 invalid amount.
+    private static final String CREATE_FV_DEPOSIT_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION fv_deposit(p_account_id INTEGER, p_amount NUMERIC, p_description TEXT, " +
+        "OUT o_transaction_id BIGINT, OUT o_balance NUMERIC, OUT o_transaction_date TIMESTAMP) " +
+        "LANGUAGE plpgsql AS $$ " +
+        "DECLARE v_status VARCHAR(20); v_stripes INTEGER; " +
+        "BEGIN " +
+        "  IF p_amount IS NULL OR p_amount <= 0 THEN " +
+        "    RAISE EXCEPTION 'Deposit amount must be positive' USING ERRCODE = '22023'; " +
+        "  END IF; " +
+        // Striped accounts are only share-locked, so concurrent credits do not queue on the row
+        "  SELECT balance_stripes INTO v_stripes FROM accounts WHERE account_id = p_account_id; " +
+        "  IF v_stripes > 0 THEN " +
+        "    SELECT status, balance_stripes INTO v_status, v_stripes FROM accounts " +
+        "      WHERE account_id = p_account_id FOR SHARE; " +
+        "    IF v_stripes = 0 THEN " +
+        "      RAISE EXCEPTION 'Balance striping changed, retry' USING ERRCODE = '40001'; " +
+        "    END IF; " +
+        "  ELSE " +
+        "    SELECT status, balance_stripes INTO v_status, v_stripes FROM accounts " +
+        "      WHERE account_id = p_account_id FOR UPDATE; " +
+        "  END IF; " +
+        "  IF NOT FOUND THEN " +
+        "    RAISE EXCEPTION 'Account not found: %', p_account_id USING ERRCODE = 'FV002'; " +
+        "  END IF; " +
+        "  IF v_status IS DISTINCT FROM 'ACTIVE' THEN " +
+        "    RAISE EXCEPTION 'Cannot deposit to a non-active account' USING ERRCODE = 'FV003'; " +
+        "  END IF; " +
+        "  IF v_stripes > 0 THEN " +
+        "    o_balance := fv_credit_stripe(p_account_id, v_stripes, p_amount); " +
+        "  ELSE " +
+        "    UPDATE accounts SET balance = balance + p_amount WHERE account_id = p_account_id " +
+        "      RETURNING balance INTO o_balance; " +
+        "  END IF; " +
+        "  o_transaction_date := LOCALTIMESTAMP; " +
+        "  INSERT INTO transactions (account_id, transaction_type, amount, transaction_date, description) " +
+        "    VALUES (p_account_id, 'DEPOSIT', p_amount, o_transaction_date, p_description) " +
+        "    RETURNING transaction_id INTO o_transaction_id; " +
+        "END $$";
+
+    private static final String CREATE_FV_WITHDRAW_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION fv_withdraw(p_account_id INTEGER, p_amount NUMERIC, p_description TEXT, " +
+        "OUT o_transaction_id BIGINT, OUT o_balance NUMERIC, OUT o_transaction_date TIMESTAMP) " +
+        "LANGUAGE plpgsql AS $$ " +
+        "DECLARE v_account accounts%ROWTYPE; " +
+        "BEGIN " +
+        "  IF p_amount IS NULL OR p_amount <= 0 THEN " +
+        "    RAISE EXCEPTION 'Withdrawal amount must be positive' USING ERRCODE = '22023'; " +
+        "  END IF; " +
+        "  SELECT * INTO v_account FROM accounts WHERE account_id = p_account_id FOR UPDATE; " +
+        "  IF NOT FOUND THEN " +
+        "    RAISE EXCEPTION 'Account not found: %', p_account_id USING ERRCODE = 'FV002'; " +
+        "  END IF; " +
+        "  IF v_account.status IS DISTINCT FROM 'ACTIVE' THEN " +
+        "    RAISE EXCEPTION 'Cannot withdraw from a non-active account' USING ERRCODE = 'FV003'; " +
+        "  END IF; " +
+        "  IF v_account.balance_stripes > 0 THEN " +
+        "    v_account.balance := v_account.balance + fv_fold_balance_stripes(p_account_id); " +
+        "  END IF; " +
+        "  IF fv_available_balance(v_account) < p_amount THEN " +
+        "    RAISE EXCEPTION 'Insufficient funds for withdrawal' USING ERRCODE = 'FV001'; " +
+        "  END IF; " +
+        "  UPDATE accounts SET balance = balance - p_amount WHERE account_id = p_account_id " +
+        "    RETURNING balance INTO o_balance; " +
+        "  o_transaction_date := LOCALTIMESTAMP; " +
+        "  INSERT INTO transactions (account_id, transaction_type, amount, transaction_date, description) " +
+        "    VALUES (p_account_id, 'WITHDRAWAL', p_amount, o_transaction_date, p_description) " +
+        "    RETURNING transaction_id INTO o_transaction_id; " +
+        "END $$";
+
+    private static final String CREATE_FV_TRANSFER_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION fv_transfer(p_from_account_id INTEGER, p_to_account_id INTEGER, " +
+        "p_amount NUMERIC, p_description TEXT, " +
+        "OUT o_out_transaction_id BIGINT, OUT o_in_transaction_id BIGINT, " +
+        "OUT o_from_balance NUMERIC, OUT o_to_balance NUMERIC, OUT o_transaction_date TIMESTAMP) " +
+        "LANGUAGE plpgsql AS $$ " +
+        "DECLARE v_from accounts%ROWTYPE; v_to accounts%ROWTYPE; v_to_stripes INTEGER; " +
+        "BEGIN " +
+        "  IF p_amount IS NULL OR p_amount <= 0 THEN " +
+        "    RAISE EXCEPTION 'Transfer amount must be positive' USING ERRCODE = '22023'; " +
+        "  END IF; " +
+        "  IF p_from_account_id = p_to_account_id THEN " +
+        "    RAISE EXCEPTION 'Cannot transfer to the same account' USING ERRCODE = '22023'; " +
+        "  END IF; " +
+        // Lock in account ID order; a striped destination is only share-locked
+        "  SELECT balance_stripes INTO v_to_stripes FROM accounts WHERE account_id = p_to_account_id; " +
+        "  IF v_to_stripes > 0 AND p_from_account_id < p_to_account_id THEN " +
+        "    PERFORM 1 FROM accounts WHERE account_id = p_from_account_id FOR UPDATE; " +
+        "    PERFORM 1 FROM accounts WHERE account_id = p_to_account_id FOR SHARE; " +
+        "  ELSIF v_to_stripes > 0 THEN " +
+        "    PERFORM 1 FROM accounts WHERE account_id = p_to_account_id FOR SHARE; " +
+        "    PERFORM 1 FROM accounts WHERE account_id = p_from_account_id FOR UPDATE; " +
+        "  ELSE " +
+        "    PERFORM 1 FROM accounts WHERE account_id IN (p_from_account_id, p_to_account_id) " +
+        "      ORDER BY account_id FOR UPDATE; " +
+        "  END IF; " +
+        "  SELECT * INTO v_from FROM accounts WHERE account_id = p_from_account_id; " +
+        "  IF NOT FOUND THEN " +
+        "    RAISE EXCEPTION 'Source account not found: %', p_from_account_id USING ERRCODE = 'FV002'; " +
+        "  END IF; " +
+        "  SELECT * INTO v_to FROM accounts WHERE account_id = p_to_account_id; " +
+        "  IF NOT FOUND THEN " +
+        "    RAISE EXCEPTION 'Destination account not found: %', p_to_account_id USING ERRCODE = 'FV002'; " +
+        "  END IF; " +
+        "  IF v_from.status IS DISTINCT FROM 'ACTIVE' THEN " +
+        "    RAISE EXCEPTION 'Cannot transfer from a non-active account' USING ERRCODE = 'FV003'; " +
+        "  END IF; " +
+        "  IF v_to.status IS DISTINCT FROM 'ACTIVE' THEN " +
+        "    RAISE EXCEPTION 'Cannot transfer to a non-active account' USING ERRCODE = 'FV003'; " +
+        "  END IF; " +
+        "  IF v_to_stripes > 0 AND v_to.balance_stripes = 0 THEN " +
+        "    RAISE EXCEPTION 'Balance striping changed, retry' USING ERRCODE = '40001'; " +
+        "  END IF; " +
+        "  IF v_from.balance_stripes > 0 THEN " +
+        "    v_from.balance := v_from.balance + fv_fold_balance_stripes(p_from_account_id); " +
+        "  END IF; " +
+        "  IF fv_available_balance(v_from) < p_amount THEN " +
+        "    RAISE EXCEPTION 'Insufficient funds for transfer' USING ERRCODE = 'FV001'; " +
+        "  END IF; " +
+        "  UPDATE accounts SET balance = balance - p_amount WHERE account_id = p_from_account_id " +
+        "    RETURNING balance INTO o_from_balance; " +
+        "  IF v_to.balance_stripes > 0 THEN " +
+        "    o_to_balance := fv_credit_stripe(p_to_account_id, v_to.balance_stripes, p_amount); " +
+        "  ELSE " +
+        "    UPDATE accounts SET balance = balance + p_amount WHERE account_id = p_to_account_id " +
+        "      RETURNING balance INTO o_to_balance; " +
+        "  END IF; " +
+        "  o_transaction_date := LOCALTIMESTAMP; " +
+        "  INSERT INTO transactions (account_id, transaction_type, amount, transaction_date, description, recipient_account_id) " +
+        "    VALUES (p_from_account_id, 'TRANSFER_OUT', p_amount, o_transaction_date, " +
+        "            'Transfer to account #' || p_to_account_id || ': ' || p_description, p_to_account_id) " +
+        "    RETURNING transaction_id INTO o_out_transaction_id; " +
+        "  INSERT INTO transactions (account_id, transaction_type, amount, transaction_date, description, recipient_account_id) " +
+        "    VALUES (p_to_account_id, 'TRANSFER_IN', p_amount, o_transaction_date, " +
+        "            'Transfer from account #' || p_from_account_id || ': ' || p_description, p_from_account_id) " +
+        "    RETURNING transaction_id INTO o_in_transaction_id; " +
+        "END $$";
+
+    // Balance plus overdraft; CURRENT accounts keep their overdraft limit in interest_rate
+    private static final String CREATE_FV_AVAILABLE_BALANCE_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION fv_available_balance(p_account accounts) RETURNS NUMERIC " +
+        "LANGUAGE sql IMMUTABLE AS $$ " +
+        "SELECT p_account.balance + CASE WHEN p_account.account_type = 'CURRENT' " +
+        "THEN COALESCE(p_account.interest_rate, 0) ELSE 0 END " +
+        "$$";
+
+    // Balance of an account including its stripes, for reads
+    private static final String CREATE_FV_BALANCE_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION fv_balance(p_account accounts) RETURNS NUMERIC " +
+        "LANGUAGE sql STABLE AS $$ " +
+        "SELECT p_account.balance + CASE WHEN p_account.balance_stripes > 0 " +
+        "THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_stripes s " +
+        "WHERE s.account_id = p_account.account_id) ELSE 0 END " +
+        "$$";
+
+    // Add a credit to a random stripe and return the account's balance.
+    // The caller holds the account row FOR SHARE
+    private static final String CREATE_FV_CREDIT_STRIPE_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION fv_credit_stripe(p_account_id INTEGER, p_stripes INTEGER, p_amount NUMERIC) " +
+        "RETURNS NUMERIC LANGUAGE plpgsql AS $$ " +
+        "DECLARE v_balance NUMERIC; " +
+        "BEGIN " +
+        "  INSERT INTO account_balance_stripes (account_id, stripe, balance) " +
+        "    VALUES (p_account_id, floor(random() * p_stripes)::INTEGER, p_amount) " +
+        "    ON CONFLICT (account_id, stripe) DO UPDATE " +
+        "    SET balance = account_balance_stripes.balance + EXCLUDED.balance; " +
+        "  SELECT fv_balance(a) INTO v_balance FROM accounts a WHERE a.account_id = p_account_id; " +
+        "  RETURN v_balance; " +
+        "END $$";
+
+    // Move the stripes into accounts.balance and return the amount moved.
+    // The caller holds the account row FOR UPDATE, which waits out every
+    // credit in flight and keeps new ones off the stripes
+    private static final String CREATE_FV_FOLD_BALANCE_STRIPES_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION fv_fold_balance_stripes(p_account_id INTEGER) RETURNS NUMERIC " +
+        "LANGUAGE plpgsql AS $$ " +
+        "DECLARE v_pending NUMERIC; " +
+        "BEGIN " +
+        "  SELECT COALESCE(SUM(balance), 0) INTO v_pending FROM account_balance_stripes " +
+        "    WHERE account_id = p_account_id; " +
+        "  IF v_pending <> 0 THEN " +
+        "    UPDATE account_balance_stripes SET balance = 0 WHERE account_id = p_account_id AND balance <> 0; " +
+        "    UPDATE accounts SET balance = balance + v_pending WHERE account_id = p_account_id; " +
+        "  END IF; " +
+        "  RETURN v_pending; " +
+        "END $$";
+
+    // Turn striping on with a number of stripes, or off with 0
+    private static final String CREATE_FV_SET_BALANCE_STRIPES_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION fv_set_balance_stripes(p_account_id INTEGER, p_stripes INTEGER) " +
+        "RETURNS VOID LANGUAGE plpgsql AS $$ " +
+        "BEGIN " +
+        "  IF p_stripes IS NULL OR p_stripes < 0 THEN " +
+        "    RAISE EXCEPTION 'Stripe count must not be negative' USING ERRCODE = '22023'; " +
+        "  END IF; " +
+        "  PERFORM 1 FROM accounts WHERE account_id = p_account_id FOR UPDATE; " +
+        "  IF NOT FOUND THEN " +
+        "    RAISE EXCEPTION 'Account not found: %', p_account_id USING ERRCODE = 'FV002'; " +
+        "  END IF; " +
+        "  PERFORM fv_fold_balance_stripes(p_account_id); " +
+        "  DELETE FROM account_balance_stripes WHERE account_id = p_account_id; " +
+        "  INSERT INTO account_balance_stripes (account_id, stripe) " +
+        "    SELECT p_account_id, generate_series(0, p_stripes - 1); " +
+        "  UPDATE accounts SET balance_stripes = p_stripes WHERE account_id = p_account_id; " +
+        "END $$";
+
     public static boolean initializeDatabase() {
         DatabaseConfig dbConfig = DatabaseConfig.getInstance();
         
@@ -62,10 +390,102 @@ public class DatabaseUtil {
                     stmt.execute();
                 }
             }
+            try (PreparedStatement stmt = conn.prepareStatement(ADD_ACCOUNTS_BALANCE_STRIPES_COLUMN_SQL)) {
+                stmt.execute();
+            }
             
-            // Check and create transactions table
+            // Check and create transactions table, partitioned by month; a plain
+            // table from an older version keeps working until it is migrated
             if (!tableExists(conn, "transactions")) {
-                try (PreparedStatement stmt = conn.prepareStatement(CREATE_TRANSACTIONS_TABLE_SQL)) {
+                TransactionPartitions.createPartitionedTable(conn);
+            } else if (TransactionPartitions.isPartitioned(conn)) {
+                YearMonth now = YearMonth.now();
+                TransactionPartitions.ensurePartitions(conn, now,
+                        now.plusMonths(TransactionPartitions.getAheadMonths()));
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(CREATE_TRANSACTIONS_ACCOUNT_INDEX_SQL)) {
+                stmt.execute();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(CREATE_TRANSACTIONS_RECIPIENT_INDEX_SQL)) {
+                stmt.execute();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(CREATE_TRANSACTIONS_DATE_INDEX_SQL)) {
+                stmt.execute();
+            }
+            
+            // Check and create the ledger engine checkpoint
+            if (!tableExists(conn, "ledger_checkpoint")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_LEDGER_CHECKPOINT_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(SEED_LEDGER_CHECKPOINT_SQL)) {
+                stmt.execute();
+            }
+            
+            // Check and create the statement balance snapshots
+            if (!tableExists(conn, "statement_balances")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_STATEMENT_BALANCES_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            
+            // Check and create the reconciliation tables
+            if (!tableExists(conn, "reconciliation_runs")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_RECONCILIATION_RUNS_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            if (!tableExists(conn, "reconciliation_report")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_RECONCILIATION_REPORT_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            
+            // Check and create the transaction archive
+            if (!tableExists(conn, "transactions_archive")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_TRANSACTIONS_ARCHIVE_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(CREATE_TRANSACTIONS_ARCHIVE_ACCOUNT_INDEX_SQL)) {
+                stmt.execute();
+            }
+            if (!tableExists(conn, "account_carry_forward")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_ACCOUNT_CARRY_FORWARD_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            if (!tableExists(conn, "transaction_archive_state")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_TRANSACTION_ARCHIVE_STATE_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(SEED_TRANSACTION_ARCHIVE_STATE_SQL)) {
+                stmt.execute();
+            }
+            
+            // Check and create the purge queue
+            if (!tableExists(conn, "purge_queue")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_PURGE_QUEUE_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            
+            // Check and create the balance stripes of hot accounts
+            if (!tableExists(conn, "account_balance_stripes")) {
+                try (PreparedStatement stmt = conn.prepareStatement(CREATE_ACCOUNT_BALANCE_STRIPES_TABLE_SQL)) {
+                    stmt.execute();
+                }
+            }
+            
+            // (Re)create the ledger functions, CREATE OR REPLACE keeps them current
+            for (String sql : new String[]{CREATE_FV_AVAILABLE_BALANCE_FUNCTION_SQL,
+                    CREATE_FV_BALANCE_FUNCTION_SQL, CREATE_FV_CREDIT_STRIPE_FUNCTION_SQL,
+                    CREATE_FV_FOLD_BALANCE_STRIPES_FUNCTION_SQL, CREATE_FV_SET_BALANCE_STRIPES_FUNCTION_SQL,
+                    CREATE_FV_DEPOSIT_FUNCTION_SQL, CREATE_FV_WITHDRAW_FUNCTION_SQL,
+                    CREATE_FV_TRANSFER_FUNCTION_SQL}) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                     stmt.execute();
                 }
             }
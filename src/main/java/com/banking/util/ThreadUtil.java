@@ -0,0 +1,48 @@
+package com.banking.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility class for creating executors
+ */
+public class ThreadUtil {
+
+    /**
+     * Create an executor that starts a virtual thread per task when the JVM
+     * has them (Java 21+), otherwise a fixed pool of daemon platform threads.
+     * The project compiles for Java 11, so virtual threads are looked up by
+     * reflection.
+     *
+     * @param fallbackName Name prefix of the platform threads
+     * @param fallbackThreads Size of the platform thread pool
+     * @return Executor
+     */
+    public static ExecutorService newPerTaskExecutor(String fallbackName, int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(fallbackThreads, runnable -> {
+                Thread thread = new Thread(runnable, fallbackName + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Check whether newPerTaskExecutor() uses virtual threads
+     *
+     * @return true on Java 21 and later
+     */
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
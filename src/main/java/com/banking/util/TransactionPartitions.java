@@ -0,0 +1,296 @@
+package com.banking.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Schema management for the transactions table partitioned by month of
+ * transaction_date.
+ *
+ * Each month is a partition named transactions_yYYYYmMM. Rows outside every
+ * month partition land in transactions_default; creating the partition for
+ * their month later moves them out of it. Date-bounded queries then only
+ * touch the months they ask for, and old months can be detached whole
+ * instead of deleted row by row.
+ */
+public final class TransactionPartitions {
+
+    /**
+     * System property for how many months ahead of the current one to keep
+     * partitions ready
+     */
+    public static final String AHEAD_MONTHS_PROPERTY = "finvault.partitions.aheadMonths";
+
+    /**
+     * Partition that takes rows of months without a partition of their own
+     */
+    public static final String DEFAULT_PARTITION = "transactions_default";
+
+    private static final String SEQUENCE = "transactions_transaction_id_seq";
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_y(\\d{4})m(\\d{2})");
+
+    private static final String IS_PARTITIONED_SQL =
+        "SELECT EXISTS (SELECT FROM pg_partitioned_table WHERE partrelid = to_regclass('transactions'))";
+
+    private static final String LIST_PARTITIONS_SQL =
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "WHERE i.inhparent = 'transactions'::regclass";
+
+    private static final String CREATE_SEQUENCE_SQL = "CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE;
+
+    // The partition key must be part of the primary key, and may not be NULL
+    private static final String CREATE_PARTITIONED_TABLE_SQL =
+        "CREATE TABLE transactions (" +
+        "transaction_id BIGINT NOT NULL DEFAULT nextval('" + SEQUENCE + "'), " +
+        "account_id INTEGER NOT NULL REFERENCES accounts(account_id), " +
+        "transaction_type VARCHAR(20) NOT NULL, " + // 'DEPOSIT', 'WITHDRAWAL', 'TRANSFER_OUT', 'TRANSFER_IN'
+        "amount DECIMAL(15, 2) NOT NULL, " +
+        "transaction_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+        "description TEXT, " +
+        "recipient_account_id INTEGER REFERENCES accounts(account_id), " +
+        "PRIMARY KEY (transaction_id, transaction_date)" +
+        ") PARTITION BY RANGE (transaction_date)";
+
+    // Owned by the column, so pg_get_serial_sequence and TRUNCATE ... RESTART IDENTITY find it
+    private static final String OWN_SEQUENCE_SQL =
+        "ALTER SEQUENCE " + SEQUENCE + " OWNED BY transactions.transaction_id";
+
+    private static final String CREATE_DEFAULT_PARTITION_SQL =
+        "CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF transactions DEFAULT";
+
+    private static final String COLUMNS =
+        "transaction_id, account_id, transaction_type, amount, transaction_date, description, recipient_account_id";
+
+    private TransactionPartitions() {
+    }
+
+    /**
+     * Check whether transactions is a partitioned table
+     *
+     * @param conn Connection to use
+     * @return true if partitioned, false for a plain table
+     * @throws SQLException if the catalog cannot be read
+     */
+    public static boolean isPartitioned(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(IS_PARTITIONED_SQL);
+                ResultSet rs = stmt.executeQuery()) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Get the partition name of a month
+     *
+     * @param month Month
+     * @return Table name, e.g. transactions_y2024m05
+     */
+    public static String partitionName(YearMonth month) {
+        return String.format("transactions_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Get the month a partition holds
+     *
+     * @param name Table name
+     * @return Month, or null if the name is not a month partition
+     */
+    public static YearMonth partitionMonth(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    /**
+     * List the month partitions attached to transactions
+     *
+     * @param conn Connection to use
+     * @return Months in ascending order
+     * @throws SQLException if the catalog cannot be read
+     */
+    public static Set<YearMonth> listPartitions(Connection conn) throws SQLException {
+        Set<YearMonth> months = new TreeSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(LIST_PARTITIONS_SQL);
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                YearMonth month = partitionMonth(rs.getString(1));
+                if (month != null) {
+                    months.add(month);
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Get the months to keep partitions for ahead of the current one
+     *
+     * @return Number of months
+     */
+    public static int getAheadMonths() {
+        return Integer.getInteger(AHEAD_MONTHS_PROPERTY, 3);
+    }
+
+    /**
+     * Create the partitioned transactions table with its default partition
+     * and the partitions from last month to the months ahead, in one
+     * transaction
+     *
+     * @param conn Connection to use, in auto-commit mode
+     * @throws SQLException if the table cannot be created
+     */
+    static void createPartitionedTable(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            for (String sql : new String[]{CREATE_SEQUENCE_SQL, CREATE_PARTITIONED_TABLE_SQL, OWN_SEQUENCE_SQL,
+                    CREATE_DEFAULT_PARTITION_SQL}) {
+                execute(conn, sql);
+            }
+            YearMonth now = YearMonth.now();
+            for (YearMonth month = now.minusMonths(1); !month.isAfter(now.plusMonths(getAheadMonths()));
+                    month = month.plusMonths(1)) {
+                createPartition(conn, month);
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Create the missing month partitions in a range, each in its own
+     * transaction. Rows of those months waiting in the default partition
+     * are moved into them.
+     *
+     * @param conn Connection to use, in auto-commit mode
+     * @param first First month
+     * @param last Last month
+     * @return Number of partitions created
+     * @throws SQLException if a partition cannot be created
+     */
+    public static int ensurePartitions(Connection conn, YearMonth first, YearMonth last) throws SQLException {
+        Set<YearMonth> existing = listPartitions(conn);
+        int created = 0;
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            if (existing.contains(month)) {
+                continue;
+            }
+            conn.setAutoCommit(false);
+            try {
+                createPartition(conn, month);
+                conn.commit();
+                created++;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Convert a plain transactions table into a partitioned one in a single
+     * transaction. The table is locked for the duration, so run it in a
+     * maintenance window.
+     *
+     * @param conn Connection to use, in auto-commit mode
+     * @return Number of rows moved
+     * @throws SQLException if the conversion fails; it is rolled back
+     */
+    public static long migrate(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            execute(conn, "LOCK TABLE transactions IN ACCESS EXCLUSIVE MODE");
+            execute(conn, "ALTER TABLE transactions RENAME TO transactions_unpartitioned");
+            execute(conn, "ALTER INDEX IF EXISTS idx_transactions_account_id "
+                    + "RENAME TO idx_transactions_unpartitioned_account_id");
+            execute(conn, "ALTER INDEX IF EXISTS idx_transactions_recipient_account_id "
+                    + "RENAME TO idx_transactions_unpartitioned_recipient_account_id");
+            execute(conn, "ALTER INDEX IF EXISTS idx_transactions_date "
+                    + "RENAME TO idx_transactions_unpartitioned_date");
+            // Keep the sequence so new IDs continue after the existing ones
+            execute(conn, "ALTER SEQUENCE " + SEQUENCE + " OWNED BY NONE");
+
+            YearMonth first = YearMonth.now().minusMonths(1);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT MIN(transaction_date) FROM transactions_unpartitioned");
+                    ResultSet rs = stmt.executeQuery()) {
+                Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+                if (oldest != null && YearMonth.from(oldest.toLocalDateTime()).isBefore(first)) {
+                    first = YearMonth.from(oldest.toLocalDateTime());
+                }
+            }
+            for (String sql : new String[]{CREATE_SEQUENCE_SQL, CREATE_PARTITIONED_TABLE_SQL, OWN_SEQUENCE_SQL,
+                    CREATE_DEFAULT_PARTITION_SQL, DatabaseUtil.CREATE_TRANSACTIONS_ACCOUNT_INDEX_SQL,
+                    DatabaseUtil.CREATE_TRANSACTIONS_RECIPIENT_INDEX_SQL,
+                    DatabaseUtil.CREATE_TRANSACTIONS_DATE_INDEX_SQL}) {
+                execute(conn, sql);
+            }
+            for (YearMonth month = first; !month.isAfter(YearMonth.now().plusMonths(getAheadMonths()));
+                    month = month.plusMonths(1)) {
+                createPartition(conn, month);
+            }
+
+            long moved;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO transactions (" + COLUMNS + ") SELECT transaction_id, account_id, "
+                    + "transaction_type, amount, COALESCE(transaction_date, LOCALTIMESTAMP), description, "
+                    + "recipient_account_id FROM transactions_unpartitioned")) {
+                moved = stmt.executeUpdate();
+            }
+            execute(conn, "DROP TABLE transactions_unpartitioned");
+            conn.commit();
+            return moved;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Create and attach one month partition, moving that month's rows out of
+     * the default partition. Runs in the caller's transaction.
+     */
+    private static void createPartition(Connection conn, YearMonth month) throws SQLException {
+        String name = partitionName(month);
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        // No new rows for this month may reach the default partition until the new one is attached
+        execute(conn, "LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+        execute(conn, "CREATE TABLE " + name + " (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE transaction_date >= ? "
+                + "AND transaction_date < ? RETURNING " + COLUMNS + ") "
+                + "INSERT INTO " + name + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved")) {
+            stmt.setTimestamp(1, from);
+            stmt.setTimestamp(2, to);
+            stmt.executeUpdate();
+        }
+        // Partition bounds are DDL and take no bind parameters
+        execute(conn, "ALTER TABLE transactions ATTACH PARTITION " + name + " FOR VALUES FROM ('" + from
+                + "') TO ('" + to + "')");
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.execute();
+        }
+    }
+}
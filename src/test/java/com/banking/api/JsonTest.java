@@ -0,0 +1,105 @@
+package com.banking.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for parsing request bodies and escaping strings
+ */
+class JsonTest {
+
+    @Test
+    void parsesFlatObject() throws ApiException {
+        Map<String, String> members = Json.parseObject(
+                " { \"accountId\" : 42, \"amount\": 100.50, \"description\":\"Rent\", "
+                + "\"urgent\": true, \"reference\": null, \"fee\": -1.5e2 } ");
+
+        assertEquals(Arrays.asList("accountId", "amount", "description", "urgent", "reference", "fee"),
+                new ArrayList<>(members.keySet()));
+        assertEquals("42", members.get("accountId"));
+        assertEquals("100.50", members.get("amount"));
+        assertEquals("Rent", members.get("description"));
+        assertEquals("true", members.get("urgent"));
+        assertTrue(members.containsKey("reference"));
+        assertNull(members.get("reference"));
+        assertEquals("-1.5e2", members.get("fee"));
+    }
+
+    @Test
+    void parsesEmptyObject() throws ApiException {
+        assertTrue(Json.parseObject("{}").isEmpty());
+        assertTrue(Json.parseObject(" {\n} ").isEmpty());
+    }
+
+    @Test
+    void decodesEscapes() throws ApiException {
+        Map<String, String> members = Json.parseObject(
+                "{\"text\": \"a\\\"b\\\\c\\/d\\n\\r\\t\\b\\f\\u00e9\\u20AC\"}");
+        assertEquals("a\"b\\c/d\n\r\t\b\f\u00e9\u20ac", members.get("text"));
+    }
+
+    @Test
+    void laterDuplicateMemberWins() throws ApiException {
+        assertEquals("2", Json.parseObject("{\"a\": 1, \"a\": 2}").get("a"));
+    }
+
+    @Test
+    void rejectsMalformedBodies() {
+        String[] bodies = {
+            "",
+            "[]",
+            "{",
+            "{\"a\": 1",
+            "{\"a\" 1}",
+            "{\"a\": 1,}",
+            "{\"a\": 1} x",
+            "{a: 1}",
+            "{\"a\": \"unterminated}",
+            "{\"a\": {\"b\": 1}}",
+            "{\"a\": [1]}",
+            "{\"a\": yes}",
+            "{\"a\": 1.2.3}",
+            "{\"a\": \"\\u12\"}",
+            "{\"a\": \"\\uzzzz\"}"
+        };
+        for (String body : bodies) {
+            ApiException e = assertThrows(ApiException.class, () -> Json.parseObject(body), body);
+            assertEquals(400, e.getStatus(), body);
+            assertTrue(e.getMessage().startsWith("Invalid JSON at position "), e.getMessage());
+        }
+    }
+
+    @Test
+    void reportsPositionOfTheError() {
+        ApiException e = assertThrows(ApiException.class, () -> Json.parseObject("{\"a\": 1} x"));
+        assertEquals("Invalid JSON at position 9: Unexpected content after object", e.getMessage());
+    }
+
+    @Test
+    void escapesStrings() {
+        StringBuilder json = new StringBuilder();
+        Json.appendString(json, "say \"hi\"\\\n\r\t\u0001");
+        assertEquals("\"say \\\"hi\\\"\\\\\\n\\r\\t\\u0001\"", json.toString());
+
+        json.setLength(0);
+        Json.appendString(json, null);
+        assertEquals("null", json.toString());
+    }
+
+    @Test
+    void escapedStringsParseBack() throws ApiException {
+        String original = "line\nbreak \"quoted\" back\\slash \u0002 caf\u00e9";
+        StringBuilder json = new StringBuilder("{\"text\": ");
+        Json.appendString(json, original);
+        json.append('}');
+        assertEquals(original, Json.parseObject(json.toString()).get("text"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.banking.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the SQL and parameters built by KeysetQuery
+ */
+class KeysetQueryTest {
+
+    @Test
+    void noConditionsGiveNoWhereClause() {
+        KeysetQuery query = new KeysetQuery("a.balance", "a.account_id", true);
+        assertEquals("", query.where());
+        assertEquals(" ORDER BY a.balance ASC, a.account_id ASC", query.orderBy());
+    }
+
+    @Test
+    void afterComparesSortValueAndIdAsARow() throws SQLException {
+        KeysetQuery query = new KeysetQuery("a.balance", "a.account_id", true);
+        query.and("a.status = ?", "ACTIVE");
+        query.after(12, 7);
+
+        assertEquals(" WHERE (a.status = ?) AND ((a.balance, a.account_id) > (?, ?))", query.where());
+        assertEquals(Arrays.asList("ACTIVE", 12, 7), bind(query));
+    }
+
+    @Test
+    void descendingCursorComparesBackwards() {
+        KeysetQuery query = new KeysetQuery("t.amount", "t.transaction_id", false);
+        query.after(5, 9L);
+
+        assertEquals(" WHERE ((t.amount, t.transaction_id) < (?, ?))", query.where());
+        assertEquals(" ORDER BY t.amount DESC, t.transaction_id DESC", query.orderBy());
+    }
+
+    @Test
+    void sortingByIdUsesASingleComparison() throws SQLException {
+        KeysetQuery query = new KeysetQuery("c.customer_id", "c.customer_id", true);
+        query.after(3, 3);
+
+        assertEquals(" WHERE (c.customer_id > ?)", query.where());
+        assertEquals(" ORDER BY c.customer_id ASC", query.orderBy());
+        assertEquals(Arrays.asList(3), bind(query));
+    }
+
+    @Test
+    void nullableTextNeverComparesWithNull() throws SQLException {
+        KeysetQuery query = new KeysetQuery(KeysetQuery.nullableText("c.email"), "c.customer_id", true);
+        query.after(KeysetQuery.orEmpty(null), 4);
+
+        assertEquals(" WHERE ((COALESCE(c.email, ''), c.customer_id) > (?, ?))", query.where());
+        assertEquals(" ORDER BY COALESCE(c.email, '') ASC, c.customer_id ASC", query.orderBy());
+        assertEquals(Arrays.asList("", 4), bind(query));
+    }
+
+    @Test
+    void nullableTimestampNeverComparesWithNull() throws SQLException {
+        KeysetQuery query = new KeysetQuery(KeysetQuery.nullableTimestamp("a.date_opened"), "a.account_id", false);
+        query.after(KeysetQuery.orEpoch(null), 8);
+
+        assertEquals(" WHERE ((COALESCE(a.date_opened, TIMESTAMP '1970-01-01 00:00:00'), a.account_id) < (?, ?))",
+                query.where());
+        assertEquals(Arrays.asList(Timestamp.valueOf("1970-01-01 00:00:00"), 8), bind(query));
+    }
+
+    @Test
+    void cursorValuesKeepNonNullValues() {
+        LocalDateTime opened = LocalDateTime.of(2024, 5, 1, 9, 30);
+        assertEquals("a@b.c", KeysetQuery.orEmpty("a@b.c"));
+        assertEquals(Timestamp.valueOf(opened), KeysetQuery.orEpoch(opened));
+    }
+
+    /**
+     * Bind a query to a stand-in statement and return the values in order
+     */
+    private static List<Object> bind(KeysetQuery query) throws SQLException {
+        List<Object> values = new ArrayList<>();
+        PreparedStatement pstmt = (PreparedStatement) Proxy.newProxyInstance(
+                KeysetQueryTest.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if ("setObject".equals(method.getName())) {
+                        assertEquals(values.size() + 1, args[0]);
+                        values.add(args[1]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        int next = query.bind(pstmt);
+        assertEquals(values.size() + 1, next);
+        return values;
+    }
+}
@@ -0,0 +1,83 @@
+package com.banking.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the Zipf index distribution used by the load generator
+ */
+class ZipfSamplerTest {
+
+    private static final int DRAWS = 200_000;
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(10, -0.1));
+    }
+
+    @Test
+    void zeroExponentIsUniform() {
+        ZipfSampler sampler = new ZipfSampler(4, 0);
+        assertEquals(0.25, sampler.getHottestShare(), 1e-12);
+
+        int[] counts = draw(sampler, 4);
+        for (int count : counts) {
+            assertEquals(0.25, (double) count / DRAWS, 0.01);
+        }
+    }
+
+    @Test
+    void hottestShareMatchesTheHarmonicWeight() {
+        // Weights 1, 1/2, 1/3 sum to 11/6
+        ZipfSampler sampler = new ZipfSampler(3, 1.0);
+        assertEquals(6.0 / 11.0, sampler.getHottestShare(), 1e-12);
+    }
+
+    @Test
+    void drawsFollowTheSkew() {
+        ZipfSampler sampler = new ZipfSampler(100, 1.2);
+        int[] counts = draw(sampler, 100);
+
+        assertEquals(sampler.getHottestShare(), (double) counts[0] / DRAWS, 0.01);
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[10] && counts[10] > counts[99]);
+    }
+
+    @Test
+    void singleIndexIsAlwaysDrawn() {
+        ZipfSampler sampler = new ZipfSampler(1, 2.0);
+        assertEquals(1.0, sampler.getHottestShare(), 1e-12);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, sampler.next());
+        }
+        assertThrows(IllegalStateException.class, () -> sampler.nextOtherThan(0));
+    }
+
+    @Test
+    void nextOtherThanAvoidsTheExcludedIndex() {
+        // Almost every draw picks index 0, so the neighbour fallback is exercised
+        ZipfSampler sampler = new ZipfSampler(5, 20.0);
+        for (int i = 0; i < 10_000; i++) {
+            int index = sampler.nextOtherThan(0);
+            assertNotEquals(0, index);
+            assertTrue(index > 0 && index < 5);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertNotEquals(4, sampler.nextOtherThan(4));
+        }
+    }
+
+    private static int[] draw(ZipfSampler sampler, int size) {
+        int[] counts = new int[size];
+        for (int i = 0; i < DRAWS; i++) {
+            int index = sampler.next();
+            assertTrue(index >= 0 && index < size, "index " + index);
+            counts[index]++;
+        }
+        return counts;
+    }
+}
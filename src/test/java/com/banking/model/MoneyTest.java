@@ -0,0 +1,191 @@
+package com.banking.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for Money conversions, arithmetic and formatting
+ */
+class MoneyTest {
+
+    @Test
+    void ofKeepsExactCents() {
+        assertEquals(123450, Money.of(new BigDecimal("1234.5")).getMinorUnits());
+        assertEquals(-1, Money.of(new BigDecimal("-0.01")).getMinorUnits());
+        assertEquals(100, Money.of(new BigDecimal("1.000")).getMinorUnits());
+        assertSame(Money.ZERO, Money.of(new BigDecimal("0.00")));
+    }
+
+    @Test
+    void ofRejectsExtraDecimalsWithoutRoundingMode() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.005")));
+    }
+
+    @Test
+    void ofRoundsWithRoundingMode() {
+        assertEquals(101, Money.of(new BigDecimal("1.005"), RoundingMode.HALF_UP).getMinorUnits());
+        assertEquals(100, Money.of(new BigDecimal("1.005"), RoundingMode.HALF_EVEN).getMinorUnits());
+        assertEquals(-101, Money.of(new BigDecimal("-1.005"), RoundingMode.HALF_UP).getMinorUnits());
+        assertEquals(-100, Money.of(new BigDecimal("-1.009"), RoundingMode.DOWN).getMinorUnits());
+    }
+
+    @Test
+    void ofRejectsAmountsOutsideLong() {
+        assertThrows(ArithmeticException.class,
+                () -> Money.of(new BigDecimal("92233720368547758.08"), RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void toBigDecimalHasTwoDecimals() {
+        BigDecimal value = Money.ofMinor(500).toBigDecimal();
+        assertEquals(2, value.scale());
+        assertEquals("5.00", value.toPlainString());
+        assertEquals("-0.07", Money.ofMinor(-7).toString());
+    }
+
+    @Test
+    void parseMatchesBigDecimal() {
+        String[] texts = {"0", "12", "12.3", "12.34", "-0.5", "+3.10", "1.", ".5", "1.230", "-1234567.89"};
+        for (String text : texts) {
+            assertEquals(Money.of(new BigDecimal(text)), Money.parse(text), text);
+        }
+    }
+
+    @Test
+    void parseRejectsExtraDecimals() {
+        assertThrows(ArithmeticException.class, () -> Money.parse("1.234"));
+        assertEquals(123, Money.parse("1.2300").getMinorUnits());
+    }
+
+    @Test
+    void parseRejectsMalformedText() {
+        String[] texts = {"", "-", "+", "abc", "1.2.3", "1,000", "1e3", " 1"};
+        for (String text : texts) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(text), text);
+        }
+    }
+
+    @Test
+    void parseHandlesLongLimits() {
+        assertEquals(Long.MAX_VALUE, Money.parse("92233720368547758.07").getMinorUnits());
+        assertEquals(Long.MIN_VALUE, Money.parse("-92233720368547758.08").getMinorUnits());
+        assertThrows(ArithmeticException.class, () -> Money.parse("92233720368547758.08"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("-92233720368547758.09"));
+    }
+
+    @Test
+    void plusAndMinusAreExact() {
+        Money a = Money.parse("0.10");
+        Money b = Money.parse("0.20");
+        assertEquals(Money.parse("0.30"), a.plus(b));
+        assertEquals(Money.parse("-0.10"), a.minus(b));
+        assertEquals(Money.parse("-0.10"), a.negate());
+    }
+
+    @Test
+    void plusMinusAndNegateThrowOnOverflow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+        Money min = Money.ofMinor(Long.MIN_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> min.minus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> min.negate());
+    }
+
+    @Test
+    void multiplyRoundsLikeBigDecimal() {
+        long[] amounts = {0, 1, 5, 15, 25, 99, 12345, -1, -5, -15, -25, -99, -12345};
+        BigDecimal[] factors = {
+            new BigDecimal("0.5"), new BigDecimal("0.025"), new BigDecimal("1.5"),
+            new BigDecimal("0.333"), new BigDecimal("-0.5"), new BigDecimal("3")
+        };
+        RoundingMode[] modes = {
+            RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+            RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+        };
+        for (long amount : amounts) {
+            for (BigDecimal factor : factors) {
+                for (RoundingMode mode : modes) {
+                    BigDecimal expected = BigDecimal.valueOf(amount, Money.SCALE).multiply(factor)
+                            .setScale(Money.SCALE, mode);
+                    assertEquals(Money.of(expected), Money.ofMinor(amount).multiply(factor, mode),
+                            amount + " * " + factor + " " + mode);
+                }
+            }
+        }
+    }
+
+    @Test
+    void multiplyDividesNegativeProductsTowardTheRightNeighbour() {
+        // -0.05 * 0.5 = -0.025, halfway between -0.02 and -0.03
+        Money amount = Money.ofMinor(-5);
+        assertEquals(-3, amount.multiply(5, 1, RoundingMode.HALF_UP).getMinorUnits());
+        assertEquals(-2, amount.multiply(5, 1, RoundingMode.HALF_DOWN).getMinorUnits());
+        assertEquals(-2, amount.multiply(5, 1, RoundingMode.HALF_EVEN).getMinorUnits());
+        assertEquals(-3, amount.multiply(5, 1, RoundingMode.FLOOR).getMinorUnits());
+        assertEquals(-2, amount.multiply(5, 1, RoundingMode.CEILING).getMinorUnits());
+        assertEquals(-2, amount.multiply(5, 1, RoundingMode.DOWN).getMinorUnits());
+        assertEquals(-3, amount.multiply(5, 1, RoundingMode.UP).getMinorUnits());
+    }
+
+    @Test
+    void multiplyRejectsUnnecessaryRounding() {
+        assertThrows(ArithmeticException.class,
+                () -> Money.ofMinor(5).multiply(5, 1, RoundingMode.UNNECESSARY));
+        assertEquals(5, Money.ofMinor(10).multiply(5, 1, RoundingMode.UNNECESSARY).getMinorUnits());
+    }
+
+    @Test
+    void multiplyFallsBackWhenTheProductOverflows() {
+        long amount = Long.MAX_VALUE / 4;
+        BigDecimal expected = BigDecimal.valueOf(amount).multiply(new BigDecimal("2.5"))
+                .setScale(0, RoundingMode.HALF_UP);
+        assertEquals(expected.longValueExact(),
+                Money.ofMinor(amount).multiply(25, 1, RoundingMode.HALF_UP).getMinorUnits());
+    }
+
+    @Test
+    void multiplyThrowsWhenTheResultOverflows() {
+        assertThrows(ArithmeticException.class,
+                () -> Money.ofMinor(Long.MAX_VALUE).multiply(2, 0, RoundingMode.HALF_UP));
+        assertThrows(ArithmeticException.class,
+                () -> Money.ofMinor(Long.MAX_VALUE / 2).multiply(new BigDecimal("3"), RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void multiplyRejectsScaleOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Money.ofMinor(1).multiply(1, 19, RoundingMode.HALF_UP));
+        assertThrows(IllegalArgumentException.class,
+                () -> Money.ofMinor(1).multiply(1, -1, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void formatMatchesGroupedDecimalFormat() {
+        long[] amounts = {0, 5, -5, 99, 100, 123456, -100000, 123456789, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long amount : amounts) {
+            String expected = String.format(Locale.US, "%,.2f", BigDecimal.valueOf(amount, Money.SCALE));
+            assertEquals(expected, Money.ofMinor(amount).format());
+        }
+    }
+
+    @Test
+    void comparisons() {
+        Money small = Money.parse("-1.00");
+        Money large = Money.parse("2.00");
+        assertTrue(small.compareTo(large) < 0);
+        assertTrue(small.isLessThan(large));
+        assertTrue(large.isGreaterThan(small));
+        assertTrue(small.isNegative());
+        assertTrue(large.isPositive());
+        assertEquals(Money.parse("2"), large);
+        assertEquals(Money.parse("2").hashCode(), large.hashCode());
+    }
+}
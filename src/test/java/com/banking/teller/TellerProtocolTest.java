@@ -0,0 +1,135 @@
+package com.banking.teller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for encoding teller frames and decoding them on a connection
+ */
+class TellerProtocolTest {
+
+    @Test
+    void bodyLengthsMatchTheFrameLayout() {
+        assertEquals(21, TellerProtocol.requestBodyLength(TellerProtocol.OP_DEPOSIT));
+        assertEquals(21, TellerProtocol.requestBodyLength(TellerProtocol.OP_WITHDRAW));
+        assertEquals(25, TellerProtocol.requestBodyLength(TellerProtocol.OP_TRANSFER));
+        assertEquals(13, TellerProtocol.requestBodyLength(TellerProtocol.OP_BALANCE));
+        assertEquals(-1, TellerProtocol.requestBodyLength((byte) 99));
+        assertEquals(TellerProtocol.MAX_REQUEST_BODY,
+                TellerProtocol.requestBodyLength(TellerProtocol.OP_TRANSFER));
+    }
+
+    @Test
+    void decodesEveryRequestType() throws IOException {
+        TellerConnection conn = connection();
+        TellerProtocol.putPosting(conn.readBuffer, TellerProtocol.OP_DEPOSIT, 1L, 10, 2500L);
+        TellerProtocol.putPosting(conn.readBuffer, TellerProtocol.OP_WITHDRAW, 2L, 11, 99L);
+        TellerProtocol.putTransfer(conn.readBuffer, 3L, 12, 13, Long.MAX_VALUE);
+        TellerProtocol.putBalance(conn.readBuffer, Long.MIN_VALUE, 14);
+
+        assertEquals(4, conn.decode());
+        assertEquals(4, conn.pending.get());
+        assertRequest(conn.requests.poll(), TellerProtocol.OP_DEPOSIT, 1L, 10, 0, 2500L);
+        assertRequest(conn.requests.poll(), TellerProtocol.OP_WITHDRAW, 2L, 11, 0, 99L);
+        assertRequest(conn.requests.poll(), TellerProtocol.OP_TRANSFER, 3L, 12, 13, Long.MAX_VALUE);
+        assertRequest(conn.requests.poll(), TellerProtocol.OP_BALANCE, Long.MIN_VALUE, 14, 0, 0L);
+        assertEquals(0, conn.readBuffer.position());
+    }
+
+    @Test
+    void keepsPartialFramesUntilTheRestArrives() throws IOException {
+        ByteBuffer frames = ByteBuffer.allocate(64);
+        TellerProtocol.putPosting(frames, TellerProtocol.OP_DEPOSIT, 7L, 20, 500L);
+        TellerProtocol.putBalance(frames, 8L, 21);
+        frames.flip();
+
+        // Feed the two frames a few bytes at a time, as TCP may deliver them
+        TellerConnection conn = connection();
+        int decoded = 0;
+        while (frames.hasRemaining()) {
+            int chunk = Math.min(3, frames.remaining());
+            for (int i = 0; i < chunk; i++) {
+                conn.readBuffer.put(frames.get());
+            }
+            decoded += conn.decode();
+        }
+
+        assertEquals(2, decoded);
+        assertRequest(conn.requests.poll(), TellerProtocol.OP_DEPOSIT, 7L, 20, 0, 500L);
+        assertRequest(conn.requests.poll(), TellerProtocol.OP_BALANCE, 8L, 21, 0, 0L);
+        assertEquals(0, conn.readBuffer.position());
+    }
+
+    @Test
+    void waitsForTheLengthPrefix() throws IOException {
+        TellerConnection conn = connection();
+        conn.readBuffer.put((byte) 0).put((byte) 0);
+
+        assertEquals(0, conn.decode());
+        assertEquals(2, conn.readBuffer.position());
+    }
+
+    @Test
+    void rejectsLengthsOutsideTheRequestSizes() {
+        TellerConnection shortFrame = connection();
+        shortFrame.readBuffer.putInt(TellerProtocol.HEADER_BYTES - 1);
+        assertThrows(IOException.class, shortFrame::decode);
+
+        TellerConnection longFrame = connection();
+        longFrame.readBuffer.putInt(TellerProtocol.MAX_REQUEST_BODY + 1);
+        assertThrows(IOException.class, longFrame::decode);
+
+        TellerConnection negative = connection();
+        negative.readBuffer.putInt(-1);
+        assertThrows(IOException.class, negative::decode);
+    }
+
+    @Test
+    void rejectsLengthThatDoesNotMatchTheOpcode() {
+        TellerConnection conn = connection();
+        conn.readBuffer.putInt(TellerProtocol.requestBodyLength(TellerProtocol.OP_BALANCE))
+                .put(TellerProtocol.OP_DEPOSIT).putLong(1L).putInt(10);
+        assertThrows(IOException.class, conn::decode);
+    }
+
+    @Test
+    void rejectsUnknownOpcode() {
+        TellerConnection conn = connection();
+        conn.readBuffer.putInt(TellerProtocol.HEADER_BYTES + 4).put((byte) 99).putLong(1L).putInt(10);
+        assertThrows(IOException.class, conn::decode);
+    }
+
+    @Test
+    void encodesResponses() {
+        ByteBuffer out = ByteBuffer.allocate(TellerProtocol.RESPONSE_FRAME_BYTES);
+        TellerProtocol.putResponse(out, TellerProtocol.STATUS_INSUFFICIENT_FUNDS, 5L, 0L, -150L);
+
+        assertEquals(TellerProtocol.RESPONSE_FRAME_BYTES, out.position());
+        out.flip();
+        assertEquals(TellerProtocol.RESPONSE_FRAME_BYTES - TellerProtocol.LENGTH_BYTES, out.getInt());
+        assertEquals(TellerProtocol.STATUS_INSUFFICIENT_FUNDS, out.get());
+        assertEquals(5L, out.getLong());
+        assertEquals(0L, out.getLong());
+        assertEquals(-150L, out.getLong());
+        assertEquals("INSUFFICIENT_FUNDS", TellerProtocol.statusName(TellerProtocol.STATUS_INSUFFICIENT_FUNDS));
+        assertEquals("UNKNOWN(42)", TellerProtocol.statusName((byte) 42));
+    }
+
+    private static TellerConnection connection() {
+        return new TellerConnection(null, null, ByteBuffer.allocate(256));
+    }
+
+    private static void assertRequest(TellerConnection.Request request, byte opcode, long requestId,
+            int accountId, int toAccountId, long cents) {
+        assertEquals(opcode, request.opcode);
+        assertEquals(requestId, request.requestId);
+        assertEquals(accountId, request.accountId);
+        assertEquals(toAccountId, request.toAccountId);
+        assertEquals(cents, request.cents);
+    }
+}